@@ -0,0 +1,107 @@
+package com.cpalacios.tenpo.app.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché de respuestas de consulta ya serializadas a JSON.
+ *
+ * <p>
+ * Cada entrada se identifica por endpoint, filtro y
+ * {@link VersionTransacciones versión de los datos}, por lo que un cambio
+ * confirmado no requiere invalidar nada: las consultas posteriores usan otra
+ * versión y las entradas anteriores dejan de leerse hasta ser desalojadas.
+ * Guardar los bytes evita repetir tanto la consulta como la serialización.
+ * </p>
+ *
+ * <p>
+ * Las consultas que llenan la caché leen del primario: la versión avanza al
+ * confirmar en el primario, y una réplica con retraso dejaría guardada bajo la
+ * versión nueva una respuesta anterior al cambio, que se entregaría (y se
+ * confirmaría con 304) a todos los clientes hasta el siguiente cambio.
+ * </p>
+ *
+ * <p>
+ * El tamaño se acota por la suma de bytes de las respuestas
+ * ({@code transacciones.cache.tamano-maximo}) y no por cantidad de entradas,
+ * ya que un listado completo puede pesar miles de veces lo que pesa una
+ * búsqueda.
+ * </p>
+ */
+@Component
+public class CacheRespuestas implements MeterBinder {
+
+    /**
+     * Bytes estimados de cada entrada además del JSON y el filtro.
+     */
+    private static final int SOBRECARGA_ENTRADA = 96;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Clave, byte[]> respuestas;
+
+    public CacheRespuestas(ObjectMapper objectMapper,
+            @Value("${transacciones.cache.tamano-maximo:64MB}") DataSize tamanoMaximo) {
+        this.objectMapper = objectMapper;
+        this.respuestas = Caffeine.newBuilder()
+                .maximumWeight(tamanoMaximo.toBytes())
+                .weigher((Clave clave, byte[] json) -> SOBRECARGA_ENTRADA + 2 * clave.filtro().length() + json.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna la respuesta en caché o la obtiene, serializa y guarda.
+     *
+     * <p>
+     * Dos solicitudes simultáneas sin entrada en caché ejecutan cada una la
+     * consulta; la segunda en terminar reemplaza la entrada con un contenido
+     * equivalente. La consulta se ejecuta en el primario.
+     * </p>
+     *
+     * @param endpoint nombre del endpoint
+     * @param filtro   filtro normalizado, o cadena vacía si no aplica
+     * @param version  versión de los datos leída antes de consultar
+     * @param consulta consulta a ejecutar si la respuesta no está en caché
+     * @return respuesta serializada como JSON
+     * @throws JsonProcessingException si el resultado no se puede serializar
+     */
+    public byte[] obtener(String endpoint, String filtro, long version, Supplier<?> consulta)
+            throws JsonProcessingException {
+        Clave clave = new Clave(endpoint, filtro, version);
+        byte[] json = respuestas.getIfPresent(clave);
+        if (json == null) {
+            json = objectMapper.writeValueAsBytes(ContextoReplica.enPrimario(consulta));
+            respuestas.put(clave, json);
+        }
+        return json;
+    }
+
+    /**
+     * @return bytes estimados de las respuestas en caché
+     */
+    long tamanoEstimado() {
+        respuestas.cleanUp();
+        return respuestas.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, respuestas, "transacciones.respuestas");
+    }
+
+    private record Clave(String endpoint, String filtro, long version) {
+    }
+}
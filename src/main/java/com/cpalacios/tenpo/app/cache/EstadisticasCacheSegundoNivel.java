@@ -0,0 +1,98 @@
+package com.cpalacios.tenpo.app.cache;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Publica los aciertos y fallos de las regiones de la caché de segundo nivel
+ * de Hibernate, leídos de sus {@link Statistics}.
+ *
+ * <p>
+ * Cada región publica {@code cache.segundo.nivel.aciertos},
+ * {@code .fallos}, {@code .escrituras} y {@code .tasa.aciertos} con el tag
+ * {@code region}. Requiere {@code hibernate.generate_statistics=true}; sin
+ * estadísticas los valores quedan en cero.
+ * </p>
+ */
+public class EstadisticasCacheSegundoNivel implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<String> regiones;
+
+    /**
+     * @param entityManagerFactory fábrica cuyas estadísticas se publican
+     * @param regiones             nombres de las regiones a publicar
+     */
+    public EstadisticasCacheSegundoNivel(EntityManagerFactory entityManagerFactory, String... regiones) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.regiones = List.of(regiones);
+    }
+
+    /**
+     * @param region nombre de la región
+     * @return lecturas de la región resueltas desde la caché
+     */
+    public long aciertos(String region) {
+        return leer(region, CacheRegionStatistics::getHitCount);
+    }
+
+    /**
+     * @param region nombre de la región
+     * @return lecturas de la región que debieron ir a la base de datos
+     */
+    public long fallos(String region) {
+        return leer(region, CacheRegionStatistics::getMissCount);
+    }
+
+    /**
+     * Fracción de las lecturas de la región resueltas desde la caché.
+     *
+     * @param region nombre de la región
+     * @return valor entre 0 y 1
+     */
+    public double tasaAciertos(String region) {
+        long aciertos = aciertos(region);
+        long total = aciertos + fallos(region);
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    private long leer(String region, ToLongFunction<CacheRegionStatistics> valor) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics estadisticas = statistics.getDomainDataRegionStatistics(region);
+        return estadisticas == null ? 0 : valor.applyAsLong(estadisticas);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : regiones) {
+            FunctionCounter.builder("cache.segundo.nivel.aciertos", this, e -> e.aciertos(region))
+                    .description("Lecturas resueltas desde la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("cache.segundo.nivel.fallos", this, e -> e.fallos(region))
+                    .description("Lecturas que no encontraron la entrada en la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("cache.segundo.nivel.escrituras", this,
+                    e -> e.leer(region, CacheRegionStatistics::getPutCount))
+                    .description("Entradas agregadas a la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+            Gauge.builder("cache.segundo.nivel.tasa.aciertos", this, e -> e.tasaAciertos(region))
+                    .description("Fracción de las lecturas resueltas desde la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+}
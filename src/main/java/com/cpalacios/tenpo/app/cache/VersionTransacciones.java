@@ -0,0 +1,94 @@
+package com.cpalacios.tenpo.app.cache;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.cpalacios.tenpo.app.persistence.projection.EstadoLogCambios;
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+
+/**
+ * Versión de los datos de transacciones, que cambia con cada alta,
+ * actualización o eliminación confirmada.
+ *
+ * <p>
+ * Se incrementa después del commit al recibir el {@link TransaccionEventoDTO}
+ * que publican los servicios de escritura. Los cambios hechos por otras
+ * instancias se detectan revisando periódicamente la cantidad de filas y la
+ * última versión del log {@code transacciones_cambios} (ver
+ * {@link EstadoLogCambios}), por lo que pueden tardar hasta
+ * {@code transacciones.cache.sincronizacion-ms} en reflejarse. Esa revisión
+ * también vuelve a cambiar la versión después de cada cambio local, lo que
+ * descarta las respuestas leídas de una réplica que aún no lo tenía.
+ * </p>
+ *
+ * <p>
+ * El valor es propio de cada instancia: el ETag incluye un identificador de
+ * la instancia para que un cliente atendido por otra (o por esta después de
+ * reiniciar) nunca reciba un 304 por coincidencia de números.
+ * </p>
+ */
+@Component
+public class VersionTransacciones {
+
+    private final TransaccionCambioRepository cambioRepository;
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Último estado del log de cambios observado.
+     */
+    private EstadoLogCambios estadoLog;
+
+    public VersionTransacciones(TransaccionCambioRepository cambioRepository) {
+        this.cambioRepository = cambioRepository;
+    }
+
+    /**
+     * @return versión actual de los datos
+     */
+    public long actual() {
+        return version.get();
+    }
+
+    /**
+     * ETag fuerte de las respuestas generadas con la versión indicada.
+     *
+     * @param version versión de los datos de la respuesta
+     * @return ETag entre comillas
+     */
+    public String etag(long version) {
+        return "\"" + instancia + "-" + version + "\"";
+    }
+
+    /**
+     * Registra un cambio confirmado.
+     *
+     * @param evento cambio sobre una transacción
+     */
+    @TransactionalEventListener
+    public void alConfirmar(TransaccionEventoDTO evento) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Incrementa la versión si el log de cambios cambió desde la revisión
+     * anterior, lo que incluye los cambios de otras instancias y los
+     * confirmados con una versión menor a la máxima ya observada.
+     */
+    @Scheduled(fixedDelayString = "${transacciones.cache.sincronizacion-ms:5000}")
+    public synchronized void sincronizar() {
+        // Del primario: cada réplica, con su propio retraso, daría otro estado
+        EstadoLogCambios estado = ContextoReplica.enPrimario(cambioRepository::buscarEstado);
+        if (!Objects.equals(estado, estadoLog)) {
+            estadoLog = estado;
+            version.incrementAndGet();
+        }
+    }
+}
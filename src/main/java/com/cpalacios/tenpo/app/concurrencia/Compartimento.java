@@ -0,0 +1,111 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compartimento estanco (bulkhead): limita las solicitudes de un tipo que se
+ * ejecutan a la vez y las que esperan turno, para que una ráfaga de ese tipo
+ * no ocupe los hilos y conexiones que necesitan los demás.
+ *
+ * <p>
+ * Hasta {@code maximoConcurrentes} solicitudes se ejecutan a la vez; las
+ * siguientes esperan en orden de llegada, como máximo {@code maximoCola} y
+ * durante {@code esperaMaxima}. Las que no caben en la cola o no obtienen
+ * turno a tiempo se rechazan.
+ * </p>
+ */
+public class Compartimento {
+
+    private final int maximoConcurrentes;
+    private final int maximoCola;
+    private final long esperaMaximaNanos;
+
+    /** Turnos de ejecución, entregados en orden de llegada */
+    private final Semaphore turnos;
+
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final LongAdder rechazadasColaLlena = new LongAdder();
+    private final LongAdder rechazadasEspera = new LongAdder();
+
+    /**
+     * @param maximoConcurrentes solicitudes que se ejecutan a la vez
+     * @param maximoCola         solicitudes que esperan turno como máximo
+     * @param esperaMaxima       tiempo máximo de espera de un turno
+     */
+    public Compartimento(int maximoConcurrentes, int maximoCola, Duration esperaMaxima) {
+        if (maximoConcurrentes < 1 || maximoCola < 0) {
+            throw new IllegalArgumentException("Se requiere maximoConcurrentes >= 1 y maximoCola >= 0");
+        }
+        this.maximoConcurrentes = maximoConcurrentes;
+        this.maximoCola = maximoCola;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.turnos = new Semaphore(maximoConcurrentes, true);
+    }
+
+    /**
+     * Obtiene un turno de ejecución, esperando en la cola si no hay uno libre.
+     *
+     * @return {@code true} si se obtuvo el turno; en ese caso debe llamarse a
+     *         {@link #salir()} al terminar
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public boolean entrar() throws InterruptedException {
+        // tryAcquire con tiempo respeta el orden de llegada, a diferencia del sin argumentos
+        if (turnos.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        if (enCola.incrementAndGet() > maximoCola) {
+            enCola.decrementAndGet();
+            rechazadasColaLlena.increment();
+            return false;
+        }
+        try {
+            if (turnos.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            rechazadasEspera.increment();
+            return false;
+        } finally {
+            enCola.decrementAndGet();
+        }
+    }
+
+    /**
+     * Devuelve el turno obtenido con {@link #entrar()}.
+     */
+    public void salir() {
+        turnos.release();
+    }
+
+    /**
+     * Solicitudes en ejecución.
+     */
+    public int getEnCurso() {
+        return maximoConcurrentes - turnos.availablePermits();
+    }
+
+    /**
+     * Solicitudes esperando turno.
+     */
+    public int getEnCola() {
+        return enCola.get();
+    }
+
+    /**
+     * Solicitudes rechazadas porque la cola estaba llena.
+     */
+    public long cantidadRechazadasColaLlena() {
+        return rechazadasColaLlena.sum();
+    }
+
+    /**
+     * Solicitudes rechazadas porque no obtuvieron turno a tiempo.
+     */
+    public long cantidadRechazadasEspera() {
+        return rechazadasEspera.sum();
+    }
+}
@@ -0,0 +1,149 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Agrupa ejecuciones simultáneas con la misma clave (single-flight): la
+ * primera solicitud ejecuta la operación y las que llegan mientras está en
+ * curso esperan y reciben el mismo resultado, en lugar de repetirla.
+ *
+ * <p>
+ * Si la operación lanza una excepción, la reciben la solicitud que la ejecutó
+ * y todas las que esperaban. Cada solicitud en espera tiene su propio tiempo
+ * máximo; al vencer recibe {@link TimeoutException} sin afectar a las demás
+ * ni a la ejecución en curso. Una solicitud que llega después de terminada la
+ * ejecución inicia otra: no se guardan resultados.
+ * </p>
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del resultado
+ */
+public class EjecucionCompartida<K, V> implements MeterBinder {
+
+    private final String nombre;
+    private final long esperaMaximaNanos;
+    private final ConcurrentMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final LongAdder ejecuciones = new LongAdder();
+    private final LongAdder compartidas = new LongAdder();
+    private final LongAdder esperasVencidas = new LongAdder();
+
+    /**
+     * @param nombre       prefijo de las métricas
+     * @param esperaMaxima tiempo máximo que una solicitud espera el resultado
+     *                     de otra
+     */
+    public EjecucionCompartida(String nombre, Duration esperaMaxima) {
+        this.nombre = nombre;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    /**
+     * Ejecuta la operación, o espera el resultado de la que ya está en curso
+     * con la misma clave.
+     *
+     * @param clave     clave de la operación
+     * @param operacion operación a ejecutar si no hay una en curso
+     * @return resultado de la operación
+     * @throws TimeoutException     si la operación en curso no termina dentro
+     *                              de la espera máxima
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public V ejecutar(K clave, Supplier<V> operacion) throws TimeoutException, InterruptedException {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            compartidas.increment();
+            return esperar(existente);
+        }
+
+        ejecuciones.increment();
+        try {
+            V resultado = operacion.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    private V esperar(CompletableFuture<V> ejecucion) throws TimeoutException, InterruptedException {
+        try {
+            return ejecucion.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            esperasVencidas.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return operaciones ejecutadas
+     */
+    public long cantidadEjecuciones() {
+        return ejecuciones.sum();
+    }
+
+    /**
+     * @return solicitudes que recibieron el resultado de otra ejecución
+     */
+    public long cantidadCompartidas() {
+        return compartidas.sum();
+    }
+
+    /**
+     * @return solicitudes que dejaron de esperar por la espera máxima
+     */
+    public long cantidadEsperasVencidas() {
+        return esperasVencidas.sum();
+    }
+
+    /**
+     * Fracción de las solicitudes atendidas con el resultado de otra.
+     *
+     * @return valor entre 0 y 1
+     */
+    public double tasaCompartidas() {
+        long compartidasActual = compartidas.sum();
+        long total = ejecuciones.sum() + compartidasActual;
+        return total == 0 ? 0 : (double) compartidasActual / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(nombre + ".ejecuciones", this, EjecucionCompartida::cantidadEjecuciones)
+                .description("Operaciones ejecutadas")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".compartidas", this, EjecucionCompartida::cantidadCompartidas)
+                .description("Solicitudes atendidas con el resultado de una ejecución en curso")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".esperas.vencidas", this, EjecucionCompartida::cantidadEsperasVencidas)
+                .description("Solicitudes que superaron la espera máxima de una ejecución en curso")
+                .register(registry);
+        Gauge.builder(nombre + ".tasa.compartidas", this, EjecucionCompartida::tasaCompartidas)
+                .description("Fracción de las solicitudes atendidas con el resultado de otra")
+                .register(registry);
+    }
+}
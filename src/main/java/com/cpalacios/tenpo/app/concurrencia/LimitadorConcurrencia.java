@@ -0,0 +1,168 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite adaptativo de solicitudes concurrentes, ajustado según la latencia
+ * observada (algoritmo de gradiente).
+ *
+ * <p>
+ * Mientras la latencia se mantiene cerca de la mínima observada, el límite
+ * crece; cuando la latencia sube porque las solicitudes empiezan a esperar
+ * (por ejemplo, por una conexión del pool de la base de datos), el límite se
+ * reduce en proporción. Con cada muestra se calcula:
+ * </p>
+ *
+ * <pre>
+ * gradiente = clamp(tolerancia * rttMinimo / rtt, 0.5, 1)
+ * nuevo     = limite * gradiente + sqrt(limite)
+ * limite    = limite * (1 - SUAVIZADO) + nuevo * SUAVIZADO
+ * </pre>
+ *
+ * <p>
+ * El término {@code sqrt(limite)} es la cola admitida: sin él, el límite
+ * solo podría bajar. El límite no crece si menos de la mitad está en uso,
+ * para que un período de poca carga no lo infle. Como la latencia mínima
+ * puede cambiar (otra consulta, otro hardware), cada {@code reinicioRtt} se
+ * descarta y el límite se reduce a la mitad para volver a medirla con poca
+ * concurrencia.
+ * </p>
+ *
+ * <p>
+ * {@link #adquirir()} y {@link #liberar()} no bloquean; el ajuste del límite
+ * se sincroniza, pero solo dura unas pocas operaciones aritméticas.
+ * </p>
+ */
+public class LimitadorConcurrencia {
+
+    /**
+     * Peso de cada muestra en el límite.
+     */
+    private static final double SUAVIZADO = 0.2;
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final long reinicioRttNanos;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final LongAdder rechazadas = new LongAdder();
+
+    /** Límite vigente, leído sin sincronización */
+    private volatile int limite;
+
+    /** Límite con decimales; solo se modifica sincronizado */
+    private double estimado;
+
+    private long rttMinimoNanos = Long.MAX_VALUE;
+    private long reinicioNanos;
+
+    /**
+     * @param inicial     límite inicial
+     * @param minimo      límite mínimo
+     * @param maximo      límite máximo
+     * @param tolerancia  aumento de latencia sobre la mínima que se tolera sin
+     *                    reducir el límite; mayor o igual a 1
+     * @param reinicioRtt cada cuánto se vuelve a medir la latencia mínima
+     */
+    public LimitadorConcurrencia(int inicial, int minimo, int maximo, double tolerancia, Duration reinicioRtt) {
+        if (minimo < 1 || maximo < minimo || inicial < minimo || inicial > maximo) {
+            throw new IllegalArgumentException("Se requiere 1 <= minimo <= inicial <= maximo");
+        }
+        if (tolerancia < 1) {
+            throw new IllegalArgumentException("La tolerancia debe ser mayor o igual a 1");
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.reinicioRttNanos = reinicioRtt.toNanos();
+        this.estimado = inicial;
+        this.limite = inicial;
+    }
+
+    /**
+     * Reserva un lugar para una solicitud.
+     *
+     * @return {@code true} si se admite; en ese caso debe llamarse a
+     *         {@link #liberar(long, long)} o {@link #liberar()} al terminar
+     */
+    public boolean adquirir() {
+        while (true) {
+            int actuales = enCurso.get();
+            if (actuales >= limite) {
+                rechazadas.increment();
+                return false;
+            }
+            if (enCurso.compareAndSet(actuales, actuales + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar de una solicitud terminada y ajusta el límite con su
+     * latencia.
+     *
+     * @param rttNanos   latencia de la solicitud
+     * @param ahoraNanos instante actual, como {@link System#nanoTime()}
+     */
+    public void liberar(long rttNanos, long ahoraNanos) {
+        int actuales = enCurso.getAndDecrement();
+        registrar(Math.max(rttNanos, 1), actuales, ahoraNanos);
+    }
+
+    /**
+     * Libera el lugar de una solicitud sin usar su latencia, por ejemplo si
+     * continúa de forma asíncrona.
+     */
+    public void liberar() {
+        enCurso.decrementAndGet();
+    }
+
+    private synchronized void registrar(long rttNanos, int actuales, long ahoraNanos) {
+        if (rttMinimoNanos == Long.MAX_VALUE) {
+            reinicioNanos = ahoraNanos;
+        } else if (ahoraNanos - reinicioNanos > reinicioRttNanos) {
+            rttMinimoNanos = Long.MAX_VALUE;
+            reinicioNanos = ahoraNanos;
+            actualizar(estimado / 2);
+            return;
+        }
+        rttMinimoNanos = Math.min(rttMinimoNanos, rttNanos);
+
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * rttMinimoNanos / rttNanos));
+        if (gradiente == 1.0 && actuales * 2 < estimado) {
+            return;
+        }
+        double nuevo = estimado * gradiente + Math.sqrt(estimado);
+        actualizar(estimado * (1 - SUAVIZADO) + nuevo * SUAVIZADO);
+    }
+
+    private void actualizar(double nuevo) {
+        estimado = Math.max(minimo, Math.min(maximo, nuevo));
+        limite = (int) estimado;
+    }
+
+    /**
+     * Límite vigente.
+     */
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * Solicitudes en curso.
+     */
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    /**
+     * Solicitudes rechazadas por alcanzar el límite.
+     */
+    public long cantidadRechazadas() {
+        return rechazadas.sum();
+    }
+}
@@ -0,0 +1,29 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.cpalacios.tenpo.app.concurrencia.EjecucionCompartida;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+
+/**
+ * Configuración de la búsqueda de transacciones por filtro.
+ */
+@Configuration
+public class BusquedaConfig {
+
+    /**
+     * Búsquedas en curso, compartidas entre solicitudes simultáneas con el
+     * mismo filtro. Sus métricas se publican en
+     * {@code transacciones.busqueda.*}.
+     */
+    @Bean
+    public EjecucionCompartida<String, List<TransaccionResumen>> busquedasCompartidas(
+            @Value("${transacciones.busqueda.espera-compartida:PT10S}") Duration esperaCompartida) {
+        return new EjecucionCompartida<>("transacciones.busqueda", esperaCompartida);
+    }
+}
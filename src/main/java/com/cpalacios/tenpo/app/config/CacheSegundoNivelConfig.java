@@ -0,0 +1,85 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.cpalacios.tenpo.app.cache.EstadisticasCacheSegundoNivel;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caché de segundo nivel de Hibernate para los clientes, en memoria de cada
+ * instancia (JCache sobre Caffeine).
+ *
+ * <p>
+ * Guarda las entidades {@link ClienteEntity} por identificador en la región
+ * {@value ClienteEntity#REGION_CACHE} y la resolución de nombre normalizado a
+ * identificador en {@value ClienteEntity#REGION_CACHE_ID_NATURAL}. Ambas
+ * regiones se acotan por cantidad de entradas y vencen tras
+ * {@code transacciones.clientes.segundo-nivel.ttl}, que limita cuánto tarda
+ * una instancia en ver un cliente eliminado desde otra. Cada fábrica de
+ * sesiones recibe su propio {@link CacheManager}, por lo que dos contextos en
+ * la misma JVM no comparten entradas. Se deshabilita con
+ * {@code transacciones.clientes.segundo-nivel.habilitada=false}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "transacciones.clientes.segundo-nivel.habilitada", havingValue = "true",
+        matchIfMissing = true)
+public class CacheSegundoNivelConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(
+            @Value("${transacciones.clientes.segundo-nivel.tamano:10000}") long tamano,
+            @Value("${transacciones.clientes.segundo-nivel.ttl:PT10M}") Duration ttl) {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propiedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propiedades.put(ConfigSettings.CACHE_MANAGER, crearCacheManager(tamano, ttl));
+            propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Los aciertos por región se publican en cache.segundo.nivel.*
+            propiedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+            propiedades.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    @Bean
+    public EstadisticasCacheSegundoNivel estadisticasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        return new EstadisticasCacheSegundoNivel(entityManagerFactory,
+                ClienteEntity.REGION_CACHE, ClienteEntity.REGION_CACHE_ID_NATURAL);
+    }
+
+    /**
+     * Crea las regiones de los clientes en un {@link CacheManager} propio;
+     * Hibernate lo cierra al cerrar la fábrica de sesiones.
+     */
+    static CacheManager crearCacheManager(long tamano, Duration ttl) {
+        CaffeineCachingProvider proveedor = (CaffeineCachingProvider) Caching.getCachingProvider(
+                CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = proveedor.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), proveedor.getDefaultClassLoader());
+        for (String region : new String[] { ClienteEntity.REGION_CACHE, ClienteEntity.REGION_CACHE_ID_NATURAL }) {
+            CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+            configuracion.setMaximumSize(OptionalLong.of(tamano));
+            configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(region, configuracion);
+        }
+        return cacheManager;
+    }
+}
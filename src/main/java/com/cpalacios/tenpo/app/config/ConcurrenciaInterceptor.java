@@ -0,0 +1,200 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.io.IOException;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.cpalacios.tenpo.app.concurrencia.Compartimento;
+import com.cpalacios.tenpo.app.concurrencia.LimitadorConcurrencia;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Interceptor que limita las solicitudes concurrentes de toda la instancia
+ * con un {@link LimitadorConcurrencia} adaptativo, para rechazar carga antes
+ * de que se agote el pool de conexiones y suba la latencia de todos los
+ * endpoints.
+ *
+ * <p>
+ * Complementa a {@link RateLimitingInterceptor}, que limita a cada cliente
+ * por separado: aquí el límite es global y se ajusta según la latencia
+ * observada. Las lecturas (GET y HEAD, como las de
+ * {@code TransaccionQueryController}) y las escrituras (creación,
+ * actualización y eliminación) tienen límites separados, para que una
+ * sobrecarga de consultas no bloquee las escrituras ni al revés. Al alcanzar
+ * el límite se devuelve HTTP 503 (Service Unavailable) con el header
+ * {@code Retry-After}.
+ * </p>
+ *
+ * <p>
+ * Además, cada tipo de solicitud se ejecuta en su propio {@link Compartimento}
+ * con un máximo fijo de solicitudes en curso y una cola acotada, para que una
+ * ráfaga de búsquedas (incluidas las excluidas del límite por cliente) no
+ * ocupe los hilos de Tomcat que necesitan las escrituras. La solicitud que no
+ * obtiene turno a tiempo también recibe 503.
+ * </p>
+ *
+ * <p>
+ * Las solicitudes que continúan de forma asíncrona (SSE, exportación,
+ * creación asíncrona) liberan su lugar al terminar el hilo del servlet, sin
+ * aportar su latencia al ajuste del límite.
+ * </p>
+ */
+@Component
+public class ConcurrenciaInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    /** Atributo de la solicitud con el presupuesto que la admitió */
+    private static final String ATRIBUTO_PRESUPUESTO = ConcurrenciaInterceptor.class.getName() + ".presupuesto";
+
+    /** Atributo de la solicitud con su instante de inicio */
+    private static final String ATRIBUTO_INICIO = ConcurrenciaInterceptor.class.getName() + ".inicio";
+
+    private final boolean habilitado;
+    private final String retryAfter;
+    private final Presupuesto lectura;
+    private final Presupuesto escritura;
+
+    public ConcurrenciaInterceptor(ConcurrenciaProperties properties) {
+        this.habilitado = properties.isHabilitado();
+        this.retryAfter = Long.toString(Math.max(1, properties.getRetryAfter().toSeconds()));
+        this.lectura = new Presupuesto("lectura", properties.getLectura().crearLimitador(properties),
+                properties.getLectura().crearCompartimento());
+        this.escritura = new Presupuesto("escritura", properties.getEscritura().crearLimitador(properties),
+                properties.getEscritura().crearCompartimento());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // El despacho asíncrono continúa una solicitud que ya pasó por aquí
+        if (!habilitado || request.getDispatcherType() == DispatcherType.ASYNC
+                || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+
+        Presupuesto presupuesto = presupuesto(request.getMethod());
+        long inicio = System.nanoTime();
+        if (!presupuesto.limitador().adquirir()) {
+            return rechazar(response);
+        }
+        boolean enCompartimento;
+        try {
+            enCompartimento = presupuesto.compartimento().entrar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enCompartimento = false;
+        }
+        if (!enCompartimento) {
+            presupuesto.limitador().liberar();
+            return rechazar(response);
+        }
+        request.setAttribute(ATRIBUTO_PRESUPUESTO, presupuesto);
+        request.setAttribute(ATRIBUTO_INICIO, inicio);
+        return true;
+    }
+
+    private boolean rechazar(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getWriter().write("El servicio está sobrecargado, reintente más tarde");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            @Nullable Exception ex) {
+        if (request.getAttribute(ATRIBUTO_PRESUPUESTO) instanceof Presupuesto presupuesto) {
+            request.removeAttribute(ATRIBUTO_PRESUPUESTO);
+            presupuesto.compartimento().salir();
+            long ahora = System.nanoTime();
+            presupuesto.limitador().liberar(ahora - (Long) request.getAttribute(ATRIBUTO_INICIO), ahora);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        if (request.getAttribute(ATRIBUTO_PRESUPUESTO) instanceof Presupuesto presupuesto) {
+            request.removeAttribute(ATRIBUTO_PRESUPUESTO);
+            presupuesto.compartimento().salir();
+            presupuesto.limitador().liberar();
+        }
+    }
+
+    private Presupuesto presupuesto(String metodo) {
+        return "GET".equals(metodo) || "HEAD".equals(metodo) ? lectura : escritura;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registrarMetricas(registry, lectura);
+        registrarMetricas(registry, escritura);
+    }
+
+    private static void registrarMetricas(MeterRegistry registry, Presupuesto presupuesto) {
+        registrarMetricas(registry, presupuesto.nombre(), presupuesto.limitador());
+        registrarMetricas(registry, presupuesto.nombre(), presupuesto.compartimento());
+    }
+
+    private static void registrarMetricas(MeterRegistry registry, String presupuesto,
+            LimitadorConcurrencia limitador) {
+        Gauge.builder("concurrencia.limite", limitador, LimitadorConcurrencia::getLimite)
+                .description("Límite adaptativo de solicitudes concurrentes")
+                .tag("presupuesto", presupuesto)
+                .register(registry);
+        Gauge.builder("concurrencia.en.curso", limitador, LimitadorConcurrencia::getEnCurso)
+                .description("Solicitudes en curso")
+                .tag("presupuesto", presupuesto)
+                .register(registry);
+        FunctionCounter.builder("concurrencia.rechazadas", limitador, LimitadorConcurrencia::cantidadRechazadas)
+                .description("Solicitudes rechazadas con 503 por alcanzar el límite de concurrencia")
+                .tag("presupuesto", presupuesto)
+                .register(registry);
+    }
+
+    private static void registrarMetricas(MeterRegistry registry, String presupuesto,
+            Compartimento compartimento) {
+        Gauge.builder("compartimento.en.curso", compartimento, Compartimento::getEnCurso)
+                .description("Solicitudes en ejecución en el compartimento")
+                .tag("compartimento", presupuesto)
+                .register(registry);
+        Gauge.builder("compartimento.cola", compartimento, Compartimento::getEnCola)
+                .description("Solicitudes esperando turno en el compartimento")
+                .tag("compartimento", presupuesto)
+                .register(registry);
+        FunctionCounter.builder("compartimento.rechazadas", compartimento,
+                        Compartimento::cantidadRechazadasColaLlena)
+                .description("Solicitudes rechazadas por el compartimento por causa")
+                .tag("compartimento", presupuesto)
+                .tag("causa", "cola-llena")
+                .register(registry);
+        FunctionCounter.builder("compartimento.rechazadas", compartimento, Compartimento::cantidadRechazadasEspera)
+                .description("Solicitudes rechazadas por el compartimento por causa")
+                .tag("compartimento", presupuesto)
+                .tag("causa", "espera")
+                .register(registry);
+    }
+
+    Presupuesto getLectura() {
+        return lectura;
+    }
+
+    Presupuesto getEscritura() {
+        return escritura;
+    }
+
+    /**
+     * Límite adaptativo y compartimento de un tipo de solicitud.
+     */
+    record Presupuesto(String nombre, LimitadorConcurrencia limitador, Compartimento compartimento) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.cpalacios.tenpo.app.concurrencia.Compartimento;
+import com.cpalacios.tenpo.app.concurrencia.LimitadorConcurrencia;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuración del límite adaptativo de solicitudes concurrentes y de los
+ * compartimentos de lecturas y escrituras aplicados por
+ * {@link ConcurrenciaInterceptor}, y de los pools de conexiones separados de
+ * {@link DataSourceConfig}.
+ *
+ * <p>
+ * Cada solicitud en un compartimento (en curso o en cola) ocupa un hilo de
+ * Tomcat: la suma de {@code concurrentes + cola} de ambos compartimentos debe
+ * ser menor que {@code server.tomcat.threads.max} (200 por defecto) para que
+ * una ráfaga de un tipo no deje sin hilos al otro.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "concurrencia")
+public class ConcurrenciaProperties {
+
+    /**
+     * Indica si se limita la concurrencia.
+     */
+    private boolean habilitado = true;
+
+    /**
+     * Aumento de latencia sobre la mínima que se tolera sin reducir el límite.
+     */
+    private double tolerancia = 1.5;
+
+    /**
+     * Cada cuánto se vuelve a medir la latencia mínima.
+     */
+    private Duration reinicioRtt = Duration.ofMinutes(5);
+
+    /**
+     * Espera sugerida en {@code Retry-After} al rechazar una solicitud.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Presupuesto de las lecturas (GET y HEAD).
+     */
+    private Presupuesto lectura = new Presupuesto(20, 2, 100, 40, 40);
+
+    /**
+     * Presupuesto de las escrituras (POST, PUT, DELETE y PATCH).
+     */
+    private Presupuesto escritura = new Presupuesto(10, 2, 40, 20, 40);
+
+    /**
+     * Pools de conexiones separados para lecturas y escrituras.
+     */
+    private Pools pools = new Pools();
+
+    /**
+     * Límites de concurrencia de un tipo de solicitud.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Presupuesto {
+
+        /**
+         * Límite al iniciar.
+         */
+        private int inicial;
+
+        /**
+         * Límite mínimo, aunque la latencia siga alta.
+         */
+        private int minimo;
+
+        /**
+         * Límite máximo, aunque la latencia siga baja.
+         */
+        private int maximo;
+
+        /**
+         * Solicitudes que se ejecutan a la vez en el compartimento, sin
+         * importar el límite adaptativo.
+         */
+        private int concurrentes;
+
+        /**
+         * Solicitudes que esperan turno en el compartimento como máximo.
+         */
+        private int cola;
+
+        /**
+         * Tiempo máximo de espera de un turno en el compartimento.
+         */
+        private Duration esperaMaxima = Duration.ofMillis(500);
+
+        public Presupuesto(int inicial, int minimo, int maximo, int concurrentes, int cola) {
+            this.inicial = inicial;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.concurrentes = concurrentes;
+            this.cola = cola;
+        }
+
+        LimitadorConcurrencia crearLimitador(ConcurrenciaProperties properties) {
+            return new LimitadorConcurrencia(inicial, minimo, maximo, properties.getTolerancia(),
+                    properties.getReinicioRtt());
+        }
+
+        Compartimento crearCompartimento() {
+            return new Compartimento(concurrentes, cola, esperaMaxima);
+        }
+    }
+
+    /**
+     * Pools de conexiones de lectura y escritura.
+     */
+    @Data
+    public static class Pools {
+
+        /**
+         * Indica si las transacciones de solo lectura usan un pool propio.
+         */
+        private boolean separados;
+
+        /**
+         * Pools de las transacciones de solo lectura.
+         */
+        private Lectura lectura = new Lectura();
+
+        /**
+         * Pool de las demás transacciones, en el primario.
+         */
+        private Pool escritura = new Pool();
+
+        /**
+         * Tiempo que las lecturas de un cliente van al primario después de
+         * que escribe, para que vea sus propias escrituras aunque las réplicas
+         * tengan retraso; cero para no hacerlo.
+         */
+        private Duration leerEscrituras = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Pool de conexiones.
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * Conexiones del pool.
+         */
+        private int maximo = 10;
+    }
+
+    /**
+     * Pools de lectura, uno por réplica.
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Lectura extends Pool {
+
+        /**
+         * URLs de las réplicas; sin réplicas, las lecturas usan un pool
+         * propio en {@code spring.datasource.url}.
+         */
+        private List<String> replicas = new ArrayList<>();
+
+        /**
+         * Tiempo máximo para obtener una conexión de una réplica antes de
+         * considerarla caída.
+         */
+        private Duration tiempoConexion = Duration.ofSeconds(2);
+    }
+}
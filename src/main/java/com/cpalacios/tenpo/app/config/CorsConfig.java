@@ -14,7 +14,8 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders(
                         "Content-Type",
-                        "X-Client-Id"
+                        "X-Client-Id",
+                        "Last-Event-ID"
                 )
                 .exposedHeaders("X-Client-Id")
                 .allowCredentials(true);
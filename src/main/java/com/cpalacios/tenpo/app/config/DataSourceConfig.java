@@ -0,0 +1,103 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.cpalacios.tenpo.app.persistence.replica.EnrutadorReplicas;
+import com.cpalacios.tenpo.app.persistence.replica.EscriturasRecientes;
+import com.cpalacios.tenpo.app.persistence.replica.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pools de conexiones separados para las transacciones de solo lectura y las
+ * demás, de modo que una ráfaga de búsquedas no deje sin conexiones a la
+ * creación de transacciones.
+ *
+ * <p>
+ * Los servicios de consulta ({@code @Transactional(readOnly = true)}) usan
+ * las réplicas de {@code concurrencia.pools.lectura.replicas}, repartidas en
+ * orden circular y con failover al primario (ver {@link EnrutadorReplicas});
+ * sin réplicas, usan un pool propio en el primario. El resto usa el pool
+ * {@code escritura} del primario. Un servicio de solo lectura llamado dentro
+ * de una transacción de escritura se une a ella y usa su conexión. Se
+ * habilita con {@code concurrencia.pools.separados=true}; los pools se
+ * publican en {@code hikaricp.connections.*} con el tag {@code pool}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrencia.pools.separados", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    public HikariDataSource poolEscritura(DataSourceProperties dataSourceProperties,
+            ConcurrenciaProperties concurrenciaProperties) {
+        HikariDataSource pool = crearPool(dataSourceProperties, "escritura");
+        pool.setMaximumPoolSize(concurrenciaProperties.getPools().getEscritura().getMaximo());
+        return pool;
+    }
+
+    @Bean
+    public EnrutadorReplicas enrutadorReplicas(@Qualifier("poolEscritura") DataSource poolEscritura,
+            DataSourceProperties dataSourceProperties, ConcurrenciaProperties concurrenciaProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        ConcurrenciaProperties.Lectura lectura = concurrenciaProperties.getPools().getLectura();
+        List<String> urls = lectura.getReplicas().isEmpty() ? List.of(dataSourceProperties.determineUrl())
+                : lectura.getReplicas();
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String nombre = lectura.getReplicas().isEmpty() ? "lectura" : "lectura-" + (i + 1);
+            HikariDataSource pool = crearPool(dataSourceProperties, nombre);
+            pool.setJdbcUrl(urls.get(i));
+            pool.setMaximumPoolSize(lectura.getMaximo());
+            pool.setConnectionTimeout(lectura.getTiempoConexion().toMillis());
+            pool.setReadOnly(true);
+            // Los pools de réplicas no son beans, por lo que sus métricas se registran aquí
+            meterRegistry.ifAvailable(pool::setMetricRegistry);
+            replicas.add(new Replica(nombre, pool));
+        }
+        return new EnrutadorReplicas(poolEscritura, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(EnrutadorReplicas enrutadorReplicas) {
+        return enrutar(enrutadorReplicas);
+    }
+
+    @Bean
+    public EscriturasRecientes escriturasRecientes(ConcurrenciaProperties concurrenciaProperties) {
+        return new EscriturasRecientes(concurrenciaProperties.getPools().getLeerEscrituras(), 100_000);
+    }
+
+    /**
+     * Envuelve el enrutador para que la conexión se obtenga recién en la
+     * primera sentencia, cuando la transacción ya está marcada como de solo
+     * lectura; sin el proxy se obtendría al iniciarla, antes de conocer el
+     * tipo.
+     */
+    static DataSource enrutar(EnrutadorReplicas enrutadorReplicas) {
+        return new LazyConnectionDataSourceProxy(enrutadorReplicas);
+    }
+
+    private static HikariDataSource crearPool(DataSourceProperties dataSourceProperties, String nombre) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(nombre);
+        return pool;
+    }
+
+}
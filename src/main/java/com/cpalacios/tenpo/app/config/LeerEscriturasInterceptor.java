@@ -0,0 +1,76 @@
+package com.cpalacios.tenpo.app.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.persistence.replica.EscriturasRecientes;
+
+/**
+ * Interceptor que garantiza que cada cliente lea sus propias escrituras
+ * cuando las consultas van a réplicas con retraso.
+ *
+ * <p>
+ * Las escrituras (todo lo que no es GET ni HEAD) registran al cliente del
+ * header "X-Client-Id" en {@link EscriturasRecientes}, al empezar y otra vez
+ * al terminar, para que la ventana cuente desde el commit. Las lecturas de un
+ * cliente registrado van al primario mediante
+ * {@link ContextoReplica#usarPrimario()}. Las solicitudes sin header siempre
+ * leen de las réplicas.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "concurrencia.pools.separados", havingValue = "true")
+public class LeerEscriturasInterceptor implements AsyncHandlerInterceptor {
+
+    private final EscriturasRecientes escriturasRecientes;
+    private final boolean habilitado;
+
+    public LeerEscriturasInterceptor(EscriturasRecientes escriturasRecientes,
+            ConcurrenciaProperties concurrenciaProperties) {
+        this.escriturasRecientes = escriturasRecientes;
+        this.habilitado = !concurrenciaProperties.getPools().getLeerEscrituras().isZero();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String clientId = request.getHeader("X-Client-Id");
+        if (!habilitado || clientId == null || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (esLectura(request.getMethod())) {
+            if (escriturasRecientes.escribioRecientemente(clientId)) {
+                ContextoReplica.usarPrimario();
+            }
+        } else {
+            escriturasRecientes.registrar(clientId);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            @Nullable Exception ex) {
+        ContextoReplica.limpiar();
+        String clientId = request.getHeader("X-Client-Id");
+        if (habilitado && clientId != null && !esLectura(request.getMethod())) {
+            escriturasRecientes.registrar(clientId);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        // El hilo del servlet vuelve al pool; la continuación asíncrona no hereda el contexto
+        ContextoReplica.limpiar();
+    }
+
+    private static boolean esLectura(String metodo) {
+        return "GET".equals(metodo) || "HEAD".equals(metodo);
+    }
+}
@@ -0,0 +1,123 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.springframework.lang.Nullable;
+
+import com.cpalacios.tenpo.app.ratelimit.ArbolRutas;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorSolicitudes;
+import com.cpalacios.tenpo.app.ratelimit.LimiteTasa;
+
+/**
+ * Reglas de {@link RateLimitProperties} compiladas en un {@link ArbolRutas}.
+ *
+ * <p>
+ * Es inmutable: una recarga compila una instancia nueva y la reemplaza
+ * completa, por lo que cada solicitud ve las reglas anteriores o las nuevas,
+ * nunca una mezcla.
+ * </p>
+ */
+final class PoliticasRateLimit {
+
+    /** Nombre del limitador por defecto en las métricas y en el almacén compartido */
+    static final String RUTA_DEFECTO = "defecto";
+
+    private static final Politica EXCLUIDA = new Politica(true, 0, null);
+
+    private final ArbolRutas<Politica> arbol;
+    private final Politica defecto;
+    private final Map<String, LimitadorSolicitudes> limitadores;
+
+    private PoliticasRateLimit(ArbolRutas<Politica> arbol, Politica defecto,
+            Map<String, LimitadorSolicitudes> limitadores) {
+        this.arbol = arbol;
+        this.defecto = defecto;
+        this.limitadores = limitadores;
+    }
+
+    /**
+     * Compila las reglas de la configuración.
+     *
+     * <p>
+     * Los limitadores de la compilación anterior cuyo nombre y límite no
+     * cambiaron se conservan, para que una recarga no reinicie el estado de
+     * los clientes.
+     * </p>
+     *
+     * @param properties configuración con las reglas
+     * @param fabrica    crea el limitador de un nombre y un límite
+     * @param anterior   compilación anterior, o {@code null} al iniciar
+     * @throws IllegalArgumentException si una regla no es válida
+     */
+    static PoliticasRateLimit compilar(RateLimitProperties properties,
+            BiFunction<String, LimiteTasa, LimitadorSolicitudes> fabrica, @Nullable PoliticasRateLimit anterior) {
+        Map<String, LimitadorSolicitudes> limitadores = new LinkedHashMap<>();
+        LimitadorSolicitudes limitadorDefecto = limitador(RUTA_DEFECTO, properties.getDefecto().toLimiteTasa(),
+                fabrica, anterior, limitadores);
+        ArbolRutas.Constructor<Politica> constructor = ArbolRutas.constructor();
+
+        for (RateLimitProperties.Regla regla : properties.getReglas()) {
+            if (regla.isExcluida()) {
+                constructor.agregar(regla.getRuta(), regla.getMetodos(), EXCLUIDA);
+                continue;
+            }
+            LimiteTasa limite = regla.toLimiteTasa();
+            LimitadorSolicitudes limitador = limite == null ? limitadorDefecto
+                    : limitador(regla.nombre(), limite, fabrica, anterior, limitadores);
+            if (regla.getCosto() < 1 || regla.getCosto() > limitador.getLimite().rafaga()) {
+                throw new IllegalArgumentException("El costo de la regla " + regla.nombre()
+                        + " debe estar entre 1 y la ráfaga de su límite (" + limitador.getLimite().rafaga() + ")");
+            }
+            constructor.agregar(regla.getRuta(), regla.getMetodos(), new Politica(false, regla.getCosto(), limitador));
+        }
+        for (String excluida : properties.getExcluidas()) {
+            constructor.agregar(excluida, List.of(), EXCLUIDA);
+        }
+
+        return new PoliticasRateLimit(constructor.construir(), new Politica(false, 1, limitadorDefecto),
+                Collections.unmodifiableMap(limitadores));
+    }
+
+    private static LimitadorSolicitudes limitador(String nombre, LimiteTasa limite,
+            BiFunction<String, LimiteTasa, LimitadorSolicitudes> fabrica, @Nullable PoliticasRateLimit anterior,
+            Map<String, LimitadorSolicitudes> limitadores) {
+        LimitadorSolicitudes existente = limitadores.get(nombre);
+        if (existente == null && anterior != null) {
+            existente = anterior.limitadores.get(nombre);
+        }
+        LimitadorSolicitudes limitador = existente != null && existente.getLimite().equals(limite) ? existente
+                : fabrica.apply(nombre, limite);
+        limitadores.put(nombre, limitador);
+        return limitador;
+    }
+
+    /**
+     * Política de la ruta y el método de una solicitud.
+     */
+    Politica resolver(String metodo, String ruta) {
+        Politica politica = arbol.buscar(metodo, ruta);
+        return politica != null ? politica : defecto;
+    }
+
+    /**
+     * Limitadores por nombre, empezando por el limitador por defecto.
+     */
+    Map<String, LimitadorSolicitudes> getLimitadores() {
+        return limitadores;
+    }
+
+    /**
+     * Política aplicada a una solicitud.
+     *
+     * @param excluida  si la solicitud no se limita
+     * @param costo     solicitudes del límite que consume
+     * @param limitador limitador que aplica el límite, o {@code null} si está
+     *                  excluida
+     */
+    record Politica(boolean excluida, int costo, LimitadorSolicitudes limitador) {
+    }
+}
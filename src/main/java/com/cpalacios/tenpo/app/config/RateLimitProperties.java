@@ -0,0 +1,217 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.cpalacios.tenpo.app.ratelimit.ArbolRutas;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorDistribuido;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorGcra;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorGcraCompacto;
+import com.cpalacios.tenpo.app.ratelimit.LimiteTasa;
+
+import lombok.Data;
+
+/**
+ * Configuración del límite de solicitudes por cliente aplicado por
+ * {@link RateLimitingInterceptor}.
+ *
+ * <p>
+ * Las rutas se configuran con patrones por segmento ({@code *} para un
+ * segmento, {@code **} al final para cualquier resto; ver
+ * {@link ArbolRutas}). Ejemplo de un límite propio para los lotes y de un
+ * costo para la búsqueda, que deja de estar excluida:
+ * </p>
+ *
+ * <pre>
+ * rate-limit.defecto.limite=3
+ * rate-limit.defecto.periodo=PT1M
+ * rate-limit.reglas[0].ruta=/api/transacciones/create/batch
+ * rate-limit.reglas[0].metodos=POST
+ * rate-limit.reglas[0].limite=1
+ * rate-limit.reglas[1].ruta=/api/transacciones/search/**
+ * rate-limit.reglas[1].costo=3
+ * </pre>
+ *
+ * <p>
+ * Las reglas y exclusiones pueden recargarse sin reiniciar desde
+ * {@code rate-limit.archivo} (ver {@link RateLimitRecarga}); la estructura
+ * ({@code almacen}, {@code maximo-clientes} y {@code distribuido}) solo se
+ * aplica al iniciar.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Estructura en la que se guarda el estado de los clientes.
+     */
+    private Almacen almacen = Almacen.MAPA;
+
+    /**
+     * Cantidad máxima de clientes con estado por límite; al alcanzarla se
+     * descartan los clientes menos usados.
+     */
+    private long maximoClientes = 100_000;
+
+    /**
+     * Arriendo de tokens, si el almacén es {@link Almacen#DISTRIBUIDO}.
+     */
+    private Distribuido distribuido = new Distribuido();
+
+    /**
+     * Límite de las rutas sin un límite propio.
+     */
+    private Politica defecto = new Politica();
+
+    /**
+     * Patrones de ruta que no se limitan, salvo que una regla indique otra
+     * cosa para el mismo patrón.
+     */
+    private List<String> excluidas = new ArrayList<>(List.of(
+            "/actuator/**", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/api/public/**",
+            "/api/transacciones/all", "/api/transacciones/search/**", "/api/transacciones/page",
+            "/api/transacciones/export", "/api/transacciones/status/**", "/api/transacciones/events",
+            "/api/transacciones/changes"));
+
+    /**
+     * Reglas por patrón de ruta y método; tienen prioridad sobre
+     * {@link #excluidas}.
+     */
+    private List<Regla> reglas = new ArrayList<>();
+
+    /**
+     * Estructuras disponibles para el estado de los clientes.
+     */
+    public enum Almacen {
+
+        /**
+         * Caché acotada con un objeto por cliente ({@link LimitadorGcra}).
+         */
+        MAPA,
+
+        /**
+         * Tabla de {@code long} primitivos preasignada, de 20 bytes por
+         * cliente ({@link LimitadorGcraCompacto}).
+         */
+        COMPACTO,
+
+        /**
+         * Límite global para todas las instancias, con tokens arrendados de la
+         * tabla {@code rate_limit_cuotas} ({@link LimitadorDistribuido}).
+         */
+        DISTRIBUIDO
+    }
+
+    /**
+     * Arriendo de tokens del almacén {@link Almacen#DISTRIBUIDO}.
+     */
+    @Data
+    public static class Distribuido {
+
+        /**
+         * Tokens arrendados por consulta al almacén; se limita a la ráfaga de
+         * cada ruta.
+         */
+        private int tamanoArriendo = 10;
+
+        /**
+         * Tiempo tras el cual los tokens no usados de un arriendo vuelven al
+         * almacén.
+         */
+        private Duration duracionArriendo = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Límite de solicitudes por cliente.
+     */
+    @Data
+    public static class Politica {
+
+        /**
+         * Solicitudes admitidas por período.
+         */
+        private int limite = 3;
+
+        /**
+         * Período al que corresponde el límite.
+         */
+        private Duration periodo = Duration.ofMinutes(1);
+
+        /**
+         * Solicitudes seguidas admitidas como máximo; por defecto igual al
+         * límite.
+         */
+        private Integer rafaga;
+
+        public LimiteTasa toLimiteTasa() {
+            return new LimiteTasa(limite, periodo, rafaga == null ? limite : rafaga);
+        }
+    }
+
+    /**
+     * Regla de rate limiting de un patrón de ruta.
+     */
+    @Data
+    public static class Regla {
+
+        /**
+         * Patrón de ruta, por ejemplo {@code /api/transacciones/search/**}.
+         */
+        private String ruta;
+
+        /**
+         * Métodos HTTP a los que se aplica; vacío para todos.
+         */
+        private List<String> metodos = new ArrayList<>();
+
+        /**
+         * Indica si las solicitudes no se limitan.
+         */
+        private boolean excluida;
+
+        /**
+         * Solicitudes del límite que consume cada solicitud; no puede superar
+         * la ráfaga.
+         */
+        private int costo = 1;
+
+        /**
+         * Límite propio; si no se indica, la regla consume del límite por
+         * defecto.
+         */
+        private Integer limite;
+
+        /**
+         * Período del límite propio; por defecto un minuto.
+         */
+        private Duration periodo;
+
+        /**
+         * Ráfaga del límite propio; por defecto igual al límite.
+         */
+        private Integer rafaga;
+
+        /**
+         * Límite propio de la regla, o {@code null} si consume del límite por
+         * defecto.
+         */
+        public LimiteTasa toLimiteTasa() {
+            if (limite == null) {
+                return null;
+            }
+            return new LimiteTasa(limite, periodo == null ? Duration.ofMinutes(1) : periodo,
+                    rafaga == null ? limite : rafaga);
+        }
+
+        /**
+         * Nombre del límite propio en las métricas y en el almacén compartido.
+         */
+        public String nombre() {
+            return metodos.isEmpty() ? ruta : String.join(",", metodos) + " " + ruta;
+        }
+    }
+}
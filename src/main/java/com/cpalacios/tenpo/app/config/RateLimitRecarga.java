@@ -0,0 +1,97 @@
+package com.cpalacios.tenpo.app.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recarga sin reiniciar las reglas de rate limiting desde un archivo
+ * {@code .properties} externo.
+ *
+ * <p>
+ * Se habilita con {@code rate-limit.archivo}. El archivo contiene propiedades
+ * {@code rate-limit.*} que se superponen a las de la aplicación; cada
+ * {@code rate-limit.recarga-ms} se revisa su fecha de modificación y, si
+ * cambió, se aplican con {@link RateLimitingInterceptor#aplicar}. Una lista
+ * definida en el archivo (por ejemplo {@code rate-limit.reglas}) reemplaza
+ * completa a la de la aplicación. Si el archivo no existe o sus reglas no son
+ * válidas, se conservan las reglas vigentes.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rate-limit.archivo")
+public class RateLimitRecarga {
+
+    private final RateLimitingInterceptor interceptor;
+    private final ConfigurableEnvironment environment;
+    private final Path archivo;
+
+    /** Fecha de modificación del archivo aplicado */
+    private FileTime aplicado;
+
+    public RateLimitRecarga(RateLimitingInterceptor interceptor, ConfigurableEnvironment environment,
+            @Value("${rate-limit.archivo}") Path archivo) {
+        this.interceptor = interceptor;
+        this.environment = environment;
+        this.archivo = archivo;
+    }
+
+    /**
+     * Aplica el archivo si cambió desde la última revisión.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.recarga-ms:10000}")
+    public synchronized void revisar() {
+        FileTime modificado;
+        try {
+            modificado = Files.getLastModifiedTime(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo leer el archivo de rate limiting {}: {}", archivo, e.getMessage());
+            return;
+        }
+        if (modificado.equals(aplicado)) {
+            return;
+        }
+        try {
+            interceptor.aplicar(leer());
+            log.info("Reglas de rate limiting recargadas desde {}", archivo);
+        } catch (IOException | RuntimeException e) {
+            log.error("Reglas de rate limiting inválidas en {}, se conservan las vigentes", archivo, e);
+        }
+        // Un archivo inválido no se reintenta hasta que vuelva a modificarse
+        aplicado = modificado;
+    }
+
+    /**
+     * Vincula {@code rate-limit.*} con el archivo por sobre la configuración
+     * de la aplicación.
+     */
+    RateLimitProperties leer() throws IOException {
+        Properties propiedades = new Properties();
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            propiedades.load(entrada);
+        }
+        List<ConfigurationPropertySource> fuentes = new ArrayList<>();
+        fuentes.add(new MapConfigurationPropertySource(Map.copyOf(propiedades)));
+        ConfigurationPropertySources.get(environment).forEach(fuentes::add);
+        return new Binder(fuentes).bindOrCreate("rate-limit", RateLimitProperties.class);
+    }
+}
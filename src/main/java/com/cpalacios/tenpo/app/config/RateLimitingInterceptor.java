@@ -2,21 +2,57 @@ package com.cpalacios.tenpo.app.config;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.time.Instant;
-import java.util.Map;
+import com.cpalacios.tenpo.app.ratelimit.AlmacenCuotas;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorDistribuido;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorGcra;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorGcraCompacto;
+import com.cpalacios.tenpo.app.ratelimit.LimitadorSolicitudes;
+import com.cpalacios.tenpo.app.ratelimit.LimiteTasa;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Interceptor para aplicar Rate Limiting (límite de solicitudes) por cliente.
  *
  * <p>
- * Este interceptor limita a un máximo de {@value #MAX_REQUESTS} solicitudes por minuto
- * por cliente. El cliente se identifica mediante el header HTTP "X-Client-Id".
- * Si un cliente excede el límite, se devuelve HTTP 429 (Too Many Requests).
+ * El cliente se identifica mediante el header HTTP "X-Client-Id". La política
+ * de cada solicitud (exclusión, costo y límite) se resuelve por ruta y método
+ * con las reglas de {@link RateLimitProperties}, compiladas al iniciar en un
+ * árbol de rutas que se recorre sin crear objetos. Las rutas sin regla usan
+ * el límite por defecto (3 solicitudes por minuto). Cada límite se aplica con
+ * un {@link LimitadorSolicitudes}. Si un cliente excede el límite, se
+ * devuelve HTTP 429 (Too Many Requests) con el header {@code Retry-After}.
+ * Toda respuesta limitada incluye el header {@value #HEADER_RESTANTES} con las
+ * solicitudes restantes.
+ * </p>
+ *
+ * <p>
+ * Las reglas pueden reemplazarse en ejecución con {@link #aplicar}; las
+ * solicitudes en curso terminan con las reglas anteriores.
+ * </p>
+ *
+ * <p>
+ * Cada limitador conserva como máximo {@code rate-limit.maximo-clientes}
+ * clientes y descarta los inactivos, en una caché o en una tabla compacta
+ * según {@code rate-limit.almacen}. Con varias instancias, el almacén
+ * {@code DISTRIBUIDO} aplica un único límite global arrendando tokens de un
+ * {@link AlmacenCuotas} compartido. Publica como métricas los clientes con
+ * estado y los descartados por ruta.
  * </p>
  *
  * <p>
@@ -24,34 +60,38 @@ import java.util.concurrent.ConcurrentHashMap;
  * interceptar las solicitudes antes de que lleguen al controlador.
  * </p>
  */
+@Slf4j
 @Component
-public class RateLimitingInterceptor implements HandlerInterceptor {
+public class RateLimitingInterceptor implements HandlerInterceptor, MeterBinder {
 
-    /** Número máximo de solicitudes permitidas por cliente en la ventana de tiempo */
-    private static final int MAX_REQUESTS = 3;
+    /** Header con las solicitudes restantes del cliente */
+    static final String HEADER_RESTANTES = "X-RateLimit-Remaining";
 
-    /** Ventana de tiempo en milisegundos (1 minuto) */
-    private static final long WINDOW_MILLIS = 60 * 1000; // 1 minuto
+    /** Configuración con la que se crean los limitadores; no se recarga */
+    private final RateLimitProperties estructura;
+
+    @Nullable
+    private final AlmacenCuotas almacenCuotas;
+
+    /** Reglas vigentes */
+    private volatile PoliticasRateLimit politicas;
+
+    /** Registro de métricas, una vez vinculado */
+    private MeterRegistry registry;
+
+    /** Limitadores con métricas registradas */
+    private final Set<String> conMetricas = new HashSet<>();
 
     /**
-     * Mapa que almacena la información de cada cliente.
-     *
-     * <p>
-     * Clave: ID del cliente (header "X-Client-Id")  
-     * Valor: información de la ventana de solicitudes del cliente
-     * </p>
-     */
-    private final Map<String, ClientRequestInfo> clients = new ConcurrentHashMap<>();
-    
-    
-    /**
-     * Conjunto de patrones de URLs que no se tomarán en cuenta para el Rate Limiting.
-     * Puedes usar expresiones simples que contengan parte de la URL.
+     * @param properties    configuración del límite
+     * @param almacenCuotas almacén compartido, requerido solo si
+     *                      {@code rate-limit.almacen=DISTRIBUIDO}
      */
-    private static final Set<String> EXCLUDED_PATHS = Set.of(
-			"/actuator", "/swagger-ui", "/swagger-ui.html", "/v3/api-docs", "/api/public", "/api/transacciones/all",
-			"/api/transacciones/search"
-    );
+    public RateLimitingInterceptor(RateLimitProperties properties, @Nullable AlmacenCuotas almacenCuotas) {
+        this.estructura = properties;
+        this.almacenCuotas = almacenCuotas;
+        this.politicas = PoliticasRateLimit.compilar(properties, this::crearLimitador, null);
+    }
 
     /**
      * Método interceptador que se ejecuta antes de procesar la solicitud.
@@ -73,10 +113,9 @@ public class RateLimitingInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        String path = request.getRequestURI();
-
-        // 2. Excluir paths
-        if (EXCLUDED_PATHS.stream().anyMatch(path::contains)) {
+        // 2. Resolver la política de la ruta y excluir paths
+        PoliticasRateLimit.Politica politica = politicas.resolver(request.getMethod(), request.getRequestURI());
+        if (politica.excluida()) {
             return true;
         }
 
@@ -88,48 +127,149 @@ public class RateLimitingInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        long now = Instant.now().toEpochMilli();
-
-        clients.compute(clientId, (key, info) -> {
-            if (info == null || now - info.startTime > WINDOW_MILLIS) {
-                return new ClientRequestInfo(now, 1);
-            } else {
-                info.requestCount++;
-                return info;
-            }
-        });
-
-        ClientRequestInfo info = clients.get(clientId);
+        long resultado = politica.limitador().intentar(clientId, politica.costo(), System.nanoTime());
+        response.setHeader(HEADER_RESTANTES, Long.toString(LimitadorSolicitudes.restantes(resultado)));
 
-        if (info.requestCount > MAX_REQUESTS) {
+        if (!LimitadorSolicitudes.admitida(resultado)) {
             response.setStatus(429);
-            response.getWriter().write("Ha excedido el máximo de solicitudes por minuto");
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(LimitadorSolicitudes.esperaSegundos(resultado)));
+            response.getWriter().write("Ha excedido el máximo de solicitudes permitidas");
             return false;
         }
 
         return true;
     }
 
+    /**
+     * Reemplaza el límite por defecto, las exclusiones y las reglas por las de
+     * la configuración indicada. Los límites que no cambiaron conservan el
+     * estado de sus clientes.
+     *
+     * <p>
+     * El almacén, el máximo de clientes y el arriendo distribuido se mantienen
+     * como al iniciar.
+     * </p>
+     *
+     * @param properties configuración nueva
+     * @throws IllegalArgumentException si una regla no es válida; en ese caso
+     *                                  se conservan las reglas vigentes
+     */
+    public synchronized void aplicar(RateLimitProperties properties) {
+        if (properties.getAlmacen() != estructura.getAlmacen()
+                || properties.getMaximoClientes() != estructura.getMaximoClientes()
+                || !Objects.equals(properties.getDistribuido(), estructura.getDistribuido())) {
+            log.warn("Los cambios de rate-limit.almacen, maximo-clientes y distribuido requieren reiniciar");
+        }
+        PoliticasRateLimit anteriores = politicas;
+        PoliticasRateLimit nuevas = PoliticasRateLimit.compilar(properties, this::crearLimitador, anteriores);
+        politicas = nuevas;
+        anteriores.getLimitadores().forEach((nombre, limitador) -> {
+            if (nuevas.getLimitadores().get(nombre) != limitador) {
+                devolver(limitador);
+            }
+        });
+        registrarMetricas();
+        log.info("Reglas de rate limiting aplicadas: {} límites, {} reglas, {} rutas excluidas",
+                nuevas.getLimitadores().size(), properties.getReglas().size(), properties.getExcluidas().size());
+    }
+
+    private LimitadorSolicitudes crearLimitador(String nombre, LimiteTasa limite) {
+        return crearLimitador(estructura, almacenCuotas, nombre, limite);
+    }
+
+    private static LimitadorSolicitudes crearLimitador(RateLimitProperties properties,
+            AlmacenCuotas almacenCuotas, String ruta, LimiteTasa limite) {
+        long maximoClientes = properties.getMaximoClientes();
+        return switch (properties.getAlmacen()) {
+            case MAPA -> new LimitadorGcra(limite, maximoClientes);
+            case COMPACTO -> new LimitadorGcraCompacto(limite, maximoClientes);
+            case DISTRIBUIDO -> {
+                if (almacenCuotas == null) {
+                    throw new IllegalStateException("rate-limit.almacen=DISTRIBUIDO requiere un AlmacenCuotas");
+                }
+                RateLimitProperties.Distribuido distribuido = properties.getDistribuido();
+                yield new LimitadorDistribuido(limite, ruta, almacenCuotas, distribuido.getTamanoArriendo(),
+                        distribuido.getDuracionArriendo(), maximoClientes);
+            }
+        };
+    }
 
     /**
-     * Clase interna que almacena información de solicitudes por cliente.
+     * Devuelve al almacén compartido los tokens arrendados que no se usaron.
      */
-    private static class ClientRequestInfo {
-        /** Timestamp de la primera solicitud en la ventana actual */
-        long startTime;
-
-        /** Número de solicitudes realizadas en la ventana actual */
-        int requestCount;
-
-        /**
-         * Constructor de la clase.
-         *
-         * @param startTime    timestamp de la primera solicitud
-         * @param requestCount contador de solicitudes
-         */
-        ClientRequestInfo(long startTime, int requestCount) {
-            this.startTime = startTime;
-            this.requestCount = requestCount;
+    @PreDestroy
+    public void detener() {
+        politicas.getLimitadores().values().forEach(RateLimitingInterceptor::devolver);
+    }
+
+    private static void devolver(LimitadorSolicitudes limitador) {
+        if (limitador instanceof LimitadorDistribuido distribuido) {
+            distribuido.devolverTodo();
         }
     }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        registrarMetricas();
+    }
+
+    /**
+     * Registra las métricas de los limitadores que aún no las tienen. Las
+     * métricas consultan el limitador vigente con cada nombre, por lo que
+     * siguen siendo válidas tras una recarga.
+     */
+    private void registrarMetricas() {
+        if (registry == null) {
+            return;
+        }
+        for (String ruta : politicas.getLimitadores().keySet()) {
+            if (conMetricas.add(ruta)) {
+                registrarMetricas(registry, ruta);
+            }
+        }
+    }
+
+    private void registrarMetricas(MeterRegistry registry, String ruta) {
+        Gauge.builder("rate.limit.clientes", this, i -> i.medir(ruta, LimitadorSolicitudes::cantidadClientes))
+                .description("Clientes con estado en el limitador de solicitudes")
+                .tag("ruta", ruta)
+                .register(registry);
+        FunctionCounter.builder("rate.limit.descartados", this,
+                        i -> i.medir(ruta, LimitadorSolicitudes::cantidadExpirados))
+                .description("Clientes descartados del limitador de solicitudes por causa")
+                .tag("ruta", ruta)
+                .tag("causa", "inactividad")
+                .register(registry);
+        FunctionCounter.builder("rate.limit.descartados", this,
+                        i -> i.medir(ruta, LimitadorSolicitudes::cantidadDesalojados))
+                .description("Clientes descartados del limitador de solicitudes por causa")
+                .tag("ruta", ruta)
+                .tag("causa", "maximo")
+                .register(registry);
+        if (estructura.getAlmacen() == RateLimitProperties.Almacen.DISTRIBUIDO) {
+            FunctionCounter.builder("rate.limit.llamadas.remotas", this, i -> i.medir(ruta,
+                            limitador -> ((LimitadorDistribuido) limitador).cantidadLlamadasRemotas()))
+                    .description("Arriendos y devoluciones de tokens enviados al almacén compartido")
+                    .tag("ruta", ruta)
+                    .register(registry);
+        }
+        if (estructura.getAlmacen() == RateLimitProperties.Almacen.COMPACTO) {
+            Gauge.builder("rate.limit.memoria", this,
+                            i -> i.medir(ruta, limitador -> ((LimitadorGcraCompacto) limitador).bytesOcupados()))
+                    .description("Memoria ocupada por la tabla compacta del limitador de solicitudes")
+                    .baseUnit("bytes")
+                    .tag("ruta", ruta)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Valor de una métrica del limitador vigente con el nombre indicado; 0 si
+     * una recarga lo eliminó.
+     */
+    private double medir(String ruta, ToDoubleFunction<LimitadorSolicitudes> metrica) {
+        LimitadorSolicitudes limitador = politicas.getLimitadores().get(ruta);
+        return limitador == null ? 0 : metrica.applyAsDouble(limitador);
+    }
 }
@@ -0,0 +1,13 @@
+package com.cpalacios.tenpo.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita la ejecución de tareas programadas ({@code @Scheduled}), como la
+ * limpieza de claves de idempotencia vencidas.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,20 +3,36 @@ package com.cpalacios.tenpo.app.config;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties({ RateLimitProperties.class, ConcurrenciaProperties.class })
 public class WebConfig implements WebMvcConfigurer {
 
     @Autowired
     private RateLimitingInterceptor rateLimitingInterceptor;
 
+    @Autowired
+    private ConcurrenciaInterceptor concurrenciaInterceptor;
+
+    @Autowired(required = false)
+    private LeerEscriturasInterceptor leerEscriturasInterceptor;
+
    
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitingInterceptor)
                 .addPathPatterns("/api/**");
+        // Después del límite por cliente, para que un cliente que lo excede no ocupe lugares
+        registry.addInterceptor(concurrenciaInterceptor)
+                .addPathPatterns("/api/**");
+        // Solo existe con pools separados (ver DataSourceConfig)
+        if (leerEscriturasInterceptor != null) {
+            registry.addInterceptor(leerEscriturasInterceptor)
+                    .addPathPatterns("/api/**");
+        }
     }
 }
@@ -1,13 +1,19 @@
 package com.cpalacios.tenpo.app.controller;
 
+import java.net.URI;
+
 import jakarta.validation.Valid;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.service.IdempotenciaService;
+import com.cpalacios.tenpo.app.service.ResultadoIdempotente;
+import com.cpalacios.tenpo.app.service.TransaccionIngestaService;
 import com.cpalacios.tenpo.app.service.TransaccionService;
 import com.cpalacios.tenpo.app.swagger.schema.ErrorResponseDTO;
 
@@ -27,7 +33,7 @@ import lombok.RequiredArgsConstructor;
  *
  * <p>
  * Esta clase actúa como punto de entrada de la API para operaciones
- * de creación de transacciones, delegando toda la lógica de negocio
+ * de creación de transacciones (síncrona o asíncrona), delegando toda la lógica de negocio
  * al servicio correspondiente.
  * </p>
  *
@@ -48,12 +54,25 @@ import lombok.RequiredArgsConstructor;
 
 public class TransaccionController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     /**
      * Servicio encargado de manejar la lógica de negocio
      * relacionada con transacciones.
      */
     private final TransaccionService service;
 
+    /**
+     * Servicio que resuelve las solicitudes con {@code Idempotency-Key}.
+     */
+    private final IdempotenciaService idempotenciaService;
+
+    /**
+     * Servicio de ingesta asíncrona de transacciones.
+     */
+    private final TransaccionIngestaService ingestaService;
+
     /**
      * Endpoint para crear una nueva transacción.
      *
@@ -68,6 +87,14 @@ public class TransaccionController {
      * con la información de la transacción creada.
      * </p>
      *
+     * <p>
+     * Si se envía el header {@code Idempotency-Key}, los reintentos con la
+     * misma clave reciben la respuesta original sin volver a crear la
+     * transacción, indicándolo con el header {@code Idempotent-Replayed}.
+     * </p>
+     *
+     * @param clientId       identificador del cliente de la API (rate limit)
+     * @param idempotencyKey clave de idempotencia opcional
      * @param dto DTO que contiene los datos necesarios para crear la transacción
      * @return {@link ResponseEntity} con el {@link TransaccionResponseDTO} creado
      */
@@ -101,9 +128,106 @@ public class TransaccionController {
             in = ParameterIn.HEADER
     )
     @RequestHeader("X-Client-Id") String clientId,
+            @Parameter(
+                    name = IDEMPOTENCY_KEY,
+                    description = "Clave única de la solicitud para el X-Client-Id; los reintentos con la misma clave no duplican la transacción",
+                    in = ParameterIn.HEADER
+            )
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody TransaccionRequestDTO dto
     ) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(service.crearTransaccion(dto));
+        }
+
+        ResultadoIdempotente resultado = idempotenciaService.crearTransaccion(clientId, idempotencyKey, dto);
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(service.crearTransaccion(dto));
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(resultado.repetida()))
+                .body(resultado.respuesta());
+    }
+
+    /**
+     * Endpoint para crear una transacción de forma asíncrona.
+     *
+     * <p>
+     * Valida la solicitud, verifica en memoria que el número de transacción
+     * no exista y la deja en la cola de ingesta. Retorna HTTP 202 (Accepted)
+     * con un id de seguimiento para consultar el resultado en
+     * {@code /api/transacciones/status/{idSeguimiento}}. Si la cola está
+     * llena retorna HTTP 429.
+     * </p>
+     *
+     * @param clientId identificador del cliente de la API (rate limit)
+     * @param dto      DTO que contiene los datos necesarios para crear la transacción
+     * @return {@link ResponseEntity} con el estado inicial de la solicitud
+     */
+    @Operation(
+            summary = "Crear una transacción de forma asíncrona",
+            description = "Acepta la transacción para registrarla en segundo plano y retorna un id de seguimiento"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "202",
+            description = "Transacción aceptada para su registro",
+            content = @Content(schema = @Schema(implementation = TransaccionIngestaDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Error de validación, número de transacción existente o ingesta asíncrona deshabilitada",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Cola de ingesta llena, reintentar más tarde",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @PostMapping("/create/async")
+    public ResponseEntity<TransaccionIngestaDTO> crearAsincrona(@Parameter(
+            name = "X-Client-Id",
+            description = "ID del cliente que se envía en el header (requerido para el rate limit)",
+            required = true,
+            in = ParameterIn.HEADER
+    )
+    @RequestHeader("X-Client-Id") String clientId,
+            @Valid @RequestBody TransaccionRequestDTO dto
+    ) {
+        TransaccionIngestaDTO estado = ingestaService.encolar(dto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/transacciones/status/" + estado.getIdSeguimiento()))
+                .body(estado);
+    }
+
+    /**
+     * Endpoint para consultar el estado de una transacción creada de forma
+     * asíncrona.
+     *
+     * <p>
+     * El estado solo está disponible en la instancia que aceptó la solicitud.
+     * </p>
+     *
+     * @param idSeguimiento id retornado por {@code /create/async}
+     * @return {@link ResponseEntity} con el estado de la solicitud
+     */
+    @Operation(
+            summary = "Consultar una transacción asíncrona",
+            description = "Retorna el estado (PENDIENTE, REGISTRADA o RECHAZADA) de una transacción creada con /create/async"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Estado de la solicitud",
+            content = @Content(schema = @Schema(implementation = TransaccionIngestaDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Id de seguimiento inexistente o expirado",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @GetMapping("/status/{idSeguimiento}")
+    public ResponseEntity<TransaccionIngestaDTO> consultarAsincrona(@PathVariable String idSeguimiento) {
+        return ResponseEntity.ok(ingestaService.consultar(idSeguimiento));
     }
 }
@@ -0,0 +1,75 @@
+package com.cpalacios.tenpo.app.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.cpalacios.tenpo.app.service.TransaccionEventoService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controlador REST que publica los cambios sobre transacciones como
+ * Server-Sent Events.
+ *
+ * <p>
+ * Permite que el frontend mantenga su listado actualizado sin volver a
+ * consultar {@code /api/transacciones/all}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/transacciones")
+@RequiredArgsConstructor
+@Tag(
+        name = "Transacciones",
+        description = "Endpoints para consultar transacciones financieras"
+)
+public class TransaccionEventoController {
+
+    private final TransaccionEventoService eventoService;
+
+    /**
+     * Endpoint de suscripción a los cambios sobre transacciones.
+     *
+     * <p>
+     * Cada evento tiene como nombre el tipo de cambio ({@code CREADA},
+     * {@code ACTUALIZADA} o {@code ELIMINADA}) y como datos un
+     * {@link TransaccionEventoDTO}. Al reconectarse, el navegador envía el
+     * header {@code Last-Event-ID} y se reenvían los eventos perdidos; si ya
+     * no están disponibles se envía un evento {@code RESINCRONIZAR}.
+     * </p>
+     *
+     * @param ultimoId id del último evento recibido, opcional
+     * @return flujo de eventos
+     */
+    @Operation(
+            summary = "Suscribirse a los cambios de transacciones",
+            description = "Flujo Server-Sent Events con las transacciones creadas, actualizadas y eliminadas. "
+                    + "Con el header Last-Event-ID se reenvían los eventos posteriores a ese id; si ya no están "
+                    + "disponibles se envía un evento RESINCRONIZAR y el cliente debe volver a cargar el listado."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Flujo de eventos",
+            content = @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = TransaccionEventoDTO.class)
+            )
+    )
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(
+            @Parameter(description = "Id del último evento recibido")
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoId) {
+        return eventoService.suscribir(ultimoId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cpalacios.tenpo.app.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.service.TransaccionLoteService;
+import com.cpalacios.tenpo.app.swagger.schema.ErrorResponseDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controlador REST para la creación de transacciones en lote.
+ *
+ * <p>
+ * Permite a los sistemas que envían transacciones en ráfagas registrarlas en
+ * una sola llamada HTTP. La validación de cada elemento se realiza en el
+ * servicio, de modo que un elemento inválido no rechaza el lote completo.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/transacciones")
+@RequiredArgsConstructor
+@Tag(
+        name = "Transacciones",
+        description = "Endpoints para la creación y gestión de transacciones financieras"
+)
+public class TransaccionLoteController {
+
+    private final TransaccionLoteService service;
+
+    /**
+     * Endpoint para crear varias transacciones en una sola solicitud.
+     *
+     * @param clientId identificador del cliente de la API (rate limit)
+     * @param lote     transacciones a registrar
+     * @return resumen del lote con el resultado de cada elemento
+     */
+    @Operation(
+            summary = "Crear transacciones en lote",
+            description = "Registra una lista de transacciones e informa, por cada elemento, si fue creada "
+                    + "o el motivo del rechazo. Los elementos rechazados no afectan al resto del lote."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lote procesado; el resultado de cada elemento se informa en 'resultados'",
+            content = @Content(schema = @Schema(implementation = TransaccionLoteResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lote vacío o que supera el tamaño máximo",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Error inesperado del servidor",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @PostMapping("/create/batch")
+    public ResponseEntity<TransaccionLoteResponseDTO> crearLote(@Parameter(
+            name = "X-Client-Id",
+            description = "ID del cliente que se envía en el header (requerido para el rate limit)",
+            required = true,
+            in = ParameterIn.HEADER
+    )
+    @RequestHeader("X-Client-Id") String clientId,
+            @RequestBody List<TransaccionRequestDTO> lote
+    ) {
+        return ResponseEntity.ok(service.crearLote(lote));
+    }
+}
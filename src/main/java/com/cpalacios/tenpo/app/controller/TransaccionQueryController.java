@@ -2,18 +2,34 @@ package com.cpalacios.tenpo.app.controller;
 
 import java.util.List;
 
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.cpalacios.tenpo.app.dto.TransaccionBusquedaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionCambiosDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionPaginaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.service.FormatoExportacion;
+import com.cpalacios.tenpo.app.service.RespuestaVersionada;
+import com.cpalacios.tenpo.app.service.TransaccionCambioService;
+import com.cpalacios.tenpo.app.service.TransaccionExportService;
 import com.cpalacios.tenpo.app.service.TransaccionQueryService;
 import com.cpalacios.tenpo.app.swagger.schema.ErrorResponseDTO;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -27,8 +43,9 @@ import lombok.RequiredArgsConstructor;
  * Controlador REST para consultas de transacciones.
  *
  * <p>
- * Expone endpoints para listar todas las transacciones
- * y para buscar transacciones usando un filtro único.
+ * Expone endpoints para listar todas las transacciones, listarlas
+ * de forma paginada, exportarlas en streaming, sincronizar sus cambios
+ * de forma incremental y buscar transacciones usando un filtro único.
  * Documentado con Swagger/OpenAPI.
  * </p>
  */
@@ -43,42 +60,73 @@ public class TransaccionQueryController {
 
     private final TransaccionQueryService service;
 
+    private final TransaccionExportService exportService;
+
+    private final TransaccionCambioService cambioService;
+
     /**
      * Endpoint para obtener todas las transacciones registradas.
      *
-     * @return lista de todas las transacciones
+     * <p>
+     * La respuesta incluye un ETag que cambia con cada alta, actualización o
+     * eliminación. Si el consumidor lo reenvía en {@code If-None-Match} y no
+     * hubo cambios, se responde 304 sin consultar la base de datos.
+     * </p>
+     *
+     * @param request solicitud, para evaluar {@code If-None-Match}
+     * @return lista de todas las transacciones serializada como JSON
      */
     @Operation(
             summary = "Listar todas las transacciones",
             description = "Devuelve una lista completa de todas las transacciones registradas"
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Lista de transacciones",
-            		content = @Content(
-            	            array = @ArraySchema(schema = @Schema(implementation = TransaccionResponseDTO.class))
-            	        )
-    )
+    @ApiResponses({
+        @ApiResponse(
+                responseCode = "200",
+                description = "Lista de transacciones",
+                content = @Content(
+                        array = @ArraySchema(schema = @Schema(implementation = TransaccionResponseDTO.class))
+                )
+        ),
+        @ApiResponse(
+                responseCode = "304",
+                description = "Sin cambios desde el ETag enviado en If-None-Match"
+        )
+    })
     @GetMapping("/all")
-    public ResponseEntity<List<TransaccionResponseDTO>> listarTodas() {
-        return ResponseEntity.ok(service.listarTodas());
+    public ResponseEntity<byte[]> listarTodas(WebRequest request) {
+        String etag = service.etagActual();
+        if (request.checkNotModified(etag)) {
+            return noModificada(etag);
+        }
+        return versionada(service.listarTodasVersionada());
     }
 
     /**
      * Endpoint para buscar transacciones usando un filtro.
      *
      * <p>
-     * El parámetro {@code filtro} se aplica sobre múltiples campos
-     * de la entidad (nombre del cliente, número de transacción, monto, giro, fecha)
-     * y permite coincidencias parciales (LIKE). Es obligatorio.
+     * El parámetro {@code filtro} es obligatorio y se interpreta según su
+     * forma: un número se busca como número de transacción o monto exacto,
+     * una fecha como el rango de ese día, y cualquier otro texto como
+     * coincidencia parcial en el nombre del cliente o el giro/comercio.
      * </p>
      *
-     * @param filtro valor de búsqueda (obligatorio)
-     * @return lista de transacciones que coinciden con el filtro
+     * <p>
+     * Al igual que {@code /all}, responde 304 si el ETag enviado en
+     * {@code If-None-Match} sigue vigente.
+     * </p>
+     *
+     * @param filtro  valor de búsqueda (obligatorio)
+     * @param request solicitud, para evaluar {@code If-None-Match}
+     * @return lista de transacciones que coinciden con el filtro serializada
+     *         como JSON
      */
     @Operation(
     	    summary = "Buscar transacciones por filtro",
-    	    description = "Permite buscar transacciones aplicando un filtro único sobre varios campos. El parámetro 'filtro' es obligatorio."
+    	    description = "Permite buscar transacciones aplicando un filtro único sobre varios campos. El parámetro 'filtro' es obligatorio. "
+    	            + "Un número se compara con el número de transacción y el monto, una fecha (yyyy-MM-dd) con el día de la transacción "
+    	            + "y cualquier otro texto con el nombre del cliente y el giro/comercio."
     	)
     	@ApiResponses({
     	    @ApiResponse(
@@ -88,6 +136,10 @@ public class TransaccionQueryController {
     	            array = @ArraySchema(schema = @Schema(implementation = TransaccionResponseDTO.class))
     	        )
     	    ),
+    	    @ApiResponse(
+    	        responseCode = "304",
+    	        description = "Sin cambios desde el ETag enviado en If-None-Match"
+    	    ),
     	    @ApiResponse(
     	        responseCode = "400",
     	        description = "Error de validación: filtro nulo o vacío",
@@ -100,9 +152,197 @@ public class TransaccionQueryController {
     	    )
     	})
     @GetMapping("/search")
-    public ResponseEntity<List<TransaccionResponseDTO>> buscar(
-    		@RequestParam(required = true) @NotBlank(message = "El filtro no puede ser vacío o nulo") String filtro
+    public ResponseEntity<byte[]> buscar(
+    		@RequestParam(required = true) @NotBlank(message = "El filtro no puede ser vacío o nulo") String filtro,
+    		WebRequest request
+    ) {
+        String etag = service.etagActual();
+        if (request.checkNotModified(etag)) {
+            return noModificada(etag);
+        }
+        return versionada(service.buscarPorFiltroVersionada(filtro));
+    }
+
+    /**
+     * Endpoint para la búsqueda estructurada de transacciones.
+     *
+     * <p>
+     * Cada criterio se traduce en un predicado tipado (igualdad, rango o
+     * prefijo) que puede resolverse con índices. Los criterios informados
+     * se combinan con AND y se debe indicar al menos uno.
+     * </p>
+     *
+     * @param busqueda criterios de búsqueda recibidos como parámetros de query
+     * @return lista de transacciones que cumplen todos los criterios
+     */
+    @Operation(
+            summary = "Búsqueda estructurada de transacciones",
+            description = "Busca transacciones por número exacto, rango de montos, rango de fechas "
+                    + "y prefijos de cliente y giro/comercio. Los criterios se combinan con AND."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lista de transacciones que cumplen los criterios",
+            content = @Content(
+                array = @ArraySchema(schema = @Schema(implementation = TransaccionResponseDTO.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Sin criterios o criterios inválidos",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @GetMapping("/search/advanced")
+    public ResponseEntity<List<TransaccionResponseDTO>> buscarAvanzado(
+            @Valid @ParameterObject @ModelAttribute TransaccionBusquedaDTO busqueda
     ) {
-        return ResponseEntity.ok(service.buscarPorFiltro(filtro));
+        return ResponseEntity.ok(service.buscar(busqueda));
+    }
+
+    /**
+     * Endpoint para obtener una página del listado de transacciones.
+     *
+     * <p>
+     * Utiliza paginación por cursor: la primera página se solicita sin
+     * {@code cursor} y las siguientes reenviando el {@code siguienteCursor}
+     * recibido. Es la alternativa recomendada a {@code /all} cuando la tabla
+     * de transacciones es grande.
+     * </p>
+     *
+     * @param cursor cursor opaco de la página anterior (opcional)
+     * @param tamano cantidad de transacciones por página (opcional)
+     * @return página de transacciones y cursor de la página siguiente
+     */
+    @Operation(
+            summary = "Listar transacciones paginadas",
+            description = "Devuelve una página de transacciones ordenadas por fecha e id. "
+                    + "Para obtener la página siguiente se debe enviar el 'siguienteCursor' de la respuesta anterior."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Página de transacciones",
+            content = @Content(schema = @Schema(implementation = TransaccionPaginaDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Cursor o tamaño de página inválido",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @GetMapping("/page")
+    public ResponseEntity<TransaccionPaginaDTO> listarPagina(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano
+    ) {
+        return ResponseEntity.ok(service.listarPagina(cursor, tamano));
+    }
+
+    /**
+     * Endpoint de sincronización incremental.
+     *
+     * <p>
+     * Retorna las transacciones creadas, actualizadas y eliminadas después de
+     * la versión {@code since}. El consumidor debe reenviar la
+     * {@code version} de la respuesta, y seguir solicitando mientras
+     * {@code tieneMas} sea {@code true}. Sin {@code since} solo se retorna la
+     * versión actual, desde la cual sincronizar después de una carga completa.
+     * </p>
+     *
+     * @param since  versión de la respuesta anterior (opcional)
+     * @param tamano cantidad máxima de cambios por respuesta (opcional)
+     * @return cambios posteriores a la versión y la versión siguiente
+     */
+    @Operation(
+            summary = "Sincronizar cambios de transacciones",
+            description = "Devuelve las transacciones creadas o actualizadas (con su estado actual) y los ids de las "
+                    + "eliminadas después de la versión 'since'. Para continuar se debe enviar la 'version' de la respuesta. "
+                    + "Si la versión ya no está disponible se debe realizar una sincronización completa."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Cambios posteriores a la versión",
+            content = @Content(schema = @Schema(implementation = TransaccionCambiosDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Versión no disponible o tamaño inválido",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<TransaccionCambiosDTO> buscarCambios(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer tamano
+    ) {
+        return ResponseEntity.ok(cambioService.buscarCambios(since, tamano));
+    }
+
+    /**
+     * Endpoint para exportar todas las transacciones en streaming.
+     *
+     * <p>
+     * Las transacciones se escriben en la respuesta a medida que se leen
+     * desde la base de datos, por lo que el consumo de memoria del servidor
+     * no depende del tamaño de la tabla. Pensado para procesos de
+     * conciliación que necesitan recorrer todas las filas.
+     * </p>
+     *
+     * @param formato formato de salida: {@code ndjson} (por defecto) o {@code csv}
+     * @return cuerpo de respuesta que se escribe de forma asíncrona
+     */
+    @Operation(
+            summary = "Exportar todas las transacciones",
+            description = "Exporta todas las transacciones en streaming como NDJSON (una transacción por línea) o CSV."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Exportación de transacciones",
+            content = {
+                @Content(mediaType = "application/x-ndjson"),
+                @Content(mediaType = "text/csv")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Formato de exportación no soportado",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+        )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false, defaultValue = "ndjson") String formato
+    ) {
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+        StreamingResponseBody cuerpo = salida -> exportService.exportar(formatoExportacion, salida);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacion.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transacciones." + formatoExportacion.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Respuesta JSON ya serializada con su ETag. {@code no-cache} indica al
+     * navegador que la guarde pero la revalide en cada uso.
+     */
+    private static ResponseEntity<byte[]> versionada(RespuestaVersionada respuesta) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(respuesta.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(respuesta.json());
+    }
+
+    private static ResponseEntity<byte[]> noModificada(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
     }
 }
@@ -0,0 +1,66 @@
+package com.cpalacios.tenpo.app.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada para la búsqueda estructurada de transacciones.
+ *
+ * <p>
+ * Se recibe como parámetros de query. Cada campo es opcional, pero se debe
+ * indicar al menos uno; los campos informados se combinan con AND.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionBusquedaDTO {
+
+    /**
+     * Número de transacción exacto.
+     */
+    @Min(value = 1, message = "El número de la transacción debe ser mayor o igual a 1")
+    private Integer numeroTransaccion;
+
+    /**
+     * Monto mínimo en pesos (inclusive).
+     */
+    @Min(value = 1, message = "El monto mínimo debe ser mayor o igual a 1")
+    private Integer montoMinimo;
+
+    /**
+     * Monto máximo en pesos (inclusive).
+     */
+    @Min(value = 1, message = "El monto máximo debe ser mayor o igual a 1")
+    private Integer montoMaximo;
+
+    /**
+     * Fecha y hora desde la cual buscar (inclusive), en formato ISO.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime fechaDesde;
+
+    /**
+     * Fecha y hora hasta la cual buscar (exclusive), en formato ISO.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime fechaHasta;
+
+    /**
+     * Prefijo del nombre del cliente (tenpista), sin distinguir mayúsculas.
+     */
+    private String nombreTenpista;
+
+    /**
+     * Prefijo del giro o comercio, sin distinguir mayúsculas.
+     */
+    private String giroComercio;
+}
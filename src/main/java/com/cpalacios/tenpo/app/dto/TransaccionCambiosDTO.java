@@ -0,0 +1,51 @@
+package com.cpalacios.tenpo.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para la sincronización incremental de transacciones.
+ *
+ * <p>
+ * Contiene los cambios posteriores a la versión enviada por el consumidor,
+ * agrupados por transacción: cada transacción aparece una sola vez, con su
+ * estado actual o como eliminada. El consumidor debe reenviar la
+ * {@code version} recibida para obtener los cambios siguientes.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionCambiosDTO {
+
+    /**
+     * Transacciones creadas o actualizadas, con su estado actual.
+     */
+    private List<TransaccionResponseDTO> actualizadas;
+
+    /**
+     * Identificadores de las transacciones eliminadas.
+     */
+    private List<Long> eliminadas;
+
+    /**
+     * Versión hasta la que se entregaron los cambios, que se debe enviar
+     * como {@code since} en la siguiente solicitud.
+     */
+    private long version;
+
+    /**
+     * Indica si existen más cambios confirmados después de esta página.
+     */
+    private boolean tieneMas;
+
+    /**
+     * Cantidad máxima de cambios leídos por página aplicada por el servidor.
+     */
+    private int tamano;
+}
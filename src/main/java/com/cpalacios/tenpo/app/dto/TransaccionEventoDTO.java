@@ -0,0 +1,61 @@
+package com.cpalacios.tenpo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con un cambio confirmado sobre una transacción.
+ *
+ * <p>
+ * Los servicios lo publican como evento de aplicación al crear, actualizar o
+ * eliminar una transacción, y se envía a los suscriptores de
+ * {@code /api/transacciones/events} después del commit.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransaccionEventoDTO {
+
+    /**
+     * Tipos de cambio sobre una transacción.
+     */
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+
+    /**
+     * Tipo de cambio.
+     */
+    private Tipo tipo;
+
+    /**
+     * Identificador de la transacción afectada.
+     */
+    private Long idTransaccion;
+
+    /**
+     * Estado de la transacción después del cambio; ausente si fue eliminada.
+     */
+    private TransaccionResponseDTO transaccion;
+
+    public static TransaccionEventoDTO creada(TransaccionResponseDTO transaccion) {
+        return new TransaccionEventoDTO(Tipo.CREADA, transaccion.getIdTransaccion(), transaccion);
+    }
+
+    public static TransaccionEventoDTO actualizada(TransaccionResponseDTO transaccion) {
+        return new TransaccionEventoDTO(Tipo.ACTUALIZADA, transaccion.getIdTransaccion(), transaccion);
+    }
+
+    public static TransaccionEventoDTO eliminada(Long idTransaccion) {
+        return new TransaccionEventoDTO(Tipo.ELIMINADA, idTransaccion, null);
+    }
+}
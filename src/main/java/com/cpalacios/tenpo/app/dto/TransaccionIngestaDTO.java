@@ -0,0 +1,63 @@
+package com.cpalacios.tenpo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado de una transacción recibida por la ingesta asíncrona.
+ *
+ * <p>
+ * Se retorna al aceptar la solicitud (estado {@link Estado#PENDIENTE}) y al
+ * consultar su id de seguimiento, hasta que el escritor la registra o la
+ * rechaza.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransaccionIngestaDTO {
+
+    /**
+     * Estados de una transacción en la ingesta asíncrona.
+     */
+    public enum Estado {
+        /** Aceptada y en espera de ser escrita. */
+        PENDIENTE,
+        /** Registrada en la base de datos. */
+        REGISTRADA,
+        /** Rechazada por una regla de negocio al escribirse. */
+        RECHAZADA
+    }
+
+    /**
+     * Identificador con el que se consulta el estado de la solicitud.
+     */
+    private String idSeguimiento;
+
+    /**
+     * Número de transacción informado en la solicitud.
+     */
+    private Integer numeroTransaccion;
+
+    /**
+     * Estado actual de la solicitud.
+     */
+    private Estado estado;
+
+    /**
+     * Transacción registrada, presente solo en estado
+     * {@link Estado#REGISTRADA}.
+     */
+    private TransaccionResponseDTO transaccion;
+
+    /**
+     * Motivo del rechazo, presente solo en estado {@link Estado#RECHAZADA}.
+     */
+    private String error;
+}
@@ -0,0 +1,43 @@
+package com.cpalacios.tenpo.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para la creación de transacciones en lote.
+ *
+ * <p>
+ * Resume cuántos elementos fueron registrados y rechazados, y entrega el
+ * resultado de cada elemento en el mismo orden en que fueron recibidos.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionLoteResponseDTO {
+
+    /**
+     * Cantidad de elementos recibidos.
+     */
+    private int total;
+
+    /**
+     * Cantidad de transacciones registradas.
+     */
+    private int exitosas;
+
+    /**
+     * Cantidad de elementos rechazados.
+     */
+    private int fallidas;
+
+    /**
+     * Resultado de cada elemento, en el orden del lote recibido.
+     */
+    private List<TransaccionLoteResultadoDTO> resultados;
+}
@@ -0,0 +1,52 @@
+package com.cpalacios.tenpo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de un elemento de la creación de transacciones en
+ * lote.
+ *
+ * <p>
+ * Cada elemento del lote se informa por separado: si fue registrado se
+ * incluye la transacción creada y, si no, el motivo del rechazo.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransaccionLoteResultadoDTO {
+
+    /**
+     * Posición del elemento dentro del lote recibido, comenzando en 0.
+     */
+    private int indice;
+
+    /**
+     * Número de transacción informado en el elemento.
+     */
+    private Integer numeroTransaccion;
+
+    /**
+     * Indica si la transacción fue registrada.
+     */
+    private boolean exitosa;
+
+    /**
+     * Transacción registrada, presente solo cuando {@code exitosa} es
+     * {@code true}.
+     */
+    private TransaccionResponseDTO transaccion;
+
+    /**
+     * Motivo del rechazo, presente solo cuando {@code exitosa} es
+     * {@code false}.
+     */
+    private String error;
+}
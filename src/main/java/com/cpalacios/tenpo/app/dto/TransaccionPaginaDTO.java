@@ -0,0 +1,49 @@
+package com.cpalacios.tenpo.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para el listado paginado de transacciones.
+ *
+ * <p>
+ * La paginación es del tipo <i>keyset</i> (por cursor): en lugar de un número
+ * de página u OFFSET, cada respuesta entrega un cursor opaco que el consumidor
+ * debe reenviar para obtener la página siguiente. De esta forma el costo de
+ * cada consulta no depende de qué tan profundo se pagine.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionPaginaDTO {
+
+    /**
+     * Transacciones de la página actual, ordenadas por fecha e identificador.
+     */
+    private List<TransaccionResponseDTO> transacciones;
+
+    /**
+     * Cursor opaco para solicitar la página siguiente.
+     *
+     * <p>
+     * Es {@code null} cuando no existen más transacciones.
+     * </p>
+     */
+    private String siguienteCursor;
+
+    /**
+     * Indica si existen más transacciones después de esta página.
+     */
+    private boolean tieneMas;
+
+    /**
+     * Tamaño de página efectivamente aplicado por el servidor.
+     */
+    private int tamano;
+}
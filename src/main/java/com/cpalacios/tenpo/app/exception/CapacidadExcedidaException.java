@@ -0,0 +1,25 @@
+package com.cpalacios.tenpo.app.exception;
+
+/**
+ * Excepción que indica que el servicio no puede aceptar más trabajo por el
+ * momento.
+ *
+ * <p>
+ * A diferencia de {@link BusinessException}, la solicitud es válida y puede
+ * reintentarse más tarde, por lo que se traduce en una respuesta HTTP 429
+ * (Too Many Requests).
+ * </p>
+ */
+public class CapacidadExcedidaException extends RuntimeException {
+
+    private static final long serialVersionUID = 3120574620311459212L;
+
+    /**
+     * Construye la excepción con un mensaje descriptivo.
+     *
+     * @param message descripción de la capacidad excedida
+     */
+    public CapacidadExcedidaException(String message) {
+        super(message);
+    }
+}
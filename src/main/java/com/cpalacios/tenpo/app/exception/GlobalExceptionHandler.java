@@ -3,6 +3,7 @@ package com.cpalacios.tenpo.app.exception;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -56,6 +57,27 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", ex.getMessage()));
     }
     
+    /**
+     * Maneja las excepciones de tipo {@link CapacidadExcedidaException}.
+     *
+     * <p>
+     * La solicitud es válida pero no puede aceptarse por ahora, por lo que
+     * se responde HTTP 429 (Too Many Requests) indicando con
+     * {@code Retry-After} cuántos segundos esperar antes de reintentar.
+     * </p>
+     *
+     * @param ex excepción lanzada al exceder la capacidad
+     * @return {@link ResponseEntity} con el detalle del error
+     */
+    @ExceptionHandler(CapacidadExcedidaException.class)
+    public ResponseEntity<Map<String, String>> handleCapacidadExcedida(
+            CapacidadExcedidaException ex
+    ) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+
     /**
      * Maneja errores de validación (@NotNull, @NotBlank, etc.).
      *
@@ -2,10 +2,13 @@ package com.cpalacios.tenpo.app.mapper;
 
 import org.springframework.stereotype.Component;
 
+import com.cpalacios.tenpo.app.dto.TransaccionBusquedaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
 
 /**
  * Mapper responsable de convertir entre DTOs de transacción y la entidad
@@ -77,4 +80,55 @@ public class TransaccionMapper {
                 .fechaTransaccion(entity.getFechaTransaccion()).message("Transacción Exitosa")
                 .build();
     }
+
+    /**
+     * Convierte una proyección {@link TransaccionResumen} en un
+     * {@link TransaccionResponseDTO}.
+     *
+     * <p>
+     * Es la conversión utilizada por las consultas de lectura, que obtienen
+     * las columnas de la respuesta sin hidratar entidades JPA.
+     * </p>
+     *
+     * @param resumen proyección obtenida desde la base de datos
+     * @return DTO de respuesta {@link TransaccionResponseDTO}
+     */
+    public TransaccionResponseDTO toResponse(TransaccionResumen resumen) {
+        return TransaccionResponseDTO.builder()
+                .idTransaccion(resumen.idTransaccion())
+                .numeroTransaccion(resumen.numeroTransaccion())
+                .nombreTenpista(resumen.nombreTenpista())
+                .giroComercio(resumen.giroComercio())
+                .montoPesos(resumen.montoPesos())
+                .fechaTransaccion(resumen.fechaTransaccion()).message("Transacción Exitosa")
+                .build();
+    }
+
+    /**
+     * Convierte un {@link TransaccionBusquedaDTO} en un
+     * {@link TransaccionCriterio} para la capa de persistencia.
+     *
+     * <p>
+     * Los textos vacíos se descartan, de modo que solo los campos realmente
+     * informados generan predicados.
+     * </p>
+     *
+     * @param dto criterios recibidos desde la API
+     * @return criterio de búsqueda tipado
+     */
+    public TransaccionCriterio toCriterio(TransaccionBusquedaDTO dto) {
+        return TransaccionCriterio.builder()
+                .numeroTransaccion(dto.getNumeroTransaccion())
+                .montoMinimo(dto.getMontoMinimo())
+                .montoMaximo(dto.getMontoMaximo())
+                .fechaDesde(dto.getFechaDesde())
+                .fechaHasta(dto.getFechaHasta())
+                .prefijoNombreTenpista(textoOpcional(dto.getNombreTenpista()))
+                .prefijoGiroComercio(textoOpcional(dto.getGiroComercio()))
+                .build();
+    }
+
+    private static String textoOpcional(String valor) {
+        return (valor == null || valor.isBlank()) ? null : valor.trim();
+    }
 }
@@ -0,0 +1,66 @@
+package com.cpalacios.tenpo.app.persistence.criteria;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Criterios tipados para la búsqueda estructurada de transacciones.
+ *
+ * <p>
+ * Cada atributo no nulo se traduce en un predicado que la base de datos puede
+ * resolver con un índice (igualdad, rango o prefijo); todos los predicados se
+ * combinan con AND. Los atributos nulos se ignoran.
+ * </p>
+ */
+@Value
+@Builder
+public class TransaccionCriterio {
+
+    /**
+     * Número de transacción exacto.
+     */
+    Integer numeroTransaccion;
+
+    /**
+     * Monto mínimo en pesos (inclusive).
+     */
+    Integer montoMinimo;
+
+    /**
+     * Monto máximo en pesos (inclusive).
+     */
+    Integer montoMaximo;
+
+    /**
+     * Fecha desde la cual buscar (inclusive).
+     */
+    LocalDateTime fechaDesde;
+
+    /**
+     * Fecha hasta la cual buscar (exclusive).
+     */
+    LocalDateTime fechaHasta;
+
+    /**
+     * Prefijo del nombre del cliente, sin distinguir mayúsculas.
+     */
+    String prefijoNombreTenpista;
+
+    /**
+     * Prefijo del giro o comercio, sin distinguir mayúsculas.
+     */
+    String prefijoGiroComercio;
+
+    /**
+     * Indica si el criterio no contiene ningún predicado.
+     *
+     * @return {@code true} si todos los atributos son nulos
+     */
+    public boolean estaVacio() {
+        return numeroTransaccion == null && montoMinimo == null && montoMaximo == null
+                && fechaDesde == null && fechaHasta == null
+                && prefijoNombreTenpista == null && prefijoGiroComercio == null;
+    }
+}
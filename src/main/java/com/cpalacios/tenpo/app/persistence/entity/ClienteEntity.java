@@ -1,5 +1,12 @@
 package com.cpalacios.tenpo.app.persistence.entity;
 
+import java.util.Locale;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,9 +15,20 @@ import lombok.*;
  * Entidad que representa a un cliente del sistema.
  *
  * Un cliente puede tener como máximo 100 transacciones asociadas.
+ *
+ * <p>
+ * Se guarda en la caché de segundo nivel por identificador y por nombre
+ * normalizado (ver
+ * {@link com.cpalacios.tenpo.app.config.CacheSegundoNivelConfig}).
+ * </p>
  */
 @Entity
-@Table(name = "clientes")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ClienteEntity.REGION_CACHE)
+@NaturalIdCache(region = ClienteEntity.REGION_CACHE_ID_NATURAL)
+@Table(
+    name = "clientes",
+    uniqueConstraints = @UniqueConstraint(name = "uk_clientes_nombre_normalizado", columnNames = "nombre_normalizado")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,10 +36,29 @@ import lombok.*;
 public class ClienteEntity {
 
     /**
-     * Identificador único del cliente.
+     * Cantidad de identificadores que se reservan en cada lectura de las
+     * secuencias de clientes y transacciones.
+     */
+    public static final int TAMANO_ASIGNACION_IDS = 50;
+
+    /**
+     * Región de la caché de segundo nivel con los clientes por identificador.
+     */
+    public static final String REGION_CACHE = "clientes";
+
+    /**
+     * Región de la caché de segundo nivel con el identificador de cada
+     * nombre normalizado.
+     */
+    public static final String REGION_CACHE_ID_NATURAL = "clientes-id-natural";
+
+    /**
+     * Identificador único del cliente, obtenido de una secuencia con
+     * asignación por bloques para permitir INSERT en lotes.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clientes_seq")
+    @SequenceGenerator(name = "clientes_seq", sequenceName = "clientes_seq", allocationSize = TAMANO_ASIGNACION_IDS)
     @Column(name = "id_cliente")
     private Long idCliente;
 
@@ -30,4 +67,53 @@ public class ClienteEntity {
      */
     @Column(name = "nombre_tenpista", nullable = false, length = 100)
     private String nombreTenpista;
-}
\ No newline at end of file
+
+    /**
+     * Nombre del tenpista normalizado (sin espacios laterales y en
+     * minúsculas), único por cliente.
+     *
+     * <p>
+     * Es la clave lógica del cliente: evita duplicados por diferencias de
+     * capitalización y permite resolver el cliente con un upsert. Como
+     * identificador natural, no cambia una vez creado el cliente.
+     * </p>
+     */
+    @NaturalId
+    @Column(name = "nombre_normalizado", nullable = false, length = 100)
+    private String nombreNormalizado;
+
+    /**
+     * Cantidad de transacciones asociadas al cliente.
+     *
+     * <p>
+     * Se mantiene únicamente mediante las actualizaciones condicionales de
+     * {@link com.cpalacios.tenpo.app.persistence.repository.ClienteRepository}
+     * ({@code updatable = false}), de modo que el dirty checking de la
+     * entidad nunca sobrescribe el valor con una copia desactualizada.
+     * </p>
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "total_transacciones", nullable = false, updatable = false)
+    private int totalTransacciones = 0;
+
+    /**
+     * Calcula el nombre normalizado a partir del nombre del tenpista antes
+     * de insertar o actualizar.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizar() {
+        nombreNormalizado = normalizarNombre(nombreTenpista);
+    }
+
+    /**
+     * Normaliza un nombre de tenpista para usarlo como clave lógica.
+     *
+     * @param nombreTenpista nombre tal como lo informa el consumidor
+     * @return nombre sin espacios laterales y en minúsculas
+     */
+    public static String normalizarNombre(String nombreTenpista) {
+        return nombreTenpista.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,65 @@
+package com.cpalacios.tenpo.app.persistence.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entidad que registra el resultado de una solicitud de creación recibida
+ * con el header {@code Idempotency-Key}.
+ *
+ * Se confirma en la misma transacción que la transacción creada, por lo que
+ * una clave registrada siempre corresponde a una creación exitosa. Implementa
+ * {@link Persistable} para que {@code save} ejecute siempre un INSERT: si otra
+ * instancia ya registró la clave, la llave primaria lo rechaza en lugar de
+ * sobrescribir la respuesta original.
+ */
+@Entity
+@Table(name = "idempotencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotenciaEntity implements Persistable<String> {
+
+    /**
+     * Hash SHA-256 del {@code X-Client-Id} y la clave de idempotencia enviada
+     * por el consumidor.
+     */
+    @Id
+    @Column(name = "clave", length = 100)
+    private String clave;
+
+    /**
+     * Huella SHA-256 del cuerpo de la solicitud original, para detectar la
+     * reutilización de una clave con datos distintos.
+     */
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+
+    /**
+     * Respuesta entregada en la ejecución original, serializada en JSON.
+     */
+    @Column(name = "respuesta", nullable = false, length = 4000)
+    private String respuesta;
+
+    /**
+     * Fecha y hora en que se registró la clave.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+}
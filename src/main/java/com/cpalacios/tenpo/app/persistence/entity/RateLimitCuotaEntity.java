@@ -0,0 +1,40 @@
+package com.cpalacios.tenpo.app.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entidad con la cuota global de un cliente para el rate limiting
+ * distribuido, compartida por todas las instancias.
+ *
+ * Cada instancia arrienda tokens de la cuota con un bloqueo de la fila, por
+ * lo que las actualizaciones de un mismo cliente se serializan en la base de
+ * datos.
+ */
+@Entity
+@Table(name = "rate_limit_cuotas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitCuotaEntity {
+
+    /**
+     * Límite y cliente al que corresponde la cuota.
+     */
+    @Id
+    @Column(name = "clave", length = 255)
+    private String clave;
+
+    /**
+     * Tokens disponibles en el último acceso.
+     */
+    @Column(name = "tokens", nullable = false)
+    private double tokens;
+
+    /**
+     * Instante del último acceso, en milisegundos desde epoch.
+     */
+    @Column(name = "actualizado", nullable = false)
+    private long actualizado;
+}
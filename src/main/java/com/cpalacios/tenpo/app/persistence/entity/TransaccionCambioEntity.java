@@ -0,0 +1,57 @@
+package com.cpalacios.tenpo.app.persistence.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entidad que registra un cambio sobre una transacción en el log de cambios
+ * usado por la sincronización incremental.
+ *
+ * Se inserta en la misma transacción que el cambio. Las eliminaciones se
+ * registran como filas con {@code eliminada = true} (tombstones), ya que la
+ * transacción deja de existir en su tabla.
+ */
+@Entity
+@Table(name = "transacciones_cambios")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransaccionCambioEntity {
+
+    /**
+     * Versión del cambio.
+     *
+     * <p>
+     * Se obtiene de una secuencia con incremento 1 leída en el mismo INSERT,
+     * sin asignación por bloques: un bloque reservado por una instancia
+     * generaría versiones menores a las ya entregadas por otra.
+     * </p>
+     */
+    @Id
+    @SequenceGenerator(name = "transacciones_cambios_seq", sequenceName = "transacciones_cambios_seq",
+            allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_cambios_seq")
+    @Column(name = "id_cambio")
+    private Long idCambio;
+
+    /**
+     * Identificador de la transacción modificada.
+     */
+    @Column(name = "id_transaccion", nullable = false)
+    private Long idTransaccion;
+
+    /**
+     * Indica si el cambio fue la eliminación de la transacción.
+     */
+    @Column(name = "eliminada", nullable = false)
+    private boolean eliminada;
+
+    /**
+     * Fecha y hora en que se registró el cambio.
+     */
+    @Column(name = "fecha_cambio", nullable = false)
+    private LocalDateTime fechaCambio;
+}
@@ -14,7 +14,10 @@ import lombok.*;
 @Table(
     name = "transacciones",
     indexes = {
-        @Index(name = "idx_transacciones_cliente", columnList = "id_cliente")
+        @Index(name = "idx_transacciones_cliente", columnList = "id_cliente"),
+        @Index(name = "idx_transacciones_fecha_id", columnList = "fecha_transaccion, id_transaccion"),
+        @Index(name = "uk_transacciones_numero", columnList = "numero_transaccion", unique = true),
+        @Index(name = "idx_transacciones_monto", columnList = "monto_pesos")
     }
 )
 @Data
@@ -25,9 +28,18 @@ public class TransaccionEntity {
 
     /**
      * Identificador único de la transacción.
+     *
+     * <p>
+     * Se obtiene de una secuencia con asignación por bloques (optimizador
+     * {@code pooled}), lo que permite a Hibernate agrupar los INSERT en
+     * lotes JDBC; con {@code IDENTITY} cada fila se insertaría por separado
+     * para leer su identificador.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_seq")
+    @SequenceGenerator(name = "transacciones_seq", sequenceName = "transacciones_seq",
+            allocationSize = ClienteEntity.TAMANO_ASIGNACION_IDS)
     @Column(name = "id_transaccion")
     private Long idTransaccion;
 
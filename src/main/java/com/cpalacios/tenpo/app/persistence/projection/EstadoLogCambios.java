@@ -0,0 +1,18 @@
+package com.cpalacios.tenpo.app.persistence.projection;
+
+/**
+ * Cantidad de filas y versión máxima del log de cambios, usadas para detectar
+ * si el log cambió entre dos revisiones.
+ *
+ * <p>
+ * La versión máxima sola no basta: las versiones se leen de la secuencia
+ * antes del commit, por lo que un cambio con una versión menor puede
+ * confirmarse después de otro con una versión mayor sin mover el máximo. Ese
+ * cambio sí aumenta la cantidad de filas.
+ * </p>
+ *
+ * @param cantidad      filas del log
+ * @param versionMaxima versión máxima, o {@code null} si el log está vacío
+ */
+public record EstadoLogCambios(Long cantidad, Long versionMaxima) {
+}
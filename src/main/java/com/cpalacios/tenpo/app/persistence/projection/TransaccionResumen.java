@@ -0,0 +1,30 @@
+package com.cpalacios.tenpo.app.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección inmutable de una transacción con las columnas expuestas por la
+ * API de consulta.
+ *
+ * <p>
+ * Se construye directamente desde JPQL mediante una expresión
+ * {@code SELECT new ...}, por lo que Hibernate no crea entidades gestionadas,
+ * proxies de {@code cliente} ni copias para el dirty checking: cada fila del
+ * resultado se convierte en una única instancia de este record.
+ * </p>
+ *
+ * @param idTransaccion     identificador único de la transacción
+ * @param numeroTransaccion número de la transacción
+ * @param nombreTenpista    nombre del cliente asociado
+ * @param montoPesos        monto de la transacción en pesos
+ * @param fechaTransaccion  fecha y hora de la transacción
+ * @param giroComercio      giro o comercio de la transacción
+ */
+public record TransaccionResumen(
+        Long idTransaccion,
+        Integer numeroTransaccion,
+        String nombreTenpista,
+        Integer montoPesos,
+        LocalDateTime fechaTransaccion,
+        String giroComercio) {
+}
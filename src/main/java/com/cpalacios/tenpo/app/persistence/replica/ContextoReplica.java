@@ -0,0 +1,62 @@
+package com.cpalacios.tenpo.app.persistence.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Indica al {@link EnrutadorReplicas} que las lecturas del hilo actual deben
+ * ir al primario, por ejemplo porque el cliente acaba de escribir y una
+ * réplica con retraso aún no tendría sus datos.
+ */
+public final class ContextoReplica {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private ContextoReplica() {
+    }
+
+    /**
+     * Envía al primario las lecturas del hilo actual hasta {@link #limpiar()}.
+     */
+    public static void usarPrimario() {
+        PRIMARIO.set(Boolean.TRUE);
+    }
+
+    /**
+     * Restablece el enrutamiento normal del hilo actual.
+     */
+    public static void limpiar() {
+        PRIMARIO.remove();
+    }
+
+    /**
+     * Ejecuta la operación con las lecturas del hilo actual en el primario y
+     * luego restablece el enrutamiento anterior.
+     *
+     * <p>
+     * Solo afecta a las transacciones que obtienen su conexión dentro de la
+     * operación: una transacción de solo lectura iniciada por la operación, o
+     * una ya iniciada que aún no ejecutó ninguna sentencia.
+     * </p>
+     *
+     * @param operacion lecturas que no toleran el retraso de las réplicas
+     * @return resultado de la operación
+     */
+    public static <T> T enPrimario(Supplier<T> operacion) {
+        boolean forzado = primarioForzado();
+        PRIMARIO.set(Boolean.TRUE);
+        try {
+            return operacion.get();
+        } finally {
+            if (!forzado) {
+                PRIMARIO.remove();
+            }
+        }
+    }
+
+    /**
+     * Indica si las lecturas del hilo actual deben ir al primario.
+     */
+    public static boolean primarioForzado() {
+        return PRIMARIO.get() != null;
+    }
+}
@@ -0,0 +1,150 @@
+package com.cpalacios.tenpo.app.persistence.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link DataSource} que envía las transacciones de solo lectura a las
+ * réplicas y todo lo demás al primario.
+ *
+ * <p>
+ * Las lecturas se reparten entre las réplicas sanas en orden circular. Si una
+ * réplica no entrega la conexión se marca caída y se prueba la siguiente; si
+ * ninguna está sana, la lectura va al primario. Las réplicas caídas vuelven a
+ * usarse cuando {@link #revisarReplicas()} confirma que responden. Las
+ * lecturas marcadas con {@link ContextoReplica#usarPrimario()} también van al
+ * primario.
+ * </p>
+ *
+ * <p>
+ * Debe usarse detrás de un {@link LazyConnectionDataSourceProxy}, para que la
+ * conexión se obtenga cuando la transacción ya está marcada como de solo
+ * lectura.
+ * </p>
+ *
+ * <p>
+ * Los pools de las réplicas no son beans, por lo que se cierran en
+ * {@link #close()} al detener el contexto; el primario lo cierra su propio
+ * bean.
+ * </p>
+ */
+@Slf4j
+public class EnrutadorReplicas extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private final DataSource primario;
+    private final Replica[] replicas;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private final LongAdder lecturasEnPrimario = new LongAdder();
+
+    /**
+     * @param primario base de datos de las escrituras
+     * @param replicas réplicas de lectura
+     */
+    public EnrutadorReplicas(DataSource primario, List<Replica> replicas) {
+        this.primario = primario;
+        this.replicas = replicas.toArray(Replica[]::new);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(DataSource::getConnection);
+    }
+
+    /**
+     * Pide la conexión con las credenciales indicadas al pool que
+     * corresponde, que puede no admitirlo (como Hikari).
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection conectar(Replica.Obtencion obtencion) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return obtencion.conectar(primario);
+        }
+        if (!ContextoReplica.primarioForzado()) {
+            int inicio = Math.floorMod(siguiente.getAndIncrement(), Math.max(replicas.length, 1));
+            for (int i = 0; i < replicas.length; i++) {
+                Replica replica = replicas[(inicio + i) % replicas.length];
+                if (!replica.isSana()) {
+                    continue;
+                }
+                try {
+                    return replica.conectar(obtencion);
+                } catch (SQLFeatureNotSupportedException e) {
+                    throw e;
+                } catch (SQLException | RuntimeException e) {
+                    // La réplica quedó marcada caída; se prueba la siguiente
+                }
+            }
+        }
+        lecturasEnPrimario.increment();
+        return obtencion.conectar(primario);
+    }
+
+    /**
+     * Revisa periódicamente todas las réplicas, recuperando las que vuelven a
+     * responder.
+     */
+    @Scheduled(fixedDelayString = "${concurrencia.pools.lectura.revision-ms:5000}")
+    public void revisarReplicas() {
+        for (Replica replica : replicas) {
+            replica.revisar();
+        }
+    }
+
+    /**
+     * Cierra los pools de las réplicas.
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable pool) {
+                try {
+                    pool.close();
+                } catch (Exception e) {
+                    log.warn("No se logró cerrar el pool de la réplica {}", replica.getNombre(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lecturas enviadas al primario por no haber réplicas sanas o por
+     * {@link ContextoReplica#usarPrimario()}.
+     */
+    public long cantidadLecturasEnPrimario() {
+        return lecturasEnPrimario.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("replica.sana", replica, r -> r.isSana() ? 1 : 0)
+                    .description("Indica si la réplica recibe lecturas")
+                    .tag("replica", replica.getNombre())
+                    .register(registry);
+        }
+        FunctionCounter.builder("replica.lecturas.primario", this, EnrutadorReplicas::cantidadLecturasEnPrimario)
+                .description("Lecturas enviadas al primario en lugar de una réplica")
+                .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.cpalacios.tenpo.app.persistence.replica;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Clientes que escribieron hace menos de una ventana de tiempo, cuyas
+ * lecturas deben ir al primario para que vean sus propias escrituras aunque
+ * las réplicas tengan retraso.
+ */
+public class EscriturasRecientes {
+
+    private final Cache<String, Boolean> clientes;
+
+    /**
+     * @param ventana        tiempo que un cliente lee del primario tras
+     *                       escribir; debe superar el retraso de las réplicas
+     * @param maximoClientes cantidad máxima de clientes registrados
+     */
+    public EscriturasRecientes(Duration ventana, long maximoClientes) {
+        this.clientes = Caffeine.newBuilder()
+                .expireAfterWrite(ventana)
+                .maximumSize(maximoClientes)
+                .build();
+    }
+
+    /**
+     * Registra una escritura del cliente, reiniciando su ventana.
+     */
+    public void registrar(String cliente) {
+        clientes.put(cliente, Boolean.TRUE);
+    }
+
+    /**
+     * Indica si el cliente escribió dentro de la ventana.
+     */
+    public boolean escribioRecientemente(String cliente) {
+        return clientes.getIfPresent(cliente) != null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cpalacios.tenpo.app.persistence.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Réplica de lectura de la base de datos y su estado de salud.
+ *
+ * <p>
+ * Una réplica que falla al entregar una conexión se marca caída y deja de
+ * recibir lecturas hasta que {@link #revisar()} confirme que responde.
+ * </p>
+ */
+@Slf4j
+public class Replica {
+
+    /**
+     * Segundos que se espera la validación de una conexión al revisar.
+     */
+    private static final int ESPERA_VALIDACION_SEGUNDOS = 2;
+
+    private final String nombre;
+    private final DataSource dataSource;
+    private volatile boolean sana = true;
+
+    public Replica(String nombre, DataSource dataSource) {
+        this.nombre = nombre;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Obtiene una conexión de la réplica, marcándola caída si falla.
+     *
+     * @param obtencion forma de pedir la conexión al pool
+     * @throws SQLException si la réplica no entrega la conexión
+     */
+    Connection conectar(Obtencion obtencion) throws SQLException {
+        try {
+            return obtencion.conectar(dataSource);
+        } catch (SQLFeatureNotSupportedException e) {
+            // El pool no admite la operación: no indica que la réplica esté caída
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            if (sana) {
+                log.warn("Réplica {} caída, sus lecturas pasan a otra réplica o al primario: {}", nombre,
+                        e.getMessage());
+            }
+            sana = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Verifica si la réplica responde y actualiza su estado.
+     *
+     * @return {@code true} si está sana
+     */
+    public boolean revisar() {
+        boolean respondio;
+        try (Connection conexion = dataSource.getConnection()) {
+            respondio = conexion.isValid(ESPERA_VALIDACION_SEGUNDOS);
+        } catch (SQLException | RuntimeException e) {
+            respondio = false;
+        }
+        if (respondio != sana) {
+            log.info("Réplica {} {}", nombre, respondio ? "recuperada" : "caída");
+        }
+        sana = respondio;
+        return respondio;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isSana() {
+        return sana;
+    }
+
+    /**
+     * Forma de obtener una conexión de un {@link DataSource}.
+     */
+    @FunctionalInterface
+    interface Obtencion {
+
+        Connection conectar(DataSource dataSource) throws SQLException;
+    }
+}
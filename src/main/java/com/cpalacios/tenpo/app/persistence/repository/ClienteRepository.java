@@ -1,5 +1,7 @@
 package com.cpalacios.tenpo.app.persistence.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -27,7 +29,7 @@ import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
  * desacoplado y fácil de mantener.
  * </p>
  */
-public interface ClienteRepository extends JpaRepository<ClienteEntity, Long> {
+public interface ClienteRepository extends JpaRepository<ClienteEntity, Long>, ClienteRepositoryCustom {
 
     /**
      * Busca un cliente por su nombre, sin distinguir entre mayúsculas
@@ -51,4 +53,14 @@ public interface ClienteRepository extends JpaRepository<ClienteEntity, Long> {
      *         o vacío si no se encuentra
      */
     Optional<ClienteEntity> findByNombreTenpistaIgnoreCase(String nombreTenpista);
+
+    /**
+     * Busca, en una sola consulta, los clientes con los nombres normalizados
+     * indicados.
+     *
+     * @param nombresNormalizados nombres normalizados con
+     *                            {@link ClienteEntity#normalizarNombre(String)}
+     * @return clientes encontrados
+     */
+    List<ClienteEntity> findByNombreNormalizadoIn(Collection<String> nombresNormalizados);
 }
@@ -0,0 +1,110 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.util.Optional;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+
+/**
+ * Operaciones de clientes que dependen de SQL específico del motor de base
+ * de datos o de la caché de segundo nivel.
+ *
+ * <p>
+ * Spring Data combina esta interfaz con {@link ClienteRepository} y delega su
+ * implementación en {@link ClienteRepositoryImpl}.
+ * </p>
+ */
+public interface ClienteRepositoryCustom {
+
+    /**
+     * Obtiene el cliente con el nombre indicado, creándolo si no existe.
+     *
+     * <p>
+     * La unicidad se resuelve con el índice único sobre
+     * {@code nombre_normalizado}, por lo que dos solicitudes concurrentes
+     * para un nombre nuevo obtienen el mismo cliente en lugar de crear un
+     * duplicado.
+     * </p>
+     *
+     * @param nombreTenpista nombre del cliente
+     * @return cliente existente o recién creado, no administrado por el
+     *         contexto de persistencia; su nombre es el registrado
+     *         originalmente
+     */
+    @Transactional
+    ClienteEntity upsertPorNombre(String nombreTenpista);
+
+    /**
+     * Busca el cliente por su nombre normalizado, que es su identificador
+     * natural.
+     *
+     * <p>
+     * La resolución del nombre al identificador y la entidad se leen de la
+     * caché de segundo nivel, por lo que un cliente ya leído no consulta la
+     * base de datos. Los clientes inexistentes no se guardan en caché.
+     * </p>
+     *
+     * @param nombreNormalizado nombre normalizado con
+     *                          {@link ClienteEntity#normalizarNombre(String)}
+     * @return cliente, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    Optional<ClienteEntity> buscarPorNombreNormalizado(String nombreNormalizado);
+
+    /**
+     * Quita de la caché de segundo nivel las resoluciones de nombre a
+     * identificador de todos los clientes.
+     *
+     * <p>
+     * Se usa cuando un cliente pudo ser eliminado desde otra instancia, cuya
+     * eliminación no llega a la caché local. Las resoluciones no se pueden
+     * quitar de a una, pero la región se vuelve a llenar con las lecturas
+     * siguientes.
+     * </p>
+     */
+    void desalojarNombresEnCache();
+
+    /**
+     * Incrementa el contador de transacciones del cliente solo si aún no
+     * alcanza el máximo permitido.
+     *
+     * <p>
+     * La verificación y el incremento ocurren en una única sentencia
+     * {@code UPDATE}, que bloquea la fila del cliente hasta el fin de la
+     * transacción. Las solicitudes concurrentes para el mismo cliente se
+     * serializan sobre esa fila y vuelven a evaluar la condición, por lo que
+     * el límite no puede superarse; las de otros clientes no compiten entre
+     * sí.
+     * </p>
+     *
+     * @param idCliente identificador del cliente
+     * @param maximo    cantidad máxima de transacciones permitidas
+     * @return {@code 1} si se incrementó el contador, {@code 0} si el cliente
+     *         ya tiene el máximo de transacciones
+     */
+    @Transactional
+    int incrementarTotalTransacciones(Long idCliente, int maximo);
+
+    /**
+     * Reserva varios cupos de transacción para el cliente en una sola
+     * sentencia, solo si todos caben dentro del máximo permitido.
+     *
+     * @param idCliente identificador del cliente
+     * @param cantidad  cantidad de transacciones a reservar
+     * @param maximo    cantidad máxima de transacciones permitidas
+     * @return {@code 1} si se reservaron todos los cupos, {@code 0} si no
+     *         caben y el contador no se modificó
+     */
+    @Transactional
+    int incrementarTotalTransacciones(Long idCliente, int cantidad, int maximo);
+
+    /**
+     * Decrementa el contador de transacciones del cliente, sin bajar de cero.
+     *
+     * @param idCliente identificador del cliente
+     * @return cantidad de filas actualizadas
+     */
+    @Transactional
+    int decrementarTotalTransacciones(Long idCliente);
+}
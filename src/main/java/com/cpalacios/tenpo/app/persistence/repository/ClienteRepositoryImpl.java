@@ -0,0 +1,257 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+/**
+ * Implementación de {@link ClienteRepositoryCustom} con SQL nativo.
+ *
+ * <p>
+ * En PostgreSQL el upsert es un {@code INSERT ... ON CONFLICT DO NOTHING
+ * RETURNING}. Si el nombre ya existe no retorna filas y el cliente se lee con
+ * un {@code SELECT}: a diferencia de {@code DO UPDATE}, no escribe una nueva
+ * versión de la fila ni la bloquea, por lo que resolver un cliente existente
+ * no compite con las reservas de cupo sobre esa fila. Con
+ * {@code READ COMMITTED}, {@code DO NOTHING} espera a que termine una
+ * inserción concurrente del mismo nombre, y el {@code SELECT} siguiente ya la
+ * ve confirmada. Si la fila se eliminó entre ambas sentencias, se reintenta.
+ * </p>
+ *
+ * <p>
+ * En H2 (usado en las pruebas) es un {@code MERGE} dentro de
+ * {@code FINAL TABLE}, que retorna la fila en la misma sentencia; si el
+ * nombre ya existe, ejecuta una actualización sin efecto para retornar la
+ * fila existente.
+ * </p>
+ *
+ * <p>
+ * A diferencia de {@code ON CONFLICT}, el {@code MERGE} de H2 no es atómico:
+ * dos inserciones concurrentes del mismo nombre pueden chocar con la
+ * restricción única. Por eso en H2 la sentencia se ejecuta por JDBC y se
+ * reintenta, y en el reintento la fila ya existe.
+ * </p>
+ *
+ * <p>
+ * Los contadores de transacciones también se actualizan con SQL nativo,
+ * declarando un espacio de consulta que no corresponde a ninguna tabla: con
+ * un {@code UPDATE} JPQL, Hibernate vaciaría la región completa de clientes de
+ * la caché de segundo nivel tras cada transacción creada. En su lugar se quita
+ * solo el cliente actualizado.
+ * </p>
+ */
+public class ClienteRepositoryImpl implements ClienteRepositoryCustom {
+
+    private static final String INSERTAR_POSTGRES =
+            "INSERT INTO clientes (id_cliente, nombre_tenpista, nombre_normalizado, total_transacciones) " +
+            "VALUES (nextval('clientes_seq'), :nombre, :normalizado, 0) " +
+            "ON CONFLICT (nombre_normalizado) DO NOTHING " +
+            "RETURNING id_cliente, nombre_tenpista";
+
+    private static final String BUSCAR_POSTGRES =
+            "SELECT id_cliente, nombre_tenpista FROM clientes WHERE nombre_normalizado = :normalizado";
+
+    private static final String UPSERT_H2 =
+            "SELECT id_cliente, nombre_tenpista FROM FINAL TABLE (" +
+            "MERGE INTO clientes c " +
+            "USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(100)))) " +
+            "s (nombre_tenpista, nombre_normalizado) " +
+            "ON c.nombre_normalizado = s.nombre_normalizado " +
+            "WHEN MATCHED THEN UPDATE SET nombre_normalizado = s.nombre_normalizado " +
+            "WHEN NOT MATCHED THEN INSERT (id_cliente, nombre_tenpista, nombre_normalizado, total_transacciones) " +
+            "VALUES (NEXT VALUE FOR clientes_seq, s.nombre_tenpista, s.nombre_normalizado, 0))";
+
+    private static final String INCREMENTAR =
+            "UPDATE clientes SET total_transacciones = total_transacciones + 1 " +
+            "WHERE id_cliente = :idCliente AND total_transacciones < :maximo";
+
+    private static final String RESERVAR =
+            "UPDATE clientes SET total_transacciones = total_transacciones + :cantidad " +
+            "WHERE id_cliente = :idCliente AND total_transacciones + :cantidad <= :maximo";
+
+    private static final String DECREMENTAR =
+            "UPDATE clientes SET total_transacciones = total_transacciones - 1 " +
+            "WHERE id_cliente = :idCliente AND total_transacciones > 0";
+
+    /**
+     * Espacio de consulta de las actualizaciones de contadores, distinto de
+     * la tabla {@code clientes} para que Hibernate no vacíe la región de
+     * clientes de la caché de segundo nivel.
+     */
+    private static final String ESPACIO_CONTADORES = "clientes_contadores";
+
+    /**
+     * Intentos del upsert ante una violación de la restricción única (H2) o
+     * un cliente eliminado entre la inserción y la lectura (PostgreSQL).
+     */
+    private static final int INTENTOS = 3;
+
+    /**
+     * SQLState de violación de restricción única.
+     */
+    private static final String VIOLACION_UNICIDAD = "23505";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ClienteEntity upsertPorNombre(String nombreTenpista) {
+        String normalizado = ClienteEntity.normalizarNombre(nombreTenpista);
+        Object[] fila = esH2()
+                ? upsertH2(nombreTenpista.trim(), normalizado)
+                : upsertPostgres(nombreTenpista.trim(), normalizado);
+
+        return ClienteEntity.builder()
+                .idCliente(((Number) fila[0]).longValue())
+                .nombreTenpista((String) fila[1])
+                .nombreNormalizado(normalizado)
+                .build();
+    }
+
+    @Override
+    public Optional<ClienteEntity> buscarPorNombreNormalizado(String nombreNormalizado) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(ClienteEntity.class)
+                .loadOptional(nombreNormalizado);
+    }
+
+    @Override
+    public void desalojarNombresEnCache() {
+        cache().evictNaturalIdData(ClienteEntity.class);
+    }
+
+    @Override
+    public int incrementarTotalTransacciones(Long idCliente, int maximo) {
+        return actualizarContador(idCliente, contador(INCREMENTAR, idCliente)
+                .setParameter("maximo", maximo));
+    }
+
+    @Override
+    public int incrementarTotalTransacciones(Long idCliente, int cantidad, int maximo) {
+        return actualizarContador(idCliente, contador(RESERVAR, idCliente)
+                .setParameter("cantidad", cantidad)
+                .setParameter("maximo", maximo));
+    }
+
+    @Override
+    public int decrementarTotalTransacciones(Long idCliente) {
+        return actualizarContador(idCliente, contador(DECREMENTAR, idCliente));
+    }
+
+    private Query contador(String sql, Long idCliente) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ESPACIO_CONTADORES)
+                .setParameter("idCliente", idCliente);
+    }
+
+    /**
+     * Sincroniza los cambios pendientes, ejecuta la actualización y quita el
+     * cliente de la caché de segundo nivel.
+     *
+     * <p>
+     * El cliente se vuelve a quitar al finalizar la transacción, por si otra
+     * lo leyó con el contador anterior mientras tanto.
+     * </p>
+     */
+    private int actualizarContador(Long idCliente, Query sentencia) {
+        entityManager.flush();
+        int filas = sentencia.executeUpdate();
+        if (filas > 0) {
+            Cache cache = cache();
+            cache.evictEntityData(ClienteEntity.class, idCliente);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        cache.evictEntityData(ClienteEntity.class, idCliente);
+                    }
+                });
+            }
+        }
+        return filas;
+    }
+
+    private Cache cache() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Inserta el cliente si no existe y, si ya existía, lo lee sin
+     * bloquearlo.
+     */
+    private Object[] upsertPostgres(String nombre, String normalizado) {
+        for (int intento = 1; intento <= INTENTOS; intento++) {
+            List<?> insertado = entityManager.createNativeQuery(INSERTAR_POSTGRES)
+                    .setParameter("nombre", nombre)
+                    .setParameter("normalizado", normalizado)
+                    .getResultList();
+            if (!insertado.isEmpty()) {
+                return (Object[]) insertado.get(0);
+            }
+            List<?> existente = entityManager.createNativeQuery(BUSCAR_POSTGRES)
+                    .setParameter("normalizado", normalizado)
+                    .getResultList();
+            if (!existente.isEmpty()) {
+                return (Object[]) existente.get(0);
+            }
+        }
+        throw new IllegalStateException("No se logró obtener el cliente: " + nombre);
+    }
+
+    /**
+     * Ejecuta el {@code MERGE} por JDBC para que una violación de unicidad no
+     * marque la transacción para rollback y pueda reintentarse.
+     */
+    private Object[] upsertH2(String nombre, String normalizado) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            for (int intento = 1; ; intento++) {
+                try (PreparedStatement statement = connection.prepareStatement(UPSERT_H2)) {
+                    statement.setString(1, nombre);
+                    statement.setString(2, normalizado);
+                    try (ResultSet resultado = statement.executeQuery()) {
+                        resultado.next();
+                        return new Object[] { resultado.getLong(1), resultado.getString(2) };
+                    }
+                } catch (SQLException e) {
+                    if (intento >= INTENTOS || !VIOLACION_UNICIDAD.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean esH2() {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        if (dialect instanceof PostgreSQLDialect) {
+            return false;
+        }
+        if (dialect instanceof H2Dialect) {
+            return true;
+        }
+        throw new IllegalStateException("Upsert de clientes no soportado para " + dialect.getClass().getSimpleName());
+    }
+}
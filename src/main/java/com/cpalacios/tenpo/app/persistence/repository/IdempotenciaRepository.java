@@ -0,0 +1,41 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.cpalacios.tenpo.app.persistence.entity.IdempotenciaEntity;
+
+/**
+ * Repositorio JPA para la entidad {@link IdempotenciaEntity}.
+ */
+public interface IdempotenciaRepository extends JpaRepository<IdempotenciaEntity, String> {
+
+    /**
+     * Elimina las claves registradas antes de la fecha indicada.
+     *
+     * @param limite fecha de creación a partir de la cual se conservan las claves
+     * @return cantidad de claves eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotenciaEntity i WHERE i.fechaCreacion < :limite")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Elimina una clave.
+     *
+     * <p>
+     * Se usa en lugar de {@code delete}, que ignora las entidades que
+     * {@link IdempotenciaEntity#isNew()} informa como nuevas.
+     * </p>
+     *
+     * @param clave clave de idempotencia
+     * @return cantidad de claves eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotenciaEntity i WHERE i.clave = :clave")
+    int eliminarPorClave(@Param("clave") String clave);
+}
@@ -0,0 +1,41 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.cpalacios.tenpo.app.persistence.entity.RateLimitCuotaEntity;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repositorio JPA para la entidad {@link RateLimitCuotaEntity}.
+ */
+public interface RateLimitCuotaRepository extends JpaRepository<RateLimitCuotaEntity, String> {
+
+    /**
+     * Obtiene la cuota de un cliente bloqueando su fila hasta el fin de la
+     * transacción ({@code SELECT ... FOR UPDATE}).
+     *
+     * @param clave límite y cliente de la cuota
+     * @return la cuota, si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM RateLimitCuotaEntity c WHERE c.clave = :clave")
+    Optional<RateLimitCuotaEntity> bloquear(@Param("clave") String clave);
+
+    /**
+     * Elimina las cuotas sin accesos desde el instante indicado.
+     *
+     * @param limiteMillis instante, en milisegundos desde epoch, a partir del
+     *                     cual se conservan las cuotas
+     * @return cantidad de cuotas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM RateLimitCuotaEntity c WHERE c.actualizado < :limite")
+    int eliminarAnterioresA(@Param("limite") long limiteMillis);
+}
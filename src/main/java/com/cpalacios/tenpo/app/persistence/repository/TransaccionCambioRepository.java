@@ -0,0 +1,74 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionCambioEntity;
+import com.cpalacios.tenpo.app.persistence.projection.EstadoLogCambios;
+
+/**
+ * Repositorio JPA para el log de cambios {@link TransaccionCambioEntity}.
+ */
+public interface TransaccionCambioRepository
+        extends JpaRepository<TransaccionCambioEntity, Long>, TransaccionCambioRepositoryCustom {
+
+    /**
+     * Retorna los cambios posteriores a una versión, en orden de versión.
+     *
+     * <p>
+     * Recorre la llave primaria desde {@code version}, por lo que el costo
+     * depende de la cantidad de cambios leídos y no del tamaño de la tabla.
+     * </p>
+     *
+     * @param version versión a partir de la cual se leen los cambios (exclusiva)
+     * @param limite  cantidad máxima de cambios
+     * @return cambios ordenados por versión
+     */
+    @Query("SELECT c FROM TransaccionCambioEntity c WHERE c.idCambio > :version ORDER BY c.idCambio ASC")
+    List<TransaccionCambioEntity> buscarPosterioresA(@Param("version") long version, Limit limite);
+
+    /**
+     * Versión más antigua conservada en el log.
+     *
+     * @return versión mínima, o {@code null} si el log está vacío
+     */
+    @Query("SELECT MIN(c.idCambio) FROM TransaccionCambioEntity c")
+    Long buscarVersionMinima();
+
+    /**
+     * Versión más reciente registrada en el log.
+     *
+     * @return versión máxima, o {@code null} si el log está vacío
+     */
+    @Query("SELECT MAX(c.idCambio) FROM TransaccionCambioEntity c")
+    Long buscarVersionMaxima();
+
+    /**
+     * Cantidad de cambios y versión más reciente del log, leídas en una sola
+     * consulta.
+     *
+     * @return estado actual del log
+     */
+    @Query("SELECT new com.cpalacios.tenpo.app.persistence.projection.EstadoLogCambios(COUNT(c), MAX(c.idCambio)) " +
+           "FROM TransaccionCambioEntity c")
+    EstadoLogCambios buscarEstado();
+
+    /**
+     * Elimina los cambios registrados antes de la fecha indicada, conservando
+     * siempre el más reciente para poder reconocer las versiones vigentes.
+     *
+     * @param limite fecha de registro a partir de la cual se conservan los
+     *               cambios
+     * @return cantidad de cambios eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM TransaccionCambioEntity c WHERE c.fechaCambio < :limite " +
+           "AND c.idCambio < (SELECT MAX(u.idCambio) FROM TransaccionCambioEntity u)")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+}
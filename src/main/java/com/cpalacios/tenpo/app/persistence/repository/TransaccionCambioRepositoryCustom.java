@@ -0,0 +1,30 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.util.Collection;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Registro de cambios en el log de sincronización incremental, implementado
+ * con SQL nativo.
+ *
+ * <p>
+ * Spring Data combina esta interfaz con {@link TransaccionCambioRepository} y
+ * delega su implementación en {@link TransaccionCambioRepositoryImpl}.
+ * </p>
+ */
+public interface TransaccionCambioRepositoryCustom {
+
+    /**
+     * Registra un cambio por cada transacción indicada, en un solo lote JDBC y
+     * en la transacción en curso.
+     *
+     * @param idsTransaccion identificadores de las transacciones modificadas,
+     *                       en el orden en que se deben versionar
+     * @param eliminadas     {@code true} si las transacciones fueron
+     *                       eliminadas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    void registrar(Collection<Long> idsTransaccion, boolean eliminadas);
+}
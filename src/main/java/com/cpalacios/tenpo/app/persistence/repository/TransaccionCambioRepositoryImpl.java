@@ -0,0 +1,71 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementación de {@link TransaccionCambioRepositoryCustom} con SQL nativo.
+ *
+ * <p>
+ * Cada fila lee su versión de la secuencia en el propio INSERT, de modo que
+ * todas las filas de un lote viajan en un solo batch JDBC en lugar de una
+ * lectura de la secuencia por fila.
+ * </p>
+ */
+public class TransaccionCambioRepositoryImpl implements TransaccionCambioRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO transacciones_cambios (id_cambio, id_transaccion, eliminada, fecha_cambio) " +
+            "VALUES (%s, ?, ?, ?)";
+
+    private static final String INSERT_POSTGRES = INSERT.formatted("nextval('transacciones_cambios_seq')");
+
+    private static final String INSERT_H2 = INSERT.formatted("NEXT VALUE FOR transacciones_cambios_seq");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void registrar(Collection<Long> idsTransaccion, boolean eliminadas) {
+        if (idsTransaccion.isEmpty()) {
+            return;
+        }
+        String sql = sentenciaInsert();
+        LocalDateTime fecha = LocalDateTime.now();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Long idTransaccion : idsTransaccion) {
+                    statement.setLong(1, idTransaccion);
+                    statement.setBoolean(2, eliminadas);
+                    statement.setObject(3, fecha);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private String sentenciaInsert() {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        if (dialect instanceof PostgreSQLDialect) {
+            return INSERT_POSTGRES;
+        }
+        if (dialect instanceof H2Dialect) {
+            return INSERT_H2;
+        }
+        throw new IllegalStateException("Log de cambios no soportado para " + dialect.getClass().getSimpleName());
+    }
+}
@@ -1,12 +1,22 @@
 package com.cpalacios.tenpo.app.persistence.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositorio JPA para la entidad {@link TransaccionEntity}.
@@ -29,9 +39,50 @@ import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
  * (principio de responsabilidad única).
  * </p>
  */
-public interface TransaccionRepository extends JpaRepository<TransaccionEntity, Long> {
+public interface TransaccionRepository extends JpaRepository<TransaccionEntity, Long>, TransaccionRepositoryCustom {
 
-    
+    /**
+     * Cantidad de filas que el driver JDBC trae por cada viaje a la base de
+     * datos al recorrer el cursor de exportación.
+     */
+    String TAMANO_FETCH_EXPORTACION = "1000";
+
+    /**
+     * Expresión de constructor compartida por las consultas que retornan
+     * {@link TransaccionResumen}.
+     */
+    String SELECT_RESUMEN = "SELECT new com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen(" +
+            "t.idTransaccion, t.numeroTransaccion, c.nombreTenpista, t.montoPesos, " +
+            "t.fechaTransaccion, t.giroComercio) " +
+            "FROM TransaccionEntity t JOIN t.cliente c ";
+
+    /**
+     * Retorna todas las transacciones como proyecciones de solo lectura.
+     *
+     * <p>
+     * Selecciona únicamente las columnas de la respuesta, sin cargar
+     * entidades en el contexto de persistencia.
+     * </p>
+     *
+     * @return proyecciones de todas las transacciones ordenadas por identificador
+     */
+    @Query(SELECT_RESUMEN + "ORDER BY t.idTransaccion ASC")
+    List<TransaccionResumen> listarResumen();
+
+    /**
+     * Retorna todas las transacciones junto a su cliente.
+     *
+     * <p>
+     * El {@link EntityGraph} carga la asociación {@code cliente} en la misma
+     * consulta (JOIN), evitando una consulta adicional por cada transacción
+     * al mapear la respuesta (problema N+1).
+     * </p>
+     *
+     * @return todas las transacciones con su cliente inicializado
+     */
+    @Override
+    @EntityGraph(attributePaths = "cliente")
+    List<TransaccionEntity> findAll();
 
     /**
      * Método de consulta derivado
@@ -49,24 +100,71 @@ public interface TransaccionRepository extends JpaRepository<TransaccionEntity,
     boolean existsByNumeroTransaccion(Integer numeroTransaccion);
     
     /**
-     * Busca transacciones filtrando por cualquier campo relevante de la entidad.
+     * Retorna, de los números indicados, los que ya están registrados.
      *
      * <p>
-     * La búsqueda es insensible a mayúsculas/minúsculas (LOWER)
-     * y aplica LIKE para permitir coincidencias parciales.
+     * Permite validar la unicidad de un lote completo con una sola consulta.
      * </p>
      *
-     * @param filtro valor de búsqueda que se compara con varios campos
-     * @return lista de transacciones que coinciden con el filtro
+     * @param numeros números de transacción a validar
+     * @return números que ya existen
      */
-    @Query("SELECT t FROM TransaccionEntity t " +
-           "JOIN t.cliente c " +
-           "WHERE LOWER(c.nombreTenpista) LIKE LOWER(CONCAT('%', :filtro, '%')) " +
-           "   OR CAST(t.numeroTransaccion AS string) LIKE CONCAT('%', :filtro, '%') " +
-           "   OR CAST(t.montoPesos AS string) LIKE CONCAT('%', :filtro, '%') " +
-           "   OR LOWER(t.giroComercio) LIKE LOWER(CONCAT('%', :filtro, '%')) " +
-           "   OR CAST(t.fechaTransaccion AS string) LIKE CONCAT('%', :filtro, '%')")
-    List<TransaccionEntity> buscarPorFiltro(@Param("filtro") String filtro);
+    @Query("SELECT t.numeroTransaccion FROM TransaccionEntity t WHERE t.numeroTransaccion IN :numeros")
+    List<Integer> buscarNumerosExistentes(@Param("numeros") Collection<Integer> numeros);
+
+    /**
+     * Busca transacciones cuyo nombre de cliente o giro/comercio contenga el
+     * texto indicado.
+     *
+     * <p>
+     * La búsqueda es insensible a mayúsculas/minúsculas (LOWER) y aplica LIKE
+     * para permitir coincidencias parciales. Solo compara columnas de texto:
+     * los filtros numéricos o de fecha se resuelven con predicados tipados
+     * ({@link #buscarPorNumeroOMonto(Integer)} y
+     * {@link TransaccionRepositoryCustom#buscarPorCriterio}).
+     * </p>
+     *
+     * @param texto texto que se busca dentro del nombre del cliente o del giro
+     * @return proyecciones de las transacciones que coinciden con el texto
+     */
+    @Query(SELECT_RESUMEN +
+           "WHERE LOWER(c.nombreTenpista) LIKE LOWER(CONCAT('%', :texto, '%')) " +
+           "   OR LOWER(t.giroComercio) LIKE LOWER(CONCAT('%', :texto, '%')) " +
+           "ORDER BY t.idTransaccion ASC")
+    List<TransaccionResumen> buscarPorTexto(@Param("texto") String texto);
+
+    /**
+     * Retorna las proyecciones de las transacciones indicadas.
+     *
+     * <p>
+     * Se usa para materializar, en una sola consulta por bloque, los
+     * identificadores resueltos por el índice de texto en memoria.
+     * </p>
+     *
+     * @param ids identificadores de las transacciones
+     * @return proyecciones de las transacciones ordenadas por identificador
+     */
+    @Query(SELECT_RESUMEN +
+           "WHERE t.idTransaccion IN :ids " +
+           "ORDER BY t.idTransaccion ASC")
+    List<TransaccionResumen> buscarResumenPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca transacciones cuyo número de transacción o monto sea exactamente
+     * el valor indicado.
+     *
+     * <p>
+     * Ambas comparaciones son de igualdad sobre columnas indexadas, por lo que
+     * la base de datos puede resolverlas combinando los dos índices.
+     * </p>
+     *
+     * @param valor número de transacción o monto a buscar
+     * @return proyecciones de las transacciones que coinciden
+     */
+    @Query(SELECT_RESUMEN +
+           "WHERE t.numeroTransaccion = :valor OR t.montoPesos = :valor " +
+           "ORDER BY t.idTransaccion ASC")
+    List<TransaccionResumen> buscarPorNumeroOMonto(@Param("valor") Integer valor);
     
     /**
      * Método de consulta derivado
@@ -77,5 +175,101 @@ public interface TransaccionRepository extends JpaRepository<TransaccionEntity,
      */
     long countByCliente_IdCliente(Long idCliente);
 
-    
+    /**
+     * Obtiene la primera página del listado de transacciones como
+     * proyecciones de solo lectura.
+     *
+     * <p>
+     * El orden ({@code fechaTransaccion}, {@code idTransaccion}) es estable
+     * y coincide con el índice {@code idx_transacciones_fecha_id}.
+     * </p>
+     *
+     * @param limite cantidad máxima de filas a retornar
+     * @return transacciones ordenadas por fecha e identificador
+     */
+    @Query(SELECT_RESUMEN +
+           "ORDER BY t.fechaTransaccion ASC, t.idTransaccion ASC")
+    List<TransaccionResumen> buscarPrimeraPagina(Limit limite);
+
+    /**
+     * Obtiene la página de transacciones que sigue a la posición indicada
+     * (paginación keyset).
+     *
+     * <p>
+     * A diferencia de OFFSET, la comparación por tupla permite que la base de
+     * datos posicione el índice directamente en la última fila entregada,
+     * por lo que el costo no crece con la profundidad de la paginación.
+     * </p>
+     *
+     * @param fecha         fecha de la última transacción entregada
+     * @param idTransaccion identificador de la última transacción entregada
+     * @param limite        cantidad máxima de filas a retornar
+     * @return transacciones posteriores a la posición indicada
+     */
+    @Query(SELECT_RESUMEN +
+           "WHERE (t.fechaTransaccion, t.idTransaccion) > (:fecha, :idTransaccion) " +
+           "ORDER BY t.fechaTransaccion ASC, t.idTransaccion ASC")
+    List<TransaccionResumen> buscarPaginaDespuesDe(@Param("fecha") LocalDateTime fecha,
+                                                  @Param("idTransaccion") Long idTransaccion,
+                                                  Limit limite);
+
+    /**
+     * Recorre todas las transacciones, junto a su cliente, mediante un cursor
+     * de solo avance.
+     *
+     * <p>
+     * Spring Data respalda el {@link Stream} con un {@code ScrollableResults}
+     * de Hibernate, por lo que las filas se leen desde la base de datos en
+     * bloques de {@value #TAMANO_FETCH_EXPORTACION} a medida que el consumidor
+     * avanza, sin materializar el resultado completo. Las entidades se cargan
+     * en modo solo lectura para evitar las copias usadas por el dirty checking.
+     * </p>
+     *
+     * <p>
+     * Debe consumirse dentro de una transacción y cerrarse al finalizar
+     * (por ejemplo, con try-with-resources).
+     * </p>
+     *
+     * @return stream de transacciones ordenadas por identificador
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_EXPORTACION),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TransaccionEntity t " +
+           "JOIN FETCH t.cliente " +
+           "ORDER BY t.idTransaccion ASC")
+    Stream<TransaccionEntity> streamTodas();
+
+    /**
+     * Recorre todas las transacciones como proyecciones mediante un cursor de
+     * solo avance.
+     *
+     * <p>
+     * Se utiliza para construir el índice de texto en memoria al iniciar la
+     * aplicación sin materializar la tabla completa. Debe consumirse dentro
+     * de una transacción y cerrarse al finalizar.
+     * </p>
+     *
+     * @return stream de proyecciones ordenadas por identificador
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_EXPORTACION))
+    @Query(SELECT_RESUMEN + "ORDER BY t.idTransaccion ASC")
+    Stream<TransaccionResumen> streamResumen();
+
+    /**
+     * Recorre todos los números de transacción registrados mediante un cursor
+     * de solo avance.
+     *
+     * <p>
+     * Se utiliza para construir el índice de números en memoria al iniciar la
+     * aplicación. Debe consumirse dentro de una transacción y cerrarse al
+     * finalizar.
+     * </p>
+     *
+     * @return stream de números de transacción
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_EXPORTACION))
+    @Query("SELECT t.numeroTransaccion FROM TransaccionEntity t")
+    Stream<Integer> streamNumeros();
 }
@@ -0,0 +1,28 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.util.List;
+
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+
+/**
+ * Consultas de transacciones que se construyen dinámicamente y no pueden
+ * expresarse como métodos derivados o {@code @Query} estáticos.
+ *
+ * <p>
+ * Spring Data combina esta interfaz con {@link TransaccionRepository} y
+ * delega su implementación en {@link TransaccionRepositoryImpl}.
+ * </p>
+ */
+public interface TransaccionRepositoryCustom {
+
+    /**
+     * Busca transacciones aplicando únicamente los criterios informados.
+     *
+     * @param criterio criterios tipados de búsqueda
+     * @return proyecciones de las transacciones que cumplen todos los criterios,
+     *         ordenadas por identificador y acotadas a
+     *         {@code transacciones.busqueda.maximo-resultados}
+     */
+    List<TransaccionResumen> buscarPorCriterio(TransaccionCriterio criterio);
+}
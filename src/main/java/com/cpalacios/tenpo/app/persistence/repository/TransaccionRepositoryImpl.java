@@ -0,0 +1,125 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Implementación de {@link TransaccionRepositoryCustom} basada en la
+ * Criteria API de JPA.
+ *
+ * <p>
+ * Solo se generan predicados de igualdad, rango y prefijo sobre las columnas
+ * originales (sin {@code CAST} ni comodines iniciales), de modo que cada
+ * criterio pueda resolverse con un índice. El resultado se acota a
+ * {@code transacciones.busqueda.maximo-resultados} filas, para que un
+ * criterio poco selectivo no cargue la tabla completa en memoria.
+ * </p>
+ */
+public class TransaccionRepositoryImpl implements TransaccionRepositoryCustom {
+
+    /**
+     * Carácter de escape usado en los patrones LIKE.
+     */
+    private static final char ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Cantidad máxima de filas retornadas por {@link #buscarPorCriterio}.
+     */
+    @Value("${transacciones.busqueda.maximo-resultados:1000}")
+    private int maximoResultados;
+
+    @Override
+    public List<TransaccionResumen> buscarPorCriterio(TransaccionCriterio criterio) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransaccionResumen> query = cb.createQuery(TransaccionResumen.class);
+        Root<TransaccionEntity> t = query.from(TransaccionEntity.class);
+        Join<TransaccionEntity, ClienteEntity> c = t.join("cliente");
+
+        query.select(cb.construct(TransaccionResumen.class,
+                t.get("idTransaccion"),
+                t.get("numeroTransaccion"),
+                c.get("nombreTenpista"),
+                t.get("montoPesos"),
+                t.get("fechaTransaccion"),
+                t.get("giroComercio")));
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (criterio.getNumeroTransaccion() != null) {
+            predicados.add(cb.equal(t.get("numeroTransaccion"), criterio.getNumeroTransaccion()));
+        }
+        if (criterio.getMontoMinimo() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(t.get("montoPesos"), criterio.getMontoMinimo()));
+        }
+        if (criterio.getMontoMaximo() != null) {
+            predicados.add(cb.lessThanOrEqualTo(t.get("montoPesos"), criterio.getMontoMaximo()));
+        }
+        if (criterio.getFechaDesde() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(t.get("fechaTransaccion"), criterio.getFechaDesde()));
+        }
+        if (criterio.getFechaHasta() != null) {
+            predicados.add(cb.lessThan(t.get("fechaTransaccion"), criterio.getFechaHasta()));
+        }
+        if (criterio.getPrefijoNombreTenpista() != null) {
+            predicados.add(prefijo(cb, c.get("nombreTenpista"), criterio.getPrefijoNombreTenpista()));
+        }
+        if (criterio.getPrefijoGiroComercio() != null) {
+            predicados.add(prefijo(cb, t.get("giroComercio"), criterio.getPrefijoGiroComercio()));
+        }
+
+        query.where(predicados.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(t.get("idTransaccion")));
+
+        return entityManager.createQuery(query).setMaxResults(maximoResultados).getResultList();
+    }
+
+    /**
+     * Construye un predicado {@code LOWER(campo) LIKE 'prefijo%'}, escapando
+     * los comodines que pudiera contener el valor ingresado.
+     *
+     * @param cb      builder de la Criteria API
+     * @param campo   columna de texto a comparar
+     * @param prefijo prefijo ingresado por el consumidor
+     * @return predicado de prefijo insensible a mayúsculas
+     */
+    private Predicate prefijo(CriteriaBuilder cb, Expression<String> campo, String prefijo) {
+        String patron = escaparLike(prefijo.toLowerCase()) + "%";
+        return cb.like(cb.lower(campo), patron, ESCAPE);
+    }
+
+    /**
+     * Escapa los caracteres con significado especial en LIKE.
+     *
+     * @param valor texto a escapar
+     * @return texto que se compara de forma literal
+     */
+    static String escaparLike(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char caracter = valor.charAt(i);
+            if (caracter == ESCAPE || caracter == '%' || caracter == '_') {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(caracter);
+        }
+        return escapado.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+/**
+ * Almacén compartido por todas las instancias con la {@link CuotaCompartida}
+ * de cada cliente, usado por {@link LimitadorDistribuido}.
+ *
+ * <p>
+ * Las instancias no consultan el almacén por cada solicitud: arriendan lotes
+ * pequeños de tokens, los gastan localmente y devuelven los que no usaron.
+ * </p>
+ */
+public interface AlmacenCuotas {
+
+    /**
+     * Descuenta hasta {@code solicitados} tokens de la cuota del cliente.
+     *
+     * @param clave       identificador del cliente en el almacén
+     * @param solicitados tokens pedidos
+     * @param limite      límite del cliente
+     * @return tokens concedidos y, si no hay, la espera hasta el siguiente
+     */
+    Concesion arrendar(String clave, int solicitados, LimiteTasa limite);
+
+    /**
+     * Devuelve a la cuota del cliente tokens arrendados que no se usaron.
+     *
+     * @param clave     identificador del cliente en el almacén
+     * @param devueltos tokens no usados
+     * @param limite    límite del cliente
+     */
+    void devolver(String clave, long devueltos, LimiteTasa limite);
+}
@@ -0,0 +1,105 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.entity.RateLimitCuotaEntity;
+import com.cpalacios.tenpo.app.persistence.repository.RateLimitCuotaRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AlmacenCuotas} en la tabla {@code rate_limit_cuotas}, compartida
+ * por todas las instancias.
+ *
+ * <p>
+ * Cada acceso bloquea la fila del cliente en su propia transacción, por lo
+ * que no depende de la transacción de la solicitud. Se habilita con
+ * {@code rate-limit.almacen=DISTRIBUIDO}.
+ * </p>
+ *
+ * <p>
+ * Las cuotas sin accesos durante {@code rate-limit.distribuido.retencion} se
+ * eliminan periódicamente. La retención debe superar el tiempo en que se
+ * recarga una ráfaga completa: para entonces la cuota está llena y eliminarla
+ * equivale a conservarla.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rate-limit.almacen", havingValue = "DISTRIBUIDO")
+public class AlmacenCuotasJpa implements AlmacenCuotas {
+
+    private final RateLimitCuotaRepository cuotaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retencion;
+
+    public AlmacenCuotasJpa(RateLimitCuotaRepository cuotaRepository, PlatformTransactionManager transactionManager,
+            @Value("${rate-limit.distribuido.retencion:PT1H}") Duration retencion) {
+        this.cuotaRepository = cuotaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retencion = retencion;
+    }
+
+    @Override
+    public Concesion arrendar(String clave, int solicitados, LimiteTasa limite) {
+        return actualizar(clave, limite, cuota -> cuota.conceder(solicitados, limite, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void devolver(String clave, long devueltos, LimiteTasa limite) {
+        actualizar(clave, limite, cuota -> {
+            cuota.devolver(devueltos, limite, System.currentTimeMillis());
+            return null;
+        });
+    }
+
+    /**
+     * Elimina periódicamente las cuotas sin accesos recientes.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.distribuido.limpieza-ms:600000}")
+    public void eliminarInactivas() {
+        Integer eliminadas = transactionTemplate.execute(
+                estado -> cuotaRepository.eliminarAnterioresA(System.currentTimeMillis() - retencion.toMillis()));
+        if (eliminadas != null && eliminadas > 0) {
+            log.info("Cuotas de rate limiting inactivas eliminadas: {}", eliminadas);
+        }
+    }
+
+    /**
+     * Aplica la operación sobre la cuota bloqueada del cliente, creándola con
+     * la ráfaga completa si no existe.
+     */
+    private <T> T actualizar(String clave, LimiteTasa limite, Function<CuotaCompartida, T> operacion) {
+        try {
+            return transactionTemplate.execute(estado -> aplicar(clave, limite, operacion));
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia creó la cuota al mismo tiempo: ahora existe y se bloquea
+            return transactionTemplate.execute(estado -> aplicar(clave, limite, operacion));
+        }
+    }
+
+    private <T> T aplicar(String clave, LimiteTasa limite, Function<CuotaCompartida, T> operacion) {
+        RateLimitCuotaEntity entidad = cuotaRepository.bloquear(clave).orElse(null);
+        CuotaCompartida cuota = entidad == null ? CuotaCompartida.llena(limite, System.currentTimeMillis())
+                : new CuotaCompartida(entidad.getTokens(), entidad.getActualizado());
+        T resultado = operacion.apply(cuota);
+        if (entidad == null) {
+            cuotaRepository.saveAndFlush(new RateLimitCuotaEntity(clave, cuota.getTokens(), cuota.getActualizadoMillis()));
+        } else {
+            entidad.setTokens(cuota.getTokens());
+            entidad.setActualizado(cuota.getActualizadoMillis());
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link AlmacenCuotas} en memoria, para pruebas y para simular varias
+ * instancias en un mismo proceso.
+ */
+public class AlmacenCuotasMemoria implements AlmacenCuotas {
+
+    private final Map<String, CuotaCompartida> cuotas = new ConcurrentHashMap<>();
+    private final LongSupplier relojMillis;
+
+    public AlmacenCuotasMemoria() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param relojMillis reloj en milisegundos usado para la recarga
+     */
+    public AlmacenCuotasMemoria(LongSupplier relojMillis) {
+        this.relojMillis = relojMillis;
+    }
+
+    @Override
+    public Concesion arrendar(String clave, int solicitados, LimiteTasa limite) {
+        long ahora = relojMillis.getAsLong();
+        CuotaCompartida cuota = cuotas.computeIfAbsent(clave, k -> CuotaCompartida.llena(limite, ahora));
+        synchronized (cuota) {
+            return cuota.conceder(solicitados, limite, ahora);
+        }
+    }
+
+    @Override
+    public void devolver(String clave, long devueltos, LimiteTasa limite) {
+        CuotaCompartida cuota = cuotas.get(clave);
+        if (cuota != null) {
+            synchronized (cuota) {
+                cuota.devolver(devueltos, limite, relojMillis.getAsLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Árbol de patrones de ruta por segmento, compilado una vez y consultado en
+ * cada solicitud sin crear objetos.
+ *
+ * <p>
+ * Un patrón es una ruta cuyos segmentos pueden ser literales, {@code *} (un
+ * segmento cualquiera) o {@code **} como último segmento (cero o más
+ * segmentos). Los segmentos se comparan completos, por lo que
+ * {@code /api/transacciones/all} no coincide con
+ * {@code /api/transacciones/allx}. Cuando varios patrones coinciden, en cada
+ * segmento tiene prioridad el literal sobre {@code *} y este sobre
+ * {@code **}.
+ * </p>
+ *
+ * <p>
+ * Cada patrón puede restringirse a métodos HTTP. Para un mismo patrón, un
+ * valor asociado a métodos específicos tiene prioridad sobre uno asociado a
+ * todos, y entre valores equivalentes se conserva el primero agregado.
+ * </p>
+ *
+ * @param <T> tipo del valor asociado a cada patrón
+ */
+public final class ArbolRutas<T> {
+
+    private static final String[] METODOS = { "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS" };
+
+    /**
+     * Índice de los métodos que no están en {@link #METODOS}.
+     */
+    private static final int OTROS = METODOS.length;
+
+    private final Nodo raiz;
+
+    private ArbolRutas(Nodo raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Crea un constructor de árbol vacío.
+     */
+    public static <T> Constructor<T> constructor() {
+        return new Constructor<>();
+    }
+
+    /**
+     * Busca el valor del patrón más específico que coincide con la ruta.
+     *
+     * @param metodo método HTTP de la solicitud
+     * @param ruta   ruta de la solicitud, sin query string
+     * @return el valor asociado, o {@code null} si ningún patrón coincide
+     */
+    @SuppressWarnings("unchecked")
+    public T buscar(String metodo, String ruta) {
+        return (T) buscar(raiz, ruta, 0, indiceMetodo(metodo));
+    }
+
+    private static Object buscar(Nodo nodo, String ruta, int posicion, int metodo) {
+        int inicio = saltarBarras(ruta, posicion);
+        if (inicio >= ruta.length()) {
+            Object valor = nodo.terminal == null ? null : nodo.terminal[metodo];
+            return valor != null ? valor : nodo.valorResto(metodo);
+        }
+        int fin = ruta.indexOf('/', inicio);
+        if (fin < 0) {
+            fin = ruta.length();
+        }
+        Nodo literal = nodo.literal(ruta, inicio, fin);
+        if (literal != null) {
+            Object valor = buscar(literal, ruta, fin, metodo);
+            if (valor != null) {
+                return valor;
+            }
+        }
+        if (nodo.comodin != null) {
+            Object valor = buscar(nodo.comodin, ruta, fin, metodo);
+            if (valor != null) {
+                return valor;
+            }
+        }
+        return nodo.valorResto(metodo);
+    }
+
+    private static int saltarBarras(String ruta, int posicion) {
+        while (posicion < ruta.length() && ruta.charAt(posicion) == '/') {
+            posicion++;
+        }
+        return posicion;
+    }
+
+    private static int indiceMetodo(String metodo) {
+        switch (metodo) {
+            case "GET":
+                return 0;
+            case "POST":
+                return 1;
+            case "PUT":
+                return 2;
+            case "DELETE":
+                return 3;
+            case "PATCH":
+                return 4;
+            case "HEAD":
+                return 5;
+            case "OPTIONS":
+                return 6;
+            default:
+                return OTROS;
+        }
+    }
+
+    private static final class Nodo {
+
+        private String[] segmentos = new String[0];
+        private Nodo[] hijos = new Nodo[0];
+        private Nodo comodin;
+
+        /**
+         * Valor por método de los patrones que terminan en este nodo.
+         */
+        private Object[] terminal;
+
+        /**
+         * Valor por método de los patrones que terminan en {@code **} en este
+         * nodo.
+         */
+        private Object[] resto;
+
+        Nodo literal(String ruta, int inicio, int fin) {
+            int largo = fin - inicio;
+            for (int i = 0; i < segmentos.length; i++) {
+                String segmento = segmentos[i];
+                if (segmento.length() == largo && ruta.regionMatches(inicio, segmento, 0, largo)) {
+                    return hijos[i];
+                }
+            }
+            return null;
+        }
+
+        Object valorResto(int metodo) {
+            return resto == null ? null : resto[metodo];
+        }
+
+        Nodo agregarLiteral(String segmento) {
+            for (int i = 0; i < segmentos.length; i++) {
+                if (segmentos[i].equals(segmento)) {
+                    return hijos[i];
+                }
+            }
+            String[] nuevosSegmentos = java.util.Arrays.copyOf(segmentos, segmentos.length + 1);
+            Nodo[] nuevosHijos = java.util.Arrays.copyOf(hijos, hijos.length + 1);
+            Nodo hijo = new Nodo();
+            nuevosSegmentos[segmentos.length] = segmento;
+            nuevosHijos[hijos.length] = hijo;
+            segmentos = nuevosSegmentos;
+            hijos = nuevosHijos;
+            return hijo;
+        }
+    }
+
+    /**
+     * Constructor de un {@link ArbolRutas}; no es thread-safe.
+     *
+     * @param <T> tipo del valor asociado a cada patrón
+     */
+    public static final class Constructor<T> {
+
+        private final List<Entrada<T>> especificas = new ArrayList<>();
+        private final List<Entrada<T>> generales = new ArrayList<>();
+
+        private Constructor() {
+        }
+
+        /**
+         * Asocia un valor a un patrón de ruta.
+         *
+         * @param patron  patrón de ruta, por ejemplo {@code /api/transacciones/**}
+         * @param metodos métodos HTTP a los que se aplica; vacío para todos
+         * @param valor   valor asociado
+         * @return este constructor
+         * @throws IllegalArgumentException si el patrón no es válido
+         */
+        public Constructor<T> agregar(String patron, Collection<String> metodos, T valor) {
+            List<String> segmentos = segmentos(patron);
+            Entrada<T> entrada = new Entrada<>(segmentos, metodos.stream()
+                    .map(metodo -> metodo.trim().toUpperCase(Locale.ROOT))
+                    .toList(), valor);
+            (metodos.isEmpty() ? generales : especificas).add(entrada);
+            return this;
+        }
+
+        /**
+         * Compila los patrones agregados.
+         */
+        public ArbolRutas<T> construir() {
+            Nodo raiz = new Nodo();
+            for (Entrada<T> entrada : especificas) {
+                asignar(raiz, entrada);
+            }
+            for (Entrada<T> entrada : generales) {
+                asignar(raiz, entrada);
+            }
+            return new ArbolRutas<>(raiz);
+        }
+
+        private static <T> void asignar(Nodo raiz, Entrada<T> entrada) {
+            Nodo nodo = raiz;
+            boolean resto = false;
+            for (String segmento : entrada.segmentos()) {
+                if ("**".equals(segmento)) {
+                    resto = true;
+                } else if ("*".equals(segmento)) {
+                    if (nodo.comodin == null) {
+                        nodo.comodin = new Nodo();
+                    }
+                    nodo = nodo.comodin;
+                } else {
+                    nodo = nodo.agregarLiteral(segmento);
+                }
+            }
+            Object[] valores;
+            if (resto) {
+                valores = nodo.resto == null ? nodo.resto = new Object[OTROS + 1] : nodo.resto;
+            } else {
+                valores = nodo.terminal == null ? nodo.terminal = new Object[OTROS + 1] : nodo.terminal;
+            }
+            if (entrada.metodos().isEmpty()) {
+                for (int i = 0; i < valores.length; i++) {
+                    if (valores[i] == null) {
+                        valores[i] = entrada.valor();
+                    }
+                }
+            } else {
+                for (String metodo : entrada.metodos()) {
+                    int indice = indiceMetodo(metodo);
+                    if (valores[indice] == null) {
+                        valores[indice] = entrada.valor();
+                    }
+                }
+            }
+        }
+
+        private static List<String> segmentos(String patron) {
+            if (patron == null || !patron.startsWith("/")) {
+                throw new IllegalArgumentException("El patrón de ruta debe comenzar con '/': " + patron);
+            }
+            List<String> segmentos = new ArrayList<>();
+            for (String segmento : patron.split("/")) {
+                if (!segmento.isEmpty()) {
+                    segmentos.add(segmento);
+                }
+            }
+            int resto = segmentos.indexOf("**");
+            if (resto >= 0 && resto != segmentos.size() - 1) {
+                throw new IllegalArgumentException("'**' solo puede ser el último segmento: " + patron);
+            }
+            return segmentos;
+        }
+    }
+
+    private record Entrada<T>(List<String> segmentos, List<String> metodos, T valor) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+/**
+ * Solicitudes concedidas por un {@link AlmacenCuotas} a una instancia.
+ *
+ * @param tokens      solicitudes concedidas, entre 0 y las pedidas
+ * @param esperaNanos si no se concedieron solicitudes, tiempo estimado hasta
+ *                    que haya una disponible; 0 en otro caso
+ */
+public record Concesion(int tokens, long esperaNanos) {
+}
@@ -0,0 +1,84 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+/**
+ * Token bucket global de un cliente, guardado en un {@link AlmacenCuotas}.
+ *
+ * <p>
+ * Se recarga a razón de {@code limite / periodo} solicitudes hasta un máximo
+ * de {@code rafaga}, y se descuentan los tokens concedidos a las instancias.
+ * La recarga usa el reloj de la instancia que accede al almacén; una
+ * diferencia de reloj entre instancias adelanta o atrasa la recarga en la
+ * misma proporción, sin acumularse. No es thread-safe: el almacén debe
+ * serializar el acceso a cada cuota.
+ * </p>
+ */
+public class CuotaCompartida {
+
+    /**
+     * Margen para que los errores de redondeo de la recarga no pierdan un
+     * token entero.
+     */
+    private static final double MARGEN = 1e-9;
+
+    private double tokens;
+    private long actualizadoMillis;
+
+    public CuotaCompartida(double tokens, long actualizadoMillis) {
+        this.tokens = tokens;
+        this.actualizadoMillis = actualizadoMillis;
+    }
+
+    /**
+     * Cuota de un cliente sin solicitudes registradas, con la ráfaga completa.
+     */
+    public static CuotaCompartida llena(LimiteTasa limite, long ahoraMillis) {
+        return new CuotaCompartida(limite.rafaga(), ahoraMillis);
+    }
+
+    /**
+     * Concede hasta {@code solicitados} tokens disponibles.
+     *
+     * @param solicitados tokens pedidos por la instancia
+     * @param limite      límite del cliente
+     * @param ahoraMillis instante actual
+     * @return tokens concedidos y, si no hay, la espera hasta el siguiente
+     */
+    public Concesion conceder(int solicitados, LimiteTasa limite, long ahoraMillis) {
+        recargar(limite, ahoraMillis);
+        int concedidos = (int) Math.min(solicitados, Math.floor(tokens + MARGEN));
+        if (concedidos > 0) {
+            tokens = Math.max(0, tokens - concedidos);
+            return new Concesion(concedidos, 0);
+        }
+        double tokensPorNano = (double) limite.limite() / limite.periodo().toNanos();
+        return new Concesion(0, (long) Math.ceil((1 - tokens) / tokensPorNano));
+    }
+
+    /**
+     * Devuelve tokens concedidos que una instancia no usó.
+     *
+     * @param devueltos   tokens no usados
+     * @param limite      límite del cliente
+     * @param ahoraMillis instante actual
+     */
+    public void devolver(long devueltos, LimiteTasa limite, long ahoraMillis) {
+        recargar(limite, ahoraMillis);
+        tokens = Math.min(limite.rafaga(), tokens + devueltos);
+    }
+
+    private void recargar(LimiteTasa limite, long ahoraMillis) {
+        if (ahoraMillis > actualizadoMillis) {
+            double recarga = (double) (ahoraMillis - actualizadoMillis) * limite.limite() / limite.periodo().toMillis();
+            tokens = Math.min(limite.rafaga(), tokens + recarga);
+            actualizadoMillis = ahoraMillis;
+        }
+    }
+
+    public double getTokens() {
+        return tokens;
+    }
+
+    public long getActualizadoMillis() {
+        return actualizadoMillis;
+    }
+}
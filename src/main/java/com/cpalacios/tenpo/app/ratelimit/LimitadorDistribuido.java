@@ -0,0 +1,354 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limitador que aplica un mismo límite global a un cliente en todas las
+ * instancias, arrendando tokens de un {@link AlmacenCuotas} compartido.
+ *
+ * <p>
+ * Cada instancia arrienda lotes de hasta {@code tamanoArriendo} tokens por
+ * cliente y los gasta localmente con CAS, por lo que solo una de cada
+ * {@code tamanoArriendo} solicitudes consulta el almacén. Un arriendo vence
+ * tras {@code duracionArriendo}; los tokens que no se usaron vuelven al
+ * almacén para que otra instancia pueda usarlos. La devolución se ejecuta en
+ * un executor propio, fuera del camino de la solicitud y sin ocupar el
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ * </p>
+ *
+ * <p>
+ * La consulta al almacén se hace fuera de la caché de arriendos: un solo hilo
+ * por cliente renueva el arriendo y los demás hilos del mismo cliente esperan
+ * su resultado, por lo que un almacén lento no bloquea a otros clientes.
+ * </p>
+ *
+ * <p>
+ * Si el almacén no tiene tokens, el rechazo se recuerda localmente hasta que
+ * haya uno disponible (como máximo {@code duracionArriendo}), para que un
+ * cliente que excede el límite no consulte el almacén en cada solicitud. Si
+ * el almacén falla, durante {@code duracionArriendo} el cliente se limita con
+ * un {@link LimitadorGcra} local con el mismo {@link LimiteTasa}: el límite
+ * pasa a aplicarse por instancia hasta que el almacén se recupere, en lugar
+ * de rechazar todas las solicitudes.
+ * </p>
+ *
+ * <p>
+ * Las solicitudes restantes que informa
+ * {@link #intentar(String, int, long)} son las del arriendo local, no las de
+ * la cuota global. Una solicitud con costo mayor al tamaño del arriendo
+ * arrienda de una vez los tokens que necesita.
+ * </p>
+ */
+@Slf4j
+public class LimitadorDistribuido implements LimitadorSolicitudes {
+
+    /**
+     * Largo máximo de la clave en el almacén; las claves más largas se
+     * reemplazan por su hash.
+     */
+    private static final int LARGO_MAXIMO_CLAVE = 200;
+
+    /**
+     * Executor de Caffeine, compartido por los limitadores que se crean en
+     * cada recarga de la configuración; ejecuta las devoluciones, que
+     * bloquean mientras responde el almacén.
+     */
+    private static final ExecutorService DEVOLUCIONES = Executors.newFixedThreadPool(2, hilosDaemon());
+
+    private final LimiteTasa limite;
+    private final String espacio;
+    private final AlmacenCuotas almacen;
+    private final int tamanoArriendo;
+    private final long duracionArriendoNanos;
+    private final Cache<String, Arriendo> arriendos;
+
+    /**
+     * Renovación en curso de cada cliente, para que un solo hilo consulte el
+     * almacén.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Arriendo>> renovaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Limitador que se aplica mientras el almacén no responde.
+     */
+    private final LimitadorGcra respaldo;
+
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder desalojados = new LongAdder();
+    private final LongAdder llamadasRemotas = new LongAdder();
+
+    /**
+     * @param limite           límite global de cada cliente
+     * @param espacio          prefijo de las claves en el almacén, distinto
+     *                         para cada límite
+     * @param almacen          almacén compartido por las instancias
+     * @param tamanoArriendo   tokens arrendados por consulta al almacén; se
+     *                         limita a la ráfaga
+     * @param duracionArriendo tiempo tras el cual se devuelven los tokens no
+     *                         usados de un arriendo
+     * @param maximoClientes   cantidad máxima de clientes con arriendo
+     */
+    public LimitadorDistribuido(LimiteTasa limite, String espacio, AlmacenCuotas almacen, int tamanoArriendo,
+            Duration duracionArriendo, long maximoClientes) {
+        this.limite = limite;
+        this.espacio = espacio;
+        this.almacen = almacen;
+        this.tamanoArriendo = Math.max(1, Math.min(tamanoArriendo, limite.rafaga()));
+        this.duracionArriendoNanos = duracionArriendo.toNanos();
+        this.respaldo = new LimitadorGcra(limite, maximoClientes);
+        this.arriendos = Caffeine.newBuilder()
+                .maximumSize(maximoClientes)
+                .expireAfterWrite(duracionArriendo)
+                .executor(DEVOLUCIONES)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String clave, Arriendo arriendo, RemovalCause causa) -> {
+                    if (causa == RemovalCause.EXPIRED) {
+                        expirados.increment();
+                    } else if (causa == RemovalCause.SIZE) {
+                        desalojados.increment();
+                    }
+                    if (clave != null && arriendo != null) {
+                        devolverSobrantes(clave, arriendo);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public long intentar(String clave, int costo, long ahoraNanos) {
+        Arriendo arriendo = arriendos.getIfPresent(clave);
+        if (arriendo == null || !arriendo.vigente(ahoraNanos)) {
+            arriendo = renovar(clave, arriendo, costo, ahoraNanos);
+        }
+        if (arriendo.respaldoLocal) {
+            return respaldo.intentar(clave, costo, ahoraNanos);
+        }
+        long restantes = arriendo.tomar(costo);
+        // Otros hilos pueden agotar un arriendo recién renovado; los sobrantes
+        // del arriendo reemplazado vuelven al almacén
+        for (int intento = 0; restantes < 0 && arriendo.tokensConcedidos && intento < 3; intento++) {
+            arriendo = renovar(clave, arriendo, costo, ahoraNanos);
+            if (arriendo.respaldoLocal) {
+                return respaldo.intentar(clave, costo, ahoraNanos);
+            }
+            if (arriendo.concedidos < costo) {
+                // El almacén no tenía tokens suficientes para este costo
+                break;
+            }
+            restantes = arriendo.tomar(costo);
+        }
+        return restantes >= 0 ? restantes : -Math.max(arriendo.disponibleNanos - ahoraNanos, 1);
+    }
+
+    /**
+     * Reemplaza el arriendo agotado o vencido del cliente, salvo que otro hilo
+     * ya lo haya renovado. Si otro hilo está renovando el arriendo del mismo
+     * cliente, espera su resultado en lugar de consultar el almacén.
+     */
+    private Arriendo renovar(String clave, Arriendo anterior, int costo, long ahoraNanos) {
+        Arriendo actual = arriendos.getIfPresent(clave);
+        if (renovado(actual, anterior, ahoraNanos)) {
+            return actual;
+        }
+
+        CompletableFuture<Arriendo> propia = new CompletableFuture<>();
+        CompletableFuture<Arriendo> existente = renovaciones.putIfAbsent(clave, propia);
+        if (existente != null) {
+            return existente.join();
+        }
+
+        try {
+            // Otro hilo pudo terminar su renovación antes de registrar la propia
+            actual = arriendos.getIfPresent(clave);
+            if (renovado(actual, anterior, ahoraNanos)) {
+                propia.complete(actual);
+                return actual;
+            }
+            Arriendo nuevo = arrendar(clave, Math.max(tamanoArriendo, costo), ahoraNanos);
+            // Los sobrantes del arriendo reemplazado se devuelven en el listener
+            arriendos.put(clave, nuevo);
+            propia.complete(nuevo);
+            return nuevo;
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            renovaciones.remove(clave, propia);
+        }
+    }
+
+    private static boolean renovado(Arriendo actual, Arriendo anterior, long ahoraNanos) {
+        return actual != null && actual != anterior && actual.vigente(ahoraNanos);
+    }
+
+    private Arriendo arrendar(String clave, int solicitados, long ahoraNanos) {
+        Concesion concesion;
+        try {
+            llamadasRemotas.increment();
+            concesion = almacen.arrendar(claveAlmacen(clave), solicitados, limite);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo arrendar la cuota de {}, se aplica el límite local", clave, e);
+            return new Arriendo(0, ahoraNanos + duracionArriendoNanos, ahoraNanos, false, false, true);
+        }
+        if (concesion.tokens() > 0) {
+            return new Arriendo(concesion.tokens(), ahoraNanos + duracionArriendoNanos, ahoraNanos, true, true,
+                    false);
+        }
+        long espera = concesion.esperaNanos();
+        return new Arriendo(0, ahoraNanos + Math.min(espera, duracionArriendoNanos), ahoraNanos + espera, false,
+                false, false);
+    }
+
+    private void devolverSobrantes(String clave, Arriendo arriendo) {
+        long sobrantes = arriendo.tokens.getAndSet(0);
+        if (sobrantes > 0 && arriendo.delAlmacen) {
+            try {
+                llamadasRemotas.increment();
+                almacen.devolver(claveAlmacen(clave), sobrantes, limite);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron devolver {} tokens de {}", sobrantes, clave, e);
+            }
+        }
+    }
+
+    private String claveAlmacen(String clave) {
+        String completa = espacio + "|" + clave;
+        if (completa.length() <= LARGO_MAXIMO_CLAVE) {
+            return completa;
+        }
+        return espacio + "|#" + Long.toHexString(LimitadorGcraCompacto.hash(clave));
+    }
+
+    @Override
+    public LimiteTasa getLimite() {
+        return limite;
+    }
+
+    @Override
+    public long cantidadClientes() {
+        return arriendos.estimatedSize();
+    }
+
+    @Override
+    public long cantidadExpirados() {
+        return expirados.sum();
+    }
+
+    @Override
+    public long cantidadDesalojados() {
+        return desalojados.sum();
+    }
+
+    /**
+     * Consultas y devoluciones enviadas al almacén compartido.
+     */
+    public long cantidadLlamadasRemotas() {
+        return llamadasRemotas.sum();
+    }
+
+    /**
+     * Devuelve al almacén los tokens de todos los arriendos. Las devoluciones
+     * se ejecutan en el hilo que llama, para que no se pierdan si la JVM se
+     * detiene antes de que las ejecute el executor.
+     */
+    public void devolverTodo() {
+        arriendos.asMap().forEach(this::devolverSobrantes);
+        arriendos.invalidateAll();
+        arriendos.cleanUp();
+    }
+
+    private static ThreadFactory hilosDaemon() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "rate-limit-devoluciones-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /**
+     * Tokens de un cliente arrendados a esta instancia.
+     */
+    private static final class Arriendo {
+
+        private final AtomicLong tokens;
+
+        /**
+         * Tokens recibidos al crear el arriendo.
+         */
+        private final long concedidos;
+
+        private final long venceNanos;
+
+        /**
+         * Instante en que se estima que el almacén tendrá un token disponible.
+         */
+        private final long disponibleNanos;
+
+        /**
+         * Indica si se concedieron tokens; un arriendo sin tokens recuerda un
+         * rechazo.
+         */
+        private final boolean tokensConcedidos;
+
+        /**
+         * Indica si los tokens se descontaron del almacén y deben devolverse.
+         */
+        private final boolean delAlmacen;
+
+        /**
+         * Indica que el almacén falló y el cliente se limita localmente hasta
+         * que venza el arriendo.
+         */
+        private final boolean respaldoLocal;
+
+        Arriendo(long tokens, long venceNanos, long disponibleNanos, boolean tokensConcedidos, boolean delAlmacen,
+                boolean respaldoLocal) {
+            this.tokens = new AtomicLong(tokens);
+            this.concedidos = tokens;
+            this.venceNanos = venceNanos;
+            this.disponibleNanos = disponibleNanos;
+            this.tokensConcedidos = tokensConcedidos;
+            this.delAlmacen = delAlmacen;
+            this.respaldoLocal = respaldoLocal;
+        }
+
+        boolean vigente(long ahoraNanos) {
+            return venceNanos - ahoraNanos > 0;
+        }
+
+        /**
+         * Toma tokens del arriendo.
+         *
+         * @param cantidad tokens a tomar
+         * @return tokens restantes, o -1 si no quedaban suficientes
+         */
+        long tomar(int cantidad) {
+            while (true) {
+                long disponibles = tokens.get();
+                if (disponibles < cantidad) {
+                    return -1;
+                }
+                if (tokens.compareAndSet(disponibles, disponibles - cantidad)) {
+                    return disponibles - cantidad;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Limitador de solicitudes por cliente basado en GCRA (Generic Cell Rate
+ * Algorithm), equivalente a un token bucket.
+ *
+ * <p>
+ * El estado de cada cliente es un único {@link AtomicLong} con el instante
+ * teórico de llegada (TAT) de su siguiente solicitud. Cada solicitud admitida
+ * lo avanza un intervalo; se rechaza si el TAT resultante supera al instante
+ * actual en más de la tolerancia de la ráfaga. El estado se actualiza con
+ * CAS, sin bloqueos: las solicitudes de un mismo cliente no se serializan en
+ * un lock y las de clientes distintos no comparten estado.
+ * </p>
+ *
+ * <p>
+ * A diferencia de una ventana fija, no admite el doble de solicitudes en el
+ * cambio de ventana: en cualquier intervalo de duración {@code t} se admiten
+ * como máximo {@code rafaga + t / intervalo} solicitudes.
+ * </p>
+ *
+ * <p>
+ * Los estados se guardan en una caché acotada a {@code maximoClientes} que
+ * descarta los clientes inactivos, por lo que la memoria no crece con cada
+ * {@code X-Client-Id} distinto. Un cliente se descarta tras estar inactivo
+ * durante la tolerancia de la ráfaga: para entonces su TAT ya quedó en el
+ * pasado y un estado nuevo es equivalente, así que descartarlo no le otorga
+ * solicitudes adicionales. Al alcanzar el máximo se descartan los clientes
+ * menos usados aunque sigan activos, lo que sí puede otorgarles una ráfaga
+ * nueva. El descarte y la limpieza se ejecutan en el executor de Caffeine,
+ * fuera del camino de la solicitud.
+ * </p>
+ *
+ * <p>
+ * Cada cliente ocupa más de 100 bytes (la clave, el {@link AtomicLong} y el
+ * nodo de la caché); para millones de clientes conviene
+ * {@link LimitadorGcraCompacto}.
+ * </p>
+ */
+public class LimitadorGcra extends LimitadorGcraBase {
+
+    /**
+     * TAT de cada cliente, como valor de {@link System#nanoTime()}.
+     */
+    private final Cache<String, AtomicLong> estados;
+
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder desalojados = new LongAdder();
+
+    /**
+     * @param limite         límite aplicado a cada cliente
+     * @param maximoClientes cantidad máxima de clientes con estado
+     */
+    public LimitadorGcra(LimiteTasa limite, long maximoClientes) {
+        super(limite);
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(maximoClientes)
+                .expireAfterAccess(Duration.ofNanos(toleranciaNanos))
+                .evictionListener((String clave, AtomicLong estado, RemovalCause causa) ->
+                        (causa == RemovalCause.SIZE ? desalojados : expirados).increment())
+                .build();
+    }
+
+    @Override
+    public long intentar(String clave, int costo, long ahoraNanos) {
+        AtomicLong estado = estados.getIfPresent(clave);
+        if (estado == null) {
+            estado = estados.get(clave, k -> new AtomicLong(SIN_ESTADO));
+        }
+        while (true) {
+            long tat = estado.get();
+            long siguiente = siguiente(tat, costo, ahoraNanos);
+            long exceso = exceso(siguiente, ahoraNanos);
+            if (exceso > 0) {
+                return -exceso;
+            }
+            if (estado.compareAndSet(tat, siguiente)) {
+                return restantes(siguiente, ahoraNanos);
+            }
+        }
+    }
+
+    @Override
+    public long cantidadClientes() {
+        return estados.estimatedSize();
+    }
+
+    @Override
+    public long cantidadExpirados() {
+        return expirados.sum();
+    }
+
+    @Override
+    public long cantidadDesalojados() {
+        return desalojados.sum();
+    }
+
+    /**
+     * Ejecuta la limpieza pendiente de la caché de estados.
+     */
+    void limpiar() {
+        estados.cleanUp();
+    }
+}
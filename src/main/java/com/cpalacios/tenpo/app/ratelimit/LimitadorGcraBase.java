@@ -0,0 +1,68 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+/**
+ * Cálculo GCRA (Generic Cell Rate Algorithm) común a los limitadores,
+ * independiente de cómo se guarda el estado de cada cliente.
+ *
+ * <p>
+ * El estado de un cliente es el instante teórico de llegada (TAT) de su
+ * siguiente solicitud, como valor de {@link System#nanoTime()}. Cada
+ * solicitud admitida lo avanza un intervalo; se rechaza si el TAT resultante
+ * supera al instante actual en más de la tolerancia de la ráfaga. Un TAT en el
+ * pasado equivale a un cliente sin estado, con la ráfaga completa.
+ * </p>
+ */
+abstract class LimitadorGcraBase implements LimitadorSolicitudes {
+
+    /**
+     * TAT de un cliente sin solicitudes registradas.
+     */
+    static final long SIN_ESTADO = 0;
+
+    private final LimiteTasa limite;
+    protected final long intervaloNanos;
+    protected final long toleranciaNanos;
+
+    protected LimitadorGcraBase(LimiteTasa limite) {
+        this.limite = limite;
+        this.intervaloNanos = limite.intervaloNanos();
+        this.toleranciaNanos = Math.multiplyExact(intervaloNanos, (long) limite.rafaga());
+    }
+
+    @Override
+    public LimiteTasa getLimite() {
+        return limite;
+    }
+
+    /**
+     * Indica si el TAT ya no tiene solicitudes pendientes de reponer.
+     */
+    protected static boolean vencido(long tat, long ahoraNanos) {
+        // Los instantes de nanoTime se comparan por diferencia
+        return tat == SIN_ESTADO || tat - ahoraNanos <= 0;
+    }
+
+    /**
+     * TAT del cliente si se admite una solicitud del costo indicado en el
+     * instante indicado.
+     */
+    protected final long siguiente(long tat, int costo, long ahoraNanos) {
+        long siguiente = (vencido(tat, ahoraNanos) ? ahoraNanos : tat) + intervaloNanos * costo;
+        return siguiente == SIN_ESTADO ? siguiente + 1 : siguiente;
+    }
+
+    /**
+     * Tiempo en que el TAT siguiente supera la tolerancia; si es positivo la
+     * solicitud se rechaza.
+     */
+    protected final long exceso(long siguiente, long ahoraNanos) {
+        return siguiente - ahoraNanos - toleranciaNanos;
+    }
+
+    /**
+     * Solicitudes restantes de la ráfaga con el TAT siguiente.
+     */
+    protected final long restantes(long siguiente, long ahoraNanos) {
+        return (ahoraNanos + toleranciaNanos - siguiente) / intervaloNanos;
+    }
+}
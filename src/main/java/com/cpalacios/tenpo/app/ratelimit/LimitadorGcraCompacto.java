@@ -0,0 +1,208 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador GCRA con el estado de los clientes en una tabla de
+ * direccionamiento abierto de {@code long} primitivos, para millones de
+ * clientes.
+ *
+ * <p>
+ * Cada {@code X-Client-Id} se reduce a un hash de 64 bits y cada posición de
+ * la tabla guarda dos {@code long} contiguos: el hash y el TAT del cliente.
+ * La tabla se dimensiona con un factor de carga de {@value #FACTOR_CARGA}, por
+ * lo que cada cliente ocupa 20 bytes y no hay objetos por cliente. Cada
+ * posición se actualiza con CAS de forma independiente (sin locks), y una
+ * solicitud no crea objetos: el hash se calcula recorriendo los caracteres de
+ * la clave.
+ * </p>
+ *
+ * <p>
+ * Política de colisiones:
+ * </p>
+ * <ul>
+ * <li>Un cliente solo puede ocupar una de las {@value #VENTANA} posiciones
+ * siguientes a la de su hash (dos líneas de caché), por lo que la búsqueda
+ * está acotada y no requiere marcas de borrado.</li>
+ * <li>Un cliente nuevo ocupa la primera posición libre o vencida (TAT en el
+ * pasado) de su ventana; reutilizar una posición vencida no otorga
+ * solicitudes adicionales a su cliente anterior.</li>
+ * <li>Si las {@value #VENTANA} posiciones están activas, se desaloja la de
+ * menor TAT, la más próxima a vencer; su cliente recibe una ráfaga nueva al
+ * volver. Estos desalojos se cuentan aparte.</li>
+ * <li>Dos claves con el mismo hash de 64 bits comparten el límite; con un
+ * millón de clientes la probabilidad es del orden de 10<sup>-8</sup>.</li>
+ * <li>Dos primeras solicitudes simultáneas de un mismo cliente pueden ocupar
+ * dos posiciones; la segunda queda sin uso y vence sola.</li>
+ * </ul>
+ */
+public class LimitadorGcraCompacto extends LimitadorGcraBase {
+
+    /**
+     * Posiciones en las que puede ubicarse un cliente a partir de su hash.
+     */
+    static final int VENTANA = 8;
+
+    /**
+     * Proporción de posiciones ocupadas con la cantidad máxima de clientes.
+     */
+    static final double FACTOR_CARGA = 0.8;
+
+    /**
+     * Hash de una posición libre.
+     */
+    private static final long LIBRE = 0;
+
+    private static final VarHandle TABLA = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Pares {@code [hash, tat]} de cada posición.
+     */
+    private final long[] tabla;
+
+    private final int posiciones;
+
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder desalojados = new LongAdder();
+
+    /**
+     * @param limite         límite aplicado a cada cliente
+     * @param maximoClientes cantidad de clientes para la que se dimensiona la
+     *                       tabla
+     */
+    public LimitadorGcraCompacto(LimiteTasa limite, long maximoClientes) {
+        super(limite);
+        long cantidad = Math.max(VENTANA, (long) Math.ceil(maximoClientes / FACTOR_CARGA));
+        if (cantidad > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Cantidad máxima de clientes demasiado alta: " + maximoClientes);
+        }
+        this.posiciones = (int) cantidad;
+        this.tabla = new long[2 * posiciones];
+    }
+
+    @Override
+    public long intentar(String clave, int costo, long ahoraNanos) {
+        int indiceTat = 2 * ubicar(hash(clave), ahoraNanos) + 1;
+        while (true) {
+            long tat = (long) TABLA.getVolatile(tabla, indiceTat);
+            long siguiente = siguiente(tat, costo, ahoraNanos);
+            long exceso = exceso(siguiente, ahoraNanos);
+            if (exceso > 0) {
+                return -exceso;
+            }
+            if (TABLA.compareAndSet(tabla, indiceTat, tat, siguiente)) {
+                return restantes(siguiente, ahoraNanos);
+            }
+        }
+    }
+
+    /**
+     * Retorna la posición del cliente, ocupando una nueva si no tiene.
+     */
+    private int ubicar(long hash, long ahoraNanos) {
+        int inicio = (int) (((hash >>> 32) * posiciones) >>> 32);
+        for (int i = 0; i < VENTANA; i++) {
+            int posicion = siguientePosicion(inicio, i);
+            if ((long) TABLA.getVolatile(tabla, 2 * posicion) == hash) {
+                return posicion;
+            }
+        }
+        while (true) {
+            int elegida = -1;
+            long hashElegida = LIBRE;
+            long tatElegida = SIN_ESTADO;
+            boolean activa = false;
+            for (int i = 0; i < VENTANA; i++) {
+                int posicion = siguientePosicion(inicio, i);
+                long actual = (long) TABLA.getVolatile(tabla, 2 * posicion);
+                if (actual == hash) {
+                    // Ocupada por otra solicitud del mismo cliente
+                    return posicion;
+                }
+                long tat = (long) TABLA.getVolatile(tabla, 2 * posicion + 1);
+                if (actual == LIBRE || vencido(tat, ahoraNanos)) {
+                    elegida = posicion;
+                    hashElegida = actual;
+                    tatElegida = tat;
+                    activa = false;
+                    break;
+                }
+                if (elegida < 0 || tat - tatElegida < 0) {
+                    elegida = posicion;
+                    hashElegida = actual;
+                    tatElegida = tat;
+                    activa = true;
+                }
+            }
+            if (TABLA.compareAndSet(tabla, 2 * elegida, hashElegida, hash)) {
+                if (activa) {
+                    // El TAT era del cliente desalojado
+                    TABLA.compareAndSet(tabla, 2 * elegida + 1, tatElegida, SIN_ESTADO);
+                    desalojados.increment();
+                } else if (hashElegida != LIBRE) {
+                    expirados.increment();
+                }
+                return elegida;
+            }
+        }
+    }
+
+    private int siguientePosicion(int inicio, int desplazamiento) {
+        int posicion = inicio + desplazamiento;
+        return posicion >= posiciones ? posicion - posiciones : posicion;
+    }
+
+    /**
+     * Hash de 64 bits de la clave (FNV-1a con la mezcla final de MurmurHash3),
+     * distinto de {@link #LIBRE}.
+     */
+    static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == LIBRE ? 1 : h;
+    }
+
+    /**
+     * Cantidad de clientes con solicitudes pendientes de reponer; recorre la
+     * tabla completa.
+     */
+    @Override
+    public long cantidadClientes() {
+        long ahora = System.nanoTime();
+        long activos = 0;
+        for (int posicion = 0; posicion < posiciones; posicion++) {
+            if ((long) TABLA.getVolatile(tabla, 2 * posicion) != LIBRE
+                    && !vencido((long) TABLA.getVolatile(tabla, 2 * posicion + 1), ahora)) {
+                activos++;
+            }
+        }
+        return activos;
+    }
+
+    @Override
+    public long cantidadExpirados() {
+        return expirados.sum();
+    }
+
+    @Override
+    public long cantidadDesalojados() {
+        return desalojados.sum();
+    }
+
+    /**
+     * Memoria ocupada por la tabla.
+     */
+    public long bytesOcupados() {
+        return (long) tabla.length * Long.BYTES;
+    }
+}
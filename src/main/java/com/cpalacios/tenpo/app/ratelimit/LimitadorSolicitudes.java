@@ -0,0 +1,102 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+/**
+ * Limitador de solicitudes por cliente.
+ *
+ * <p>
+ * El resultado de {@link #intentar(String, int, long)} es un {@code long}
+ * para no crear objetos por solicitud: si es mayor o igual a 0 la solicitud se
+ * admite y el valor es la cantidad de solicitudes restantes de la ráfaga; si
+ * es negativo se rechaza y su valor absoluto es la espera en nanosegundos.
+ * </p>
+ *
+ * <p>
+ * Una solicitud con costo {@code n} consume {@code n} solicitudes de la
+ * ráfaga, para que los endpoints costosos agoten antes el límite.
+ * </p>
+ */
+public interface LimitadorSolicitudes {
+
+    /**
+     * Registra una solicitud del cliente en el instante actual.
+     *
+     * @param clave identificador del cliente
+     * @return solicitudes restantes si se admite, o la espera en nanosegundos
+     *         con signo negativo si se rechaza
+     */
+    default long intentar(String clave) {
+        return intentar(clave, System.nanoTime());
+    }
+
+    /**
+     * Registra una solicitud del cliente en el instante indicado.
+     *
+     * @param clave      identificador del cliente
+     * @param ahoraNanos instante de la solicitud, como {@link System#nanoTime()}
+     * @return solicitudes restantes si se admite, o la espera en nanosegundos
+     *         con signo negativo si se rechaza
+     */
+    default long intentar(String clave, long ahoraNanos) {
+        return intentar(clave, 1, ahoraNanos);
+    }
+
+    /**
+     * Registra una solicitud del cliente con el costo indicado.
+     *
+     * @param clave      identificador del cliente
+     * @param costo      solicitudes que consume, entre 1 y la ráfaga
+     * @param ahoraNanos instante de la solicitud, como {@link System#nanoTime()}
+     * @return solicitudes restantes si se admite, o la espera en nanosegundos
+     *         con signo negativo si se rechaza
+     */
+    long intentar(String clave, int costo, long ahoraNanos);
+
+    /**
+     * Límite aplicado a cada cliente.
+     */
+    LimiteTasa getLimite();
+
+    /**
+     * Cantidad aproximada de clientes con estado registrado.
+     */
+    long cantidadClientes();
+
+    /**
+     * Clientes descartados por inactividad.
+     */
+    long cantidadExpirados();
+
+    /**
+     * Clientes activos descartados por falta de espacio.
+     */
+    long cantidadDesalojados();
+
+    /**
+     * Indica si el resultado de {@link #intentar(String, int, long)}
+     * corresponde a una solicitud admitida.
+     */
+    static boolean admitida(long resultado) {
+        return resultado >= 0;
+    }
+
+    /**
+     * Solicitudes restantes de la ráfaga según el resultado de
+     * {@link #intentar(String, int, long)}; 0 si la solicitud se rechazó.
+     */
+    static long restantes(long resultado) {
+        return Math.max(resultado, 0);
+    }
+
+    /**
+     * Segundos a esperar antes de reintentar, redondeados hacia arriba, según
+     * el resultado de {@link #intentar(String, int, long)}; 0 si la solicitud se
+     * admitió.
+     */
+    static long esperaSegundos(long resultado) {
+        if (resultado >= 0) {
+            return 0;
+        }
+        long nanosPorSegundo = 1_000_000_000L;
+        return (-resultado + nanosPorSegundo - 1) / nanosPorSegundo;
+    }
+}
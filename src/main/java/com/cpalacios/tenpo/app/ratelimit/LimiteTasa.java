@@ -0,0 +1,37 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Límite de solicitudes aplicado a cada cliente.
+ *
+ * <p>
+ * Se admiten {@code limite} solicitudes por {@code periodo} en régimen
+ * sostenido, y hasta {@code rafaga} solicitudes seguidas cuando el cliente no
+ * ha enviado solicitudes recientemente.
+ * </p>
+ *
+ * @param limite  solicitudes admitidas por período
+ * @param periodo período al que corresponde el límite
+ * @param rafaga  solicitudes seguidas admitidas como máximo
+ */
+public record LimiteTasa(int limite, Duration periodo, int rafaga) {
+
+    public LimiteTasa {
+        if (limite < 1 || rafaga < 1) {
+            throw new IllegalArgumentException("El límite y la ráfaga deben ser mayores o iguales a 1");
+        }
+        if (periodo == null || periodo.toNanos() < limite) {
+            throw new IllegalArgumentException("El período debe ser de al menos un nanosegundo por solicitud");
+        }
+    }
+
+    /**
+     * Tiempo que repone una solicitud.
+     *
+     * @return intervalo entre solicitudes en régimen sostenido, en nanosegundos
+     */
+    public long intervaloNanos() {
+        return periodo.toNanos() / limite;
+    }
+}
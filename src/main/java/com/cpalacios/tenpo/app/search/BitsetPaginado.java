@@ -0,0 +1,99 @@
+package com.cpalacios.tenpo.app.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Conjunto de enteros no negativos representado como un bitset dividido en
+ * páginas que se asignan a medida que se usan.
+ *
+ * <p>
+ * Cubre todo el rango de {@code int} positivos sin reservar los 256 MB que
+ * necesitaría un bitset plano: solo se asignan las páginas de los rangos que
+ * contienen algún valor. Las operaciones son seguras entre hilos y no usan
+ * bloqueos.
+ * </p>
+ */
+final class BitsetPaginado {
+
+    /**
+     * Cantidad de bits (valores) por página: 8 KB por página.
+     */
+    static final int BITS_POR_PAGINA = 1 << 16;
+
+    private static final int PALABRAS_POR_PAGINA = BITS_POR_PAGINA / Long.SIZE;
+    private static final int CANTIDAD_PAGINAS = (int) ((1L << 31) / BITS_POR_PAGINA);
+
+    private final AtomicReferenceArray<AtomicLongArray> paginas = new AtomicReferenceArray<>(CANTIDAD_PAGINAS);
+    private final AtomicInteger paginasAsignadas = new AtomicInteger();
+    private final AtomicLong cantidad = new AtomicLong();
+
+    boolean contiene(int valor) {
+        AtomicLongArray pagina = paginas.get(valor / BITS_POR_PAGINA);
+        return pagina != null && (pagina.get(palabra(valor)) & mascara(valor)) != 0;
+    }
+
+    /**
+     * @return {@code true} si el valor no estaba en el conjunto
+     */
+    boolean agregar(int valor) {
+        long mascara = mascara(valor);
+        long anterior = pagina(valor / BITS_POR_PAGINA).getAndAccumulate(palabra(valor), mascara, (a, b) -> a | b);
+        if ((anterior & mascara) != 0) {
+            return false;
+        }
+        cantidad.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return {@code true} si el valor estaba en el conjunto
+     */
+    boolean quitar(int valor) {
+        AtomicLongArray pagina = paginas.get(valor / BITS_POR_PAGINA);
+        if (pagina == null) {
+            return false;
+        }
+        long mascara = mascara(valor);
+        long anterior = pagina.getAndAccumulate(palabra(valor), ~mascara, (a, b) -> a & b);
+        if ((anterior & mascara) == 0) {
+            return false;
+        }
+        cantidad.decrementAndGet();
+        return true;
+    }
+
+    long cantidad() {
+        return cantidad.get();
+    }
+
+    /**
+     * @return bytes ocupados por las páginas asignadas
+     */
+    long bytesOcupados() {
+        return (long) paginasAsignadas.get() * PALABRAS_POR_PAGINA * Long.BYTES;
+    }
+
+    private AtomicLongArray pagina(int indice) {
+        AtomicLongArray pagina = paginas.get(indice);
+        if (pagina != null) {
+            return pagina;
+        }
+        AtomicLongArray nueva = new AtomicLongArray(PALABRAS_POR_PAGINA);
+        if (paginas.compareAndSet(indice, null, nueva)) {
+            paginasAsignadas.incrementAndGet();
+            return nueva;
+        }
+        return paginas.get(indice);
+    }
+
+    private static int palabra(int valor) {
+        return (valor % BITS_POR_PAGINA) / Long.SIZE;
+    }
+
+    private static long mascara(int valor) {
+        return 1L << (valor % Long.SIZE);
+    }
+}
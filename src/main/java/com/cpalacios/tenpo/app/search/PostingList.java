@@ -0,0 +1,110 @@
+package com.cpalacios.tenpo.app.search;
+
+import java.util.Arrays;
+
+/**
+ * Lista ordenada y sin duplicados de identificadores de transacción,
+ * almacenada en un arreglo primitivo {@code long[]}.
+ *
+ * <p>
+ * Es la lista de apariciones (posting list) de un trigrama dentro de
+ * {@link TransaccionTrigramIndex}. Como los identificadores se generan de
+ * forma creciente, la inserción típica es un simple agregado al final.
+ * </p>
+ *
+ * <p>
+ * No es thread-safe: el índice sincroniza el acceso.
+ * </p>
+ */
+final class PostingList {
+
+    private static final int CAPACIDAD_INICIAL = 4;
+
+    private long[] ids = new long[CAPACIDAD_INICIAL];
+    private int tamano;
+
+    /**
+     * Agrega un identificador manteniendo el orden.
+     *
+     * @param id identificador de transacción
+     */
+    void agregar(long id) {
+        if (tamano > 0 && ids[tamano - 1] < id) {
+            asegurarCapacidad();
+            ids[tamano++] = id;
+            return;
+        }
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion >= 0) {
+            return;
+        }
+        int insercion = -posicion - 1;
+        asegurarCapacidad();
+        System.arraycopy(ids, insercion, ids, insercion + 1, tamano - insercion);
+        ids[insercion] = id;
+        tamano++;
+    }
+
+    /**
+     * Elimina un identificador si está presente.
+     *
+     * @param id identificador de transacción
+     */
+    void eliminar(long id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion < 0) {
+            return;
+        }
+        System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+        tamano--;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    /**
+     * Retorna una copia de los identificadores.
+     *
+     * @return identificadores ordenados de forma ascendente
+     */
+    long[] aArreglo() {
+        return Arrays.copyOf(ids, tamano);
+    }
+
+    /**
+     * Intersecta, en el mismo arreglo, los identificadores indicados con los
+     * de esta lista.
+     *
+     * @param candidatos identificadores ordenados
+     * @param cantidad   cantidad de posiciones válidas en {@code candidatos}
+     * @return cantidad de identificadores que permanecen al inicio del arreglo
+     */
+    int intersectarEn(long[] candidatos, int cantidad) {
+        int resultado = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cantidad && j < tamano) {
+            if (candidatos[i] < ids[j]) {
+                i++;
+            } else if (candidatos[i] > ids[j]) {
+                j++;
+            } else {
+                candidatos[resultado++] = candidatos[i];
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    private void asegurarCapacidad() {
+        if (tamano == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.cpalacios.tenpo.app.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria de los números de transacción registrados, usado como
+ * camino rápido para validar su unicidad.
+ *
+ * <p>
+ * Como los números son enteros positivos, se guardan en un
+ * {@link BitsetPaginado} (un bit por número) en lugar de un filtro de Bloom:
+ * ocupa 8 KB por cada rango de 65.536 números usados y no tiene falsos
+ * positivos por colisión. Un número ausente del índice no existe y se acepta
+ * sin consultar la base de datos. Un número presente puede existir y se
+ * confirma con la consulta al índice único {@code uk_transacciones_numero}.
+ * </p>
+ *
+ * <p>
+ * El índice puede tener falsos positivos (números eliminados desde otra
+ * instancia, o eliminados mientras se construía), pero nunca oculta un número
+ * registrado por esta instancia: se construye al iniciar recorriendo la tabla
+ * y se marca cada alta confirmada. Los números registrados por otras
+ * instancias no se conocen, por lo que la restricción única de la tabla sigue
+ * siendo la garantía final.
+ * </p>
+ *
+ * <p>
+ * Es opcional y se habilita con la propiedad
+ * {@code transacciones.numeros.indice-memoria.habilitado}. Publica como
+ * métricas la memoria ocupada y la tasa de falsos positivos.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TransaccionNumeroIndex implements MeterBinder {
+
+    private final TransaccionRepository transaccionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    private final BitsetPaginado numeros = new BitsetPaginado();
+
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong verificados = new AtomicLong();
+    private final AtomicLong falsosPositivos = new AtomicLong();
+
+    private volatile boolean listo;
+
+    public TransaccionNumeroIndex(TransaccionRepository transaccionRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${transacciones.numeros.indice-memoria.habilitado:false}") boolean habilitado) {
+        this.transaccionRepository = transaccionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Construye el índice al iniciar la aplicación, si está habilitado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (habilitado) {
+            construir();
+        }
+    }
+
+    /**
+     * Recorre los números de transacción registrados y los agrega al índice.
+     */
+    public void construir() {
+        long inicio = System.nanoTime();
+        transactionTemplate.executeWithoutResult(estado -> {
+            try (Stream<Integer> registrados = transaccionRepository.streamNumeros()) {
+                registrados.forEach(this::marcar);
+            }
+        });
+        listo = true;
+        log.info("Índice de números de transacción construido: {} números, {} KB en {} ms",
+                numeros.cantidad(), numeros.bytesOcupados() / 1024, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Indica si el índice puede descartar números.
+     *
+     * @return {@code true} si está habilitado y construido
+     */
+    public boolean isListo() {
+        return habilitado && listo;
+    }
+
+    /**
+     * Indica si el número de transacción ya está registrado.
+     *
+     * <p>
+     * Si el índice descarta el número, retorna {@code false} sin consultar la
+     * base de datos. En caso contrario delega en {@code consulta}.
+     * </p>
+     *
+     * @param numero   número de transacción
+     * @param consulta verificación contra la base de datos
+     * @return {@code true} si el número existe
+     */
+    public boolean existe(int numero, IntPredicate consulta) {
+        if (!isListo() || numero < 0) {
+            return consulta.test(numero);
+        }
+        if (!numeros.contiene(numero)) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        verificados.incrementAndGet();
+        boolean existe = consulta.test(numero);
+        if (!existe) {
+            falsosPositivos.incrementAndGet();
+        }
+        return existe;
+    }
+
+    /**
+     * Retorna, de los números indicados, los que ya están registrados.
+     *
+     * <p>
+     * Solo los números que el índice no descarta se consultan a la base de
+     * datos, en una sola llamada a {@code consulta}.
+     * </p>
+     *
+     * @param candidatos números de transacción
+     * @param consulta   búsqueda de los números existentes en la base de datos
+     * @return números que existen
+     */
+    public List<Integer> existentes(Collection<Integer> candidatos,
+                                    Function<Collection<Integer>, List<Integer>> consulta) {
+        if (!isListo()) {
+            return consulta.apply(candidatos);
+        }
+        List<Integer> posibles = candidatos.stream()
+                .filter(numero -> numero < 0 || numeros.contiene(numero))
+                .collect(Collectors.toList());
+        descartados.addAndGet(candidatos.size() - posibles.size());
+        if (posibles.isEmpty()) {
+            return List.of();
+        }
+        verificados.addAndGet(posibles.size());
+        List<Integer> existentes = consulta.apply(posibles);
+        falsosPositivos.addAndGet(posibles.size() - existentes.size());
+        return existentes;
+    }
+
+    /**
+     * Marca el número como registrado una vez confirmada la transacción de
+     * base de datos en curso.
+     *
+     * @param numero número de transacción
+     */
+    public void registrar(Integer numero) {
+        if (habilitado) {
+            alConfirmar(() -> marcar(numero));
+        }
+    }
+
+    /**
+     * Quita el número del índice una vez confirmada la transacción de base de
+     * datos en curso.
+     *
+     * @param numero número de transacción
+     */
+    public void liberar(Integer numero) {
+        if (habilitado && numero != null && numero >= 0) {
+            alConfirmar(() -> numeros.quitar(numero));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transacciones.numeros.indice.memoria", numeros, BitsetPaginado::bytesOcupados)
+                .description("Memoria ocupada por el índice de números de transacción")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("transacciones.numeros.indice.cantidad", numeros, BitsetPaginado::cantidad)
+                .description("Números de transacción registrados en el índice")
+                .register(registry);
+        Gauge.builder("transacciones.numeros.indice.tasa.falsos.positivos", this, TransaccionNumeroIndex::tasaFalsosPositivos)
+                .description("Proporción de números presentes en el índice que no existían en la base de datos")
+                .register(registry);
+        FunctionCounter.builder("transacciones.numeros.indice.consultas", descartados, AtomicLong::get)
+                .description("Validaciones de unicidad por resultado del índice")
+                .tag("resultado", "descartado")
+                .register(registry);
+        FunctionCounter.builder("transacciones.numeros.indice.consultas", verificados, AtomicLong::get)
+                .description("Validaciones de unicidad por resultado del índice")
+                .tag("resultado", "verificado")
+                .register(registry);
+    }
+
+    /**
+     * Proporción de verificaciones en la base de datos que no encontraron el
+     * número.
+     *
+     * @return tasa entre 0 y 1
+     */
+    public double tasaFalsosPositivos() {
+        long total = verificados.get();
+        return total == 0 ? 0 : (double) falsosPositivos.get() / total;
+    }
+
+    private void marcar(Integer numero) {
+        if (numero != null && numero >= 0) {
+            numeros.agregar(numero);
+        }
+    }
+
+    /**
+     * Ejecuta la acción después del commit si hay una transacción activa, o
+     * de inmediato en caso contrario.
+     */
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.cpalacios.tenpo.app.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido de trigramas, en memoria, para la búsqueda de texto libre
+ * sobre el nombre del cliente y el giro/comercio de las transacciones.
+ *
+ * <p>
+ * Cada trigrama (tres caracteres consecutivos, en minúsculas) apunta a una
+ * {@link PostingList} con los identificadores de las transacciones que lo
+ * contienen. Una búsqueda de subcadena intersecta las listas de los trigramas
+ * del texto buscado y verifica los candidatos contra el texto indexado, lo que
+ * evita el {@code LIKE '%texto%'} sobre toda la tabla.
+ * </p>
+ *
+ * <p>
+ * Es opcional y se habilita con la propiedad
+ * {@code transacciones.busqueda.indice-memoria.habilitado}. Se construye al
+ * iniciar la aplicación recorriendo la tabla con un cursor y se mantiene al
+ * día con las altas, actualizaciones y eliminaciones confirmadas. Mientras no
+ * esté listo, o si el texto tiene menos de tres caracteres, la búsqueda se
+ * resuelve en SQL.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TransaccionTrigramIndex {
+
+    /**
+     * Largo de los n-gramas indexados.
+     */
+    static final int N = 3;
+
+    private final TransaccionRepository transaccionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+
+    /**
+     * Identificadores eliminados mientras se construye el índice, para que
+     * el recorrido inicial no los vuelva a agregar.
+     */
+    private final Set<Long> eliminadosDuranteConstruccion = new HashSet<>();
+
+    private volatile boolean construyendo;
+    private volatile boolean listo;
+
+    public TransaccionTrigramIndex(TransaccionRepository transaccionRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${transacciones.busqueda.indice-memoria.habilitado:false}") boolean habilitado) {
+        this.transaccionRepository = transaccionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Construye el índice al iniciar la aplicación, si está habilitado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (habilitado) {
+            construir();
+        }
+    }
+
+    /**
+     * Recorre todas las transacciones y las agrega al índice.
+     */
+    public void construir() {
+        construyendo = true;
+        long inicio = System.nanoTime();
+        Long total = transactionTemplate.execute(estado -> {
+            long cantidad = 0;
+            try (Stream<TransaccionResumen> transacciones = transaccionRepository.streamResumen()) {
+                for (TransaccionResumen t : (Iterable<TransaccionResumen>) transacciones::iterator) {
+                    indexarSiAusente(t.idTransaccion(), t.nombreTenpista(), t.giroComercio());
+                    cantidad++;
+                }
+            }
+            return cantidad;
+        });
+
+        int cantidadTrigramas;
+        lock.writeLock().lock();
+        try {
+            eliminadosDuranteConstruccion.clear();
+            construyendo = false;
+            listo = true;
+            cantidadTrigramas = postings.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de trigramas construido: {} transacciones, {} trigramas en {} ms",
+                total, cantidadTrigramas, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Indica si el índice puede responder búsquedas.
+     *
+     * @return {@code true} si está habilitado y construido
+     */
+    public boolean isListo() {
+        return habilitado && listo;
+    }
+
+    /**
+     * Busca las transacciones cuyo nombre de cliente o giro/comercio
+     * contienen el texto indicado, sin distinguir mayúsculas.
+     *
+     * @param texto texto a buscar
+     * @return identificadores ordenados de las transacciones que coinciden, o
+     *         vacío si el índice no puede responder y se debe usar SQL
+     */
+    public Optional<long[]> buscar(String texto) {
+        if (!isListo() || texto == null || texto.length() < N) {
+            return Optional.empty();
+        }
+        String consulta = normalizar(texto);
+        Set<Long> trigramas = trigramas(consulta);
+
+        lock.readLock().lock();
+        try {
+            PostingList[] listas = new PostingList[trigramas.size()];
+            int i = 0;
+            for (Long trigrama : trigramas) {
+                PostingList lista = postings.get(trigrama);
+                if (lista == null) {
+                    return Optional.of(new long[0]);
+                }
+                listas[i++] = lista;
+            }
+            Arrays.sort(listas, Comparator.comparingInt(PostingList::tamano));
+
+            long[] candidatos = listas[0].aArreglo();
+            int cantidad = candidatos.length;
+            for (int j = 1; j < listas.length && cantidad > 0; j++) {
+                cantidad = listas[j].intersectarEn(candidatos, cantidad);
+            }
+
+            int verificados = 0;
+            for (int j = 0; j < cantidad; j++) {
+                Documento documento = documentos.get(candidatos[j]);
+                if (documento != null && documento.contiene(consulta)) {
+                    candidatos[verificados++] = candidatos[j];
+                }
+            }
+            return Optional.of(Arrays.copyOf(candidatos, verificados));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega o reemplaza una transacción en el índice una vez confirmada la
+     * transacción de base de datos en curso.
+     *
+     * @param idTransaccion  identificador de la transacción
+     * @param nombreTenpista nombre del cliente
+     * @param giroComercio   giro o comercio
+     */
+    public void indexar(Long idTransaccion, String nombreTenpista, String giroComercio) {
+        if (habilitado) {
+            alConfirmar(() -> aplicarIndexar(idTransaccion, nombreTenpista, giroComercio));
+        }
+    }
+
+    /**
+     * Quita una transacción del índice una vez confirmada la transacción de
+     * base de datos en curso.
+     *
+     * @param idTransaccion identificador de la transacción
+     */
+    public void eliminar(Long idTransaccion) {
+        if (habilitado) {
+            alConfirmar(() -> aplicarEliminar(idTransaccion));
+        }
+    }
+
+    private void indexarSiAusente(Long idTransaccion, String nombreTenpista, String giroComercio) {
+        lock.writeLock().lock();
+        try {
+            if (!documentos.containsKey(idTransaccion) && !eliminadosDuranteConstruccion.contains(idTransaccion)) {
+                agregar(idTransaccion, new Documento(normalizar(nombreTenpista), normalizar(giroComercio)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void aplicarIndexar(Long idTransaccion, String nombreTenpista, String giroComercio) {
+        lock.writeLock().lock();
+        try {
+            quitar(idTransaccion);
+            agregar(idTransaccion, new Documento(normalizar(nombreTenpista), normalizar(giroComercio)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void aplicarEliminar(Long idTransaccion) {
+        lock.writeLock().lock();
+        try {
+            quitar(idTransaccion);
+            if (construyendo) {
+                eliminadosDuranteConstruccion.add(idTransaccion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void agregar(Long idTransaccion, Documento documento) {
+        documentos.put(idTransaccion, documento);
+        for (Long trigrama : documento.trigramas()) {
+            postings.computeIfAbsent(trigrama, clave -> new PostingList()).agregar(idTransaccion);
+        }
+    }
+
+    private void quitar(Long idTransaccion) {
+        Documento anterior = documentos.remove(idTransaccion);
+        if (anterior == null) {
+            return;
+        }
+        for (Long trigrama : anterior.trigramas()) {
+            PostingList lista = postings.get(trigrama);
+            if (lista != null) {
+                lista.eliminar(idTransaccion);
+                if (lista.estaVacia()) {
+                    postings.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la acción después del commit si hay una transacción activa, o
+     * de inmediato en caso contrario.
+     */
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    static String normalizar(String texto) {
+        return texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Obtiene los trigramas de un texto ya normalizado, codificados como
+     * {@code long} (tres caracteres de 16 bits).
+     *
+     * @param texto texto en minúsculas
+     * @return trigramas distintos del texto
+     */
+    static Set<Long> trigramas(String texto) {
+        Set<Long> resultado = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            resultado.add(((long) texto.charAt(i) << 32)
+                    | ((long) texto.charAt(i + 1) << 16)
+                    | texto.charAt(i + 2));
+        }
+        return resultado;
+    }
+
+    /**
+     * Textos indexados de una transacción, en minúsculas.
+     */
+    private record Documento(String nombreTenpista, String giroComercio) {
+
+        boolean contiene(String consulta) {
+            return nombreTenpista.contains(consulta) || giroComercio.contains(consulta);
+        }
+
+        Set<Long> trigramas() {
+            Set<Long> resultado = TransaccionTrigramIndex.trigramas(nombreTenpista);
+            resultado.addAll(TransaccionTrigramIndex.trigramas(giroComercio));
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Servicio que resuelve el cliente asociado a un nombre de tenpista.
+ *
+ * <p>
+ * El cliente se identifica por su nombre normalizado
+ * ({@link ClienteEntity#normalizarNombre(String)}). Si no existe, se crea con
+ * un upsert de una sola sentencia, por lo que dos solicitudes concurrentes con
+ * el mismo nombre nuevo obtienen el mismo cliente en lugar de duplicarlo.
+ * </p>
+ *
+ * <p>
+ * Los clientes resueltos se guardan en una caché local (nombre normalizado a
+ * identificador), de modo que los clientes frecuentes no consultan la base de
+ * datos. Si no están en ella, se buscan por identificador natural, que usa la
+ * caché de segundo nivel de Hibernate, y solo los inexistentes llegan al
+ * upsert. Las entidades retornadas están desacopladas del contexto de
+ * persistencia y solo deben usarse como referencia de la asociación
+ * {@code cliente} de una transacción.
+ * </p>
+ */
+@Service
+public class ClienteService {
+
+	private final ClienteRepository clienteRepository;
+
+	/**
+	 * Clientes resueltos por nombre normalizado.
+	 */
+	private final Cache<String, ClienteCacheado> clientes;
+
+	public ClienteService(ClienteRepository clienteRepository,
+			@Value("${transacciones.clientes.cache.tamano:10000}") long tamanoCache,
+			@Value("${transacciones.clientes.cache.ttl:PT10M}") Duration ttl) {
+		this.clienteRepository = clienteRepository;
+		this.clientes = Caffeine.newBuilder()
+				.maximumSize(tamanoCache)
+				.expireAfterWrite(ttl)
+				.build();
+	}
+
+	/**
+	 * Obtiene el cliente con el nombre indicado, creándolo si no existe.
+	 *
+	 * @param nombreTenpista nombre del tenpista, sin distinguir mayúsculas
+	 * @return referencia al cliente
+	 */
+	public ClienteEntity obtenerOCrear(String nombreTenpista) {
+		String normalizado = ClienteEntity.normalizarNombre(nombreTenpista);
+		ClienteCacheado cacheado = clientes.getIfPresent(normalizado);
+		if (cacheado == null) {
+			cacheado = cachear(clienteRepository.buscarPorNombreNormalizado(normalizado)
+					.orElseGet(() -> clienteRepository.upsertPorNombre(nombreTenpista)));
+		}
+		return cacheado.aEntidad(normalizado);
+	}
+
+	/**
+	 * Obtiene los clientes con los nombres indicados, creando los que no
+	 * existen.
+	 *
+	 * <p>
+	 * Los nombres que no están en caché se buscan con una sola consulta y
+	 * solo los que tampoco existen en la base de datos se crean con upsert.
+	 * </p>
+	 *
+	 * @param nombresTenpista nombres de los tenpistas
+	 * @return clientes indexados por nombre normalizado
+	 */
+	public Map<String, ClienteEntity> obtenerOCrear(Collection<String> nombresTenpista) {
+		Map<String, String> faltantes = new LinkedHashMap<>();
+		Map<String, ClienteEntity> resultado = new HashMap<>();
+		for (String nombre : nombresTenpista) {
+			String normalizado = ClienteEntity.normalizarNombre(nombre);
+			ClienteCacheado cacheado = clientes.getIfPresent(normalizado);
+			if (cacheado != null) {
+				resultado.put(normalizado, cacheado.aEntidad(normalizado));
+			} else if (!resultado.containsKey(normalizado)) {
+				faltantes.putIfAbsent(normalizado, nombre);
+			}
+		}
+		if (faltantes.isEmpty()) {
+			return resultado;
+		}
+
+		for (ClienteEntity cliente : clienteRepository.findByNombreNormalizadoIn(faltantes.keySet())) {
+			resultado.put(cliente.getNombreNormalizado(), cachear(cliente).aEntidad(cliente.getNombreNormalizado()));
+			faltantes.remove(cliente.getNombreNormalizado());
+		}
+		for (Map.Entry<String, String> faltante : faltantes.entrySet()) {
+			resultado.put(faltante.getKey(),
+					cachear(clienteRepository.upsertPorNombre(faltante.getValue())).aEntidad(faltante.getKey()));
+		}
+		return resultado;
+	}
+
+	/**
+	 * Quita de la caché el cliente con el nombre indicado.
+	 *
+	 * <p>
+	 * Se debe invocar cuando el cliente se elimina o cuando el identificador
+	 * en caché resulta no ser válido. Dentro de una transacción, la entrada se
+	 * vuelve a quitar al finalizar, por si otro hilo la agregó mientras tanto.
+	 * </p>
+	 *
+	 * @param nombreTenpista nombre del tenpista
+	 */
+	public void invalidar(String nombreTenpista) {
+		String normalizado = ClienteEntity.normalizarNombre(nombreTenpista);
+		clientes.invalidate(normalizado);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int estado) {
+					clientes.invalidate(normalizado);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Vuelve a resolver el cliente sin usar la caché.
+	 *
+	 * <p>
+	 * Se usa cuando una operación sobre el cliente en caché no afecta filas,
+	 * lo que puede indicar que fue eliminado (por ejemplo, desde otra
+	 * instancia) y recreado con otro identificador. Por eso no se usa la
+	 * caché de segundo nivel, que puede conservar el cliente eliminado, ni el
+	 * contexto de persistencia de la transacción en curso: el cliente se
+	 * resuelve con el upsert.
+	 * </p>
+	 *
+	 * @param nombreTenpista nombre del tenpista
+	 * @return referencia actual al cliente
+	 */
+	public ClienteEntity revalidar(String nombreTenpista) {
+		invalidar(nombreTenpista);
+		clienteRepository.desalojarNombresEnCache();
+		String normalizado = ClienteEntity.normalizarNombre(nombreTenpista);
+		return cachear(clienteRepository.upsertPorNombre(nombreTenpista)).aEntidad(normalizado);
+	}
+
+	/**
+	 * Agrega el cliente a la caché.
+	 *
+	 * <p>
+	 * Dentro de una transacción, la entrada se agrega recién al confirmar:
+	 * un cliente creado por el upsert de una transacción que luego se revierte
+	 * no debe quedar en caché.
+	 * </p>
+	 */
+	private ClienteCacheado cachear(ClienteEntity cliente) {
+		ClienteCacheado cacheado = new ClienteCacheado(cliente.getIdCliente(), cliente.getNombreTenpista());
+		String normalizado = cliente.getNombreNormalizado();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					clientes.put(normalizado, cacheado);
+				}
+			});
+		} else {
+			clientes.put(normalizado, cacheado);
+		}
+		return cacheado;
+	}
+
+	/**
+	 * Datos del cliente que se conservan en caché.
+	 */
+	private record ClienteCacheado(Long idCliente, String nombreTenpista) {
+
+		/**
+		 * Crea una entidad nueva en cada llamada, para que quien la recibe no
+		 * comparta la instancia con otros hilos.
+		 */
+		ClienteEntity aEntidad(String nombreNormalizado) {
+			return ClienteEntity.builder()
+					.idCliente(idCliente)
+					.nombreTenpista(nombreTenpista)
+					.nombreNormalizado(nombreNormalizado)
+					.build();
+		}
+	}
+}
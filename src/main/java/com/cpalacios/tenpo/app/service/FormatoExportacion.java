@@ -0,0 +1,50 @@
+package com.cpalacios.tenpo.app.service;
+
+import com.cpalacios.tenpo.app.exception.BusinessException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formatos soportados por la exportación masiva de transacciones.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FormatoExportacion {
+
+    /**
+     * Un objeto JSON por línea (Newline Delimited JSON).
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Valores separados por coma, con fila de encabezado.
+     */
+    CSV("text/csv", "csv");
+
+    /**
+     * Content-Type HTTP asociado al formato.
+     */
+    private final String contentType;
+
+    /**
+     * Extensión sugerida para el archivo descargado.
+     */
+    private final String extension;
+
+    /**
+     * Obtiene el formato a partir del valor recibido en la API.
+     *
+     * @param valor nombre del formato, sin distinguir mayúsculas
+     * @return formato correspondiente
+     * @throws BusinessException si el formato no está soportado
+     */
+    public static FormatoExportacion desde(String valor) {
+        for (FormatoExportacion formato : values()) {
+            if (formato.name().equalsIgnoreCase(valor)) {
+                return formato;
+            }
+        }
+        throw new BusinessException("Formato de exportación no soportado: " + valor);
+    }
+}
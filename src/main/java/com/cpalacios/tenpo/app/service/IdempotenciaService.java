@@ -0,0 +1,301 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.persistence.entity.IdempotenciaEntity;
+import com.cpalacios.tenpo.app.persistence.repository.IdempotenciaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servicio que aplica el header {@code Idempotency-Key} sobre la creación de
+ * transacciones.
+ *
+ * <p>
+ * La primera solicitud con una clave ejecuta
+ * {@link TransaccionService#crearTransaccion} y registra su respuesta en la
+ * tabla {@code idempotencia}, dentro de la misma transacción de base de
+ * datos. Los reintentos con la misma clave reciben esa respuesta sin volver a
+ * ejecutar la creación:
+ * <ul>
+ * <li>Desde una caché local acotada en tamaño y tiempo, sin consultar la base
+ * de datos.</li>
+ * <li>Desde la tabla, si la respuesta no está en caché (por ejemplo, después
+ * de un reinicio o si la atendió otra instancia).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Las solicitudes concurrentes con la misma clave esperan el resultado de la
+ * primera en lugar de ejecutarse en paralelo. Si una clave se reutiliza con un
+ * cuerpo distinto, la solicitud se rechaza.
+ * </p>
+ *
+ * <p>
+ * Las claves son propias de cada {@code X-Client-Id}: dos clientes que envían
+ * la misma clave no comparten la respuesta. La caché, las ejecuciones en curso
+ * y la tabla usan el hash SHA-256 del cliente y la clave, de largo fijo.
+ * </p>
+ */
+@Slf4j
+@Service
+public class IdempotenciaService {
+
+	/**
+	 * Largo máximo de la clave de idempotencia.
+	 */
+	static final int LARGO_MAXIMO_CLAVE = 100;
+
+	private final TransaccionService transaccionService;
+	private final IdempotenciaRepository idempotenciaRepository;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration retencion;
+	private final Duration esperaMaxima;
+
+	/**
+	 * Respuestas recientes por clave, acotadas en cantidad y vigencia.
+	 */
+	private final Cache<String, Registro> respuestas;
+
+	/**
+	 * Ejecuciones en curso por clave, que esperan las solicitudes duplicadas.
+	 */
+	private final ConcurrentMap<String, CompletableFuture<Registro>> enCurso = new ConcurrentHashMap<>();
+
+	public IdempotenciaService(TransaccionService transaccionService,
+			IdempotenciaRepository idempotenciaRepository,
+			ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager,
+			@Value("${transacciones.idempotencia.tamano-cache:10000}") long tamanoCache,
+			@Value("${transacciones.idempotencia.retencion:PT24H}") Duration retencion,
+			@Value("${transacciones.idempotencia.espera-maxima:PT30S}") Duration esperaMaxima) {
+		this.transaccionService = transaccionService;
+		this.idempotenciaRepository = idempotenciaRepository;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.retencion = retencion;
+		this.esperaMaxima = esperaMaxima;
+		this.respuestas = Caffeine.newBuilder()
+				.maximumSize(tamanoCache)
+				.expireAfterWrite(retencion)
+				.build();
+	}
+
+	/**
+	 * Crea una transacción, o retorna la respuesta original si la clave ya
+	 * fue procesada.
+	 *
+	 * @param clientId valor del header {@code X-Client-Id}
+	 * @param clave    valor del header {@code Idempotency-Key}
+	 * @param dto      datos de la transacción
+	 * @return respuesta de la creación e indicador de si es una repetición
+	 * @throws BusinessException si la clave no es válida, se reutiliza con
+	 *                           otra solicitud o la creación falla
+	 */
+	public ResultadoIdempotente crearTransaccion(String clientId, String clave, TransaccionRequestDTO dto) {
+		validarClave(clave);
+		String huella = huella(dto);
+		String registrada = claveCliente(clientId, clave);
+
+		Registro enCache = respuestas.getIfPresent(registrada);
+		if (enCache != null) {
+			return repetir(enCache, huella);
+		}
+
+		CompletableFuture<Registro> propia = new CompletableFuture<>();
+		CompletableFuture<Registro> existente = enCurso.putIfAbsent(registrada, propia);
+		if (existente != null) {
+			return repetir(esperar(existente), huella);
+		}
+
+		try {
+			Optional<IdempotenciaEntity> guardada = idempotenciaRepository.findById(registrada);
+			if (guardada.isPresent() && vigente(guardada.get())) {
+				Registro registro = registrar(guardada.get());
+				propia.complete(registro);
+				return repetir(registro, huella);
+			}
+
+			Registro registro = ejecutar(registrada, huella, dto, guardada.isPresent());
+			propia.complete(registro);
+			return new ResultadoIdempotente(registro.respuesta(), false);
+		} catch (RuntimeException e) {
+			propia.completeExceptionally(e);
+			throw e;
+		} finally {
+			enCurso.remove(registrada, propia);
+		}
+	}
+
+	/**
+	 * Elimina periódicamente las claves que superaron el período de retención.
+	 */
+	@Scheduled(fixedDelayString = "${transacciones.idempotencia.limpieza-ms:3600000}")
+	public void eliminarVencidas() {
+		Integer eliminadas = transactionTemplate.execute(
+				estado -> idempotenciaRepository.eliminarAnterioresA(LocalDateTime.now().minus(retencion)));
+		if (eliminadas != null && eliminadas > 0) {
+			log.info("Claves de idempotencia vencidas eliminadas: {}", eliminadas);
+		}
+	}
+
+	/**
+	 * Ejecuta la creación y registra la clave en la misma transacción.
+	 *
+	 * <p>
+	 * Si otra instancia registró la misma clave en paralelo, la llave primaria
+	 * rechaza el registro, la creación se revierte y se retorna la respuesta
+	 * registrada por la otra instancia.
+	 * </p>
+	 *
+	 * @param reemplazarVencida {@code true} si la clave existe pero superó el
+	 *                          período de retención y aún no se elimina
+	 */
+	private Registro ejecutar(String clave, String huella, TransaccionRequestDTO dto, boolean reemplazarVencida) {
+		try {
+			TransaccionResponseDTO respuesta = transactionTemplate.execute(estado -> {
+				if (reemplazarVencida) {
+					idempotenciaRepository.eliminarPorClave(clave);
+				}
+				TransaccionResponseDTO creada = transaccionService.crearTransaccion(dto);
+				idempotenciaRepository.saveAndFlush(IdempotenciaEntity.builder()
+						.clave(clave)
+						.huella(huella)
+						.respuesta(serializar(creada))
+						.fechaCreacion(LocalDateTime.now())
+						.build());
+				return creada;
+			});
+			Registro registro = new Registro(huella, respuesta);
+			respuestas.put(clave, registro);
+			return registro;
+		} catch (DataIntegrityViolationException e) {
+			return buscarRegistrado(clave).orElseThrow(() -> new BusinessException(
+					"La Transaccion '" + dto.getNumeroTransaccion() + "' no se logro registrar"));
+		}
+	}
+
+	/**
+	 * Busca una clave vigente en la tabla y, si existe, la agrega a la caché.
+	 */
+	private Optional<Registro> buscarRegistrado(String clave) {
+		return idempotenciaRepository.findById(clave).filter(this::vigente).map(this::registrar);
+	}
+
+	private boolean vigente(IdempotenciaEntity entidad) {
+		return entidad.getFechaCreacion().isAfter(LocalDateTime.now().minus(retencion));
+	}
+
+	/**
+	 * Agrega a la caché la respuesta registrada en la tabla.
+	 */
+	private Registro registrar(IdempotenciaEntity entidad) {
+		Registro registro = new Registro(entidad.getHuella(), deserializar(entidad.getRespuesta()));
+		respuestas.put(entidad.getClave(), registro);
+		return registro;
+	}
+
+	private Registro esperar(CompletableFuture<Registro> ejecucion) {
+		try {
+			return ejecucion.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			throw new BusinessException("La transacción no se logro registrar");
+		} catch (TimeoutException e) {
+			throw new BusinessException("Una solicitud con la misma clave de idempotencia aún está en proceso");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException("La transacción no se logro registrar");
+		}
+	}
+
+	private static ResultadoIdempotente repetir(Registro registro, String huella) {
+		if (!registro.huella().equals(huella)) {
+			throw new BusinessException("La clave de idempotencia ya fue utilizada con una solicitud distinta");
+		}
+		return new ResultadoIdempotente(registro.respuesta(), true);
+	}
+
+	private static void validarClave(String clave) {
+		if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+			throw new BusinessException(
+					"El header Idempotency-Key debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres");
+		}
+	}
+
+	/**
+	 * Clave registrada para el cliente. Los headers no admiten saltos de línea,
+	 * por lo que el separador no puede confundir a dos pares distintos.
+	 */
+	static String claveCliente(String clientId, String clave) {
+		return sha256(clientId + "\n" + clave);
+	}
+
+	/**
+	 * Calcula la huella SHA-256 del cuerpo de la solicitud.
+	 */
+	private String huella(TransaccionRequestDTO dto) {
+		return sha256(serializar(dto));
+	}
+
+	private static String sha256(String valor) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(valor.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String serializar(Object valor) {
+		try {
+			return objectMapper.writeValueAsString(valor);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private TransaccionResponseDTO deserializar(String json) {
+		try {
+			return objectMapper.readValue(json, TransaccionResponseDTO.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Respuesta registrada para una clave, junto a la huella de la solicitud
+	 * que la originó.
+	 */
+	private record Registro(String huella, TransaccionResponseDTO respuesta) {
+	}
+}
@@ -0,0 +1,11 @@
+package com.cpalacios.tenpo.app.service;
+
+/**
+ * Respuesta de consulta serializada junto al ETag de la versión de datos con
+ * que se generó.
+ *
+ * @param json respuesta serializada como JSON
+ * @param etag ETag fuerte de la respuesta
+ */
+public record RespuestaVersionada(byte[] json, String etag) {
+}
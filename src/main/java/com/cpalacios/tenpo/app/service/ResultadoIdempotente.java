@@ -0,0 +1,13 @@
+package com.cpalacios.tenpo.app.service;
+
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+
+/**
+ * Resultado de una creación de transacción con clave de idempotencia.
+ *
+ * @param respuesta transacción creada en la ejecución original
+ * @param repetida  {@code true} si la respuesta proviene de una ejecución
+ *                  anterior con la misma clave
+ */
+public record ResultadoIdempotente(TransaccionResponseDTO respuesta, boolean repetida) {
+}
@@ -0,0 +1,221 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionCambiosDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionCambioEntity;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servicio de sincronización incremental de transacciones.
+ *
+ * <p>
+ * Los servicios de escritura registran cada alta, actualización y
+ * eliminación en el log {@code transacciones_cambios}, con una versión
+ * creciente. Este servicio entrega los cambios posteriores a la versión que
+ * envía el consumidor, por lo que el costo de cada sincronización depende de
+ * la cantidad de cambios y no del tamaño de la tabla de transacciones.
+ * </p>
+ *
+ * <p>
+ * La versión se asigna al insertar el cambio, no al confirmarlo: una
+ * transacción de base de datos puede confirmar un cambio con una versión
+ * menor a otra ya visible. Para no saltarse esos cambios, la lectura se
+ * detiene en el primer cambio registrado hace menos de
+ * {@code margenConfirmacion}, que debe superar la duración de las
+ * transacciones de escritura.
+ * </p>
+ *
+ * <p>
+ * El margen se mide con el reloj de la aplicación, por lo que el log se lee
+ * siempre del primario ({@link ContextoReplica#enPrimario}): en una réplica
+ * con retraso, un cambio con versión menor podría aparecer después de que se
+ * entregara uno mayor y saltarse para siempre, y cada réplica tendría una
+ * versión máxima distinta.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TransaccionCambioService {
+
+	private final TransaccionCambioRepository cambioRepository;
+	private final TransaccionRepository transaccionRepository;
+	private final TransaccionMapper mapper;
+
+	/**
+	 * Cantidad de cambios leídos por página cuando el consumidor no indica una.
+	 */
+	@Value("${transacciones.cambios.tamano-defecto:500}")
+	private int tamanoDefecto;
+
+	/**
+	 * Cantidad máxima de cambios leídos por página.
+	 */
+	@Value("${transacciones.cambios.tamano-maximo:1000}")
+	private int tamanoMaximo;
+
+	/**
+	 * Antigüedad mínima de un cambio para entregarlo.
+	 */
+	@Value("${transacciones.cambios.margen-confirmacion:PT5S}")
+	private Duration margenConfirmacion;
+
+	/**
+	 * Tiempo durante el cual se conservan los cambios en el log.
+	 */
+	@Value("${transacciones.cambios.retencion:P7D}")
+	private Duration retencion;
+
+	/**
+	 * Retorna los cambios posteriores a la versión indicada.
+	 *
+	 * <p>
+	 * Sin {@code since} no se retornan cambios, solo la versión actual. Para
+	 * una sincronización completa el consumidor debe obtener primero esa
+	 * versión, luego el listado completo y después los cambios posteriores a
+	 * la versión obtenida.
+	 * </p>
+	 *
+	 * @param since  versión recibida en la respuesta anterior, o {@code null}
+	 * @param tamano cantidad máxima de cambios a leer, o {@code null} para usar
+	 *               el valor por defecto; se limita al máximo configurado
+	 * @return cambios agrupados por transacción y la versión siguiente
+	 * @throws BusinessException si el tamaño no es válido o la versión ya no
+	 *                           está disponible en el log
+	 */
+	public TransaccionCambiosDTO buscarCambios(Long since, Integer tamano) {
+		return ContextoReplica.enPrimario(() -> leerCambios(since, tamano));
+	}
+
+	private TransaccionCambiosDTO leerCambios(Long since, Integer tamano) {
+		int tamanoEfectivo = resolverTamano(tamano);
+		if (since == null) {
+			Long actual = cambioRepository.buscarVersionMaxima();
+			return respuesta(List.of(), List.of(), actual == null ? 0 : actual, false, tamanoEfectivo);
+		}
+		validarVersion(since);
+
+		List<TransaccionCambioEntity> filas = cambioRepository.buscarPosterioresA(since, Limit.of(tamanoEfectivo + 1));
+		LocalDateTime confirmados = LocalDateTime.now().minus(margenConfirmacion);
+		int cantidad = 0;
+		while (cantidad < filas.size() && cantidad < tamanoEfectivo
+				&& !filas.get(cantidad).getFechaCambio().isAfter(confirmados)) {
+			cantidad++;
+		}
+		List<TransaccionCambioEntity> pagina = filas.subList(0, cantidad);
+		boolean tieneMas = cantidad == tamanoEfectivo && filas.size() > cantidad
+				&& !filas.get(cantidad).getFechaCambio().isAfter(confirmados);
+		long version = pagina.isEmpty() ? since : pagina.get(pagina.size() - 1).getIdCambio();
+
+		// Último cambio de cada transacción, en orden de versión
+		Map<Long, Boolean> eliminadaPorId = new LinkedHashMap<>();
+		for (TransaccionCambioEntity cambio : pagina) {
+			eliminadaPorId.remove(cambio.getIdTransaccion());
+			eliminadaPorId.put(cambio.getIdTransaccion(), cambio.isEliminada());
+		}
+
+		List<Long> vigentes = eliminadaPorId.entrySet().stream()
+				.filter(entrada -> !entrada.getValue())
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		Map<Long, TransaccionResumen> actuales = vigentes.isEmpty() ? Map.of()
+				: transaccionRepository.buscarResumenPorIds(vigentes).stream()
+						.collect(Collectors.toMap(TransaccionResumen::idTransaccion, Function.identity()));
+
+		List<TransaccionResponseDTO> actualizadas = new ArrayList<>();
+		List<Long> eliminadas = new ArrayList<>();
+		eliminadaPorId.forEach((idTransaccion, eliminada) -> {
+			TransaccionResumen actual = eliminada ? null : actuales.get(idTransaccion);
+			if (actual != null) {
+				actualizadas.add(mapper.toResponse(actual));
+			} else {
+				// Eliminada en esta página o en una posterior
+				eliminadas.add(idTransaccion);
+			}
+		});
+		return respuesta(actualizadas, eliminadas, version, tieneMas, tamanoEfectivo);
+	}
+
+	/**
+	 * Elimina periódicamente los cambios que superaron el período de
+	 * retención.
+	 */
+	@Transactional
+	@Scheduled(fixedDelayString = "${transacciones.cambios.limpieza-ms:3600000}")
+	public void eliminarVencidos() {
+		int eliminados = cambioRepository.eliminarAnterioresA(LocalDateTime.now().minus(retencion));
+		if (eliminados > 0) {
+			log.info("Cambios de transacciones vencidos eliminados: {}", eliminados);
+		}
+	}
+
+	/**
+	 * Valida que los cambios posteriores a la versión sigan en el log.
+	 *
+	 * @throws BusinessException si la versión es anterior a los cambios
+	 *                           conservados o posterior a la última registrada
+	 */
+	private void validarVersion(long since) {
+		if (since < 0) {
+			throw new BusinessException("La versión debe ser mayor o igual a 0");
+		}
+		Long minima = cambioRepository.buscarVersionMinima();
+		Long maxima = cambioRepository.buscarVersionMaxima();
+		boolean eliminada = minima != null && since < minima - 1;
+		boolean desconocida = since > (maxima == null ? 0 : maxima);
+		if (eliminada || desconocida) {
+			throw new BusinessException(
+					"La versión " + since + " ya no está disponible, se debe realizar una sincronización completa");
+		}
+	}
+
+	/**
+	 * Valida el tamaño solicitado y lo ajusta a los límites configurados.
+	 *
+	 * @throws BusinessException si el tamaño es menor a 1
+	 */
+	private int resolverTamano(Integer tamano) {
+		if (tamano == null) {
+			return Math.min(tamanoDefecto, tamanoMaximo);
+		}
+		if (tamano < 1) {
+			throw new BusinessException("El tamaño de página debe ser mayor o igual a 1");
+		}
+		return Math.min(tamano, tamanoMaximo);
+	}
+
+	private static TransaccionCambiosDTO respuesta(List<TransaccionResponseDTO> actualizadas, List<Long> eliminadas,
+			long version, boolean tieneMas, int tamano) {
+		return TransaccionCambiosDTO.builder()
+				.actualizadas(actualizadas)
+				.eliminadas(eliminadas)
+				.version(version)
+				.tieneMas(tieneMas)
+				.tamano(tamano)
+				.build();
+	}
+}
@@ -0,0 +1,74 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.cpalacios.tenpo.app.exception.BusinessException;
+
+import lombok.Value;
+
+/**
+ * Posición de lectura dentro del listado paginado de transacciones.
+ *
+ * <p>
+ * Representa la última fila entregada al consumidor mediante el par
+ * ({@code fechaTransaccion}, {@code idTransaccion}), que es el mismo orden
+ * utilizado por la consulta paginada. El identificador desempata las
+ * transacciones con la misma fecha, de modo que el orden es estable.
+ * </p>
+ *
+ * <p>
+ * Hacia el exterior se expone como un texto Base64 URL-safe, opaco para el
+ * consumidor de la API.
+ * </p>
+ */
+@Value
+public class TransaccionCursor {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Fecha de la última transacción entregada.
+     */
+    LocalDateTime fechaTransaccion;
+
+    /**
+     * Identificador de la última transacción entregada.
+     */
+    Long idTransaccion;
+
+    /**
+     * Codifica el cursor como texto opaco.
+     *
+     * @return cursor codificado en Base64 URL-safe
+     */
+    public String codificar() {
+        String plano = fechaTransaccion + SEPARADOR + idTransaccion;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido desde la API.
+     *
+     * @param cursor texto opaco entregado previamente por el servidor
+     * @return cursor decodificado
+     * @throws BusinessException si el cursor no tiene un formato válido
+     */
+    public static TransaccionCursor decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = plano.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new BusinessException("El cursor de paginación no es válido");
+            }
+            return new TransaccionCursor(
+                    LocalDateTime.parse(plano.substring(0, separador)),
+                    Long.valueOf(plano.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("El cursor de paginación no es válido");
+        }
+    }
+}
@@ -1,14 +1,21 @@
 
 package com.cpalacios.tenpo.app.service;
 
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,7 +32,12 @@ import lombok.RequiredArgsConstructor;
 public class TransaccionDeleteService {
 
     private final TransaccionRepository transaccionRepository;
+    private final TransaccionCambioRepository cambioRepository;
     private final ClienteRepository clienteRepository;
+    private final ClienteService clienteService;
+    private final TransaccionTrigramIndex indiceTexto;
+    private final TransaccionNumeroIndex indiceNumeros;
+    private final ApplicationEventPublisher eventos;
 
     /**
      * Elimina una transacción por su identificador.
@@ -45,8 +57,13 @@ public class TransaccionDeleteService {
 					.orElseThrow(() -> new BusinessException("No existe una transacción con id: " + idTransaccion));
 
 			transaccionRepository.delete(transaccion);
+			indiceTexto.eliminar(idTransaccion);
+			indiceNumeros.liberar(transaccion.getNumeroTransaccion());
+			cambioRepository.registrar(List.of(idTransaccion), true);
+			eventos.publishEvent(TransaccionEventoDTO.eliminada(idTransaccion));
 
 			ClienteEntity cliente = transaccion.getCliente();
+			clienteRepository.decrementarTotalTransacciones(cliente.getIdCliente());
 
 			// Verificar si el cliente tiene otras transacciones
 			long countTransacciones = transaccionRepository.countByCliente_IdCliente(cliente.getIdCliente());
@@ -54,6 +71,7 @@ public class TransaccionDeleteService {
 			if (countTransacciones == 0) {
 				// Si no tiene más transacciones, eliminar al cliente
 				clienteRepository.delete(cliente);
+				clienteService.invalidar(cliente.getNombreTenpista());
 			}
 
 			return "La transacción con id " + idTransaccion + " fue eliminada correctamente";
@@ -0,0 +1,401 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Difunde los cambios confirmados sobre transacciones a los suscriptores de
+ * Server-Sent Events.
+ *
+ * <p>
+ * Cada {@link TransaccionEventoDTO} publicado por los servicios se recibe
+ * después del commit, se serializa una sola vez y se encola en el buffer
+ * acotado de cada suscriptor. Un grupo fijo de hilos de envío vacía los
+ * buffers con eventos pendientes, por lo que no hay un hilo por conexión. Si
+ * el buffer de un suscriptor se llena, el suscriptor es lento y se desconecta;
+ * el navegador se reconecta con {@code Last-Event-ID}.
+ * </p>
+ *
+ * <p>
+ * La escritura en la respuesta bloquea mientras el cliente no lee. Para que un
+ * cliente con la ventana TCP llena no retenga los hilos de envío, cada
+ * escritura se ejecuta en un hilo de escritura y el hilo de envío la espera
+ * como máximo {@code transacciones.eventos.espera-envio}; al vencer, el
+ * suscriptor se desconecta. Una escritura vencida sigue ocupando su hilo hasta
+ * que el cliente lee o TCP cierra la conexión, por lo que los hilos de
+ * escritura se acotan a {@code transacciones.eventos.hilos-escritura} (al
+ * menos uno por hilo de envío). Si no queda un hilo libre, la escritura se
+ * rechaza y el suscriptor se desconecta, en lugar de volver a un hilo por
+ * conexión.
+ * </p>
+ *
+ * <p>
+ * Los últimos eventos se guardan en un buffer circular. Al reconectarse con
+ * {@code Last-Event-ID} se reenvían los eventos posteriores a ese id; si ya no
+ * están disponibles se envía un evento {@value #RESINCRONIZAR} para que el
+ * cliente vuelva a cargar el listado.
+ * </p>
+ *
+ * <p>
+ * La secuencia de eventos es propia de cada instancia y vuelve a cero al
+ * reiniciar, por lo que cada id incluye un identificador de la instancia
+ * ({@code instancia-secuencia}), como el ETag de {@code VersionTransacciones}.
+ * Un id de otra instancia o de antes de un reinicio no se compara con la
+ * secuencia local y recibe {@value #RESINCRONIZAR}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TransaccionEventoService implements MeterBinder {
+
+	/**
+	 * Nombre del evento que indica que el cliente perdió eventos y debe volver
+	 * a cargar el listado completo.
+	 */
+	static final String RESINCRONIZAR = "RESINCRONIZAR";
+
+	private final ObjectMapper objectMapper;
+	private final int capacidadSuscriptor;
+	private final long timeoutMillis;
+	private final long esperaEnvioNanos;
+	private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+
+	/**
+	 * Buffer circular con los últimos eventos, indexado por id.
+	 */
+	private final Evento[] historial;
+
+	/**
+	 * Secuencia del último evento publicado en esta instancia.
+	 */
+	private long secuencia;
+
+	private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+	private final ExecutorService envio;
+
+	/**
+	 * Hilos que escriben en las respuestas, sin cola: si todos están ocupados
+	 * la escritura se rechaza.
+	 */
+	private final ExecutorService escritura;
+	private final AtomicLong desconectados = new AtomicLong();
+
+	public TransaccionEventoService(ObjectMapper objectMapper,
+			@Value("${transacciones.eventos.historial:1024}") int historial,
+			@Value("${transacciones.eventos.capacidad-suscriptor:2048}") int capacidadSuscriptor,
+			@Value("${transacciones.eventos.hilos-envio:2}") int hilosEnvio,
+			@Value("${transacciones.eventos.hilos-escritura:16}") int hilosEscritura,
+			@Value("${transacciones.eventos.timeout:PT30M}") Duration timeout,
+			@Value("${transacciones.eventos.espera-envio:PT5S}") Duration esperaEnvio) {
+		this.objectMapper = objectMapper;
+		this.historial = new Evento[historial];
+		this.capacidadSuscriptor = capacidadSuscriptor;
+		this.timeoutMillis = timeout.toMillis();
+		this.esperaEnvioNanos = esperaEnvio.toNanos();
+		this.envio = Executors.newFixedThreadPool(hilosEnvio, hilosDaemon("eventos-transacciones-"));
+		this.escritura = new ThreadPoolExecutor(0, Math.max(hilosEscritura, hilosEnvio), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), hilosDaemon("eventos-escritura-"));
+	}
+
+	/**
+	 * Registra un suscriptor nuevo.
+	 *
+	 * @param ultimoId valor del header {@code Last-Event-ID}, o {@code null}
+	 *                 si es la primera conexión
+	 * @return emisor de Server-Sent Events de la conexión
+	 */
+	public SseEmitter suscribir(String ultimoId) {
+		return suscribir(new SseEmitter(timeoutMillis), ultimoId);
+	}
+
+	SseEmitter suscribir(SseEmitter emitter, String ultimoId) {
+		Suscriptor suscriptor = new Suscriptor(emitter, capacidadSuscriptor);
+		emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+		emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+		emitter.onError(error -> suscriptores.remove(suscriptor));
+
+		synchronized (this) {
+			reenviar(suscriptor, ultimoId);
+			suscriptores.add(suscriptor);
+		}
+		programar(suscriptor);
+		return emitter;
+	}
+
+	/**
+	 * Difunde un cambio confirmado a todos los suscriptores.
+	 *
+	 * @param evento cambio sobre una transacción
+	 */
+	@TransactionalEventListener
+	public void alConfirmar(TransaccionEventoDTO evento) {
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(evento);
+		} catch (JsonProcessingException e) {
+			log.error("No se logró serializar el evento de la transacción {}", evento.getIdTransaccion(), e);
+			return;
+		}
+
+		synchronized (this) {
+			Evento serializado = new Evento(++secuencia, evento.getTipo().name(), json);
+			historial[(int) (serializado.id() % historial.length)] = serializado;
+			suscriptores.forEach(suscriptor -> encolar(suscriptor, serializado));
+		}
+	}
+
+	/**
+	 * Envía un comentario a cada suscriptor para mantener abierta la conexión
+	 * a través de proxies y detectar las que se cerraron.
+	 */
+	@Scheduled(fixedDelayString = "${transacciones.eventos.heartbeat-ms:15000}")
+	public void mantenerConexiones() {
+		suscriptores.forEach(suscriptor -> encolar(suscriptor, Evento.HEARTBEAT));
+	}
+
+	/**
+	 * Cierra las conexiones abiertas y detiene los hilos de envío.
+	 */
+	@PreDestroy
+	public void detener() {
+		suscriptores.forEach(suscriptor -> suscriptor.emitter().complete());
+		suscriptores.clear();
+		envio.shutdown();
+		escritura.shutdown();
+	}
+
+	/**
+	 * @return cantidad de suscriptores conectados
+	 */
+	public int cantidadSuscriptores() {
+		return suscriptores.size();
+	}
+
+	/**
+	 * @return cantidad de suscriptores desconectados por llenar su buffer, no
+	 *         leer una escritura a tiempo o no tener un hilo de escritura libre
+	 */
+	public long cantidadDesconectados() {
+		return desconectados.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("transacciones.eventos.suscriptores", suscriptores, Set::size)
+				.description("Conexiones abiertas a /api/transacciones/events")
+				.register(registry);
+		FunctionCounter.builder("transacciones.eventos.desconectados", desconectados, AtomicLong::get)
+				.description("Suscriptores desconectados por llenar su buffer de eventos o no leer a tiempo")
+				.register(registry);
+	}
+
+	/**
+	 * Encola los eventos del historial posteriores a {@code ultimoId}, o un
+	 * evento {@value #RESINCRONIZAR} si no están todos disponibles. Se invoca
+	 * con el monitor tomado para no perder ni duplicar eventos entre el
+	 * reenvío y el registro del suscriptor.
+	 */
+	private void reenviar(Suscriptor suscriptor, String ultimoId) {
+		if (ultimoId == null || ultimoId.isBlank()) {
+			return;
+		}
+		long desde = secuenciaLocal(ultimoId.trim());
+		long pendientes = secuencia - desde;
+		if (desde < 0 || pendientes < 0 || pendientes > historial.length || pendientes > capacidadSuscriptor) {
+			suscriptor.pendientes().offer(new Evento(secuencia, RESINCRONIZAR, "{}"));
+			return;
+		}
+		for (long id = desde + 1; id <= secuencia; id++) {
+			suscriptor.pendientes().offer(historial[(int) (id % historial.length)]);
+		}
+	}
+
+	/**
+	 * Secuencia de un id emitido por esta instancia desde su inicio.
+	 *
+	 * @return la secuencia, o -1 si el id no es válido o es de otra instancia
+	 *         o de antes de un reinicio
+	 */
+	private long secuenciaLocal(String id) {
+		int separador = id.lastIndexOf('-');
+		if (separador < 0 || !id.substring(0, separador).equals(instancia)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(id.substring(separador + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void encolar(Suscriptor suscriptor, Evento evento) {
+		if (suscriptor.pendientes().offer(evento)) {
+			programar(suscriptor);
+		} else if (suscriptores.remove(suscriptor)) {
+			desconectados.incrementAndGet();
+			log.debug("Suscriptor de eventos desconectado por buffer lleno");
+			// Lo cierra su hilo de envío al terminar la escritura en curso, ya que
+			// cerrar un emisor espera a que termine esa escritura
+		}
+	}
+
+	/**
+	 * Agenda el envío de los eventos pendientes del suscriptor, si no hay uno
+	 * en curso.
+	 */
+	private void programar(Suscriptor suscriptor) {
+		if (!suscriptor.pendientes().isEmpty() && suscriptor.enviando().compareAndSet(false, true)) {
+			envio.execute(() -> vaciar(suscriptor));
+		}
+	}
+
+	private void vaciar(Suscriptor suscriptor) {
+		try {
+			Evento evento;
+			while ((evento = suscriptor.pendientes().poll()) != null) {
+				if (!suscriptores.contains(suscriptor)) {
+					// Desconectado por llenar su buffer
+					suscriptor.pendientes().clear();
+					suscriptor.emitter().complete();
+					return;
+				}
+				if (!enviar(suscriptor, evento)) {
+					suscriptores.remove(suscriptor);
+					suscriptor.pendientes().clear();
+					return;
+				}
+			}
+		} finally {
+			suscriptor.enviando().set(false);
+		}
+		// Un evento pudo encolarse después del último poll
+		programar(suscriptor);
+	}
+
+	/**
+	 * Escribe el evento desde un hilo de escritura, esperando como máximo la
+	 * espera de envío.
+	 *
+	 * @return {@code false} si la conexión se cerró, o si el suscriptor no
+	 *         leyó a tiempo o no quedaba un hilo de escritura libre y fue
+	 *         desconectado
+	 */
+	private boolean enviar(Suscriptor suscriptor, Evento evento) {
+		CompletableFuture<Void> escrito;
+		try {
+			escrito = CompletableFuture.runAsync(() -> {
+				try {
+					suscriptor.emitter().send(evento.aSse(instancia));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, escritura);
+		} catch (RejectedExecutionException e) {
+			if (suscriptores.remove(suscriptor)) {
+				desconectados.incrementAndGet();
+				log.debug("Suscriptor de eventos desconectado por falta de hilos de escritura");
+			}
+			// No tiene una escritura en curso que esperar
+			suscriptor.emitter().complete();
+			return false;
+		}
+		try {
+			escrito.get(esperaEnvioNanos, TimeUnit.NANOSECONDS);
+			return true;
+		} catch (ExecutionException e) {
+			// La conexión se cerró: el emisor notifica onError/onCompletion
+			return false;
+		} catch (TimeoutException e) {
+			if (suscriptores.remove(suscriptor)) {
+				desconectados.incrementAndGet();
+				log.debug("Suscriptor de eventos desconectado por no leer a tiempo");
+			}
+			// El emisor se cierra cuando la escritura bloqueada termina o falla
+			escrito.whenComplete((resultado, error) -> suscriptor.emitter().complete());
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static ThreadFactory hilosDaemon(String prefijo) {
+		AtomicInteger contador = new AtomicInteger();
+		return tarea -> {
+			Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+			hilo.setDaemon(true);
+			return hilo;
+		};
+	}
+
+	/**
+	 * Conexión de un suscriptor con su buffer de eventos pendientes.
+	 */
+	private record Suscriptor(SseEmitter emitter, BlockingQueue<Evento> pendientes, AtomicBoolean enviando) {
+
+		Suscriptor(SseEmitter emitter, int capacidad) {
+			this(emitter, new LinkedBlockingQueue<>(capacidad), new AtomicBoolean());
+		}
+
+		@Override
+		public boolean equals(Object otro) {
+			return this == otro;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
+	}
+
+	/**
+	 * Evento ya serializado, compartido por todos los suscriptores.
+	 */
+	private record Evento(long id, String nombre, String json) {
+
+		static final Evento HEARTBEAT = new Evento(0, null, null);
+
+		SseEmitter.SseEventBuilder aSse(String instancia) {
+			if (this == HEARTBEAT) {
+				return SseEmitter.event().comment("heartbeat");
+			}
+			return SseEmitter.event().id(instancia + "-" + id).name(nombre).data(json);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Servicio encargado de la exportación masiva de transacciones.
+ *
+ * <p>
+ * A diferencia de {@link TransaccionQueryService#listarTodas()}, este servicio
+ * no materializa el resultado completo: recorre la tabla con un cursor de solo
+ * avance y escribe cada transacción en la salida apenas se lee, desacoplándola
+ * del contexto de persistencia inmediatamente después. De esta forma el uso de
+ * memoria se mantiene constante sin importar la cantidad de filas exportadas.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TransaccionExportService {
+
+    /**
+     * Encabezado de la exportación en formato CSV.
+     */
+    static final String ENCABEZADO_CSV =
+            "idTransaccion,numeroTransaccion,nombreTenpista,montoPesos,giroComercio,fechaTransaccion";
+
+    private final TransaccionRepository transaccionRepository;
+    private final TransaccionMapper mapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escribe todas las transacciones en la salida indicada.
+     *
+     * <p>
+     * La transacción de solo lectura se mantiene abierta mientras dura la
+     * escritura, ya que el cursor de la base de datos vive dentro de ella.
+     * </p>
+     *
+     * @param formato formato de salida
+     * @param salida  stream donde se escriben las transacciones; no se cierra
+     * @return cantidad de transacciones exportadas
+     * @throws IOException si ocurre un error al escribir en la salida
+     */
+    @Transactional(readOnly = true)
+    public long exportar(FormatoExportacion formato, OutputStream salida) throws IOException {
+        try (Stream<TransaccionEntity> transacciones = transaccionRepository.streamTodas()) {
+            return formato == FormatoExportacion.CSV
+                    ? exportarCsv(transacciones.iterator(), salida)
+                    : exportarNdjson(transacciones.iterator(), salida);
+        }
+    }
+
+    private long exportarNdjson(Iterator<TransaccionEntity> transacciones, OutputStream salida) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransaccionResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long total = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (transacciones.hasNext()) {
+                TransaccionEntity transaccion = transacciones.next();
+                writer.writeValue(generator, mapper.toResponse(transaccion));
+                generator.writeRaw('\n');
+                liberar(transaccion);
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private long exportarCsv(Iterator<TransaccionEntity> transacciones, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(ENCABEZADO_CSV);
+        writer.write('\n');
+        long total = 0;
+
+        while (transacciones.hasNext()) {
+            TransaccionEntity transaccion = transacciones.next();
+            TransaccionResponseDTO dto = mapper.toResponse(transaccion);
+            writer.write(String.valueOf(dto.getIdTransaccion()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getNumeroTransaccion()));
+            writer.write(',');
+            writer.write(escaparCsv(dto.getNombreTenpista()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getMontoPesos()));
+            writer.write(',');
+            writer.write(escaparCsv(dto.getGiroComercio()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getFechaTransaccion()));
+            writer.write('\n');
+            liberar(transaccion);
+            total++;
+        }
+        writer.flush();
+        return total;
+    }
+
+    /**
+     * Desacopla la transacción y su cliente del contexto de persistencia una
+     * vez escritos, para que este no crezca con cada fila leída.
+     *
+     * @param transaccion transacción ya exportada
+     */
+    private void liberar(TransaccionEntity transaccion) {
+        entityManager.detach(transaccion);
+        entityManager.detach(transaccion.getCliente());
+    }
+
+    /**
+     * Escapa un valor de texto según RFC 4180.
+     *
+     * @param valor texto a escapar
+     * @return valor listo para escribirse en una columna CSV
+     */
+    static String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,342 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO.Estado;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResultadoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.exception.CapacidadExcedidaException;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servicio de ingesta asíncrona (write-behind) de transacciones.
+ *
+ * <p>
+ * En lugar de ocupar una transacción y una conexión de base de datos por
+ * solicitud, cada transacción aceptada se agrega a un buffer circular acotado
+ * ({@link ArrayBlockingQueue}) y se responde de inmediato con un id de
+ * seguimiento. Un único hilo escritor vacía el buffer en grupos de hasta
+ * {@code tamanoGrupo} transacciones, o las acumuladas durante
+ * {@code esperaGrupo} desde la primera, y registra cada grupo con
+ * {@link TransaccionLoteService#crearLote} en un solo commit.
+ * </p>
+ *
+ * <p>
+ * Al aceptar una solicitud solo se validan reglas resolubles en memoria: que
+ * el número de transacción no esté en el buffer ni registrado según
+ * {@link TransaccionNumeroIndex}. El límite de transacciones por cliente se
+ * aplica al escribir el grupo; si no se cumple, la solicitud queda
+ * {@link Estado#RECHAZADA}.
+ * </p>
+ *
+ * <p>
+ * Es opcional y se habilita con la propiedad
+ * {@code transacciones.ingesta-asincrona.habilitada}. Si el buffer está lleno
+ * la solicitud se rechaza con {@link CapacidadExcedidaException} (HTTP 429).
+ * Al detener la aplicación se deja de aceptar solicitudes y el escritor
+ * registra lo que queda en el buffer antes de terminar; lo que no alcance a
+ * registrar en {@code esperaCierre} queda {@link Estado#RECHAZADA}.
+ * </p>
+ *
+ * <p>
+ * Los estados de las solicitudes se guardan en memoria de la instancia que
+ * las aceptó, durante {@code retencionEstados} y hasta {@code maximoEstados}
+ * solicitudes; al superar el máximo se descartan los menos consultados. Por
+ * eso {@link #consultar(String)} solo responde en esa instancia: detrás de un
+ * balanceador las consultas de estado deben llegar a la misma instancia que
+ * aceptó la solicitud.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TransaccionIngestaService implements MeterBinder {
+
+	private final TransaccionLoteService loteService;
+	private final TransaccionRepository transaccionRepository;
+	private final TransaccionNumeroIndex indiceNumeros;
+	private final boolean habilitada;
+	private final int tamanoGrupo;
+	private final Duration esperaGrupo;
+	private final Duration esperaCierre;
+
+	/**
+	 * Transacciones aceptadas y aún no escritas.
+	 */
+	private final BlockingQueue<Ingreso> buffer;
+
+	/**
+	 * Números de transacción en el buffer o en escritura, con su id de
+	 * seguimiento.
+	 */
+	private final ConcurrentMap<Integer, String> numerosEnCurso = new ConcurrentHashMap<>();
+
+	/**
+	 * Estado de las solicitudes por id de seguimiento, solo de las aceptadas
+	 * por esta instancia.
+	 */
+	private final Cache<String, TransaccionIngestaDTO> estados;
+
+	private volatile boolean aceptando;
+	private Thread escritor;
+
+	public TransaccionIngestaService(TransaccionLoteService loteService,
+			TransaccionRepository transaccionRepository,
+			TransaccionNumeroIndex indiceNumeros,
+			@Value("${transacciones.ingesta-asincrona.habilitada:false}") boolean habilitada,
+			@Value("${transacciones.ingesta-asincrona.capacidad:10000}") int capacidad,
+			@Value("${transacciones.ingesta-asincrona.tamano-grupo:500}") int tamanoGrupo,
+			@Value("${transacciones.ingesta-asincrona.espera-grupo:PT0.05S}") Duration esperaGrupo,
+			@Value("${transacciones.ingesta-asincrona.retencion-estados:PT1H}") Duration retencionEstados,
+			@Value("${transacciones.ingesta-asincrona.maximo-estados:100000}") long maximoEstados,
+			@Value("${transacciones.ingesta-asincrona.espera-cierre:PT30S}") Duration esperaCierre) {
+		this.loteService = loteService;
+		this.transaccionRepository = transaccionRepository;
+		this.indiceNumeros = indiceNumeros;
+		this.habilitada = habilitada;
+		this.tamanoGrupo = tamanoGrupo;
+		this.esperaGrupo = esperaGrupo;
+		this.esperaCierre = esperaCierre;
+		this.buffer = new ArrayBlockingQueue<>(capacidad);
+		this.estados = Caffeine.newBuilder()
+				.maximumSize(maximoEstados)
+				.expireAfterWrite(retencionEstados)
+				.build();
+	}
+
+	/**
+	 * Inicia el hilo escritor, si la ingesta asíncrona está habilitada.
+	 */
+	@PostConstruct
+	public void iniciar() {
+		if (!habilitada) {
+			return;
+		}
+		aceptando = true;
+		escritor = new Thread(this::escribir, "ingesta-transacciones");
+		escritor.start();
+	}
+
+	/**
+	 * Deja de aceptar solicitudes y espera a que el escritor registre las
+	 * transacciones que quedan en el buffer. Las que siguen en el buffer al
+	 * vencer la espera se rechazan.
+	 */
+	@PreDestroy
+	public void detener() {
+		if (escritor == null) {
+			return;
+		}
+		aceptando = false;
+		try {
+			escritor.join(esperaCierre.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (escritor.isAlive() || !buffer.isEmpty()) {
+			log.warn("La ingesta asíncrona se detuvo con {} transacciones sin registrar", buffer.size());
+			escritor.interrupt();
+			List<Ingreso> restantes = new ArrayList<>();
+			buffer.drainTo(restantes);
+			restantes.forEach(ingreso -> rechazar(ingreso, "La ingesta asíncrona se detuvo antes de registrar la transacción '"
+					+ ingreso.dto().getNumeroTransaccion() + "'"));
+		}
+	}
+
+	/**
+	 * Acepta una transacción para registrarla de forma asíncrona.
+	 *
+	 * @param dto datos de la transacción, ya validados
+	 * @return estado inicial de la solicitud, con su id de seguimiento
+	 * @throws BusinessException           si la ingesta asíncrona no está
+	 *                                     habilitada o el número de
+	 *                                     transacción ya existe
+	 * @throws CapacidadExcedidaException si el buffer está lleno
+	 */
+	public TransaccionIngestaDTO encolar(TransaccionRequestDTO dto) {
+		if (!habilitada) {
+			throw new BusinessException("La ingesta asíncrona de transacciones no está habilitada");
+		}
+		if (!aceptando) {
+			throw new CapacidadExcedidaException("La ingesta asíncrona no está aceptando transacciones");
+		}
+
+		Integer numero = dto.getNumeroTransaccion();
+		String idSeguimiento = UUID.randomUUID().toString();
+		if (numerosEnCurso.putIfAbsent(numero, idSeguimiento) != null
+				|| indiceNumeros.existe(numero, transaccionRepository::existsByNumeroTransaccion)) {
+			numerosEnCurso.remove(numero, idSeguimiento);
+			throw new BusinessException("Ya existe una transacción con el número: " + numero);
+		}
+
+		TransaccionIngestaDTO pendiente = TransaccionIngestaDTO.builder()
+				.idSeguimiento(idSeguimiento)
+				.numeroTransaccion(numero)
+				.estado(Estado.PENDIENTE)
+				.build();
+		estados.put(idSeguimiento, pendiente);
+		Ingreso ingreso = new Ingreso(idSeguimiento, dto);
+		if (!buffer.offer(ingreso)) {
+			estados.invalidate(idSeguimiento);
+			numerosEnCurso.remove(numero, idSeguimiento);
+			throw new CapacidadExcedidaException(
+					"La cola de ingesta de transacciones está llena, intente nuevamente más tarde");
+		}
+		// Si se detuvo entre la verificación y el offer, el escritor pudo haber
+		// terminado sin verlo; si sigue en el buffer se retira
+		if (!aceptando && buffer.remove(ingreso)) {
+			estados.invalidate(idSeguimiento);
+			numerosEnCurso.remove(numero, idSeguimiento);
+			throw new CapacidadExcedidaException("La ingesta asíncrona no está aceptando transacciones");
+		}
+		return pendiente;
+	}
+
+	/**
+	 * Consulta el estado de una solicitud de ingesta asíncrona.
+	 *
+	 * @param idSeguimiento id retornado al aceptar la solicitud
+	 * @return estado actual de la solicitud
+	 * @throws BusinessException si el id no existe en esta instancia o su
+	 *                           estado ya expiró o se descartó
+	 */
+	public TransaccionIngestaDTO consultar(String idSeguimiento) {
+		TransaccionIngestaDTO estado = estados.getIfPresent(idSeguimiento);
+		if (estado == null) {
+			throw new BusinessException("No existe una solicitud con id de seguimiento: " + idSeguimiento);
+		}
+		return estado;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("transacciones.ingesta.buffer", buffer, BlockingQueue::size)
+				.description("Transacciones aceptadas pendientes de escritura")
+				.register(registry);
+	}
+
+	/**
+	 * Ciclo del hilo escritor: toma grupos del buffer hasta que se detiene la
+	 * ingesta y el buffer queda vacío.
+	 */
+	private void escribir() {
+		List<Ingreso> grupo = new ArrayList<>(tamanoGrupo);
+		while (aceptando || !buffer.isEmpty()) {
+			try {
+				tomarGrupo(grupo);
+				if (!grupo.isEmpty()) {
+					registrar(grupo);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Error inesperado en la ingesta asíncrona de transacciones", e);
+			} finally {
+				grupo.clear();
+			}
+		}
+	}
+
+	/**
+	 * Espera la primera transacción y acumula las siguientes hasta completar
+	 * el grupo o agotar la espera.
+	 */
+	private void tomarGrupo(List<Ingreso> grupo) throws InterruptedException {
+		Ingreso primero = buffer.poll(esperaGrupo.toNanos(), TimeUnit.NANOSECONDS);
+		if (primero == null) {
+			return;
+		}
+		grupo.add(primero);
+		long limite = System.nanoTime() + esperaGrupo.toNanos();
+		while (grupo.size() < tamanoGrupo) {
+			if (buffer.drainTo(grupo, tamanoGrupo - grupo.size()) > 0) {
+				continue;
+			}
+			long restante = limite - System.nanoTime();
+			Ingreso siguiente = restante > 0 ? buffer.poll(restante, TimeUnit.NANOSECONDS) : null;
+			if (siguiente == null) {
+				return;
+			}
+			grupo.add(siguiente);
+		}
+	}
+
+	/**
+	 * Registra el grupo en un solo commit. Si el grupo completo falla, se
+	 * reintenta cada transacción por separado para aislar la que lo provocó.
+	 */
+	private void registrar(List<Ingreso> grupo) {
+		try {
+			List<TransaccionLoteResultadoDTO> resultados = loteService
+					.crearLote(grupo.stream().map(Ingreso::dto).toList())
+					.getResultados();
+			for (int i = 0; i < grupo.size(); i++) {
+				actualizar(grupo.get(i), resultados.get(i));
+			}
+		} catch (RuntimeException e) {
+			log.warn("No se logró registrar un grupo de {} transacciones, se reintentan por separado", grupo.size(), e);
+			for (Ingreso ingreso : grupo) {
+				try {
+					actualizar(ingreso, loteService.crearLote(List.of(ingreso.dto())).getResultados().get(0));
+				} catch (RuntimeException individual) {
+					rechazar(ingreso, individual instanceof BusinessException
+							? individual.getMessage()
+							: "La Transaccion '" + ingreso.dto().getNumeroTransaccion() + "' no se logro registrar");
+				}
+			}
+		}
+	}
+
+	private void actualizar(Ingreso ingreso, TransaccionLoteResultadoDTO resultado) {
+		if (resultado.isExitosa()) {
+			estados.put(ingreso.idSeguimiento(), TransaccionIngestaDTO.builder()
+					.idSeguimiento(ingreso.idSeguimiento())
+					.numeroTransaccion(resultado.getNumeroTransaccion())
+					.estado(Estado.REGISTRADA)
+					.transaccion(resultado.getTransaccion())
+					.build());
+			numerosEnCurso.remove(ingreso.dto().getNumeroTransaccion(), ingreso.idSeguimiento());
+		} else {
+			rechazar(ingreso, resultado.getError());
+		}
+	}
+
+	private void rechazar(Ingreso ingreso, String error) {
+		estados.put(ingreso.idSeguimiento(), TransaccionIngestaDTO.builder()
+				.idSeguimiento(ingreso.idSeguimiento())
+				.numeroTransaccion(ingreso.dto().getNumeroTransaccion())
+				.estado(Estado.RECHAZADA)
+				.error(error)
+				.build());
+		numerosEnCurso.remove(ingreso.dto().getNumeroTransaccion(), ingreso.idSeguimiento());
+	}
+
+	/**
+	 * Transacción aceptada, en espera de ser escrita.
+	 */
+	private record Ingreso(String idSeguimiento, TransaccionRequestDTO dto) {
+	}
+}
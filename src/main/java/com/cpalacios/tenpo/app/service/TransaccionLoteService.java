@@ -0,0 +1,369 @@
+package com.cpalacios.tenpo.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResultadoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Servicio encargado de la creación de transacciones en lote.
+ *
+ * <p>
+ * Aplica las mismas reglas que {@link TransaccionService#crearTransaccion},
+ * pero resolviendo cada paso para el lote completo en lugar de por elemento:
+ * <ul>
+ * <li>La unicidad de los números de transacción se valida con una sola
+ * consulta {@code IN}, limitada a los números que el índice en memoria no
+ * descarta.</li>
+ * <li>Los clientes se resuelven con {@link ClienteService}: los que no
+ * están en caché se buscan con una sola consulta {@code IN} y solo los
+ * nuevos se crean con upsert.</li>
+ * <li>El límite de transacciones se reserva con un {@code UPDATE}
+ * condicional por cliente.</li>
+ * <li>Las transacciones se insertan en lotes JDBC
+ * ({@code hibernate.jdbc.batch_size}), posibles gracias a los
+ * identificadores por secuencia.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Los elementos inválidos o que incumplen una regla de negocio se rechazan
+ * de forma individual sin afectar al resto del lote.
+ * </p>
+ *
+ * <p>
+ * El índice en memoria no conoce los números registrados por otras
+ * instancias, por lo que el INSERT puede violar la restricción única. En ese
+ * caso se revierte el lote, se consultan sus números en el primario y se
+ * reintenta una vez rechazando los que ya existen, con el mismo error que
+ * {@link TransaccionService#crearTransaccion}.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TransaccionLoteService {
+
+	private final ClienteRepository clienteRepository;
+	private final ClienteService clienteService;
+	private final TransaccionRepository transaccionRepository;
+	private final TransaccionCambioRepository cambioRepository;
+	private final TransaccionMapper mapper;
+	private final TransaccionTrigramIndex indiceTexto;
+	private final TransaccionNumeroIndex indiceNumeros;
+	private final Validator validator;
+	private final ApplicationEventPublisher eventos;
+	private final PlatformTransactionManager transactionManager;
+
+	/**
+	 * Cantidad máxima de transacciones aceptadas en un mismo lote.
+	 */
+	@Value("${transacciones.lote.tamano-maximo:1000}")
+	private int tamanoMaximo;
+
+	/**
+	 * Registra un lote de transacciones e informa el resultado de cada
+	 * elemento.
+	 *
+	 * @param lote transacciones a registrar
+	 * @return resumen del lote con el resultado de cada elemento, en el mismo
+	 *         orden recibido
+	 * @throws BusinessException si el lote está vacío, supera el tamaño
+	 *                           máximo o no se logra registrar
+	 */
+	public TransaccionLoteResponseDTO crearLote(List<TransaccionRequestDTO> lote) {
+		validarTamano(lote);
+
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		try {
+			return transaccion.execute(estado -> procesar(lote, Set.of()));
+		} catch (DataIntegrityViolationException e) {
+			// Otra instancia registró alguno de los números entre la validación y el INSERT
+			Set<Integer> registrados = numerosRegistrados(lote);
+			if (registrados.isEmpty()) {
+				throw new BusinessException("El lote de transacciones no se logro registrar");
+			}
+			try {
+				return transaccion.execute(estado -> procesar(lote, registrados));
+			} catch (DataIntegrityViolationException reintento) {
+				throw new BusinessException("El lote de transacciones no se logro registrar");
+			}
+		}
+	}
+
+	/**
+	 * Aplica las reglas y registra el lote dentro de la transacción en curso.
+	 *
+	 * @param registrados números confirmados como existentes en la base de
+	 *                    datos, además de los que informa el índice
+	 * @throws DataIntegrityViolationException si un INSERT viola una
+	 *                                         restricción
+	 */
+	private TransaccionLoteResponseDTO procesar(List<TransaccionRequestDTO> lote, Set<Integer> registrados) {
+		try {
+			TransaccionLoteResultadoDTO[] resultados = new TransaccionLoteResultadoDTO[lote.size()];
+
+			List<Integer> pendientes = validarElementos(lote, resultados);
+			pendientes = rechazarNumerosRepetidos(lote, pendientes, registrados, resultados);
+			Map<String, ClienteEntity> clientes = resolverClientes(lote, pendientes);
+			pendientes = reservarCupos(lote, pendientes, clientes, resultados);
+			registrar(lote, pendientes, clientes, resultados);
+
+			int exitosas = (int) Arrays.stream(resultados).filter(TransaccionLoteResultadoDTO::isExitosa).count();
+			return TransaccionLoteResponseDTO.builder()
+					.total(lote.size())
+					.exitosas(exitosas)
+					.fallidas(lote.size() - exitosas)
+					.resultados(Arrays.asList(resultados))
+					.build();
+		} catch (BusinessException | DataIntegrityViolationException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new BusinessException("El lote de transacciones no se logro registrar");
+		}
+	}
+
+	/**
+	 * Consulta en el primario cuáles números del lote ya existen y los marca
+	 * en el índice, que no los conocía.
+	 */
+	private Set<Integer> numerosRegistrados(List<TransaccionRequestDTO> lote) {
+		Set<Integer> numeros = lote.stream()
+				.filter(Objects::nonNull)
+				.map(TransaccionRequestDTO::getNumeroTransaccion)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		Set<Integer> registrados = new HashSet<>(
+				ContextoReplica.enPrimario(() -> transaccionRepository.buscarNumerosExistentes(numeros)));
+		registrados.forEach(indiceNumeros::registrar);
+		return registrados;
+	}
+
+	/**
+	 * Valida que el lote no esté vacío ni supere el tamaño máximo.
+	 *
+	 * @param lote transacciones recibidas
+	 * @throws BusinessException si el tamaño del lote no es válido
+	 */
+	private void validarTamano(List<TransaccionRequestDTO> lote) {
+		if (lote == null || lote.isEmpty()) {
+			throw new BusinessException("El lote de transacciones no puede estar vacío");
+		}
+		if (lote.size() > tamanoMaximo) {
+			throw new BusinessException("El lote no puede superar las " + tamanoMaximo + " transacciones");
+		}
+	}
+
+	/**
+	 * Aplica las validaciones de Bean Validation a cada elemento.
+	 *
+	 * @return índices de los elementos válidos
+	 */
+	private List<Integer> validarElementos(List<TransaccionRequestDTO> lote, TransaccionLoteResultadoDTO[] resultados) {
+		List<Integer> validos = new ArrayList<>(lote.size());
+		for (int i = 0; i < lote.size(); i++) {
+			TransaccionRequestDTO dto = lote.get(i);
+			if (dto == null) {
+				rechazar(resultados, i, null, "La transacción no puede ser nula");
+				continue;
+			}
+			Set<ConstraintViolation<TransaccionRequestDTO>> violaciones = validator.validate(dto);
+			if (violaciones.isEmpty()) {
+				validos.add(i);
+			} else {
+				rechazar(resultados, i, dto, violaciones.stream().map(ConstraintViolation::getMessage).sorted()
+						.collect(Collectors.joining("; ")));
+			}
+		}
+		return validos;
+	}
+
+	/**
+	 * Rechaza los números de transacción repetidos dentro del lote y los que
+	 * ya existen, estos últimos con una sola consulta.
+	 *
+	 * @param registrados números que se saben existentes aunque el índice los
+	 *                    descarte
+	 * @return índices de los elementos con número único
+	 */
+	private List<Integer> rechazarNumerosRepetidos(List<TransaccionRequestDTO> lote, List<Integer> pendientes,
+			Set<Integer> registrados, TransaccionLoteResultadoDTO[] resultados) {
+		if (pendientes.isEmpty()) {
+			return pendientes;
+		}
+		Set<Integer> existentes = new HashSet<>(indiceNumeros.existentes(
+				pendientes.stream().map(i -> lote.get(i).getNumeroTransaccion()).collect(Collectors.toSet()),
+				transaccionRepository::buscarNumerosExistentes));
+		existentes.addAll(registrados);
+
+		Set<Integer> vistos = new HashSet<>();
+		List<Integer> unicos = new ArrayList<>(pendientes.size());
+		for (Integer i : pendientes) {
+			TransaccionRequestDTO dto = lote.get(i);
+			Integer numero = dto.getNumeroTransaccion();
+			if (existentes.contains(numero)) {
+				rechazar(resultados, i, dto, "Ya existe una transacción con el número: " + numero);
+			} else if (!vistos.add(numero)) {
+				rechazar(resultados, i, dto, "El número de transacción " + numero + " está repetido en el lote");
+			} else {
+				unicos.add(i);
+			}
+		}
+		return unicos;
+	}
+
+	/**
+	 * Obtiene los clientes de los elementos pendientes, creando los que no
+	 * existen.
+	 *
+	 * @return clientes indexados por nombre normalizado
+	 */
+	private Map<String, ClienteEntity> resolverClientes(List<TransaccionRequestDTO> lote, List<Integer> pendientes) {
+		if (pendientes.isEmpty()) {
+			return Map.of();
+		}
+		List<String> nombres = pendientes.stream()
+				.map(i -> lote.get(i).getNombreTenpista())
+				.collect(Collectors.toList());
+		return clienteService.obtenerOCrear(nombres);
+	}
+
+	/**
+	 * Reserva en el contador de cada cliente los cupos de sus transacciones
+	 * pendientes.
+	 *
+	 * <p>
+	 * Se intenta reservar todo el grupo del cliente con una sola sentencia. Si
+	 * no cabe completo, se reserva elemento por elemento hasta alcanzar el
+	 * máximo y el resto se rechaza. Si el cliente venía de la caché y ya no
+	 * existe, se vuelve a resolver antes de rechazar.
+	 * </p>
+	 *
+	 * @return índices de los elementos con cupo reservado
+	 */
+	private List<Integer> reservarCupos(List<TransaccionRequestDTO> lote, List<Integer> pendientes,
+			Map<String, ClienteEntity> clientes, TransaccionLoteResultadoDTO[] resultados) {
+		Map<String, List<Integer>> porCliente = pendientes.stream().collect(Collectors.groupingBy(
+				i -> clave(lote.get(i).getNombreTenpista()), LinkedHashMap::new, Collectors.toList()));
+
+		List<Integer> reservados = new ArrayList<>(pendientes.size());
+		for (Map.Entry<String, List<Integer>> grupo : porCliente.entrySet()) {
+			List<Integer> indices = grupo.getValue();
+			Long idCliente = clientes.get(grupo.getKey()).getIdCliente();
+			if (reservarGrupo(idCliente, indices.size())) {
+				reservados.addAll(indices);
+				continue;
+			}
+
+			// El cliente en caché pudo haber sido eliminado: se vuelve a resolver una vez
+			ClienteEntity actual = clienteService.revalidar(lote.get(indices.get(0)).getNombreTenpista());
+			if (!actual.getIdCliente().equals(idCliente)) {
+				clientes.put(grupo.getKey(), actual);
+				idCliente = actual.getIdCliente();
+				if (reservarGrupo(idCliente, indices.size())) {
+					reservados.addAll(indices);
+					continue;
+				}
+			}
+			boolean hayCupo = true;
+			for (Integer i : indices) {
+				hayCupo = hayCupo
+						&& clienteRepository.incrementarTotalTransacciones(idCliente, TransaccionService.MAX_TRANSACCIONES) == 1;
+				if (hayCupo) {
+					reservados.add(i);
+				} else {
+					rechazar(resultados, i, lote.get(i), "El cliente ya tiene el máximo de "
+							+ TransaccionService.MAX_TRANSACCIONES + " transacciones");
+				}
+			}
+		}
+		reservados.sort(null);
+		return reservados;
+	}
+
+	private boolean reservarGrupo(Long idCliente, int cantidad) {
+		return clienteRepository.incrementarTotalTransacciones(idCliente, cantidad,
+				TransaccionService.MAX_TRANSACCIONES) == 1;
+	}
+
+	/**
+	 * Persiste las transacciones pendientes, que Hibernate inserta en lotes
+	 * JDBC. Se sincroniza antes de registrar los cambios para que un número
+	 * duplicado falle dentro de {@link #procesar}.
+	 */
+	private void registrar(List<TransaccionRequestDTO> lote, List<Integer> pendientes,
+			Map<String, ClienteEntity> clientes, TransaccionLoteResultadoDTO[] resultados) {
+		List<TransaccionEntity> transacciones = new ArrayList<>(pendientes.size());
+		for (Integer i : pendientes) {
+			TransaccionRequestDTO dto = lote.get(i);
+			transacciones.add(mapper.toEntity(dto, clientes.get(clave(dto.getNombreTenpista()))));
+		}
+		List<TransaccionEntity> guardadas = transaccionRepository.saveAll(transacciones);
+		transaccionRepository.flush();
+		cambioRepository.registrar(guardadas.stream().map(TransaccionEntity::getIdTransaccion).toList(), false);
+
+		for (int j = 0; j < pendientes.size(); j++) {
+			int i = pendientes.get(j);
+			TransaccionEntity guardada = guardadas.get(j);
+			indiceTexto.indexar(guardada.getIdTransaccion(), guardada.getCliente().getNombreTenpista(),
+					guardada.getGiroComercio());
+			indiceNumeros.registrar(guardada.getNumeroTransaccion());
+			TransaccionResponseDTO response = mapper.toResponse(guardada);
+			eventos.publishEvent(TransaccionEventoDTO.creada(response));
+			resultados[i] = TransaccionLoteResultadoDTO.builder()
+					.indice(i)
+					.numeroTransaccion(guardada.getNumeroTransaccion())
+					.exitosa(true)
+					.transaccion(response)
+					.build();
+		}
+	}
+
+	private static void rechazar(TransaccionLoteResultadoDTO[] resultados, int indice, TransaccionRequestDTO dto,
+			String error) {
+		resultados[indice] = TransaccionLoteResultadoDTO.builder()
+				.indice(indice)
+				.numeroTransaccion(dto == null ? null : dto.getNumeroTransaccion())
+				.exitosa(false)
+				.error(error)
+				.build();
+	}
+
+	/**
+	 * Clave con la que se identifica a un cliente dentro del lote.
+	 */
+	private static String clave(String nombreTenpista) {
+		return ClienteEntity.normalizarNombre(nombreTenpista);
+	}
+}
@@ -1,15 +1,41 @@
 package com.cpalacios.tenpo.app.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.cpalacios.tenpo.app.cache.CacheRespuestas;
+import com.cpalacios.tenpo.app.cache.VersionTransacciones;
+import com.cpalacios.tenpo.app.concurrencia.EjecucionCompartida;
+import com.cpalacios.tenpo.app.dto.TransaccionBusquedaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionPaginaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import lombok.RequiredArgsConstructor;
 
@@ -17,15 +43,35 @@ import lombok.RequiredArgsConstructor;
  * Servicio encargado de las operaciones de consulta de transacciones.
  *
  * <p>
- * Este servicio utiliza el método {@code buscarPorFiltro} del
- * {@link TransaccionRepository} para permitir búsquedas avanzadas sobre
- * múltiples campos de la entidad
- * {@link com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity}.
+ * La búsqueda por filtro libre interpreta el texto recibido para elegir
+ * predicados que la base de datos pueda resolver con índices: un número se
+ * compara por igualdad con el número de transacción y el monto, una fecha se
+ * convierte en un rango, y cualquier otro texto se busca (sin distinguir
+ * mayúsculas) dentro del nombre del cliente y del giro/comercio.
  * </p>
  *
  * <p>
- * La búsqueda es insensible a mayúsculas y minúsculas (LOWER) y permite
- * coincidencias parciales mediante LIKE.
+ * La búsqueda estructurada recibe criterios tipados (número exacto, rangos de
+ * monto y fecha, prefijos de cliente y giro) que se combinan dinámicamente.
+ * </p>
+ *
+ * <p>
+ * Las lecturas se proyectan directamente en
+ * {@link com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen},
+ * sin cargar entidades en el contexto de persistencia.
+ * </p>
+ *
+ * <p>
+ * Cuando el índice de trigramas en memoria ({@link TransaccionTrigramIndex})
+ * está habilitado y construido, la búsqueda de texto libre obtiene los
+ * identificadores desde él y solo consulta la base de datos por esas filas.
+ * </p>
+ *
+ * <p>
+ * El listado completo y la búsqueda por filtro también se ofrecen ya
+ * serializados, desde {@link CacheRespuestas}, con un ETag que depende solo
+ * de la {@link VersionTransacciones versión de los datos}: mientras no haya
+ * cambios confirmados, se repiten sin consultar la base de datos.
  * </p>
  */
 @Service
@@ -35,6 +81,42 @@ public class TransaccionQueryService {
 
 	private final TransaccionRepository transaccionRepository;
 	private final TransaccionMapper mapper;
+	private final TransaccionTrigramIndex indiceTexto;
+	private final CacheRespuestas cacheRespuestas;
+	private final VersionTransacciones versionTransacciones;
+	private final EjecucionCompartida<String, List<TransaccionResumen>> busquedasCompartidas;
+	private final PlatformTransactionManager transactionManager;
+
+	/**
+	 * Filtros compuestos solo por dígitos, que caben en un {@link Integer}.
+	 */
+	private static final Pattern FILTRO_NUMERICO = Pattern.compile("\\d{1,9}");
+
+	/**
+	 * Cantidad máxima de identificadores por cada consulta {@code IN}.
+	 */
+	private static final int TAMANO_BLOQUE_IDS = 1000;
+
+	/**
+	 * Formatos de fecha aceptados en el filtro libre, además de ISO
+	 * ({@code yyyy-MM-dd}).
+	 */
+	private static final List<DateTimeFormatter> FORMATOS_FECHA = List.of(
+			DateTimeFormatter.ISO_LOCAL_DATE,
+			DateTimeFormatter.ofPattern("dd-MM-uuuu"),
+			DateTimeFormatter.ofPattern("dd/MM/uuuu"));
+
+	/**
+	 * Tamaño de página aplicado cuando el consumidor no indica uno.
+	 */
+	@Value("${transacciones.paginacion.tamano-defecto:50}")
+	private int tamanoPaginaDefecto;
+
+	/**
+	 * Tamaño de página máximo permitido por solicitud.
+	 */
+	@Value("${transacciones.paginacion.tamano-maximo:500}")
+	private int tamanoPaginaMaximo;
 
 	/**
 	 * Retorna todas las transacciones existentes.
@@ -43,35 +125,324 @@ public class TransaccionQueryService {
 	 */
 	public List<TransaccionResponseDTO> listarTodas() {
 		try {
-			return transaccionRepository.findAll().stream().map(mapper::toResponse).collect(Collectors.toList());
+			return transaccionRepository.listarResumen().stream().map(mapper::toResponse)
+					.collect(Collectors.toList());
 		} catch (Exception e) {
 			throw new BusinessException("No se logro consultar las transacciones");
 		}
 	}
 
+	/**
+	 * Retorna todas las transacciones serializadas, desde la caché si no hubo
+	 * cambios desde la consulta anterior.
+	 *
+	 * @return JSON de la lista de transacciones y su ETag
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public RespuestaVersionada listarTodasVersionada() {
+		long version = versionTransacciones.actual();
+		try {
+			byte[] json = cacheRespuestas.obtener("all", "", version, this::listarTodas);
+			return new RespuestaVersionada(json, versionTransacciones.etag(version));
+		} catch (JsonProcessingException e) {
+			throw new BusinessException("No se logro consultar las transacciones");
+		}
+	}
+
+	/**
+	 * Retorna serializadas las transacciones que coinciden con el filtro,
+	 * desde la caché si no hubo cambios desde la misma búsqueda anterior.
+	 *
+	 * @param filtro texto de búsqueda
+	 * @return JSON de la lista de transacciones y su ETag
+	 * @see #buscarPorFiltro(String)
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public RespuestaVersionada buscarPorFiltroVersionada(String filtro) {
+		long version = versionTransacciones.actual();
+		String normalizado = filtro.trim();
+		try {
+			byte[] json = cacheRespuestas.obtener("search", normalizado, version, () -> buscarPorFiltro(normalizado));
+			return new RespuestaVersionada(json, versionTransacciones.etag(version));
+		} catch (JsonProcessingException e) {
+			throw new BusinessException("No se logro consultar las transacciones");
+		}
+	}
+
+	/**
+	 * ETag de las respuestas generadas con la versión actual de los datos,
+	 * para responder 304 sin consultar la base de datos.
+	 *
+	 * @return ETag fuerte actual
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public String etagActual() {
+		return versionTransacciones.etag(versionTransacciones.actual());
+	}
+
 	/**
 	 * Retorna las transacciones que coinciden con el filtro proporcionado.
 	 *
 	 * <p>
-	 * El filtro se aplica sobre varios campos de la entidad, incluyendo:
+	 * El filtro se interpreta según su forma:
 	 * <ul>
-	 * <li>Nombre del cliente</li>
-	 * <li>Número de transacción</li>
-	 * <li>Monto</li>
-	 * <li>Giro/Comercio</li>
-	 * <li>Fecha de transacción</li>
+	 * <li>Número: número de transacción o monto exactamente igual.</li>
+	 * <li>Fecha ({@code yyyy-MM-dd}, {@code dd-MM-yyyy} o {@code dd/MM/yyyy}):
+	 * transacciones de ese día.</li>
+	 * <li>Fecha y hora ISO ({@code yyyy-MM-ddTHH:mm}): transacciones de ese
+	 * minuto.</li>
+	 * <li>Cualquier otro texto: coincidencia parcial en el nombre del cliente o
+	 * en el giro/comercio.</li>
 	 * </ul>
 	 * </p>
 	 *
-	 * @param filtro texto de búsqueda que se compara con todos los campos
+	 * <p>
+	 * Las búsquedas simultáneas con el mismo filtro comparten una sola
+	 * consulta a la base de datos ({@link EjecucionCompartida}); cada
+	 * solicitud mapea las filas compartidas a sus propios DTOs. No se abre una
+	 * transacción propia, para que las solicitudes que esperan el resultado de
+	 * otra no ocupen una conexión; solo la solicitud que ejecuta la búsqueda
+	 * abre una transacción de solo lectura, en la que se hacen todas sus
+	 * consultas.
+	 * </p>
+	 *
+	 * @param filtro texto de búsqueda
 	 * @return lista de DTOs que cumplen con el filtro
+	 * @throws BusinessException si la consulta falla o no termina dentro de la
+	 *                           espera máxima
 	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public List<TransaccionResponseDTO> buscarPorFiltro(String filtro) {
+		String normalizado = filtro.trim();
+		try {
+			return busquedasCompartidas.ejecutar(claveBusqueda(normalizado), () -> buscarEnLectura(normalizado))
+					.stream().map(mapper::toResponse).collect(Collectors.toList());
+		} catch (TimeoutException e) {
+			throw new BusinessException("La búsqueda de transacciones superó el tiempo de espera");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException("No se logro consultar las transacciones");
+		} catch (Exception e) {
+			throw new BusinessException("No se logro consultar las transacciones");
+		}
+	}
+
+	/**
+	 * Clave con que se comparten las búsquedas simultáneas.
+	 *
+	 * <p>
+	 * Incluye la versión de los datos, para que una búsqueda iniciada antes de
+	 * un cambio confirmado no se entregue a quien busca después, y si la
+	 * lectura va al primario, para no entregar a un cliente que acaba de
+	 * escribir el resultado leído de una réplica.
+	 * </p>
+	 */
+	private String claveBusqueda(String filtro) {
+		return versionTransacciones.actual() + (ContextoReplica.primarioForzado() ? ":p:" : ":r:") + filtro;
+	}
+
+	/**
+	 * Retorna las transacciones que cumplen todos los criterios indicados.
+	 *
+	 * @param busqueda criterios de búsqueda; al menos uno debe estar informado
+	 * @return lista de DTOs que cumplen con los criterios, con las primeras
+	 *         {@code transacciones.busqueda.maximo-resultados} por
+	 *         identificador
+	 * @throws BusinessException si no se informa ningún criterio o si los
+	 *                           rangos son inconsistentes
+	 */
+	public List<TransaccionResponseDTO> buscar(TransaccionBusquedaDTO busqueda) {
+		TransaccionCriterio criterio = mapper.toCriterio(busqueda);
+		validarCriterio(criterio);
+
 		try {
-			return transaccionRepository.buscarPorFiltro(filtro).stream().map(mapper::toResponse)
+			return transaccionRepository.buscarPorCriterio(criterio).stream().map(mapper::toResponse)
 					.collect(Collectors.toList());
 		} catch (Exception e) {
 			throw new BusinessException("No se logro consultar las transacciones");
 		}
 	}
+
+	/**
+	 * Ejecuta la búsqueda en una sola transacción de solo lectura, para que
+	 * las consultas por bloques de identificadores usen una misma conexión.
+	 */
+	private List<TransaccionResumen> buscarEnLectura(String filtro) {
+		TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+		lectura.setReadOnly(true);
+		return lectura.execute(estado -> buscarResumenPorFiltro(filtro));
+	}
+
+	/**
+	 * Elige la consulta indexable que corresponde a la forma del filtro.
+	 *
+	 * @param filtro texto de búsqueda sin espacios laterales
+	 * @return proyecciones de las transacciones que coinciden
+	 */
+	private List<TransaccionResumen> buscarResumenPorFiltro(String filtro) {
+		if (FILTRO_NUMERICO.matcher(filtro).matches()) {
+			return transaccionRepository.buscarPorNumeroOMonto(Integer.valueOf(filtro));
+		}
+
+		TransaccionCriterio rangoFecha = interpretarFecha(filtro);
+		if (rangoFecha != null) {
+			return transaccionRepository.buscarPorCriterio(rangoFecha);
+		}
+
+		return buscarPorTexto(filtro);
+	}
+
+	/**
+	 * Busca el texto en el nombre del cliente y el giro/comercio, usando el
+	 * índice en memoria si está disponible.
+	 *
+	 * <p>
+	 * Las filas obtenidas a partir del índice se vuelven a verificar contra
+	 * el texto, de modo que una actualización aún no reflejada en el índice
+	 * no produce resultados incorrectos.
+	 * </p>
+	 *
+	 * @param texto texto de búsqueda
+	 * @return proyecciones de las transacciones que coinciden
+	 */
+	private List<TransaccionResumen> buscarPorTexto(String texto) {
+		Optional<long[]> ids = indiceTexto.buscar(texto);
+		if (ids.isEmpty()) {
+			return transaccionRepository.buscarPorTexto(texto);
+		}
+
+		String consulta = texto.toLowerCase(Locale.ROOT);
+		long[] encontrados = ids.get();
+		List<TransaccionResumen> resultado = new ArrayList<>(encontrados.length);
+		for (int desde = 0; desde < encontrados.length; desde += TAMANO_BLOQUE_IDS) {
+			long[] bloque = Arrays.copyOfRange(encontrados, desde, Math.min(desde + TAMANO_BLOQUE_IDS, encontrados.length));
+			for (TransaccionResumen fila : transaccionRepository.buscarResumenPorIds(Arrays.stream(bloque).boxed().toList())) {
+				if (contiene(fila.nombreTenpista(), consulta) || contiene(fila.giroComercio(), consulta)) {
+					resultado.add(fila);
+				}
+			}
+		}
+		return resultado;
+	}
+
+	private static boolean contiene(String valor, String consulta) {
+		return valor != null && valor.toLowerCase(Locale.ROOT).contains(consulta);
+	}
+
+	/**
+	 * Interpreta el filtro como una fecha o fecha y hora.
+	 *
+	 * @param filtro texto de búsqueda
+	 * @return criterio con el rango de fechas correspondiente, o {@code null}
+	 *         si el filtro no es una fecha
+	 */
+	private TransaccionCriterio interpretarFecha(String filtro) {
+		for (DateTimeFormatter formato : FORMATOS_FECHA) {
+			try {
+				LocalDate dia = LocalDate.parse(filtro, formato);
+				return TransaccionCriterio.builder()
+						.fechaDesde(dia.atStartOfDay())
+						.fechaHasta(dia.plusDays(1).atStartOfDay())
+						.build();
+			} catch (DateTimeParseException e) {
+				// se prueba el siguiente formato
+			}
+		}
+		try {
+			LocalDateTime minuto = LocalDateTime.parse(filtro).truncatedTo(ChronoUnit.MINUTES);
+			return TransaccionCriterio.builder()
+					.fechaDesde(minuto)
+					.fechaHasta(minuto.plusMinutes(1))
+					.build();
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Valida que el criterio tenga al menos un predicado y que sus rangos
+	 * sean consistentes.
+	 *
+	 * @param criterio criterio a validar
+	 * @throws BusinessException si el criterio no es válido
+	 */
+	private void validarCriterio(TransaccionCriterio criterio) {
+		if (criterio.estaVacio()) {
+			throw new BusinessException("Debe indicar al menos un criterio de búsqueda");
+		}
+		if (criterio.getMontoMinimo() != null && criterio.getMontoMaximo() != null
+				&& criterio.getMontoMinimo() > criterio.getMontoMaximo()) {
+			throw new BusinessException("El monto mínimo no puede ser mayor que el monto máximo");
+		}
+		if (criterio.getFechaDesde() != null && criterio.getFechaHasta() != null
+				&& criterio.getFechaDesde().isAfter(criterio.getFechaHasta())) {
+			throw new BusinessException("La fecha desde no puede ser posterior a la fecha hasta");
+		}
+	}
+
+	/**
+	 * Retorna una página del listado de transacciones usando paginación por
+	 * cursor (keyset).
+	 *
+	 * <p>
+	 * Las transacciones se ordenan por fecha y luego por identificador. Se
+	 * consulta una fila adicional al tamaño solicitado para saber si existe
+	 * una página siguiente sin necesidad de un {@code count()}.
+	 * </p>
+	 *
+	 * @param cursor cursor opaco de la página anterior, o {@code null} para la
+	 *               primera página
+	 * @param tamano cantidad de transacciones solicitadas, o {@code null} para
+	 *               usar el tamaño por defecto; se limita al máximo configurado
+	 * @return página de transacciones con el cursor de la página siguiente
+	 * @throws BusinessException si el tamaño o el cursor no son válidos
+	 */
+	public TransaccionPaginaDTO listarPagina(String cursor, Integer tamano) {
+		int tamanoEfectivo = resolverTamanoPagina(tamano);
+		TransaccionCursor desde = (cursor == null || cursor.isBlank()) ? null : TransaccionCursor.decodificar(cursor);
+
+		try {
+			Limit limite = Limit.of(tamanoEfectivo + 1);
+			List<TransaccionResumen> filas = desde == null
+					? transaccionRepository.buscarPrimeraPagina(limite)
+					: transaccionRepository.buscarPaginaDespuesDe(desde.getFechaTransaccion(),
+							desde.getIdTransaccion(), limite);
+
+			boolean tieneMas = filas.size() > tamanoEfectivo;
+			List<TransaccionResumen> pagina = tieneMas ? filas.subList(0, tamanoEfectivo) : filas;
+
+			String siguienteCursor = null;
+			if (tieneMas) {
+				TransaccionResumen ultima = pagina.get(pagina.size() - 1);
+				siguienteCursor = new TransaccionCursor(ultima.fechaTransaccion(), ultima.idTransaccion()).codificar();
+			}
+
+			return TransaccionPaginaDTO.builder()
+					.transacciones(pagina.stream().map(mapper::toResponse).collect(Collectors.toList()))
+					.siguienteCursor(siguienteCursor)
+					.tieneMas(tieneMas)
+					.tamano(tamanoEfectivo)
+					.build();
+		} catch (Exception e) {
+			throw new BusinessException("No se logro consultar las transacciones");
+		}
+	}
+
+	/**
+	 * Valida el tamaño de página solicitado y lo ajusta a los límites
+	 * configurados.
+	 *
+	 * @param tamano tamaño solicitado por el consumidor
+	 * @return tamaño de página a aplicar
+	 * @throws BusinessException si el tamaño es menor a 1
+	 */
+	private int resolverTamanoPagina(Integer tamano) {
+		if (tamano == null) {
+			return Math.min(tamanoPaginaDefecto, tamanoPaginaMaximo);
+		}
+		if (tamano < 1) {
+			throw new BusinessException("El tamaño de página debe ser mayor o igual a 1");
+		}
+		return Math.min(tamano, tamanoPaginaMaximo);
+	}
 }
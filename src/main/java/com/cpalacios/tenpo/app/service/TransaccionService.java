@@ -1,8 +1,13 @@
 package com.cpalacios.tenpo.app.service;
 
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
@@ -10,7 +15,10 @@ import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 import lombok.RequiredArgsConstructor;
 
@@ -46,23 +54,49 @@ public class TransaccionService {
 	/**
 	 * Límite máximo permitido de transacciones por cliente.
 	 */
-	private static final int MAX_TRANSACCIONES = 100;
+	static final int MAX_TRANSACCIONES = 100;
 
 	/**
 	 * Repositorio para el acceso y gestión de clientes.
 	 */
 	private final ClienteRepository clienteRepository;
 
+	/**
+	 * Servicio que resuelve (o crea) el cliente por nombre.
+	 */
+	private final ClienteService clienteService;
+
 	/**
 	 * Repositorio para el acceso y gestión de transacciones.
 	 */
 	private final TransaccionRepository transaccionRepository;
 
+	/**
+	 * Log de cambios para la sincronización incremental.
+	 */
+	private final TransaccionCambioRepository cambioRepository;
+
 	/**
 	 * Mapper encargado de convertir entre DTOs y entidades de transacción.
 	 */
 	private final TransaccionMapper mapper;
 
+	/**
+	 * Índice de texto en memoria que se mantiene al día con las altas.
+	 */
+	private final TransaccionTrigramIndex indiceTexto;
+
+	/**
+	 * Índice en memoria de los números de transacción registrados.
+	 */
+	private final TransaccionNumeroIndex indiceNumeros;
+
+	/**
+	 * Publica los cambios, que se difunden a los suscriptores después del
+	 * commit.
+	 */
+	private final ApplicationEventPublisher eventos;
+
 	/**
 	 * Crea una nueva transacción aplicando las reglas de negocio definidas por el
 	 * dominio.
@@ -70,10 +104,11 @@ public class TransaccionService {
 	 * <p>
 	 * Flujo del proceso:
 	 * <ol>
-	 * <li>Busca el cliente por nombre .</li>
-	 * <li>Si el cliente no existe, lo crea.</li>
-	 * <li>Valida que el cliente no supere el máximo de transacciones
-	 * permitidas.</li>
+	 * <li>Obtiene el cliente por nombre, creándolo con un upsert si no
+	 * existe.</li>
+	 * <li>Reserva un cupo en el contador de transacciones del cliente con un
+	 * {@code UPDATE} condicional, que falla si ya alcanzó el máximo
+	 * permitido.</li>
 	 * <li>Construye y persiste la transacción.</li>
 	 * <li>Retorna la información de la transacción creada.</li>
 	 * </ol>
@@ -92,53 +127,71 @@ public class TransaccionService {
 			// Validar unicidad del número de transacción
 			validarNumeroTransaccion(dto.getNumeroTransaccion());
 
-			// ️ Validar máximo 100 transacciones por cliente
-			long total = transaccionRepository.count();
-
-			if (total >= MAX_TRANSACCIONES) {
-				throw new BusinessException(
-						"El cliente ya tiene el máximo de 100 transacciones");
-			}
-			ClienteEntity cliente = clienteRepository.findByNombreTenpistaIgnoreCase(dto.getNombreTenpista())
-					.orElseGet(() -> crearCliente(dto.getNombreTenpista()));
+			// Validar máximo 100 transacciones por cliente
+			ClienteEntity cliente = reservarCupo(dto.getNombreTenpista());
 
 			TransaccionEntity transaccion = mapper.toEntity(dto, cliente);
 
-			TransaccionEntity saved = transaccionRepository.save(transaccion);
-			return mapper.toResponse(saved);
+			TransaccionEntity saved = transaccionRepository.saveAndFlush(transaccion);
+			indiceTexto.indexar(saved.getIdTransaccion(), cliente.getNombreTenpista(), saved.getGiroComercio());
+			indiceNumeros.registrar(saved.getNumeroTransaccion());
+			cambioRepository.registrar(List.of(saved.getIdTransaccion()), false);
+			TransaccionResponseDTO response = mapper.toResponse(saved);
+			eventos.publishEvent(TransaccionEventoDTO.creada(response));
+			return response;
 		} catch (BusinessException e) {
 			throw e;
+		} catch (DataIntegrityViolationException e) {
+			// Otra solicitud registró el mismo número entre la validación y el INSERT
+			throw new BusinessException("Ya existe una transacción con el número: " + dto.getNumeroTransaccion());
 		} catch (Exception e) {
 			throw new BusinessException("La Transaccion '" + dto.getNumeroTransaccion() + "' no se logro registrar");
 		}
 	}
 
 	/**
-	 * Crea y persiste un nuevo cliente en el sistema.
+	 * Obtiene el cliente e incrementa su contador de transacciones si no ha
+	 * alcanzado el máximo permitido.
 	 *
 	 * <p>
-	 * Este método se utiliza únicamente cuando no se encuentra un cliente existente
-	 * con el nombre proporcionado. La lógica de validación de unicidad se maneja
-	 * previamente en el servicio.
+	 * Si el incremento no afecta filas y el cliente venía de la caché, puede
+	 * que haya sido eliminado: se descarta la entrada y se vuelve a resolver
+	 * una vez antes de rechazar la transacción.
 	 * </p>
 	 *
-	 * @param nombreTenpista nombre del cliente a crear
-	 * @return {@link ClienteEntity} persistida
+	 * @param nombreTenpista nombre del cliente al que se asociará la transacción
+	 * @return cliente con el cupo reservado
+	 * @throws BusinessException si el cliente ya tiene el máximo de
+	 *                           transacciones
 	 */
-	private ClienteEntity crearCliente(String nombreTenpista) {
-		ClienteEntity cliente = ClienteEntity.builder().nombreTenpista(nombreTenpista).build();
+	private ClienteEntity reservarCupo(String nombreTenpista) {
+		ClienteEntity cliente = clienteService.obtenerOCrear(nombreTenpista);
+		if (clienteRepository.incrementarTotalTransacciones(cliente.getIdCliente(), MAX_TRANSACCIONES) == 1) {
+			return cliente;
+		}
 
-		return clienteRepository.save(cliente);
+		ClienteEntity actual = clienteService.revalidar(nombreTenpista);
+		if (!actual.getIdCliente().equals(cliente.getIdCliente())
+				&& clienteRepository.incrementarTotalTransacciones(actual.getIdCliente(), MAX_TRANSACCIONES) == 1) {
+			return actual;
+		}
+		throw new BusinessException(
+				"El cliente ya tiene el máximo de " + MAX_TRANSACCIONES + " transacciones");
 	}
 	
     /**
      * Valida que el número de transacción no exista previamente.
      *
+     * <p>
+     * Los números que el índice en memoria descarta no se consultan a la base
+     * de datos; el índice único de la tabla cubre las altas concurrentes.
+     * </p>
+     *
      * @param numeroTransaccion número de la transacción a validar
      * @throws BusinessException si el número de transacción ya existe
      */
     private void validarNumeroTransaccion(Integer numeroTransaccion) {
-        if (transaccionRepository.existsByNumeroTransaccion(numeroTransaccion)) {
+        if (indiceNumeros.existe(numeroTransaccion, transaccionRepository::existsByNumeroTransaccion)) {
             throw new BusinessException(
                 "Ya existe una transacción con el número: " + numeroTransaccion
             );
@@ -156,6 +209,7 @@ public class TransaccionService {
      * @param idTransaccion identificador de la transacción
      * @throws BusinessException si la transacción no existe
      */
+    @Transactional
     public void eliminarTransaccion(Long idTransaccion) {
 
         TransaccionEntity transaccion = transaccionRepository
@@ -167,5 +221,10 @@ public class TransaccionService {
                 );
 
         transaccionRepository.delete(transaccion);
+        clienteRepository.decrementarTotalTransacciones(transaccion.getCliente().getIdCliente());
+        indiceTexto.eliminar(idTransaccion);
+        indiceNumeros.liberar(transaccion.getNumeroTransaccion());
+        cambioRepository.registrar(List.of(idTransaccion), true);
+        eventos.publishEvent(TransaccionEventoDTO.eliminada(idTransaccion));
     }
 }
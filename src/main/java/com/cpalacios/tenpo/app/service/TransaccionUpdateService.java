@@ -1,9 +1,13 @@
 package com.cpalacios.tenpo.app.service;
 
+import java.util.List;
+import java.util.Objects;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionUpdateDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
@@ -11,7 +15,10 @@ import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,7 +27,11 @@ import lombok.RequiredArgsConstructor;
  *
  * <p>
  * Permite modificar campos de una transacción existente, validando
- * que la transacción exista y que el cliente asociado no se cree de nuevo.
+ * que la transacción exista y que el nuevo número no esté registrado. Si
+ * cambia el nombre del tenpista, la transacción se asocia al cliente con ese
+ * nombre (que se crea si no existe). El cliente anterior no se renombra y,
+ * si queda sin transacciones, se elimina igual que al eliminar su última
+ * transacción.
  * </p>
  */
 @Service
@@ -29,8 +40,13 @@ import lombok.RequiredArgsConstructor;
 public class TransaccionUpdateService {
 
     private final TransaccionRepository transaccionRepository;
+    private final TransaccionCambioRepository cambioRepository;
     private final TransaccionMapper mapper;
     private final ClienteRepository clienteRepository;
+    private final ClienteService clienteService;
+    private final TransaccionTrigramIndex indiceTexto;
+    private final TransaccionNumeroIndex indiceNumeros;
+    private final ApplicationEventPublisher eventos;
 
     /**
      * Actualiza los datos de una transacción existente.
@@ -45,43 +61,96 @@ public class TransaccionUpdateService {
 			TransaccionEntity transaccion = transaccionRepository.findById(dto.getIdTransaccion()).orElseThrow(
 					() -> new BusinessException("No existe una transacción con id: " + dto.getIdTransaccion()));
 
+			Integer numeroAnterior = transaccion.getNumeroTransaccion();
+			boolean cambiaNumero = !Objects.equals(numeroAnterior, dto.getNumeroTransaccion());
+			if (cambiaNumero && indiceNumeros.existe(dto.getNumeroTransaccion(),
+					transaccionRepository::existsByNumeroTransaccion)) {
+				throw new BusinessException("Ya existe una transacción con el número: " + dto.getNumeroTransaccion());
+			}
+
 			// Solo actualizar los campos permitidos
 			transaccion.setNumeroTransaccion(dto.getNumeroTransaccion());
 			transaccion.setMontoPesos(dto.getMontoPesos());
 			transaccion.setGiroComercio(dto.getGiroComercio());
 			transaccion.setFechaTransaccion(dto.getFechaTransaccion());
 			
-			// Manejo de cliente
-	        String nuevoNombreCliente = dto.getNombreTenpista();
-
-			// Actualizar el nombre del cliente existente
-			transaccion.getCliente().setNombreTenpista(dto.getNombreTenpista());
-			
-			  // Verificar si ya existe un cliente con ese nombre
-	        ClienteEntity clienteExistente = clienteRepository.findByNombreTenpistaIgnoreCase(nuevoNombreCliente)
-	                .orElse(null);
-
-	        if (clienteExistente != null) {
-	            // Si existe, no se actualiza el cliente actual, se asocia el existente
-	            transaccion.setCliente(clienteExistente);
-	        } else {
-	            // Si no existe, crear un nuevo cliente y asaociarlo
-	            ClienteEntity nuevoCliente = ClienteEntity.builder()
-	                    .nombreTenpista(nuevoNombreCliente)
-	                    .build();
-	            clienteRepository.save(nuevoCliente);
-
-	            transaccion.setCliente(nuevoCliente);
-	        }
-
+			// Manejo de cliente: se asocia el cliente con el nuevo nombre (creándolo si
+			// no existe) sin modificar el nombre del cliente anterior
+			ClienteEntity clienteAnterior = transaccion.getCliente();
+			ClienteEntity clienteNuevo = clienteService.obtenerOCrear(dto.getNombreTenpista());
+			clienteNuevo = moverCupo(clienteAnterior, clienteNuevo, dto.getNombreTenpista());
+			transaccion.setCliente(clienteNuevo);
 
 			TransaccionEntity updated = transaccionRepository.save(transaccion);
-
-			return mapper.toResponse(updated);
+			if (!mismoCliente(clienteAnterior, clienteNuevo)) {
+				eliminarSiQuedaSinTransacciones(clienteAnterior);
+			}
+			indiceTexto.indexar(updated.getIdTransaccion(), clienteNuevo.getNombreTenpista(),
+					updated.getGiroComercio());
+			if (cambiaNumero) {
+				indiceNumeros.liberar(numeroAnterior);
+				indiceNumeros.registrar(updated.getNumeroTransaccion());
+			}
+
+			cambioRepository.registrar(List.of(updated.getIdTransaccion()), false);
+			TransaccionResponseDTO response = mapper.toResponse(updated);
+			eventos.publishEvent(TransaccionEventoDTO.actualizada(response));
+			return response;
 		} catch (BusinessException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new BusinessException("La Transaccion '" + dto.getNumeroTransaccion() + "' no se logro actualizar");
 		}
 	}
+
+    /**
+     * Traslada la transacción al contador del nuevo cliente cuando cambia la
+     * asociación.
+     *
+     * <p>
+     * Si el nuevo cliente venía de la caché y ya no existe, se vuelve a
+     * resolver una vez antes de rechazar la actualización.
+     * </p>
+     *
+     * @param anterior       cliente asociado antes de la actualización
+     * @param nuevo          cliente asociado después de la actualización
+     * @param nombreTenpista nombre del nuevo cliente
+     * @return cliente al que quedó asociada la transacción
+     * @throws BusinessException si el nuevo cliente ya tiene el máximo de
+     *                           transacciones
+     */
+    private ClienteEntity moverCupo(ClienteEntity anterior, ClienteEntity nuevo, String nombreTenpista) {
+        ClienteEntity destino = nuevo;
+        if (!mismoCliente(anterior, destino) && !reservarCupo(destino)) {
+            // El cliente en caché pudo haber sido eliminado: se vuelve a resolver una vez
+            destino = clienteService.revalidar(nombreTenpista);
+            if (mismoCliente(destino, nuevo) || (!mismoCliente(anterior, destino) && !reservarCupo(destino))) {
+                throw new BusinessException(
+                        "El cliente ya tiene el máximo de " + TransaccionService.MAX_TRANSACCIONES + " transacciones");
+            }
+        }
+        if (!mismoCliente(anterior, destino)) {
+            clienteRepository.decrementarTotalTransacciones(anterior.getIdCliente());
+        }
+        return destino;
+    }
+
+    /**
+     * Elimina el cliente si ya no tiene transacciones asociadas.
+     */
+    private void eliminarSiQuedaSinTransacciones(ClienteEntity cliente) {
+        if (transaccionRepository.countByCliente_IdCliente(cliente.getIdCliente()) == 0) {
+            clienteRepository.delete(cliente);
+            clienteService.invalidar(cliente.getNombreTenpista());
+        }
+    }
+
+    private boolean reservarCupo(ClienteEntity cliente) {
+        return clienteRepository.incrementarTotalTransacciones(cliente.getIdCliente(),
+                TransaccionService.MAX_TRANSACCIONES) == 1;
+    }
+
+    private static boolean mismoCliente(ClienteEntity a, ClienteEntity b) {
+        return Objects.equals(a.getIdCliente(), b.getIdCliente());
+    }
 }
@@ -4,21 +4,109 @@ DROP DATABASE IF EXISTS tenpo_db;
 -- Crear la base de datos desde cero
 CREATE DATABASE tenpo_db;
 
+-- Secuencias con asignacion por bloques de 50 (permiten INSERT en lotes JDBC)
+CREATE SEQUENCE clientes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transacciones_seq START WITH 1 INCREMENT BY 50;
+-- Version del log de cambios: incremento 1, sin bloques, para que crezca en orden de insercion
+CREATE SEQUENCE transacciones_cambios_seq START WITH 1 INCREMENT BY 1;
+
 CREATE TABLE clientes (
-    id_cliente SERIAL PRIMARY KEY,
-    nombre_tenpista VARCHAR(100) NOT NULL
+    id_cliente BIGINT PRIMARY KEY,
+    nombre_tenpista VARCHAR(100) NOT NULL,
+    -- Nombre sin espacios laterales y en minusculas: clave logica del cliente para el upsert
+    nombre_normalizado VARCHAR(100) NOT NULL,
+    -- Contador de transacciones del cliente (maximo 100), mantenido por la aplicacion
+    total_transacciones INT NOT NULL DEFAULT 0,
+
+    CONSTRAINT uk_clientes_nombre_normalizado UNIQUE (nombre_normalizado)
 );
 
 CREATE TABLE transacciones (
-    id_transaccion SERIAL PRIMARY KEY,
+    id_transaccion BIGINT PRIMARY KEY,
     numero_transaccion INT NOT NULL,
     monto_pesos INT NOT NULL CHECK (monto_pesos > 0),
     giro_comercio VARCHAR(100) NOT NULL,
     fecha_transaccion TIMESTAMP NOT NULL,
-    id_cliente INT NOT NULL,
+    id_cliente BIGINT NOT NULL,
 
     CONSTRAINT fk_cliente
         FOREIGN KEY (id_cliente)
         REFERENCES clientes(id_cliente)
         ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Respuestas de /api/transacciones/create registradas por Idempotency-Key
+CREATE TABLE idempotencia (
+    clave VARCHAR(100) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    respuesta VARCHAR(4000) NOT NULL,
+    fecha_creacion TIMESTAMP NOT NULL
+);
+
+-- Log de cambios para la sincronizacion incremental de /api/transacciones/changes
+-- (las eliminaciones quedan como filas con eliminada = true)
+CREATE TABLE transacciones_cambios (
+    id_cambio BIGINT PRIMARY KEY,
+    id_transaccion BIGINT NOT NULL,
+    eliminada BOOLEAN NOT NULL,
+    fecha_cambio TIMESTAMP NOT NULL
+);
+
+-- Cuotas globales del rate limiting distribuido (rate-limit.almacen=DISTRIBUIDO):
+-- tokens disponibles por limite y cliente, y ultimo acceso en milisegundos desde epoch
+CREATE TABLE rate_limit_cuotas (
+    clave VARCHAR(255) PRIMARY KEY,
+    tokens DOUBLE PRECISION NOT NULL,
+    actualizado BIGINT NOT NULL
+);
+
+CREATE INDEX idx_transacciones_cliente ON transacciones (id_cliente);
+
+-- Soporta el listado paginado por cursor (fecha, id)
+CREATE INDEX idx_transacciones_fecha_id ON transacciones (fecha_transaccion, id_transaccion);
+
+-- Busqueda estructurada: igualdad y rangos
+-- El numero de transaccion es unico: la restriccion respalda al indice de numeros en memoria
+CREATE UNIQUE INDEX uk_transacciones_numero ON transacciones (numero_transaccion);
+CREATE INDEX idx_transacciones_monto ON transacciones (monto_pesos);
+
+-- Busqueda por prefijo insensible a mayusculas (LIKE 'texto%')
+CREATE INDEX idx_clientes_nombre_prefijo ON clientes (LOWER(nombre_tenpista) text_pattern_ops);
+CREATE INDEX idx_transacciones_giro_prefijo ON transacciones (LOWER(giro_comercio) text_pattern_ops);
+
+-- Busqueda libre por subcadena (LIKE '%texto%') mediante trigramas
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_clientes_nombre_trgm ON clientes USING gin (LOWER(nombre_tenpista) gin_trgm_ops);
+CREATE INDEX idx_transacciones_giro_trgm ON transacciones USING gin (LOWER(giro_comercio) gin_trgm_ops);
+
+-- Migracion de bases existentes: inicializar el contador de transacciones por cliente
+-- ALTER TABLE clientes ADD COLUMN IF NOT EXISTS total_transacciones INT NOT NULL DEFAULT 0;
+-- UPDATE clientes c SET total_transacciones = (SELECT COUNT(*) FROM transacciones t WHERE t.id_cliente = c.id_cliente);
+
+-- Migracion de bases existentes: ids por secuencia con incremento 50 (el optimizador
+-- pooled de Hibernate usa el valor leido como limite superior del bloque)
+-- CREATE SEQUENCE IF NOT EXISTS clientes_seq INCREMENT BY 50;
+-- CREATE SEQUENCE IF NOT EXISTS transacciones_seq INCREMENT BY 50;
+-- SELECT setval('clientes_seq', COALESCE((SELECT MAX(id_cliente) FROM clientes), 0) + 50, false);
+-- SELECT setval('transacciones_seq', COALESCE((SELECT MAX(id_transaccion) FROM transacciones), 0) + 50, false);
+
+-- Migracion de bases existentes: nombre normalizado unico (antes de crear la restriccion se
+-- deben fusionar los clientes duplicados por diferencias de mayusculas o espacios)
+-- ALTER TABLE clientes ADD COLUMN IF NOT EXISTS nombre_normalizado VARCHAR(100);
+-- UPDATE clientes SET nombre_normalizado = LOWER(TRIM(nombre_tenpista));
+-- ALTER TABLE clientes ALTER COLUMN nombre_normalizado SET NOT NULL;
+-- ALTER TABLE clientes ADD CONSTRAINT uk_clientes_nombre_normalizado UNIQUE (nombre_normalizado);
+
+-- Migracion de bases existentes: numero de transaccion unico (antes se deben resolver los duplicados)
+-- DROP INDEX IF EXISTS idx_transacciones_numero;
+-- CREATE UNIQUE INDEX uk_transacciones_numero ON transacciones (numero_transaccion);
+
+-- Migracion de bases existentes: log de cambios (las transacciones existentes se sincronizan con
+-- una carga completa antes de la primera version)
+-- CREATE SEQUENCE IF NOT EXISTS transacciones_cambios_seq INCREMENT BY 1;
+-- CREATE TABLE IF NOT EXISTS transacciones_cambios (id_cambio BIGINT PRIMARY KEY, id_transaccion BIGINT NOT NULL,
+--     eliminada BOOLEAN NOT NULL, fecha_cambio TIMESTAMP NOT NULL);
+
+-- Migracion de bases existentes: cuotas del rate limiting distribuido
+-- CREATE TABLE IF NOT EXISTS rate_limit_cuotas (clave VARCHAR(255) PRIMARY KEY, tokens DOUBLE PRECISION NOT NULL,
+--     actualizado BIGINT NOT NULL);
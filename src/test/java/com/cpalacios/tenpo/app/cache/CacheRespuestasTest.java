@@ -0,0 +1,62 @@
+package com.cpalacios.tenpo.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CacheRespuestasTest {
+
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    @Test
+    void obtener_MismaClave_DeberiaConsultarUnaSolaVez() throws Exception {
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), DataSize.ofMegabytes(1));
+
+        byte[] primera = cache.obtener("search", "carl", 1, consulta(List.of("a", "b")));
+        byte[] segunda = cache.obtener("search", "carl", 1, consulta(List.of("a", "b")));
+
+        assertEquals("[\"a\",\"b\"]", new String(primera, StandardCharsets.UTF_8));
+        assertSame(primera, segunda);
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void obtener_OtraVersionUOtroFiltro_DeberiaVolverAConsultar() throws Exception {
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), DataSize.ofMegabytes(1));
+
+        cache.obtener("search", "carl", 1, consulta(List.of()));
+        cache.obtener("search", "carl", 2, consulta(List.of()));
+        cache.obtener("search", "ana", 2, consulta(List.of()));
+        cache.obtener("all", "ana", 2, consulta(List.of()));
+
+        assertEquals(4, consultas.get());
+    }
+
+    @Test
+    void obtener_DeberiaAcotarLaCachePorBytes() throws Exception {
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), DataSize.ofKilobytes(64));
+        String grande = "x".repeat(10_000);
+
+        for (int version = 0; version < 100; version++) {
+            cache.obtener("all", "", version, consulta(List.of(grande)));
+        }
+
+        long tamano = cache.tamanoEstimado();
+        assertTrue(tamano > 0 && tamano <= DataSize.ofKilobytes(64).toBytes(), "Bytes en caché: " + tamano);
+    }
+
+    private Supplier<Object> consulta(Object resultado) {
+        return () -> {
+            consultas.incrementAndGet();
+            return resultado;
+        };
+    }
+}
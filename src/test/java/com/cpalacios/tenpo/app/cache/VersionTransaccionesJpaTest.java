@@ -0,0 +1,75 @@
+package com.cpalacios.tenpo.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+
+/**
+ * Pruebas de {@link VersionTransacciones} sobre H2 con escrituras
+ * confirmadas por separado, como las de otras instancias.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(VersionTransacciones.class)
+class VersionTransaccionesJpaTest {
+
+    @Autowired
+    private VersionTransacciones version;
+
+    @Autowired
+    private TransaccionCambioRepository cambioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiar() {
+        cambioRepository.deleteAll();
+    }
+
+    @Test
+    void sincronizar_CambioConfirmadoFueraDeOrden_DeberiaCambiarLaVersion() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        // El primer escritor toma la versión menor y confirma al final
+        CompletableFuture<Void> primero = CompletableFuture.runAsync(() -> transaccion.executeWithoutResult(estado -> {
+            cambioRepository.registrar(List.of(1L), false);
+            registrado.countDown();
+            try {
+                confirmar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(registrado.await(10, TimeUnit.SECONDS));
+            transaccion.executeWithoutResult(estado -> cambioRepository.registrar(List.of(2L), false));
+            version.sincronizar();
+        } finally {
+            confirmar.countDown();
+        }
+        primero.get(10, TimeUnit.SECONDS);
+        long antes = version.actual();
+
+        version.sincronizar();
+
+        assertEquals(antes + 1, version.actual());
+        assertEquals(2, cambioRepository.count());
+    }
+}
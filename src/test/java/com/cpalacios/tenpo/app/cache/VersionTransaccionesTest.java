@@ -0,0 +1,51 @@
+package com.cpalacios.tenpo.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.cpalacios.tenpo.app.persistence.projection.EstadoLogCambios;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+
+class VersionTransaccionesTest {
+
+    private final TransaccionCambioRepository cambioRepository = mock(TransaccionCambioRepository.class);
+    private final VersionTransacciones version = new VersionTransacciones(cambioRepository);
+
+    @Test
+    void alConfirmar_DeberiaCambiarLaVersionYElEtag() {
+        long inicial = version.actual();
+        String etagInicial = version.etag(inicial);
+
+        version.alConfirmar(TransaccionEventoDTO.eliminada(1L));
+
+        assertEquals(inicial + 1, version.actual());
+        assertNotEquals(etagInicial, version.etag(version.actual()));
+    }
+
+    @Test
+    void etag_DeberiaSerFuerteYDistintoEntreInstancias() {
+        String etag = version.etag(5);
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotEquals(etag, new VersionTransacciones(cambioRepository).etag(5));
+    }
+
+    @Test
+    void sincronizar_DeberiaCambiarLaVersionSoloSiCambioElLog() {
+        when(cambioRepository.buscarEstado()).thenReturn(new EstadoLogCambios(3L, 10L),
+                new EstadoLogCambios(3L, 10L), new EstadoLogCambios(4L, 12L));
+
+        version.sincronizar();
+        long tras = version.actual();
+        version.sincronizar();
+
+        assertEquals(tras, version.actual());
+
+        version.sincronizar();
+
+        assertEquals(tras + 1, version.actual());
+    }
+}
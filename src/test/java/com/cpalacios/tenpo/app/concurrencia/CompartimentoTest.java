@@ -0,0 +1,60 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CompartimentoTest {
+
+    @Test
+    void entrar_SinTurnosNiCola_DeberiaRechazarDeInmediato() throws Exception {
+        Compartimento compartimento = new Compartimento(1, 0, Duration.ofSeconds(10));
+        assertTrue(compartimento.entrar());
+
+        long inicio = System.nanoTime();
+        assertFalse(compartimento.entrar());
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, compartimento.cantidadRechazadasColaLlena());
+        assertEquals(1, compartimento.getEnCurso());
+    }
+
+    @Test
+    void entrar_SinTurnoATiempo_DeberiaRechazarTrasLaEsperaMaxima() throws Exception {
+        Compartimento compartimento = new Compartimento(1, 1, Duration.ofMillis(50));
+        assertTrue(compartimento.entrar());
+
+        assertFalse(compartimento.entrar());
+
+        assertEquals(1, compartimento.cantidadRechazadasEspera());
+        assertEquals(0, compartimento.getEnCola());
+    }
+
+    @Test
+    void entrar_EnCola_DeberiaObtenerElTurnoAlLiberarse() throws Exception {
+        Compartimento compartimento = new Compartimento(1, 1, Duration.ofSeconds(10));
+        assertTrue(compartimento.entrar());
+
+        CompletableFuture<Boolean> enEspera = CompletableFuture.supplyAsync(() -> {
+            try {
+                return compartimento.entrar();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (compartimento.getEnCola() == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(compartimento.entrar(), "La cola está llena");
+
+        compartimento.salir();
+
+        assertTrue(enEspera.get(5, TimeUnit.SECONDS));
+        assertEquals(0, compartimento.getEnCola());
+        assertEquals(1, compartimento.getEnCurso());
+    }
+}
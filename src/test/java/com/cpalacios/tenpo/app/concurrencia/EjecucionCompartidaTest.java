@@ -0,0 +1,127 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EjecucionCompartidaTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch iniciada = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @AfterEach
+    void detener() {
+        liberar.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void ejecutar_MismaClaveSimultanea_DeberiaEjecutarUnaVezYCompartirElResultado() throws Exception {
+        EjecucionCompartida<String, String> compartida = new EjecucionCompartida<>("prueba", Duration.ofSeconds(10));
+
+        List<Future<String>> resultados = lanzar(compartida, "carl", 5, () -> "resultado");
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertEquals("resultado", resultado.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, ejecuciones.get());
+        assertEquals(1, compartida.cantidadEjecuciones());
+        assertEquals(4, compartida.cantidadCompartidas());
+        assertEquals(0.8, compartida.tasaCompartidas(), 1e-9);
+    }
+
+    @Test
+    void ejecutar_OperacionFalla_DeberiaEntregarElErrorATodos() throws Exception {
+        EjecucionCompartida<String, String> compartida = new EjecucionCompartida<>("prueba", Duration.ofSeconds(10));
+        IllegalStateException error = new IllegalStateException("Base de datos no disponible");
+
+        List<Future<String>> resultados = lanzar(compartida, "carl", 3, () -> {
+            throw error;
+        });
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> resultado.get(5, TimeUnit.SECONDS));
+            assertSame(error, ex.getCause());
+        }
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_EsperaVencida_DeberiaFallarSoloParaQuienEspera() throws Exception {
+        EjecucionCompartida<String, String> compartida = new EjecucionCompartida<>("prueba", Duration.ofMillis(50));
+
+        List<Future<String>> resultados = lanzar(compartida, "carl", 2, () -> "resultado");
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> resultados.get(1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+        assertEquals(1, compartida.cantidadEsperasVencidas());
+
+        liberar.countDown();
+        assertEquals("resultado", resultados.get(0).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void ejecutar_OtraClaveOTerminada_DeberiaEjecutarDeNuevo() throws Exception {
+        EjecucionCompartida<String, String> compartida = new EjecucionCompartida<>("prueba", Duration.ofSeconds(10));
+        liberar.countDown();
+
+        assertEquals("carl", compartida.ejecutar("carl", () -> "carl"));
+        assertEquals("carl", compartida.ejecutar("carl", () -> "carl"));
+        assertEquals("ana", compartida.ejecutar("ana", () -> "ana"));
+
+        assertEquals(3, compartida.cantidadEjecuciones());
+        assertEquals(0, compartida.cantidadCompartidas());
+    }
+
+    /**
+     * Lanza una primera ejecución que queda bloqueada hasta {@link #liberar} y
+     * luego {@code cantidad - 1} solicitudes más con la misma clave, esperando
+     * a que todas se unan a la primera.
+     */
+    private List<Future<String>> lanzar(EjecucionCompartida<String, String> compartida, String clave, int cantidad,
+            Supplier<String> operacion) throws Exception {
+        List<Future<String>> resultados = new ArrayList<>();
+        resultados.add(executor.submit(() -> compartida.ejecutar(clave, () -> {
+            ejecuciones.incrementAndGet();
+            iniciada.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return operacion.get();
+        })));
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i < cantidad; i++) {
+            resultados.add(executor.submit(() -> compartida.ejecutar(clave, () -> {
+                ejecuciones.incrementAndGet();
+                return operacion.get();
+            })));
+        }
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (compartida.cantidadCompartidas() < cantidad - 1 && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        return resultados;
+    }
+}
@@ -0,0 +1,190 @@
+package com.cpalacios.tenpo.app.concurrencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+class LimitadorConcurrenciaTest {
+
+    private static final long MILISEGUNDO = 1_000_000L;
+
+    @Test
+    void adquirir_DeberiaRechazarAlAlcanzarElLimite() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(2, 1, 10, 1.5, Duration.ofMinutes(5));
+
+        assertTrue(limitador.adquirir());
+        assertTrue(limitador.adquirir());
+        assertFalse(limitador.adquirir());
+        assertEquals(1, limitador.cantidadRechazadas());
+
+        limitador.liberar();
+        assertTrue(limitador.adquirir());
+    }
+
+    @Test
+    void liberar_LatenciaCreciente_DeberiaReducirElLimiteHastaElMinimo() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(20, 4, 100, 1.5, Duration.ofMinutes(5));
+        long ahora = 0;
+        ocupar(limitador, 20);
+        limitador.liberar(10 * MILISEGUNDO, ahora);
+        limitador.adquirir();
+
+        for (int i = 0; i < 100; i++) {
+            limitador.liberar(100 * MILISEGUNDO, ahora += MILISEGUNDO);
+            limitador.adquirir();
+        }
+
+        assertEquals(4, limitador.getLimite());
+    }
+
+    @Test
+    void liberar_LatenciaEstableConCargaAlta_DeberiaAumentarElLimite() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(10, 2, 40, 1.5, Duration.ofMinutes(5));
+        long ahora = 0;
+
+        for (int i = 0; i < 200; i++) {
+            ocupar(limitador, limitador.getLimite());
+            limitador.liberar(10 * MILISEGUNDO, ahora += MILISEGUNDO);
+        }
+
+        assertEquals(40, limitador.getLimite());
+    }
+
+    @Test
+    void liberar_PocaCarga_NoDeberiaAumentarElLimite() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(10, 2, 40, 1.5, Duration.ofMinutes(5));
+        long ahora = 0;
+
+        for (int i = 0; i < 200; i++) {
+            limitador.adquirir();
+            limitador.liberar(10 * MILISEGUNDO, ahora += MILISEGUNDO);
+        }
+
+        assertEquals(10, limitador.getLimite());
+    }
+
+    @Test
+    void liberar_TrasElReinicio_DeberiaReducirElLimiteYMedirDeNuevoLaLatencia() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(20, 2, 40, 1.5, Duration.ofSeconds(1));
+        limitador.adquirir();
+        limitador.liberar(10 * MILISEGUNDO, 0);
+        limitador.adquirir();
+
+        limitador.liberar(10 * MILISEGUNDO, 2_000 * MILISEGUNDO);
+
+        assertEquals(10, limitador.getLimite());
+    }
+
+    /**
+     * Escenario de carga: un backend con 4 conexiones (como el pool de la base
+     * de datos) recibe solicitudes de 32 hilos. Sin límite, las solicitudes
+     * esperan conexión y la latencia crece con la cola; con el limitador, el
+     * exceso se rechaza de inmediato y el p99 de las admitidas se mantiene
+     * cerca del tiempo de servicio. Se descarta el primer medio segundo, en
+     * que el límite converge desde su valor inicial.
+     *
+     * <p>
+     * Mide latencias reales, por lo que se ejecuta solo a pedido:
+     * </p>
+     *
+     * <pre>
+     * mvn test -Dtest=LimitadorConcurrenciaTest -Dbenchmark=true
+     * </pre>
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void carga_Sobrecarga_DeberiaMantenerAcotadoElP99DeLasAdmitidas() throws Exception {
+        long[] sinLimite = ejecutarCarga(null);
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(20, 1, 100, 1.5, Duration.ofMinutes(5));
+        long[] conLimite = ejecutarCarga(limitador);
+
+        long p99SinLimite = percentil(sinLimite, 0.99);
+        long p99ConLimite = percentil(conLimite, 0.99);
+        System.out.printf("p99 sin límite=%.1f ms (%d solicitudes), con límite=%.1f ms (%d admitidas, %d "
+                + "rechazadas, límite final %d)%n", p99SinLimite / 1e6, sinLimite.length, p99ConLimite / 1e6,
+                conLimite.length, limitador.cantidadRechazadas(), limitador.getLimite());
+
+        assertTrue(p99ConLimite * 2 < p99SinLimite,
+                "p99 con límite " + p99ConLimite / 1e6 + " ms, sin límite " + p99SinLimite / 1e6 + " ms");
+        assertTrue(limitador.getLimite() < 32, "Límite final: " + limitador.getLimite());
+    }
+
+    /**
+     * Envía solicitudes de 32 hilos durante 2 segundos a un backend de 4
+     * conexiones con 2 ms de servicio.
+     *
+     * @return latencias de las solicitudes admitidas tras el primer medio
+     *         segundo, en nanosegundos
+     */
+    private static long[] ejecutarCarga(LimitadorConcurrencia limitador) throws Exception {
+        int hilos = 32;
+        Semaphore conexiones = new Semaphore(4, true);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        long medicion = System.nanoTime() + 500 * MILISEGUNDO;
+        long fin = medicion + 1_500 * MILISEGUNDO;
+        List<Future<List<Long>>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    List<Long> latencias = new ArrayList<>();
+                    while (System.nanoTime() < fin) {
+                        if (limitador != null && !limitador.adquirir()) {
+                            // El cliente rechazado reintenta más tarde
+                            TimeUnit.MILLISECONDS.sleep(2);
+                            continue;
+                        }
+                        long desde = System.nanoTime();
+                        conexiones.acquire();
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(2);
+                        } finally {
+                            conexiones.release();
+                        }
+                        long hasta = System.nanoTime();
+                        if (limitador != null) {
+                            limitador.liberar(hasta - desde, hasta);
+                        }
+                        if (desde - medicion > 0) {
+                            latencias.add(hasta - desde);
+                        }
+                    }
+                    return latencias;
+                }));
+            }
+            inicio.countDown();
+            List<Long> todas = new ArrayList<>();
+            for (Future<List<Long>> resultado : resultados) {
+                todas.addAll(resultado.get());
+            }
+            return todas.stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long percentil(long[] latencias, double percentil) {
+        long[] ordenadas = latencias.clone();
+        Arrays.sort(ordenadas);
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(percentil * ordenadas.length) - 1)];
+    }
+
+    private static void ocupar(LimitadorConcurrencia limitador, int cantidad) {
+        while (limitador.getEnCurso() < cantidad && limitador.adquirir()) {
+            // Llena el límite para simular carga
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import jakarta.servlet.DispatcherType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrenciaInterceptorTest {
+
+    private ConcurrenciaInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrenciaProperties properties = new ConcurrenciaProperties();
+        properties.setLectura(new ConcurrenciaProperties.Presupuesto(2, 1, 10, 10, 0));
+        properties.setEscritura(new ConcurrenciaProperties.Presupuesto(1, 1, 10, 10, 0));
+        interceptor = new ConcurrenciaInterceptor(properties);
+    }
+
+    @Test
+    void preHandle_LimiteAlcanzado_DeberiaResponder503ConRetryAfter() throws Exception {
+        assertTrue(preHandle(new MockHttpServletRequest("POST", "/api/transacciones/create")));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean admitida = interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/transacciones/update"),
+                response, new Object());
+
+        assertFalse(admitida);
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void preHandle_LecturasYEscrituras_DeberianTenerLimitesSeparados() throws Exception {
+        assertTrue(preHandle(new MockHttpServletRequest("DELETE", "/api/transacciones/delete")));
+
+        assertTrue(preHandle(new MockHttpServletRequest("GET", "/api/transacciones/search")));
+        assertTrue(preHandle(new MockHttpServletRequest("GET", "/api/transacciones/page")));
+        assertFalse(preHandle(new MockHttpServletRequest("GET", "/api/transacciones/page")));
+    }
+
+    @Test
+    void afterCompletion_DeberiaLiberarElLugar() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transacciones/create");
+        preHandle(request);
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+
+        assertEquals(0, interceptor.getEscritura().limitador().getEnCurso());
+        assertTrue(preHandle(new MockHttpServletRequest("POST", "/api/transacciones/create")));
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_DeberiaLiberarElLugarSinContarElDespachoAsincrono() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transacciones/create/async");
+        preHandle(request);
+
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), new Object());
+        request.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(preHandle(request));
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+
+        assertEquals(0, interceptor.getEscritura().limitador().getEnCurso());
+    }
+
+    @Test
+    void preHandle_CompartimentoDeLecturaLleno_NoDeberiaBloquearLasEscrituras() throws Exception {
+        ConcurrenciaProperties properties = new ConcurrenciaProperties();
+        properties.setLectura(new ConcurrenciaProperties.Presupuesto(10, 1, 10, 2, 1));
+        properties.getLectura().setEsperaMaxima(Duration.ofMillis(20));
+        interceptor = new ConcurrenciaInterceptor(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+
+        assertTrue(preHandle(new MockHttpServletRequest("GET", "/api/transacciones/search")));
+        assertTrue(preHandle(new MockHttpServletRequest("GET", "/api/transacciones/all")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/transacciones/search"), response,
+                new Object()));
+
+        assertEquals(503, response.getStatus());
+        assertEquals(1, registry.get("compartimento.rechazadas").tag("compartimento", "lectura")
+                .tag("causa", "espera").functionCounter().count());
+        assertEquals(2, registry.get("compartimento.en.curso").tag("compartimento", "lectura").gauge().value());
+        assertTrue(preHandle(new MockHttpServletRequest("POST", "/api/transacciones/create")));
+    }
+
+    private boolean preHandle(MockHttpServletRequest request) throws Exception {
+        return interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+}
@@ -0,0 +1,48 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.replica.EnrutadorReplicas;
+import com.cpalacios.tenpo.app.persistence.replica.Replica;
+
+class DataSourceConfigTest {
+
+    private final DataSource escritura = new DriverManagerDataSource("jdbc:h2:mem:pool-escritura;DB_CLOSE_DELAY=-1");
+    private final DataSource lectura = new DriverManagerDataSource("jdbc:h2:mem:pool-lectura;DB_CLOSE_DELAY=-1");
+    private final DataSource dataSource = DataSourceConfig.enrutar(
+            new EnrutadorReplicas(escritura, List.of(new Replica("lectura", lectura))));
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(
+            new DataSourceTransactionManager(dataSource));
+
+    @Test
+    void enrutar_TransaccionDeSoloLectura_DeberiaUsarElPoolDeLectura() {
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals("POOL-LECTURA", transactionTemplate.execute(estado -> baseDeDatos()));
+    }
+
+    @Test
+    void enrutar_TransaccionDeEscritura_DeberiaUsarElPoolDeEscritura() {
+        assertEquals("POOL-ESCRITURA", transactionTemplate.execute(estado -> baseDeDatos()));
+    }
+
+    @Test
+    void enrutar_SinTransaccion_DeberiaUsarElPoolDeEscritura() {
+        assertEquals("POOL-ESCRITURA", baseDeDatos());
+    }
+
+    private String baseDeDatos() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+}
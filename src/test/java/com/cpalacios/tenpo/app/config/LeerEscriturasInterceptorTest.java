@@ -0,0 +1,96 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.persistence.replica.EnrutadorReplicas;
+import com.cpalacios.tenpo.app.persistence.replica.EscriturasRecientes;
+import com.cpalacios.tenpo.app.persistence.replica.Replica;
+
+class LeerEscriturasInterceptorTest {
+
+    private final DataSource primario = new DriverManagerDataSource("jdbc:h2:mem:leer-primario;DB_CLOSE_DELAY=-1");
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:leer-replica;DB_CLOSE_DELAY=-1");
+    private final DataSource dataSource = DataSourceConfig.enrutar(
+            new EnrutadorReplicas(primario, List.of(new Replica("replica", replica))));
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate lectura = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final EscriturasRecientes escriturasRecientes = new EscriturasRecientes(Duration.ofSeconds(5), 100);
+    private final LeerEscriturasInterceptor interceptor = new LeerEscriturasInterceptor(escriturasRecientes,
+            new ConcurrenciaProperties());
+
+    LeerEscriturasInterceptorTest() {
+        lectura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void limpiar() {
+        ContextoReplica.limpiar();
+    }
+
+    @Test
+    void preHandle_LecturaTrasEscribir_DeberiaLeerDelPrimario() throws Exception {
+        completar(solicitud("POST", "cliente-1"));
+
+        MockHttpServletRequest request = solicitud("GET", "cliente-1");
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals("LEER-PRIMARIO", leer());
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertEquals("LEER-REPLICA", leer());
+    }
+
+    @Test
+    void preHandle_OtroCliente_DeberiaLeerDeLaReplica() throws Exception {
+        completar(solicitud("POST", "cliente-1"));
+
+        MockHttpServletRequest request = solicitud("GET", "cliente-2");
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals("LEER-REPLICA", leer());
+    }
+
+    @Test
+    void preHandle_VentanaVencida_DeberiaLeerDeLaReplica() throws Exception {
+        EscriturasRecientes ventanaCorta = new EscriturasRecientes(Duration.ofMillis(1), 100);
+        LeerEscriturasInterceptor conVentanaCorta = new LeerEscriturasInterceptor(ventanaCorta,
+                new ConcurrenciaProperties());
+        conVentanaCorta.afterCompletion(solicitud("DELETE", "cliente-1"), new MockHttpServletResponse(), null, null);
+        Thread.sleep(20);
+
+        conVentanaCorta.preHandle(solicitud("GET", "cliente-1"), new MockHttpServletResponse(), null);
+
+        assertEquals("LEER-REPLICA", leer());
+    }
+
+    private void completar(MockHttpServletRequest request) throws Exception {
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+    }
+
+    private static MockHttpServletRequest solicitud(String metodo, String cliente) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, "/api/transacciones");
+        request.addHeader("X-Client-Id", cliente);
+        return request;
+    }
+
+    private String leer() {
+        return lectura.execute(estado -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitRecargaTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private RateLimitingInterceptor interceptor;
+    private RateLimitRecarga recarga;
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("aplicacion", Map.of(
+                "rate-limit.defecto.limite", "5")));
+        archivo = directorio.resolve("rate-limit.properties");
+        interceptor = new RateLimitingInterceptor(new RateLimitProperties(), null);
+        recarga = new RateLimitRecarga(interceptor, environment, archivo);
+    }
+
+    @Test
+    void revisar_ArchivoModificado_DeberiaAplicarSusReglas() throws Exception {
+        escribir("""
+                rate-limit.reglas[0].ruta=/api/transacciones/create/**
+                rate-limit.reglas[0].metodos=POST
+                rate-limit.reglas[0].costo=5
+                """, 1);
+
+        recarga.revisar();
+
+        assertEquals(200, ejecutar("/api/transacciones/create").getStatus());
+        assertEquals(429, ejecutar("/api/transacciones/create/async").getStatus());
+    }
+
+    @Test
+    void revisar_ArchivoInvalido_DeberiaConservarLasReglasVigentes() throws Exception {
+        escribir("rate-limit.excluidas=/api/transacciones/create\n", 1);
+        recarga.revisar();
+        escribir("rate-limit.reglas[0].ruta=/api/transacciones/create\nrate-limit.reglas[0].costo=50\n", 2);
+
+        recarga.revisar();
+
+        MockHttpServletResponse response = ejecutar("/api/transacciones/create");
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(RateLimitingInterceptor.HEADER_RESTANTES), "La ruta sigue excluida");
+    }
+
+    @Test
+    void revisar_SinArchivo_NoDeberiaModificarLasReglas() throws Exception {
+        recarga.revisar();
+
+        assertEquals("2", ejecutar("/api/transacciones/create").getHeader(RateLimitingInterceptor.HEADER_RESTANTES));
+    }
+
+    private void escribir(String contenido, int version) throws Exception {
+        Files.writeString(archivo, contenido);
+        Files.setLastModifiedTime(archivo, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + version)));
+    }
+
+    private MockHttpServletResponse ejecutar(String ruta) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ruta);
+        request.addHeader("X-Client-Id", "cliente");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+}
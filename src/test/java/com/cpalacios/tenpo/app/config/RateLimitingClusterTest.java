@@ -0,0 +1,174 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.cpalacios.tenpo.app.ratelimit.AlmacenCuotas;
+import com.cpalacios.tenpo.app.ratelimit.AlmacenCuotasMemoria;
+import com.cpalacios.tenpo.app.ratelimit.Concesion;
+import com.cpalacios.tenpo.app.ratelimit.LimiteTasa;
+
+/**
+ * Simulación de varias instancias, cada una con su propio contexto de Spring
+ * y su {@link RateLimitingInterceptor}, que comparten un mismo
+ * {@link AlmacenCuotas}.
+ */
+class RateLimitingClusterTest {
+
+    private static final int NODOS = 4;
+    private static final int HILOS_POR_NODO = 2;
+
+    private final AlmacenContador almacen = new AlmacenContador(new AlmacenCuotasMemoria());
+    private final List<AnnotationConfigApplicationContext> contextos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        contextos.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Test
+    void preHandle_VariasInstancias_DeberianAplicarUnUnicoLimiteGlobal() throws Exception {
+        List<RateLimitingInterceptor> nodos = iniciarNodos(Map.of(
+                "rate-limit.defecto.limite", "100",
+                "rate-limit.defecto.periodo", "PT1H",
+                "rate-limit.distribuido.tamano-arriendo", "10",
+                "rate-limit.distribuido.duracion-arriendo", "PT0.2S"));
+
+        long admitidas = ejecutar(nodos, 100, 1);
+        // Los tokens que quedaron arrendados vuelven al almacén al vencer el arriendo
+        Thread.sleep(500);
+        admitidas += ejecutar(nodos, 100, 1);
+        long solicitudes = 2L * NODOS * HILOS_POR_NODO * 100;
+
+        double remotasPorSolicitud = (double) almacen.llamadas.get() / solicitudes;
+        System.out.printf("admitidas=%d de %d, llamadas remotas por solicitud=%.3f%n", admitidas, solicitudes,
+                remotasPorSolicitud);
+        // Con un límite por instancia se habrían admitido 400
+        assertTrue(admitidas >= 100 && admitidas <= 101, "Admitidas: " + admitidas);
+        assertTrue(remotasPorSolicitud < 0.1, "Llamadas remotas por solicitud: " + remotasPorSolicitud);
+    }
+
+    @Test
+    void preHandle_DentroDelLimite_DeberiaConsultarElAlmacenUnaVezPorArriendo() throws Exception {
+        List<RateLimitingInterceptor> nodos = iniciarNodos(Map.of(
+                "rate-limit.defecto.limite", "1000000",
+                "rate-limit.defecto.periodo", "PT1S",
+                "rate-limit.defecto.rafaga", "100000",
+                "rate-limit.distribuido.tamano-arriendo", "50",
+                "rate-limit.distribuido.duracion-arriendo", "PT10S"));
+
+        long admitidas = ejecutar(nodos, 2_500, 8);
+        long solicitudes = (long) NODOS * HILOS_POR_NODO * 2_500;
+
+        double remotasPorSolicitud = (double) almacen.llamadas.get() / solicitudes;
+        System.out.printf("admitidas=%d de %d, llamadas remotas por solicitud=%.3f%n", admitidas, solicitudes,
+                remotasPorSolicitud);
+        assertEquals(solicitudes, admitidas);
+        assertTrue(remotasPorSolicitud <= 1.0 / 50 + 0.01, "Llamadas remotas por solicitud: " + remotasPorSolicitud);
+    }
+
+    private List<RateLimitingInterceptor> iniciarNodos(Map<String, Object> propiedades) {
+        List<RateLimitingInterceptor> nodos = new ArrayList<>();
+        for (int i = 0; i < NODOS; i++) {
+            AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext();
+            contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("nodo", Map.of(
+                    "rate-limit.almacen", "DISTRIBUIDO")));
+            contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("limite", propiedades));
+            contexto.registerBean(AlmacenCuotas.class, () -> almacen);
+            contexto.register(Nodo.class);
+            contexto.refresh();
+            contextos.add(contexto);
+            nodos.add(contexto.getBean(RateLimitingInterceptor.class));
+        }
+        return nodos;
+    }
+
+    /**
+     * Envía solicitudes concurrentes a todas las instancias, repartidas entre
+     * la cantidad de clientes indicada.
+     *
+     * @return solicitudes admitidas
+     */
+    private static long ejecutar(List<RateLimitingInterceptor> nodos, int solicitudesPorHilo, int clientes)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nodos.size() * HILOS_POR_NODO);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (RateLimitingInterceptor nodo : nodos) {
+                for (int h = 0; h < HILOS_POR_NODO; h++) {
+                    resultados.add(executor.submit(() -> {
+                        inicio.await();
+                        int admitidas = 0;
+                        for (int i = 0; i < solicitudesPorHilo; i++) {
+                            MockHttpServletRequest request = new MockHttpServletRequest("POST",
+                                    "/api/transacciones/create");
+                            request.addHeader("X-Client-Id", "cliente-" + (i % clientes));
+                            if (nodo.preHandle(request, new MockHttpServletResponse(), new Object())) {
+                                admitidas++;
+                            }
+                        }
+                        return admitidas;
+                    }));
+                }
+            }
+            inicio.countDown();
+            long admitidas = 0;
+            for (Future<Integer> resultado : resultados) {
+                admitidas += resultado.get();
+            }
+            return admitidas;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(RateLimitProperties.class)
+    @Import(RateLimitingInterceptor.class)
+    static class Nodo {
+    }
+
+    /**
+     * Almacén que cuenta las llamadas remotas.
+     */
+    private static final class AlmacenContador implements AlmacenCuotas {
+
+        private final AlmacenCuotas almacen;
+        private final AtomicLong llamadas = new AtomicLong();
+
+        AlmacenContador(AlmacenCuotas almacen) {
+            this.almacen = almacen;
+        }
+
+        @Override
+        public Concesion arrendar(String clave, int solicitados, LimiteTasa limite) {
+            llamadas.incrementAndGet();
+            return almacen.arrendar(clave, solicitados, limite);
+        }
+
+        @Override
+        public void devolver(String clave, long devueltos, LimiteTasa limite) {
+            llamadas.incrementAndGet();
+            almacen.devolver(clave, devueltos, limite);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cpalacios.tenpo.app.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitingInterceptorTest {
+
+    private RateLimitProperties properties;
+    private RateLimitingInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Regla lote = new RateLimitProperties.Regla();
+        lote.setRuta("/api/transacciones/create/batch");
+        lote.setMetodos(List.of("POST"));
+        lote.setLimite(1);
+        lote.setPeriodo(Duration.ofHours(1));
+
+        properties = new RateLimitProperties();
+        properties.getReglas().add(lote);
+        interceptor = new RateLimitingInterceptor(properties, null);
+    }
+
+    @Test
+    void preHandle_DeberiaInformarLasSolicitudesRestantes() throws Exception {
+        MockHttpServletResponse response = ejecutar("/api/transacciones/create", "cliente");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("2", response.getHeader(RateLimitingInterceptor.HEADER_RESTANTES));
+    }
+
+    @Test
+    void preHandle_LimiteExcedido_DeberiaResponder429ConRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, ejecutar("/api/transacciones/create", "cliente").getStatus());
+        }
+
+        MockHttpServletResponse response = ejecutar("/api/transacciones/create", "cliente");
+
+        assertEquals(429, response.getStatus());
+        assertEquals("0", response.getHeader(RateLimitingInterceptor.HEADER_RESTANTES));
+        assertEquals("20", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void preHandle_RutaConLimitePropio_DeberiaUsarSuLimite() throws Exception {
+        assertEquals(200, ejecutar("/api/transacciones/create/batch", "cliente").getStatus());
+
+        MockHttpServletResponse response = ejecutar("/api/transacciones/create/batch", "cliente");
+
+        assertEquals(429, response.getStatus());
+        assertEquals("3600", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, ejecutar("/api/transacciones/create", "cliente").getStatus());
+    }
+
+    @Test
+    void preHandle_RutaExcluida_NoDeberiaLimitarNiExigirClientId() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, ejecutar("GET", "/api/transacciones/status/abc-123", null).getStatus());
+            assertEquals(200, ejecutar("GET", "/api/transacciones/search/advanced", null).getStatus());
+        }
+        // Los segmentos se comparan completos, no como subcadenas
+        assertEquals(400, ejecutar("GET", "/api/transacciones/allx", null).getStatus());
+    }
+
+    @Test
+    void preHandle_ReglaConCosto_DeberiaConsumirVariasSolicitudesDelLimitePorDefecto() throws Exception {
+        RateLimitProperties.Regla busqueda = new RateLimitProperties.Regla();
+        busqueda.setRuta("/api/transacciones/search/**");
+        busqueda.setCosto(2);
+        properties.getReglas().add(busqueda);
+        interceptor = new RateLimitingInterceptor(properties, null);
+
+        MockHttpServletResponse response = ejecutar("GET", "/api/transacciones/search", "cliente");
+        assertEquals(200, response.getStatus());
+        assertEquals("1", response.getHeader(RateLimitingInterceptor.HEADER_RESTANTES));
+
+        assertEquals(429, ejecutar("GET", "/api/transacciones/search/advanced", "cliente").getStatus());
+        assertEquals(200, ejecutar("/api/transacciones/create", "cliente").getStatus());
+    }
+
+    @Test
+    void preHandle_ReglaDeOtroMetodo_DeberiaUsarElLimitePorDefecto() throws Exception {
+        assertEquals(200, ejecutar("DELETE", "/api/transacciones/create/batch", "cliente").getStatus());
+        assertEquals(200, ejecutar("DELETE", "/api/transacciones/create/batch", "cliente").getStatus());
+    }
+
+    @Test
+    void aplicar_DeberiaReemplazarLasReglasSinReiniciarLosLimitesQueNoCambian() throws Exception {
+        ejecutar("/api/transacciones/create", "cliente");
+
+        RateLimitProperties nuevas = new RateLimitProperties();
+        nuevas.setExcluidas(List.of("/api/transacciones/create"));
+        interceptor.aplicar(nuevas);
+
+        assertEquals(200, ejecutar("/api/transacciones/create", null).getStatus());
+        MockHttpServletResponse response = ejecutar("/api/transacciones/create/batch", "cliente");
+        assertEquals("1", response.getHeader(RateLimitingInterceptor.HEADER_RESTANTES),
+                "El límite por defecto conserva la solicitud previa del cliente");
+    }
+
+    @Test
+    void aplicar_ReglaInvalida_DeberiaConservarLasReglasVigentes() throws Exception {
+        RateLimitProperties.Regla invalida = new RateLimitProperties.Regla();
+        invalida.setRuta("/api/**/transacciones");
+        RateLimitProperties nuevas = new RateLimitProperties();
+        nuevas.getReglas().add(invalida);
+
+        assertThrows(IllegalArgumentException.class, () -> interceptor.aplicar(nuevas));
+
+        assertEquals(200, ejecutar("/api/transacciones/create/batch", "cliente").getStatus());
+        assertEquals(429, ejecutar("/api/transacciones/create/batch", "cliente").getStatus());
+    }
+
+    @Test
+    void preHandle_SinClientId_DeberiaResponder400() throws Exception {
+        assertEquals(400, ejecutar("/api/transacciones/create", null).getStatus());
+    }
+
+    @Test
+    void bindTo_DeberiaPublicarLosClientesPorRuta() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+
+        ejecutar("/api/transacciones/create", "cliente-1");
+        ejecutar("/api/transacciones/create", "cliente-2");
+
+        assertEquals(2, registry.get("rate.limit.clientes").tag("ruta", "defecto").gauge().value());
+        assertEquals(0, registry.get("rate.limit.clientes").tag("ruta", "POST /api/transacciones/create/batch")
+                .gauge().value());
+        assertEquals(0, registry.get("rate.limit.descartados").tag("causa", "maximo").tag("ruta", "defecto")
+                .functionCounter().count());
+    }
+
+    private MockHttpServletResponse ejecutar(String ruta, String clientId) throws Exception {
+        return ejecutar("POST", ruta, clientId);
+    }
+
+    private MockHttpServletResponse ejecutar(String metodo, String ruta, String clientId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, ruta);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+}
@@ -1,8 +1,12 @@
 package com.cpalacios.tenpo.app.controller;
 
 
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.service.IdempotenciaService;
+import com.cpalacios.tenpo.app.service.ResultadoIdempotente;
+import com.cpalacios.tenpo.app.service.TransaccionIngestaService;
 import com.cpalacios.tenpo.app.service.TransaccionService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +26,12 @@ class TransaccionControllerTest {
     @Mock
     private TransaccionService transaccionService;
 
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    @Mock
+    private TransaccionIngestaService ingestaService;
+
     @InjectMocks
     private TransaccionController transaccionController;
 
@@ -54,7 +64,7 @@ class TransaccionControllerTest {
         when(transaccionService.crearTransaccion(requestDTO)).thenReturn(responseDTO);
 
         // Llamar al controlador
-        ResponseEntity<TransaccionResponseDTO> response = transaccionController.crear("CLIENT123", requestDTO);
+        ResponseEntity<TransaccionResponseDTO> response = transaccionController.crear("CLIENT123", null, requestDTO);
 
         // Verificaciones
         assertNotNull(response);
@@ -73,9 +83,54 @@ class TransaccionControllerTest {
 
         // Verificar que el controlador lanza la excepción
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
-                transaccionController.crear("CLIENT123", requestDTO)
+                transaccionController.crear("CLIENT123", null, requestDTO)
         );
 
         assertEquals("Error inesperado", exception.getMessage());
     }
+
+    @Test
+    void crearTransaccion_ConIdempotencyKey_ShouldInformReplay() {
+        when(idempotenciaService.crearTransaccion("CLIENT123", "clave-1", requestDTO))
+                .thenReturn(new ResultadoIdempotente(responseDTO, true));
+
+        ResponseEntity<TransaccionResponseDTO> response = transaccionController.crear("CLIENT123", "clave-1", requestDTO);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(responseDTO, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst(TransaccionController.IDEMPOTENT_REPLAYED));
+        verify(transaccionService, never()).crearTransaccion(any());
+    }
+
+    @Test
+    void crearAsincrona_ShouldReturnAcceptedWithTrackingLocation() {
+        TransaccionIngestaDTO pendiente = TransaccionIngestaDTO.builder()
+                .idSeguimiento("abc")
+                .numeroTransaccion(12345)
+                .estado(TransaccionIngestaDTO.Estado.PENDIENTE)
+                .build();
+        when(ingestaService.encolar(requestDTO)).thenReturn(pendiente);
+
+        ResponseEntity<TransaccionIngestaDTO> response = transaccionController.crearAsincrona("CLIENT123", requestDTO);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/transacciones/status/abc", response.getHeaders().getLocation().toString());
+        assertEquals(pendiente, response.getBody());
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void consultarAsincrona_ShouldReturnStatus() {
+        TransaccionIngestaDTO registrada = TransaccionIngestaDTO.builder()
+                .idSeguimiento("abc")
+                .estado(TransaccionIngestaDTO.Estado.REGISTRADA)
+                .transaccion(responseDTO)
+                .build();
+        when(ingestaService.consultar("abc")).thenReturn(registrada);
+
+        ResponseEntity<TransaccionIngestaDTO> response = transaccionController.consultarAsincrona("abc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(registrada, response.getBody());
+    }
 }
@@ -0,0 +1,37 @@
+package com.cpalacios.tenpo.app.controller;
+
+import com.cpalacios.tenpo.app.service.TransaccionEventoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransaccionEventoControllerTest {
+
+    @Mock
+    private TransaccionEventoService eventoService;
+
+    @InjectMocks
+    private TransaccionEventoController eventoController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void suscribir_ShouldDelegateLastEventIdToService() {
+        SseEmitter emitter = new SseEmitter();
+        when(eventoService.suscribir("42")).thenReturn(emitter);
+
+        SseEmitter response = eventoController.suscribir("42");
+
+        assertSame(emitter, response);
+        verify(eventoService, times(1)).suscribir("42");
+    }
+}
@@ -0,0 +1,68 @@
+package com.cpalacios.tenpo.app.controller;
+
+
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.service.TransaccionLoteService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransaccionLoteControllerTest {
+
+    @Mock
+    private TransaccionLoteService loteService;
+
+    @InjectMocks
+    private TransaccionLoteController loteController;
+
+    private List<TransaccionRequestDTO> lote;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        TransaccionRequestDTO requestDTO = new TransaccionRequestDTO();
+        requestDTO.setNumeroTransaccion(12345);
+        requestDTO.setMontoPesos(50000);
+        requestDTO.setGiroComercio("Comercio Test");
+        requestDTO.setNombreTenpista("Cliente Test");
+        lote = List.of(requestDTO);
+    }
+
+    @Test
+    void crearLote_ShouldReturnOk() {
+        TransaccionLoteResponseDTO responseDTO = TransaccionLoteResponseDTO.builder()
+                .total(1)
+                .exitosas(1)
+                .fallidas(0)
+                .resultados(List.of())
+                .build();
+        when(loteService.crearLote(lote)).thenReturn(responseDTO);
+
+        ResponseEntity<TransaccionLoteResponseDTO> response = loteController.crearLote("CLIENT123", lote);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseDTO, response.getBody());
+        verify(loteService, times(1)).crearLote(lote);
+    }
+
+    @Test
+    void crearLote_ShouldPropagateBusinessException() {
+        when(loteService.crearLote(lote)).thenThrow(new BusinessException("El lote de transacciones no puede estar vacío"));
+
+        assertThrows(BusinessException.class, () -> loteController.crearLote("CLIENT123", lote));
+    }
+}
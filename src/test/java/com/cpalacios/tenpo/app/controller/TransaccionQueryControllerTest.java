@@ -1,14 +1,31 @@
 package com.cpalacios.tenpo.app.controller;
 
 
+import com.cpalacios.tenpo.app.dto.TransaccionBusquedaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionCambiosDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionPaginaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.service.FormatoExportacion;
+import com.cpalacios.tenpo.app.service.RespuestaVersionada;
+import com.cpalacios.tenpo.app.service.TransaccionCambioService;
+import com.cpalacios.tenpo.app.service.TransaccionExportService;
 import com.cpalacios.tenpo.app.service.TransaccionQueryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
 
@@ -20,6 +37,12 @@ class TransaccionQueryControllerTest {
     @Mock
     private TransaccionQueryService queryService;
 
+    @Mock
+    private TransaccionExportService exportService;
+
+    @Mock
+    private TransaccionCambioService cambioService;
+
     @InjectMocks
     private TransaccionQueryController queryController;
 
@@ -38,40 +61,129 @@ class TransaccionQueryControllerTest {
     }
 
     @Test
-    void listarTodas_ShouldReturnList() {
-        // Mockear el servicio
-        when(queryService.listarTodas()).thenReturn(List.of(responseDTO));
+    void listarTodas_ShouldReturnJsonWithEtag() {
+        byte[] json = "[{\"idTransaccion\":1}]".getBytes(StandardCharsets.UTF_8);
+        when(queryService.etagActual()).thenReturn("\"a-1\"");
+        when(queryService.listarTodasVersionada()).thenReturn(new RespuestaVersionada(json, "\"a-1\""));
+
+        ResponseEntity<byte[]> response = queryController.listarTodas(solicitud(null));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"a-1\"", response.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(json, response.getBody());
+        verify(queryService, times(1)).listarTodasVersionada();
+    }
 
-        // Llamar al controlador
-        ResponseEntity<List<TransaccionResponseDTO>> response = queryController.listarTodas();
+    @Test
+    void listarTodas_EtagVigente_ShouldReturn304WithoutQuerying() {
+        when(queryService.etagActual()).thenReturn("\"a-1\"");
 
-        // Verificaciones
-        assertNotNull(response);
-        assertEquals(200, response.getStatusCodeValue());
-        assertEquals(1, response.getBody().size());
-        assertEquals(responseDTO, response.getBody().get(0));
+        ResponseEntity<byte[]> response = queryController.listarTodas(solicitud("\"a-1\""));
 
-        verify(queryService, times(1)).listarTodas();
+        assertEquals(304, response.getStatusCode().value());
+        assertEquals("\"a-1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(queryService, never()).listarTodasVersionada();
     }
 
     @Test
-    void buscarPorFiltro_ShouldReturnFilteredList() {
+    void buscarPorFiltro_ShouldReturnJsonWithEtag() {
         String filtro = "Cliente";
+        byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+        when(queryService.etagActual()).thenReturn("\"a-2\"");
+        when(queryService.buscarPorFiltroVersionada(filtro)).thenReturn(new RespuestaVersionada(json, "\"a-2\""));
+
+        ResponseEntity<byte[]> response = queryController.buscar(filtro, solicitud("\"a-1\""));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"a-2\"", response.getHeaders().getETag());
+        assertArrayEquals(json, response.getBody());
+        verify(queryService, times(1)).buscarPorFiltroVersionada(filtro);
+    }
+
+    @Test
+    void buscarPorFiltro_EtagVigente_ShouldReturn304WithoutQuerying() {
+        when(queryService.etagActual()).thenReturn("\"a-2\"");
+
+        ResponseEntity<byte[]> response = queryController.buscar("Cliente", solicitud("\"a-1\", \"a-2\""));
+
+        assertEquals(304, response.getStatusCode().value());
+        verify(queryService, never()).buscarPorFiltroVersionada(anyString());
+    }
+
+    @Test
+    void buscarAvanzado_ShouldReturnFilteredList() {
+        TransaccionBusquedaDTO busqueda = TransaccionBusquedaDTO.builder().numeroTransaccion(12345).build();
+        when(queryService.buscar(busqueda)).thenReturn(List.of(responseDTO));
+
+        ResponseEntity<List<TransaccionResponseDTO>> response = queryController.buscarAvanzado(busqueda);
 
-        // Mockear el servicio
-        when(queryService.buscarPorFiltro(filtro)).thenReturn(List.of(responseDTO));
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(responseDTO), response.getBody());
+        verify(queryService, times(1)).buscar(busqueda);
+    }
 
-        // Llamar al controlador
-        ResponseEntity<List<TransaccionResponseDTO>> response = queryController.buscar(filtro);
+    @Test
+    void listarPagina_ShouldReturnPage() {
+        TransaccionPaginaDTO pagina = TransaccionPaginaDTO.builder()
+                .transacciones(List.of(responseDTO))
+                .siguienteCursor("abc")
+                .tieneMas(true)
+                .tamano(1)
+                .build();
+        when(queryService.listarPagina("cursor", 1)).thenReturn(pagina);
+
+        ResponseEntity<TransaccionPaginaDTO> response = queryController.listarPagina("cursor", 1);
 
-        // Verificaciones
-        assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(1, response.getBody().size());
-        assertEquals(responseDTO, response.getBody().get(0));
+        assertEquals(pagina, response.getBody());
+        verify(queryService, times(1)).listarPagina("cursor", 1);
+    }
 
-        verify(queryService, times(1)).buscarPorFiltro(filtro);
+    @Test
+    void buscarCambios_ShouldReturnChangesSinceVersion() {
+        TransaccionCambiosDTO cambios = TransaccionCambiosDTO.builder()
+                .actualizadas(List.of(responseDTO))
+                .eliminadas(List.of(2L))
+                .version(15L)
+                .tieneMas(false)
+                .tamano(500)
+                .build();
+        when(cambioService.buscarCambios(10L, null)).thenReturn(cambios);
+
+        ResponseEntity<TransaccionCambiosDTO> response = queryController.buscarCambios(10L, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(cambios, response.getBody());
+        verify(cambioService, times(1)).buscarCambios(10L, null);
+    }
+
+    @Test
+    void exportar_ShouldStreamWithFormatContentType() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = queryController.exportar("csv");
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(MediaType.parseMediaType("text/csv"), response.getHeaders().getContentType());
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+        verify(exportService, times(1)).exportar(FormatoExportacion.CSV, salida);
+    }
+
+    @Test
+    void exportar_ShouldRejectUnknownFormat() {
+        assertThrows(BusinessException.class, () -> queryController.exportar("xml"));
+        verifyNoInteractions(exportService);
     }
 
     
+
+    private static ServletWebRequest solicitud(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transacciones/all");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,176 @@
+package com.cpalacios.tenpo.app.persistence.replica;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class EnrutadorReplicasTest {
+
+    private final DataSource primario = new DriverManagerDataSource("jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1");
+    private final ReplicaSimulada replica1 = new ReplicaSimulada("jdbc:h2:mem:replica-1;DB_CLOSE_DELAY=-1");
+    private final ReplicaSimulada replica2 = new ReplicaSimulada("jdbc:h2:mem:replica-2;DB_CLOSE_DELAY=-1");
+    private final EnrutadorReplicas enrutador = new EnrutadorReplicas(primario,
+            List.of(new Replica("replica-1", replica1), new Replica("replica-2", replica2)));
+    private final DataSource dataSource = new LazyConnectionDataSourceProxy(enrutador);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate escritura = new TransactionTemplate(
+            new DataSourceTransactionManager(dataSource));
+    private final TransactionTemplate lectura = new TransactionTemplate(
+            new DataSourceTransactionManager(dataSource));
+
+    EnrutadorReplicasTest() {
+        lectura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void limpiar() {
+        ContextoReplica.limpiar();
+    }
+
+    @Test
+    void getConnection_Lecturas_DeberiaRepartirlasEntreLasReplicas() {
+        List<String> bases = List.of(leer(), leer(), leer(), leer());
+
+        assertEquals(2, bases.stream().filter("REPLICA-1"::equals).count());
+        assertEquals(2, bases.stream().filter("REPLICA-2"::equals).count());
+        assertEquals(0, enrutador.cantidadLecturasEnPrimario());
+    }
+
+    @Test
+    void getConnection_Escritura_DeberiaUsarElPrimario() {
+        assertEquals("PRIMARIO", escritura.execute(estado -> baseDeDatos()));
+        assertEquals("PRIMARIO", baseDeDatos());
+    }
+
+    @Test
+    void getConnection_ReplicaCaida_DeberiaUsarLaOtraHastaQueSeRecupere() {
+        replica1.caida = true;
+
+        assertEquals(List.of("REPLICA-2", "REPLICA-2", "REPLICA-2"), List.of(leer(), leer(), leer()));
+
+        replica1.caida = false;
+        // Sigue sin recibir lecturas hasta la revisión
+        assertEquals("REPLICA-2", leer());
+        assertEquals("REPLICA-2", leer());
+
+        enrutador.revisarReplicas();
+
+        assertEquals(2, List.of(leer(), leer()).stream().distinct().count());
+    }
+
+    @Test
+    void getConnection_TodasLasReplicasCaidas_DeberiaLeerDelPrimario() {
+        replica1.caida = true;
+        replica2.caida = true;
+
+        assertEquals("PRIMARIO", leer());
+        assertEquals("PRIMARIO", leer());
+        assertEquals(2, enrutador.cantidadLecturasEnPrimario());
+
+        replica2.caida = false;
+        enrutador.revisarReplicas();
+
+        assertEquals("REPLICA-2", leer());
+    }
+
+    @Test
+    void getConnection_PrimarioForzado_DeberiaLeerDelPrimario() {
+        ContextoReplica.usarPrimario();
+
+        assertEquals("PRIMARIO", leer());
+
+        ContextoReplica.limpiar();
+
+        assertNotEquals("PRIMARIO", leer());
+    }
+
+    @Test
+    void getConnection_ConCredenciales_DeberiaPedirlaAlPoolCorrespondiente() throws SQLException {
+        assertEquals("REPLICA-1", lectura.execute(estado -> conCredenciales()));
+        assertEquals("PRIMARIO", escritura.execute(estado -> conCredenciales()));
+        assertEquals("", replica1.usuario);
+    }
+
+    @Test
+    void close_DeberiaCerrarLosPoolsDeLasReplicas() {
+        enrutador.close();
+
+        assertTrue(replica1.cerrada);
+        assertTrue(replica2.cerrada);
+    }
+
+    @Test
+    void enPrimario_DeberiaLeerDelPrimarioYRestablecerElEnrutamiento() {
+        assertEquals("PRIMARIO", ContextoReplica.enPrimario(this::leer));
+        assertFalse(ContextoReplica.primarioForzado());
+
+        ContextoReplica.usarPrimario();
+        ContextoReplica.enPrimario(this::leer);
+
+        assertTrue(ContextoReplica.primarioForzado());
+    }
+
+    private String conCredenciales() {
+        try (Connection conexion = dataSource.getConnection("", "")) {
+            return new JdbcTemplate(new SingleConnectionDataSource(conexion, true))
+                    .queryForObject("SELECT DATABASE()", String.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String leer() {
+        return lectura.execute(estado -> baseDeDatos());
+    }
+
+    private String baseDeDatos() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    /**
+     * Réplica que puede simular una caída.
+     */
+    private static class ReplicaSimulada extends DelegatingDataSource implements AutoCloseable {
+
+        volatile boolean caida;
+        volatile String usuario;
+        volatile boolean cerrada;
+
+        ReplicaSimulada(String url) {
+            super(new DriverManagerDataSource(url));
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (caida) {
+                throw new SQLException("Conexión rechazada");
+            }
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            usuario = username;
+            return super.getConnection(username, password);
+        }
+
+        @Override
+        public void close() {
+            cerrada = true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cpalacios.tenpo.app.persistence.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.cache.EstadisticasCacheSegundoNivel;
+import com.cpalacios.tenpo.app.config.CacheSegundoNivelConfig;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.service.ClienteService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pruebas de la caché de segundo nivel de clientes sobre H2.
+ *
+ * <p>
+ * Las pruebas no se ejecutan dentro de la transacción de {@link DataJpaTest}
+ * para que cada lectura use una sesión nueva y solo pueda evitar la base de
+ * datos mediante la caché de segundo nivel.
+ * </p>
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ CacheSegundoNivelConfig.class, ClienteService.class })
+class ClienteCacheSegundoNivelTest {
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EstadisticasCacheSegundoNivel estadisticasCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        cache = sessionFactory.getCache();
+    }
+
+    @AfterEach
+    void limpiar() {
+        clienteRepository.deleteAll();
+        cache.evictAllRegions();
+    }
+
+    @Test
+    void buscarPorNombreNormalizado_ClienteYaLeido_NoDeberiaConsultarLaBaseDeDatos() {
+        ClienteEntity cliente = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Cache Ana").build());
+        cache.evictAllRegions();
+        clienteRepository.buscarPorNombreNormalizado("cache ana");
+
+        statistics.clear();
+        ClienteEntity cacheado = clienteRepository.buscarPorNombreNormalizado("cache ana").orElseThrow();
+
+        assertEquals(cliente.getIdCliente(), cacheado.getIdCliente());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, estadisticasCache.aciertos(ClienteEntity.REGION_CACHE_ID_NATURAL));
+        assertEquals(1, estadisticasCache.aciertos(ClienteEntity.REGION_CACHE));
+        assertEquals(1.0, estadisticasCache.tasaAciertos(ClienteEntity.REGION_CACHE));
+    }
+
+    @Test
+    void incrementarTotalTransacciones_DeberiaQuitarDeLaCacheSoloAlClienteActualizado() {
+        ClienteEntity actualizado = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Cache Uno").build());
+        ClienteEntity otro = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Cache Dos").build());
+        clienteRepository.findById(actualizado.getIdCliente());
+        clienteRepository.findById(otro.getIdCliente());
+
+        int filas = new TransactionTemplate(transactionManager).execute(
+                estado -> clienteRepository.incrementarTotalTransacciones(actualizado.getIdCliente(), 100));
+
+        assertEquals(1, filas);
+        assertFalse(cache.containsEntity(ClienteEntity.class, actualizado.getIdCliente()));
+        assertTrue(cache.containsEntity(ClienteEntity.class, otro.getIdCliente()));
+        assertEquals(1, clienteRepository.findById(actualizado.getIdCliente()).orElseThrow().getTotalTransacciones());
+    }
+
+    @Test
+    void delete_DeberiaQuitarElClienteYSuNombreDeLaCache() {
+        ClienteEntity cliente = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Cache Borrado").build());
+        clienteRepository.buscarPorNombreNormalizado("cache borrado");
+
+        clienteRepository.deleteById(cliente.getIdCliente());
+
+        assertTrue(clienteRepository.findById(cliente.getIdCliente()).isEmpty());
+        assertTrue(clienteRepository.buscarPorNombreNormalizado("cache borrado").isEmpty());
+    }
+
+    @Test
+    void revalidar_ClienteEliminadoDesdeOtraInstancia_DeberiaIgnorarLaCacheDeNombres() {
+        Long anterior = clienteService.obtenerOCrear("Cache Remoto").getIdCliente();
+        clienteService.invalidar("Cache Remoto");
+        assertEquals(anterior, clienteService.obtenerOCrear("Cache Remoto").getIdCliente());
+        // La eliminación de otra instancia no pasa por Hibernate ni llega a esta caché
+        new JdbcTemplate(dataSource).update("DELETE FROM clientes WHERE id_cliente = ?", anterior);
+
+        Long actual = new TransactionTemplate(transactionManager).execute(
+                estado -> clienteService.revalidar("Cache Remoto").getIdCliente());
+        clienteService.invalidar("Cache Remoto");
+
+        assertNotEquals(anterior, actual);
+        assertEquals(actual, clienteService.obtenerOCrear("Cache Remoto").getIdCliente());
+    }
+}
@@ -1,19 +1,22 @@
 package com.cpalacios.tenpo.app.persistence.repository;
 
 
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "transacciones.busqueda.maximo-resultados=2")
 class TransaccionRepositoryTest {
 
     @Autowired
@@ -62,10 +65,70 @@ class TransaccionRepositoryTest {
     }
 
     @Test
-    void buscarPorFiltro_ShouldReturnMatchingTransaccion() {
-        List<TransaccionEntity> result = transaccionRepository.buscarPorFiltro("Juan");
+    void buscarPorTexto_ShouldReturnMatchingTransaccion() {
+        List<TransaccionResumen> result = transaccionRepository.buscarPorTexto("Juan");
         assertFalse(result.isEmpty());
-        assertEquals(transaccion.getIdTransaccion(), result.get(0).getIdTransaccion());
+        assertEquals(transaccion.getIdTransaccion(), result.get(0).idTransaccion());
+        assertEquals("Juan Perez", result.get(0).nombreTenpista());
+    }
+
+    @Test
+    void buscarPorTexto_ShouldMatchGiroComercioIgnoringCase() {
+        assertEquals(1, transaccionRepository.buscarPorTexto("comercio 1").size());
+        assertTrue(transaccionRepository.buscarPorTexto("no existe").isEmpty());
+    }
+
+    @Test
+    void buscarPorNumeroOMonto_ShouldMatchExactValues() {
+        assertEquals(1, transaccionRepository.buscarPorNumeroOMonto(123).size());
+        assertEquals(1, transaccionRepository.buscarPorNumeroOMonto(1000).size());
+        assertTrue(transaccionRepository.buscarPorNumeroOMonto(12).isEmpty());
+    }
+
+    @Test
+    void buscarPorCriterio_ShouldCombineTypedPredicates() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 2, 5, 10, 30);
+        guardar(300, fecha);
+        TransaccionEntity esperada = guardar(301, fecha.plusDays(1));
+
+        List<TransaccionResumen> result = transaccionRepository.buscarPorCriterio(TransaccionCriterio.builder()
+                .montoMinimo(1300)
+                .montoMaximo(1400)
+                .fechaDesde(fecha.plusHours(1))
+                .fechaHasta(fecha.plusDays(2))
+                .prefijoNombreTenpista("JUAN")
+                .prefijoGiroComercio("comercio 30")
+                .build());
+
+        assertEquals(List.of(esperada.getIdTransaccion()),
+                result.stream().map(TransaccionResumen::idTransaccion).toList());
+    }
+
+    @Test
+    void buscarPorCriterio_ShouldTreatLikeWildcardsLiterally() {
+        assertTrue(transaccionRepository.buscarPorCriterio(TransaccionCriterio.builder()
+                .prefijoGiroComercio("%")
+                .build()).isEmpty());
+        assertEquals(1, transaccionRepository.buscarPorCriterio(TransaccionCriterio.builder()
+                .numeroTransaccion(123)
+                .prefijoGiroComercio("Comercio")
+                .build()).size());
+    }
+
+    @Test
+    void buscarPorCriterio_ShouldReturnAtMostTheConfiguredMaximum() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 2, 5, 10, 30);
+        TransaccionEntity primera = guardar(401, fecha);
+        TransaccionEntity segunda = guardar(402, fecha);
+        guardar(403, fecha);
+
+        List<TransaccionResumen> result = transaccionRepository.buscarPorCriterio(TransaccionCriterio.builder()
+                .fechaDesde(fecha)
+                .fechaHasta(fecha.plusDays(1))
+                .build());
+
+        assertEquals(List.of(primera.getIdTransaccion(), segunda.getIdTransaccion()),
+                result.stream().map(TransaccionResumen::idTransaccion).toList());
     }
 
     @Test
@@ -88,4 +151,33 @@ class TransaccionRepositoryTest {
         assertNotNull(saved.getIdTransaccion());
         assertEquals(2000, saved.getMontoPesos());
     }
+
+    @Test
+    void buscarPaginaDespuesDe_ShouldReturnRowsAfterCursorInStableOrder() {
+        transaccionRepository.deleteAll();
+        LocalDateTime fecha = LocalDateTime.of(2026, 2, 5, 10, 30);
+        TransaccionEntity primera = guardar(200, fecha);
+        TransaccionEntity mismaFecha = guardar(201, fecha);
+        TransaccionEntity posterior = guardar(202, fecha.plusDays(1));
+
+        List<TransaccionResumen> paginaUno = transaccionRepository.buscarPrimeraPagina(Limit.of(2));
+        assertEquals(List.of(primera.getIdTransaccion(), mismaFecha.getIdTransaccion()),
+                paginaUno.stream().map(TransaccionResumen::idTransaccion).toList());
+
+        TransaccionResumen ultima = paginaUno.get(1);
+        List<TransaccionResumen> paginaDos = transaccionRepository.buscarPaginaDespuesDe(
+                ultima.fechaTransaccion(), ultima.idTransaccion(), Limit.of(2));
+        assertEquals(List.of(posterior.getIdTransaccion()),
+                paginaDos.stream().map(TransaccionResumen::idTransaccion).toList());
+    }
+
+    private TransaccionEntity guardar(int numero, LocalDateTime fecha) {
+        return transaccionRepository.save(TransaccionEntity.builder()
+                .numeroTransaccion(numero)
+                .montoPesos(1000 + numero)
+                .giroComercio("Comercio " + numero)
+                .fechaTransaccion(fecha)
+                .cliente(cliente)
+                .build());
+    }
 }
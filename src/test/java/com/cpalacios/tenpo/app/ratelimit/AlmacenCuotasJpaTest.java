@@ -0,0 +1,49 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.cpalacios.tenpo.app.persistence.repository.RateLimitCuotaRepository;
+
+@DataJpaTest(properties = { "rate-limit.almacen=DISTRIBUIDO", "rate-limit.distribuido.retencion=PT0S" })
+@Import(AlmacenCuotasJpa.class)
+class AlmacenCuotasJpaTest {
+
+    private static final LimiteTasa LIMITE = new LimiteTasa(5, Duration.ofHours(1), 5);
+
+    @Autowired
+    private AlmacenCuotasJpa almacen;
+
+    @Autowired
+    private RateLimitCuotaRepository cuotaRepository;
+
+    @Test
+    void arrendar_DeberiaConcederHastaAgotarLaCuotaYDevolverLosSobrantes() {
+        assertEquals(3, almacen.arrendar("defecto|agotar", 3, LIMITE).tokens());
+        assertEquals(2, almacen.arrendar("defecto|agotar", 3, LIMITE).tokens());
+
+        Concesion rechazo = almacen.arrendar("defecto|agotar", 3, LIMITE);
+        assertEquals(0, rechazo.tokens());
+        assertTrue(rechazo.esperaNanos() > Duration.ofMinutes(11).toNanos(), "Un token se repone cada 12 minutos");
+
+        almacen.devolver("defecto|agotar", 2, LIMITE);
+        assertEquals(2, almacen.arrendar("defecto|agotar", 3, LIMITE).tokens());
+    }
+
+    @Test
+    void eliminarInactivas_DeberiaEliminarLasCuotasSinAccesosRecientes() throws Exception {
+        almacen.arrendar("defecto|inactiva", 1, LIMITE);
+        assertTrue(cuotaRepository.existsById("defecto|inactiva"));
+
+        Thread.sleep(5);
+        almacen.eliminarInactivas();
+
+        assertFalse(cuotaRepository.existsById("defecto|inactiva"));
+    }
+}
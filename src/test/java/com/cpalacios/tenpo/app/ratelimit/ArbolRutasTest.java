@@ -0,0 +1,83 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+class ArbolRutasTest {
+
+    private final ArbolRutas<String> arbol = ArbolRutas.<String>constructor()
+            .agregar("/api/transacciones/create/batch", List.of("POST"), "lote")
+            .agregar("/api/transacciones/*", List.of(), "comodin")
+            .agregar("/api/transacciones/search/**", List.of(), "busqueda")
+            .agregar("/api/transacciones/status/**", List.of("GET"), "estado")
+            .agregar("/api/transacciones/status/**", List.of(), "estado-otros")
+            .agregar("/actuator/**", List.of(), "actuator")
+            .agregar("/actuator/**", List.of(), "ignorada")
+            .construir();
+
+    @Test
+    void buscar_DeberiaPreferirElLiteralAlComodinYAlResto() {
+        assertEquals("comodin", arbol.buscar("POST", "/api/transacciones/create"));
+        assertEquals("lote", arbol.buscar("POST", "/api/transacciones/create/batch"));
+        assertEquals("busqueda", arbol.buscar("GET", "/api/transacciones/search"));
+        assertEquals("busqueda", arbol.buscar("GET", "/api/transacciones/search/advanced"));
+        assertEquals("actuator", arbol.buscar("GET", "/actuator/metrics/rate.limit.clientes"));
+    }
+
+    @Test
+    void buscar_DeberiaCompararSegmentosCompletos() {
+        assertNull(arbol.buscar("POST", "/api/transacciones/create/batchx"));
+        assertNull(arbol.buscar("GET", "/api/transacciones/create/x/y"));
+        assertNull(arbol.buscar("GET", "/actuatorx"));
+        assertNull(arbol.buscar("GET", "/otra/api/transacciones/search"));
+    }
+
+    @Test
+    void buscar_DeberiaIgnorarBarrasRepetidasYFinales() {
+        assertEquals("lote", arbol.buscar("POST", "//api/transacciones/create/batch/"));
+    }
+
+    @Test
+    void buscar_DeberiaPreferirLosMetodosEspecificos() {
+        assertEquals("estado", arbol.buscar("GET", "/api/transacciones/status/abc"));
+        assertEquals("estado-otros", arbol.buscar("DELETE", "/api/transacciones/status/abc"));
+        assertEquals("comodin", arbol.buscar("DELETE", "/api/transacciones/create"));
+        assertNull(arbol.buscar("PUT", "/api/transacciones/create/batch"));
+        assertEquals("estado-otros", arbol.buscar("PROPFIND", "/api/transacciones/status"));
+    }
+
+    @Test
+    void agregar_PatronInvalido_DeberiaLanzarExcepcion() {
+        ArbolRutas.Constructor<String> constructor = ArbolRutas.constructor();
+
+        assertThrows(IllegalArgumentException.class, () -> constructor.agregar("/api/**/x", List.of(), "x"));
+        assertThrows(IllegalArgumentException.class, () -> constructor.agregar("api/x", List.of(), "x"));
+    }
+
+    @Test
+    void buscar_NoDeberiaCrearObjetosPorSolicitud() {
+        String[] rutas = { "/api/transacciones/create", "/api/transacciones/create/batch",
+                "/api/transacciones/search/advanced", "/api/transacciones/status/abc", "/desconocida/ruta" };
+        int encontradas = 0;
+        for (int i = 0; i < 200_000; i++) {
+            encontradas += arbol.buscar("POST", rutas[i % rutas.length]) != null ? 1 : 0;
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().getId();
+        long antes = threads.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < 1_000_000; i++) {
+            encontradas += arbol.buscar("POST", rutas[i % rutas.length]) != null ? 1 : 0;
+        }
+        long asignados = threads.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(encontradas > 0);
+        assertTrue(asignados < 64 * 1024, "Se asignaron " + asignados + " bytes en 1.000.000 de búsquedas");
+    }
+}
@@ -0,0 +1,130 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Benchmark que compara las solicitudes evaluadas por segundo de
+ * {@link LimitadorGcra} y {@link LimitadorGcraCompacto} contra la ventana fija
+ * anterior del {@code RateLimitingInterceptor} ({@code ConcurrentHashMap.compute}
+ * y una segunda lectura con {@code get}), con muchos hilos sobre un mismo
+ * cliente y sobre muchos clientes.
+ *
+ * <p>
+ * Se ejecuta solo a pedido:
+ * </p>
+ *
+ * <pre>
+ * mvn test -Dtest=LimitadorBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LimitadorBenchmarkTest {
+
+    private static final int HILOS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int SOLICITUDES_POR_HILO = 2_000_000;
+    private static final int CLIENTES = 10_000;
+    private static final long MAXIMO_CLIENTES = 100_000;
+
+    private static final String[] CLAVES = new String[CLIENTES];
+
+    static {
+        for (int i = 0; i < CLIENTES; i++) {
+            CLAVES[i] = "cliente-" + i;
+        }
+    }
+
+    @Test
+    void compararVentanaFijaContraGcra() throws Exception {
+        LimiteTasa limite = new LimiteTasa(1_000, Duration.ofSeconds(1), 1_000);
+
+        for (int clientes : new int[] { 1, CLIENTES }) {
+            // Calentamiento de todos los caminos
+            medir(new VentanaFija(1_000, 1_000)::intentar, clientes);
+            medir(limitador(new LimitadorGcra(limite, MAXIMO_CLIENTES)), clientes);
+            medir(limitador(new LimitadorGcraCompacto(limite, MAXIMO_CLIENTES)), clientes);
+
+            long ventana = medir(new VentanaFija(1_000, 1_000)::intentar, clientes);
+            long mapa = medir(limitador(new LimitadorGcra(limite, MAXIMO_CLIENTES)), clientes);
+            long compacto = medir(limitador(new LimitadorGcraCompacto(limite, MAXIMO_CLIENTES)), clientes);
+
+            System.out.printf("%6d clientes %-14s %12d solicitudes/s%n", clientes, "ventana fija", ventana);
+            System.out.printf("%6d clientes %-14s %12d solicitudes/s%n", clientes, "gcra mapa", mapa);
+            System.out.printf("%6d clientes %-14s %12d solicitudes/s%n", clientes, "gcra compacto", compacto);
+            assertTrue(ventana > 0 && mapa > 0 && compacto > 0);
+        }
+    }
+
+    private static Predicate<String> limitador(LimitadorSolicitudes limitador) {
+        return clave -> LimitadorSolicitudes.admitida(limitador.intentar(clave));
+    }
+
+    private static long medir(Predicate<String> limitador, int clientes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                int desplazamiento = h * 7919;
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    int admitidas = 0;
+                    for (int i = 0; i < SOLICITUDES_POR_HILO; i++) {
+                        if (limitador.test(CLAVES[(i + desplazamiento) % clientes])) {
+                            admitidas++;
+                        }
+                    }
+                    return admitidas;
+                }));
+            }
+            long comienzo = System.nanoTime();
+            inicio.countDown();
+            for (Future<Integer> resultado : resultados) {
+                resultado.get();
+            }
+            return (long) HILOS * SOLICITUDES_POR_HILO * 1_000_000_000L / (System.nanoTime() - comienzo);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ventana fija de la implementación anterior del interceptor.
+     */
+    private static final class VentanaFija {
+
+        private final int maximo;
+        private final long ventanaMillis;
+        private final Map<String, long[]> clientes = new ConcurrentHashMap<>();
+
+        VentanaFija(int maximo, long ventanaMillis) {
+            this.maximo = maximo;
+            this.ventanaMillis = ventanaMillis;
+        }
+
+        boolean intentar(String clave) {
+            long ahora = System.currentTimeMillis();
+            clientes.compute(clave, (k, info) -> {
+                if (info == null || ahora - info[0] > ventanaMillis) {
+                    return new long[] { ahora, 1 };
+                }
+                info[1]++;
+                return info;
+            });
+            return clientes.get(clave)[1] <= maximo;
+        }
+    }
+}
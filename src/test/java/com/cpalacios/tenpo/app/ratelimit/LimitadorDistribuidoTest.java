@@ -0,0 +1,102 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LimitadorDistribuidoTest {
+
+    private static final long MAXIMO_CLIENTES = 10_000;
+
+    /** 10 solicitudes por hora */
+    private static final LimiteTasa LIMITE = new LimiteTasa(10, Duration.ofHours(1), 10);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void intentar_AlmacenCaido_DeberiaAplicarElLimiteLocalmente() {
+        AlmacenCuotas caido = new AlmacenCuotas() {
+            @Override
+            public Concesion arrendar(String clave, int solicitados, LimiteTasa limite) {
+                throw new IllegalStateException("almacén caído");
+            }
+
+            @Override
+            public void devolver(String clave, long devueltos, LimiteTasa limite) {
+                throw new IllegalStateException("almacén caído");
+            }
+        };
+        LimitadorDistribuido limitador = new LimitadorDistribuido(LIMITE, "prueba", caido, 5,
+                Duration.ofMinutes(1), MAXIMO_CLIENTES);
+        long ahora = System.nanoTime();
+
+        int admitidas = 0;
+        for (int i = 0; i < 100; i++) {
+            if (LimitadorSolicitudes.admitida(limitador.intentar("cliente", 1, ahora))) {
+                admitidas++;
+            }
+        }
+
+        // Antes se concedía un arriendo completo en cada renovación
+        assertEquals(LIMITE.rafaga(), admitidas);
+    }
+
+    @Test
+    void intentar_AlmacenLentoParaUnCliente_NoDeberiaBloquearAOtrosClientes() throws Exception {
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger consultasLento = new AtomicInteger();
+        AlmacenCuotas memoria = new AlmacenCuotasMemoria();
+        AlmacenCuotas almacen = new AlmacenCuotas() {
+            @Override
+            public Concesion arrendar(String clave, int solicitados, LimiteTasa limite) {
+                if (clave.endsWith("|lento")) {
+                    consultasLento.incrementAndGet();
+                    consultando.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return memoria.arrendar(clave, solicitados, limite);
+            }
+
+            @Override
+            public void devolver(String clave, long devueltos, LimiteTasa limite) {
+                memoria.devolver(clave, devueltos, limite);
+            }
+        };
+        LimitadorDistribuido limitador = new LimitadorDistribuido(LIMITE, "prueba", almacen, 5,
+                Duration.ofMinutes(1), MAXIMO_CLIENTES);
+        long ahora = System.nanoTime();
+
+        Future<Long> primero = executor.submit(() -> limitador.intentar("lento", 1, ahora));
+        assertTrue(consultando.await(5, TimeUnit.SECONDS));
+        Future<Long> segundo = executor.submit(() -> limitador.intentar("lento", 1, ahora));
+        long otro = CompletableFuture.supplyAsync(() -> limitador.intentar("otro", 1, ahora), executor)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, otro);
+        assertFalse(segundo.isDone(), "El mismo cliente espera la renovación en curso");
+        liberar.countDown();
+        assertTrue(LimitadorSolicitudes.admitida(primero.get(5, TimeUnit.SECONDS)));
+        assertTrue(LimitadorSolicitudes.admitida(segundo.get(5, TimeUnit.SECONDS)));
+        assertEquals(1, consultasLento.get(), "Solo un hilo consulta el almacén por cliente");
+    }
+}
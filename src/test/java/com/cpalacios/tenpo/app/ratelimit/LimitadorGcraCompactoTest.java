@@ -0,0 +1,125 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+class LimitadorGcraCompactoTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    void intentar_DeberiaAdmitirLaRafagaYRechazarConLaEsperaHastaLaSiguiente() {
+        LimitadorGcraCompacto limitador = new LimitadorGcraCompacto(new LimiteTasa(3, Duration.ofMinutes(1), 3),
+                1_000);
+        long ahora = 1_000 * SEGUNDO;
+
+        assertEquals(2, limitador.intentar("cliente", ahora));
+        assertEquals(1, limitador.intentar("cliente", ahora));
+        assertEquals(0, limitador.intentar("cliente", ahora));
+        assertEquals(-15 * SEGUNDO, limitador.intentar("cliente", ahora + 5 * SEGUNDO));
+        assertEquals(2, limitador.intentar("otro", ahora), "Cada cliente tiene su propio estado");
+    }
+
+    @Test
+    void constructor_DeberiaOcuparMenosDe24BytesPorCliente() {
+        long clientes = 1_000_000;
+        LimitadorGcraCompacto limitador = new LimitadorGcraCompacto(new LimiteTasa(3, Duration.ofMinutes(1), 3),
+                clientes);
+
+        assertTrue(limitador.bytesOcupados() / clientes < 24);
+    }
+
+    @Test
+    void intentar_VentanaLlena_DeberiaReutilizarVencidasYDesalojarLaMasProximaAVencer() {
+        // Tabla de una sola ventana: todos los clientes compiten por las mismas posiciones
+        LimitadorGcraCompacto limitador = new LimitadorGcraCompacto(new LimiteTasa(1, Duration.ofSeconds(1), 1), 1);
+        long ahora = 1_000 * SEGUNDO;
+        for (int i = 0; i < LimitadorGcraCompacto.VENTANA; i++) {
+            assertEquals(0, limitador.intentar("anterior-" + i, ahora));
+        }
+        assertEquals(0, limitador.cantidadExpirados());
+
+        // Los clientes anteriores ya repusieron su ráfaga: sus posiciones se reutilizan
+        long despues = ahora + 10 * SEGUNDO;
+        for (int i = 0; i < LimitadorGcraCompacto.VENTANA; i++) {
+            assertEquals(0, limitador.intentar("activo-" + i, despues + i));
+        }
+        assertEquals(LimitadorGcraCompacto.VENTANA, limitador.cantidadExpirados());
+        assertEquals(0, limitador.cantidadDesalojados());
+
+        // Todas las posiciones activas: se desaloja activo-0, el de menor TAT
+        assertEquals(0, limitador.intentar("nuevo", despues + 100));
+        assertEquals(1, limitador.cantidadDesalojados());
+        assertEquals(0, limitador.intentar("activo-0", despues + 200), "El cliente desalojado recibe una ráfaga nueva");
+        assertFalse(LimitadorSolicitudes.admitida(limitador.intentar("nuevo", despues + 300)));
+    }
+
+    @Test
+    void intentar_NoDeberiaCrearObjetosPorSolicitud() {
+        LimitadorGcraCompacto limitador = new LimitadorGcraCompacto(new LimiteTasa(1_000, Duration.ofSeconds(1), 10),
+                10_000);
+        String[] claves = new String[1_000];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = "cliente-" + i;
+        }
+        long ahora = 1_000 * SEGUNDO;
+        for (int i = 0; i < 2_000_000; i++) {
+            limitador.intentar(claves[i % claves.length], ahora + i);
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().getId();
+        long antes = threads.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < 1_000_000; i++) {
+            limitador.intentar(claves[i % claves.length], ahora + i);
+        }
+        long asignados = threads.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(asignados < 64 * 1024, "Se asignaron " + asignados + " bytes en 1.000.000 de solicitudes");
+    }
+
+    @Test
+    void intentar_Concurrente_DeberiaAdmitirExactamenteLaRafaga() throws Exception {
+        LimitadorGcraCompacto limitador = new LimitadorGcraCompacto(new LimiteTasa(1, Duration.ofHours(1), 100),
+                1_000);
+        int hilos = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    int admitidas = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (LimitadorSolicitudes.admitida(limitador.intentar("cliente"))) {
+                            admitidas++;
+                        }
+                    }
+                    return admitidas;
+                }));
+            }
+            inicio.countDown();
+
+            int admitidas = 0;
+            for (Future<Integer> resultado : resultados) {
+                admitidas += resultado.get();
+            }
+            assertEquals(100, admitidas);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
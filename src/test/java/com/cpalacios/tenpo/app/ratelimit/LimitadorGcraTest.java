@@ -0,0 +1,137 @@
+package com.cpalacios.tenpo.app.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class LimitadorGcraTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+    private static final long MAXIMO_CLIENTES = 10_000;
+
+    /** 3 solicitudes por minuto: una cada 20 segundos */
+    private final LimitadorGcra limitador = new LimitadorGcra(new LimiteTasa(3, Duration.ofMinutes(1), 3),
+            MAXIMO_CLIENTES);
+
+    @Test
+    void intentar_DeberiaAdmitirLaRafagaYRechazarConLaEsperaHastaLaSiguiente() {
+        long ahora = 1_000 * SEGUNDO;
+
+        assertEquals(2, limitador.intentar("cliente", ahora));
+        assertEquals(1, limitador.intentar("cliente", ahora));
+        assertEquals(0, limitador.intentar("cliente", ahora));
+
+        long rechazo = limitador.intentar("cliente", ahora + 5 * SEGUNDO);
+        assertFalse(LimitadorSolicitudes.admitida(rechazo));
+        assertEquals(0, LimitadorSolicitudes.restantes(rechazo));
+        assertEquals(15 * SEGUNDO, -rechazo);
+        assertEquals(15, LimitadorSolicitudes.esperaSegundos(rechazo));
+
+        // Un rechazo no consume solicitudes
+        assertEquals(0, limitador.intentar("cliente", ahora + 20 * SEGUNDO));
+    }
+
+    @Test
+    void intentar_NoDeberiaAdmitirElDobleEnElCambioDeVentana() {
+        long ahora = 1_000 * SEGUNDO;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(LimitadorSolicitudes.admitida(limitador.intentar("cliente", ahora + 59 * SEGUNDO)));
+        }
+
+        // Una ventana fija admitiría 3 solicitudes más a partir del segundo 60
+        assertFalse(LimitadorSolicitudes.admitida(limitador.intentar("cliente", ahora + 61 * SEGUNDO)));
+        assertTrue(LimitadorSolicitudes.admitida(limitador.intentar("cliente", ahora + 79 * SEGUNDO)));
+    }
+
+    @Test
+    void intentar_ClienteInactivo_DeberiaRecuperarSoloHastaLaRafaga() {
+        long ahora = 1_000 * SEGUNDO;
+        limitador.intentar("cliente", ahora);
+
+        assertEquals(2, limitador.intentar("cliente", ahora + 3_600 * SEGUNDO));
+        assertEquals(2, limitador.intentar("otro", ahora), "Cada cliente tiene su propio estado");
+    }
+
+    @Test
+    void intentar_ClienteInactivo_DeberiaDescartarseTrasLaTolerancia() throws Exception {
+        // Ráfaga de 1 solicitud con 1 ms de intervalo: tolerancia de 1 ms
+        LimitadorGcra limitadorBreve = new LimitadorGcra(new LimiteTasa(1_000, Duration.ofSeconds(1), 1),
+                MAXIMO_CLIENTES);
+        limitadorBreve.intentar("cliente");
+
+        Thread.sleep(50);
+        limitadorBreve.limpiar();
+
+        assertEquals(0, limitadorBreve.cantidadClientes());
+        assertEquals(1, limitadorBreve.cantidadExpirados());
+        assertEquals(0, limitadorBreve.cantidadDesalojados());
+    }
+
+    @Test
+    void intentar_MillonesDeClientesDistintos_DeberiaMantenerAcotadaLaMemoria() {
+        int clientes = 10_000_000;
+        long memoriaInicial = memoriaUsada();
+
+        for (int i = 0; i < clientes; i++) {
+            limitador.intentar("cliente-" + i);
+            if (i % 1_000_000 == 0) {
+                limitador.limpiar();
+                assertTrue(limitador.cantidadClientes() <= MAXIMO_CLIENTES);
+            }
+        }
+        limitador.limpiar();
+
+        assertTrue(limitador.cantidadClientes() <= MAXIMO_CLIENTES);
+        assertTrue(limitador.cantidadDesalojados() >= clientes - MAXIMO_CLIENTES);
+        long crecimiento = memoriaUsada() - memoriaInicial;
+        assertTrue(crecimiento < 32L * 1024 * 1024, "La memoria creció " + crecimiento + " bytes");
+    }
+
+    @Test
+    void intentar_Concurrente_DeberiaAdmitirExactamenteLaRafaga() throws Exception {
+        LimitadorGcra limitadorRafaga = new LimitadorGcra(new LimiteTasa(1, Duration.ofHours(1), 100),
+                MAXIMO_CLIENTES);
+        int hilos = 8;
+        int intentosPorHilo = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    int admitidas = 0;
+                    for (int i = 0; i < intentosPorHilo; i++) {
+                        if (LimitadorSolicitudes.admitida(limitadorRafaga.intentar("cliente"))) {
+                            admitidas++;
+                        }
+                    }
+                    return admitidas;
+                }));
+            }
+            inicio.countDown();
+
+            int admitidas = 0;
+            for (Future<Integer> resultado : resultados) {
+                admitidas += resultado.get();
+            }
+            assertEquals(100, admitidas);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,115 @@
+package com.cpalacios.tenpo.app.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransaccionNumeroIndexTest {
+
+    private TransaccionRepository transaccionRepository;
+    private PlatformTransactionManager transactionManager;
+    private TransaccionNumeroIndex indice;
+
+    @BeforeEach
+    void setUp() {
+        transaccionRepository = mock(TransaccionRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(transaccionRepository.streamNumeros())
+                .thenAnswer(invocacion -> IntStream.rangeClosed(1, 1_000).map(i -> i * 3).boxed());
+
+        indice = new TransaccionNumeroIndex(transaccionRepository, transactionManager, true);
+    }
+
+    @Test
+    void existe_AntesDeConstruir_DeberiaConsultarLaBaseDeDatos() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        assertTrue(indice.existe(3, numero -> consultas.incrementAndGet() > 0));
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void existe_NumeroAusente_NoDeberiaConsultarLaBaseDeDatos() {
+        indice.construir();
+        AtomicInteger consultas = new AtomicInteger();
+
+        assertFalse(indice.existe(4, numero -> consultas.incrementAndGet() > 0));
+        assertFalse(indice.existe(3_001, numero -> consultas.incrementAndGet() > 0));
+        assertEquals(0, consultas.get());
+    }
+
+    @Test
+    void existe_NumeroPresente_DeberiaConfirmarEnLaBaseDeDatos() {
+        indice.construir();
+
+        assertTrue(indice.existe(300, numero -> true));
+        assertFalse(indice.existe(600, numero -> false));
+        assertEquals(0.5, indice.tasaFalsosPositivos());
+    }
+
+    @Test
+    void registrarYLiberar_DeberianActualizarElIndice() {
+        indice.construir();
+
+        indice.registrar(Integer.MAX_VALUE);
+        assertTrue(indice.existe(Integer.MAX_VALUE, numero -> true));
+
+        indice.liberar(3);
+        assertFalse(indice.existe(3, numero -> fail("No debería consultar la base de datos")));
+    }
+
+    @Test
+    void existentes_DeberiaConsultarSoloLosPosiblesPositivos() {
+        indice.construir();
+
+        List<Integer> existentes = indice.existentes(List.of(1, 2, 3, 6, 7), posibles -> {
+            assertEquals(List.of(3, 6), posibles.stream().sorted().toList());
+            return List.of(3);
+        });
+
+        assertEquals(List.of(3), existentes);
+    }
+
+    @Test
+    void existentes_SinPosiblesPositivos_NoDeberiaConsultarLaBaseDeDatos() {
+        indice.construir();
+
+        assertTrue(indice.existentes(List.of(1, 2, 4), posibles -> fail("No debería consultar la base de datos"))
+                .isEmpty());
+    }
+
+    @Test
+    void bindTo_DeberiaPublicarMemoriaYTasaDeFalsosPositivos() {
+        indice.construir();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        indice.bindTo(registry);
+
+        assertEquals(1_000, registry.get("transacciones.numeros.indice.cantidad").gauge().value());
+        // Los números 3..3000 ocupan una sola página de 8 KB
+        assertEquals(8 * 1024, registry.get("transacciones.numeros.indice.memoria").gauge().value());
+        assertEquals(0, registry.get("transacciones.numeros.indice.tasa.falsos.positivos").gauge().value());
+    }
+
+    @Test
+    void existe_Deshabilitado_DeberiaConsultarLaBaseDeDatos() {
+        TransaccionNumeroIndex deshabilitado = new TransaccionNumeroIndex(transaccionRepository, transactionManager,
+                false);
+        deshabilitado.alIniciar();
+
+        assertTrue(deshabilitado.existe(4, numero -> true));
+        verify(transaccionRepository, never()).streamNumeros();
+    }
+}
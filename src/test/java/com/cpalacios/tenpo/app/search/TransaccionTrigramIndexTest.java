@@ -0,0 +1,146 @@
+package com.cpalacios.tenpo.app.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+class TransaccionTrigramIndexTest {
+
+    private static final String[] NOMBRES = { "Juan Perez", "María José", "PEDRO soto", "Ana", "Carla Núñez" };
+    private static final String[] GIROS = { "Supermercado Lider", "Farmacia Cruz Verde", "Bencinera", "Café", "Librería" };
+
+    private TransaccionRepository transaccionRepository;
+    private TransaccionTrigramIndex indice;
+    private List<TransaccionResumen> transacciones;
+
+    @BeforeEach
+    void setUp() {
+        transaccionRepository = mock(TransaccionRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        Random random = new Random(42);
+        transacciones = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            transacciones.add(new TransaccionResumen(id, (int) id,
+                    NOMBRES[random.nextInt(NOMBRES.length)] + " " + random.nextInt(50),
+                    1000, LocalDateTime.of(2026, 1, 1, 0, 0),
+                    GIROS[random.nextInt(GIROS.length)]));
+        }
+        when(transaccionRepository.streamResumen()).thenAnswer(invocacion -> transacciones.stream());
+
+        indice = new TransaccionTrigramIndex(transaccionRepository, transactionManager, true);
+    }
+
+    @Test
+    void buscar_AntesDeConstruir_DeberiaDelegarEnSql() {
+        assertTrue(indice.buscar("juan").isEmpty());
+    }
+
+    @Test
+    void buscar_Deshabilitado_DeberiaDelegarEnSql() {
+        TransaccionTrigramIndex deshabilitado = new TransaccionTrigramIndex(transaccionRepository,
+                mock(PlatformTransactionManager.class), false);
+        deshabilitado.alIniciar();
+
+        assertFalse(deshabilitado.isListo());
+        assertTrue(deshabilitado.buscar("juan").isEmpty());
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    @Test
+    void buscar_TextoCorto_DeberiaDelegarEnSql() {
+        indice.construir();
+
+        assertTrue(indice.buscar("an").isEmpty());
+    }
+
+    @Test
+    void buscar_DeberiaCoincidirConBusquedaLineal() {
+        indice.construir();
+
+        for (String texto : List.of("juan", "PEREZ", "josé 1", "ia cruz", "ñez", "café", "mercado lid", "ana 4", "xyz")) {
+            Optional<long[]> resultado = indice.buscar(texto);
+            assertTrue(resultado.isPresent(), texto);
+            assertArrayEquals(busquedaLineal(texto), resultado.get(), texto);
+        }
+    }
+
+    @Test
+    void indexar_DeberiaReemplazarElTextoAnterior() {
+        indice.construir();
+
+        indice.indexar(1L, "Zacarías Flores", "Ferretería");
+
+        assertArrayEquals(new long[] { 1L }, indice.buscar("zacar").get());
+        assertArrayEquals(new long[] { 1L }, indice.buscar("ferret").get());
+        assertFalse(contiene(indice.buscar(transacciones.get(0).nombreTenpista()).get(), 1L));
+    }
+
+    @Test
+    void eliminar_DeberiaQuitarLaTransaccion() {
+        indice.construir();
+        String nombre = transacciones.get(0).nombreTenpista();
+
+        indice.eliminar(1L);
+
+        assertFalse(contiene(indice.buscar(nombre).get(), 1L));
+    }
+
+    @Test
+    void construir_NoDeberiaReagregarEliminadasDuranteElRecorrido() {
+        when(transaccionRepository.streamResumen()).thenAnswer(invocacion -> transacciones.stream().peek(t -> {
+            if (t.idTransaccion() == 1L) {
+                indice.eliminar(2L);
+            }
+        }));
+
+        indice.construir();
+
+        assertFalse(contiene(indice.buscar(transacciones.get(1).nombreTenpista()).get(), 2L));
+    }
+
+    @Test
+    void postingList_DeberiaMantenerOrdenSinDuplicados() {
+        PostingList lista = new PostingList();
+        for (long id : new long[] { 5, 1, 9, 5, 3, 12 }) {
+            lista.agregar(id);
+        }
+        lista.eliminar(9);
+
+        assertArrayEquals(new long[] { 1, 3, 5, 12 }, lista.aArreglo());
+
+        long[] candidatos = { 2, 3, 4, 5, 12, 13 };
+        int cantidad = lista.intersectarEn(candidatos, candidatos.length);
+        assertEquals(3, cantidad);
+        assertArrayEquals(new long[] { 3, 5, 12 }, Arrays.copyOf(candidatos, cantidad));
+    }
+
+    private long[] busquedaLineal(String texto) {
+        String consulta = texto.toLowerCase(Locale.ROOT);
+        return transacciones.stream()
+                .filter(t -> t.nombreTenpista().toLowerCase(Locale.ROOT).contains(consulta)
+                        || t.giroComercio().toLowerCase(Locale.ROOT).contains(consulta))
+                .mapToLong(TransaccionResumen::idTransaccion)
+                .toArray();
+    }
+
+    private static boolean contiene(long[] ids, long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+}
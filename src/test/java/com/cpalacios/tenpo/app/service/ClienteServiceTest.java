@@ -0,0 +1,129 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pruebas de {@link ClienteService} sobre H2, donde el upsert se ejecuta con
+ * {@code MERGE}.
+ *
+ * <p>
+ * Las pruebas no se ejecutan dentro de la transacción de {@link DataJpaTest}
+ * para que cada upsert se confirme, como ocurre en producción. La caché del
+ * servicio se comparte entre pruebas, por lo que cada una usa nombres
+ * propios.
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ClienteService.class)
+class ClienteServiceTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private ClienteService service;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void limpiar() {
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void obtenerOCrear_DeberiaResolverElMismoClienteSinDistinguirMayusculas() {
+        ClienteEntity creado = service.obtenerOCrear("Ana Rojas");
+        service.invalidar("Ana Rojas");
+        ClienteEntity existente = service.obtenerOCrear("  ANA ROJAS ");
+
+        assertEquals(creado.getIdCliente(), existente.getIdCliente());
+        assertEquals("Ana Rojas", existente.getNombreTenpista());
+        assertEquals(1, clienteRepository.count());
+    }
+
+    @Test
+    void obtenerOCrear_ClienteEnCache_NoDeberiaConsultarLaBaseDeDatos() {
+        ClienteEntity creado = service.obtenerOCrear("Cliente Frecuente");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ClienteEntity cacheado = service.obtenerOCrear("cliente frecuente");
+
+        assertEquals(creado.getIdCliente(), cacheado.getIdCliente());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void obtenerOCrear_Lote_DeberiaBuscarExistentesYCrearSoloLosNuevos() {
+        ClienteEntity existente = clienteRepository.save(
+                ClienteEntity.builder().nombreTenpista("Lote Existente").build());
+
+        Map<String, ClienteEntity> clientes = service.obtenerOCrear(
+                List.of("LOTE EXISTENTE", "Lote Nuevo", "lote nuevo"));
+
+        assertEquals(Set.of("lote existente", "lote nuevo"), clientes.keySet());
+        assertEquals(existente.getIdCliente(), clientes.get("lote existente").getIdCliente());
+        assertEquals(2, clienteRepository.count());
+    }
+
+    @Test
+    void obtenerOCrear_Concurrente_DeberiaCrearUnSoloCliente() throws Exception {
+        CountDownLatch partida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<Long>> tareas = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                String nombre = h % 2 == 0 ? "Cliente Concurrente" : "CLIENTE CONCURRENTE";
+                tareas.add(executor.submit(() -> {
+                    partida.await();
+                    return service.obtenerOCrear(nombre).getIdCliente();
+                }));
+            }
+            partida.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> tarea : tareas) {
+                ids.add(tarea.get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, ids.size());
+            assertEquals(1, clienteRepository.count());
+            assertEquals(ids, clienteRepository.findAll().stream()
+                    .map(ClienteEntity::getIdCliente)
+                    .collect(Collectors.toSet()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.IdempotenciaRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pruebas de integración del header {@code Idempotency-Key}. Cada llamada al
+ * servicio confirma su propia transacción, como ocurre en producción.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ IdempotenciaService.class, TransaccionService.class, ClienteService.class, TransaccionMapper.class,
+        TransaccionTrigramIndex.class, TransaccionNumeroIndex.class, JacksonAutoConfiguration.class })
+class IdempotenciaServiceTest {
+
+    private static final int HILOS = 16;
+    private static final String CLIENTE = "cliente-1";
+
+    @Autowired
+    private IdempotenciaService service;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private IdempotenciaRepository idempotenciaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void limpiar() {
+        idempotenciaRepository.deleteAllInBatch();
+        transaccionRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void crearTransaccion_Reintento_DeberiaResponderDesdeCacheSinConsultarLaBaseDeDatos() {
+        ResultadoIdempotente original = service.crearTransaccion(CLIENTE, "clave-reintento", request(1));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ResultadoIdempotente repetido = service.crearTransaccion(CLIENTE, "clave-reintento", request(1));
+
+        assertFalse(original.repetida());
+        assertTrue(repetido.repetida());
+        assertEquals(original.respuesta(), repetido.respuesta());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void crearTransaccion_SinCache_DeberiaResponderDesdeLaTabla() {
+        ResultadoIdempotente original = service.crearTransaccion(CLIENTE, "clave-tabla", request(1));
+
+        IdempotenciaService otraInstancia = new IdempotenciaService(transaccionService, idempotenciaRepository,
+                objectMapper, transactionManager, 100, Duration.ofHours(1), Duration.ofSeconds(5));
+        ResultadoIdempotente repetido = otraInstancia.crearTransaccion(CLIENTE, "clave-tabla", request(1));
+
+        assertTrue(repetido.repetida());
+        assertEquals(original.respuesta(), repetido.respuesta());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void crearTransaccion_MismaClaveConOtraSolicitud_DeberiaLanzarBusinessException() {
+        service.crearTransaccion(CLIENTE, "clave-distinta", request(1));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.crearTransaccion(CLIENTE, "clave-distinta", request(2)));
+        assertEquals("La clave de idempotencia ya fue utilizada con una solicitud distinta", ex.getMessage());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void crearTransaccion_MismaClaveDeOtroCliente_NoDeberiaRepetirLaRespuesta() {
+        ResultadoIdempotente propia = service.crearTransaccion(CLIENTE, "clave-compartida", request(1));
+
+        ResultadoIdempotente otroCliente = service.crearTransaccion("cliente-2", "clave-compartida", request(2));
+
+        assertFalse(otroCliente.repetida());
+        assertNotEquals(propia.respuesta().getIdTransaccion(), otroCliente.respuesta().getIdTransaccion());
+        assertEquals(2, transaccionRepository.count());
+        assertTrue(idempotenciaRepository.existsById(
+                IdempotenciaService.claveCliente("cliente-2", "clave-compartida")));
+    }
+
+    @Test
+    void crearTransaccion_ErrorDeNegocio_NoDeberiaRegistrarLaClave() {
+        transaccionService.crearTransaccion(request(1));
+
+        assertThrows(BusinessException.class, () -> service.crearTransaccion(CLIENTE, "clave-error", request(1)));
+        assertEquals(0, idempotenciaRepository.count());
+    }
+
+    @Test
+    void crearTransaccion_DuplicadosConcurrentes_DeberianEsperarLaPrimeraEjecucion() throws Exception {
+        CountDownLatch partida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<ResultadoIdempotente>> tareas = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(executor.submit(() -> {
+                    partida.await();
+                    return service.crearTransaccion(CLIENTE, "clave-concurrente", request(7));
+                }));
+            }
+            partida.countDown();
+
+            List<ResultadoIdempotente> resultados = new ArrayList<>();
+            for (Future<ResultadoIdempotente> tarea : tareas) {
+                resultados.add(tarea.get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, resultados.stream().filter(r -> !r.repetida()).count());
+            assertEquals(1, resultados.stream().map(r -> r.respuesta().getIdTransaccion()).distinct().count());
+            assertEquals(1, transaccionRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void crearTransaccion_ClaveDemasiadoLarga_DeberiaLanzarBusinessException() {
+        String clave = "x".repeat(IdempotenciaService.LARGO_MAXIMO_CLAVE + 1);
+
+        assertThrows(BusinessException.class, () -> service.crearTransaccion(CLIENTE, clave, request(1)));
+    }
+
+    private static TransaccionRequestDTO request(int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista("Cliente")
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
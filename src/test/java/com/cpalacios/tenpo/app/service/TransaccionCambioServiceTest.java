@@ -0,0 +1,166 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cpalacios.tenpo.app.dto.TransaccionCambiosDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionUpdateDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+/**
+ * Pruebas de la sincronización incremental sobre el log de cambios que
+ * registran los servicios de escritura.
+ */
+@DataJpaTest(properties = "transacciones.cambios.margen-confirmacion=PT0S")
+@Import({ TransaccionCambioService.class, TransaccionService.class, TransaccionUpdateService.class,
+        TransaccionDeleteService.class, ClienteService.class, TransaccionMapper.class, TransaccionTrigramIndex.class,
+        TransaccionNumeroIndex.class })
+class TransaccionCambioServiceTest {
+
+    @Autowired
+    private TransaccionCambioService service;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TransaccionUpdateService updateService;
+
+    @Autowired
+    private TransaccionDeleteService deleteService;
+
+    @Autowired
+    private TransaccionCambioRepository cambioRepository;
+
+    @AfterEach
+    void restaurar() {
+        configurar("margenConfirmacion", Duration.ZERO);
+        configurar("retencion", Duration.ofDays(7));
+    }
+
+    @Test
+    void buscarCambios_DeberiaAgruparPorTransaccionConSuEstadoActual() {
+        long inicio = versionActual(9100);
+        TransaccionResponseDTO actualizada = transaccionService.crearTransaccion(request("Ana", 9101));
+        TransaccionResponseDTO eliminada = transaccionService.crearTransaccion(request("Ana", 9102));
+        updateService.actualizarTransaccion(TransaccionUpdateDTO.builder()
+                .idTransaccion(actualizada.getIdTransaccion())
+                .numeroTransaccion(9101)
+                .montoPesos(2500)
+                .giroComercio("Comercio Nuevo")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 2, 10, 0))
+                .nombreTenpista("Ana")
+                .build());
+        deleteService.eliminarTransaccion(eliminada.getIdTransaccion());
+
+        TransaccionCambiosDTO cambios = service.buscarCambios(inicio, null);
+
+        assertEquals(1, cambios.getActualizadas().size());
+        assertEquals(actualizada.getIdTransaccion(), cambios.getActualizadas().get(0).getIdTransaccion());
+        assertEquals(2500, cambios.getActualizadas().get(0).getMontoPesos());
+        assertEquals("Comercio Nuevo", cambios.getActualizadas().get(0).getGiroComercio());
+        assertEquals(List.of(eliminada.getIdTransaccion()), cambios.getEliminadas());
+        assertEquals(cambioRepository.buscarVersionMaxima(), cambios.getVersion());
+        assertFalse(cambios.isTieneMas());
+
+        TransaccionCambiosDTO sinCambios = service.buscarCambios(cambios.getVersion(), null);
+        assertTrue(sinCambios.getActualizadas().isEmpty());
+        assertTrue(sinCambios.getEliminadas().isEmpty());
+        assertEquals(cambios.getVersion(), sinCambios.getVersion());
+    }
+
+    @Test
+    void buscarCambios_DeberiaPaginarHastaEntregarTodosLosCambios() {
+        long version = versionActual(9199);
+        for (int i = 0; i < 5; i++) {
+            transaccionService.crearTransaccion(request("Paginado", 9200 + i));
+        }
+
+        List<Integer> numeros = new ArrayList<>();
+        List<Boolean> tieneMas = new ArrayList<>();
+        TransaccionCambiosDTO pagina;
+        do {
+            pagina = service.buscarCambios(version, 2);
+            pagina.getActualizadas().forEach(t -> numeros.add(t.getNumeroTransaccion()));
+            tieneMas.add(pagina.isTieneMas());
+            version = pagina.getVersion();
+        } while (pagina.isTieneMas());
+
+        assertEquals(List.of(9200, 9201, 9202, 9203, 9204), numeros);
+        assertEquals(List.of(true, true, false), tieneMas);
+    }
+
+    @Test
+    void buscarCambios_CambiosSinConfirmar_NoDeberiaEntregarlosNiAvanzarLaVersion() {
+        long inicio = versionActual(9300);
+        transaccionService.crearTransaccion(request("Reciente", 9301));
+        configurar("margenConfirmacion", Duration.ofHours(1));
+
+        TransaccionCambiosDTO cambios = service.buscarCambios(inicio, null);
+
+        assertTrue(cambios.getActualizadas().isEmpty());
+        assertEquals(inicio, cambios.getVersion());
+        assertFalse(cambios.isTieneMas());
+    }
+
+    @Test
+    void buscarCambios_VersionNoDisponible_DeberiaPedirSincronizacionCompleta() {
+        transaccionService.crearTransaccion(request("Vencido", 9401));
+        transaccionService.crearTransaccion(request("Vencido", 9402));
+        transaccionService.crearTransaccion(request("Vencido", 9403));
+        configurar("retencion", Duration.ofHours(-1));
+        service.eliminarVencidos();
+
+        // Se conserva solo el cambio más reciente
+        long ultima = cambioRepository.buscarVersionMaxima();
+        assertEquals(1, cambioRepository.count());
+        assertThrows(BusinessException.class, () -> service.buscarCambios(ultima - 2, null));
+        assertThrows(BusinessException.class, () -> service.buscarCambios(ultima + 1, null));
+
+        TransaccionCambiosDTO vigente = service.buscarCambios(ultima - 1, null);
+        assertEquals(9403, vigente.getActualizadas().get(0).getNumeroTransaccion());
+        assertEquals(ultima, vigente.getVersion());
+    }
+
+    /**
+     * Registra un cambio inicial y retorna la versión actual, desde la que
+     * sincroniza la prueba.
+     */
+    private long versionActual(int numeroInicial) {
+        transaccionService.crearTransaccion(request("Inicial", numeroInicial));
+        return service.buscarCambios(null, null).getVersion();
+    }
+
+    private void configurar(String campo, Duration valor) {
+        Object destino = AopTestUtils.getTargetObject(service);
+        ReflectionTestUtils.setField(destino, campo, valor);
+    }
+
+    private static TransaccionRequestDTO request(String nombre, int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista(nombre)
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -3,28 +3,49 @@ package com.cpalacios.tenpo.app.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
 import java.util.Optional;
 
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 class TransaccionDeleteServiceTest {
 
     @Mock
     private TransaccionRepository transaccionRepository;
 
+    @Mock
+    private TransaccionCambioRepository cambioRepository;
+
     @Mock
     private ClienteRepository clienteRepository;
 
+    @Mock
+    private ClienteService clienteService;
+
+    @Mock
+    private TransaccionTrigramIndex indiceTexto;
+
+    @Mock
+    private TransaccionNumeroIndex indiceNumeros;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
     @InjectMocks
     private TransaccionDeleteService service;
 
@@ -59,7 +80,12 @@ class TransaccionDeleteServiceTest {
         assertEquals("La transacción con id 1 fue eliminada correctamente", resultado);
 
         verify(transaccionRepository).delete(transaccion);
+        verify(clienteRepository).decrementarTotalTransacciones(1L);
+        verify(indiceNumeros).liberar(100);
+        verify(cambioRepository).registrar(List.of(1L), true);
+        verify(eventos).publishEvent(TransaccionEventoDTO.eliminada(1L));
         verify(clienteRepository).delete(cliente); // Cliente eliminado porque solo tenía una transacción
+        verify(clienteService).invalidar(cliente.getNombreTenpista());
     }
 
     @Test
@@ -0,0 +1,297 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TransaccionEventoServiceTest {
+
+    private TransaccionEventoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = crear(Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.detener();
+    }
+
+    @Test
+    void alConfirmar_DeberiaEnviarElEventoATodosLosSuscriptores() throws Exception {
+        EmitterDePrueba primero = new EmitterDePrueba(1);
+        EmitterDePrueba segundo = new EmitterDePrueba(1);
+        service.suscribir(primero, null);
+        service.suscribir(segundo, null);
+
+        service.alConfirmar(creada(10L));
+
+        for (EmitterDePrueba emitter : List.of(primero, segundo)) {
+            assertTrue(emitter.recibidos.await(5, TimeUnit.SECONDS));
+            String evento = emitter.eventos.get(0);
+            assertTrue(evento.matches("(?s).*id:[0-9a-f]{8}-1\n.*"), evento);
+            assertTrue(evento.contains("event:CREADA\n"));
+            assertTrue(evento.contains("\"idTransaccion\":10"));
+        }
+    }
+
+    @Test
+    void suscribir_ConLastEventId_DeberiaReenviarLosEventosPosteriores() throws Exception {
+        EmitterDePrueba anterior = new EmitterDePrueba(1);
+        service.suscribir(anterior, null);
+        service.alConfirmar(creada(1L));
+        assertTrue(anterior.recibidos.await(5, TimeUnit.SECONDS));
+        service.alConfirmar(TransaccionEventoDTO.eliminada(1L));
+        service.alConfirmar(creada(2L));
+
+        EmitterDePrueba emitter = new EmitterDePrueba(2);
+        service.suscribir(emitter, campo(anterior.eventos.get(0), "id:"));
+
+        assertTrue(emitter.recibidos.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("2:ELIMINADA", "3:CREADA"), resumen(emitter));
+    }
+
+    @Test
+    void suscribir_ConLastEventIdFueraDelHistorial_DeberiaPedirResincronizar() throws Exception {
+        for (long id = 1; id <= 6; id++) {
+            service.alConfirmar(creada(id));
+        }
+
+        EmitterDePrueba antiguo = new EmitterDePrueba(1);
+        EmitterDePrueba posteriorAReinicio = new EmitterDePrueba(1);
+        service.suscribir(antiguo, "1");
+        service.suscribir(posteriorAReinicio, "99");
+
+        assertTrue(antiguo.recibidos.await(5, TimeUnit.SECONDS));
+        assertTrue(posteriorAReinicio.recibidos.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("6:" + TransaccionEventoService.RESINCRONIZAR), resumen(antiguo));
+        assertEquals(List.of("6:" + TransaccionEventoService.RESINCRONIZAR), resumen(posteriorAReinicio));
+    }
+
+    @Test
+    void suscribir_ConLastEventIdDeOtraInstancia_DeberiaPedirResincronizar() throws Exception {
+        EmitterDePrueba propio = new EmitterDePrueba(3);
+        service.suscribir(propio, null);
+        for (long id = 1; id <= 3; id++) {
+            service.alConfirmar(creada(id));
+        }
+        assertTrue(propio.recibidos.await(5, TimeUnit.SECONDS));
+        String idPropio = campo(propio.eventos.get(0), "id:");
+        // Misma secuencia, emitida por otra instancia o antes de un reinicio
+        TransaccionEventoService otraInstancia = crear(Duration.ofSeconds(30));
+        EmitterDePrueba reconectado = new EmitterDePrueba(1);
+        EmitterDePrueba sinInstancia = new EmitterDePrueba(1);
+
+        try {
+            otraInstancia.alConfirmar(creada(1L));
+            otraInstancia.alConfirmar(creada(2L));
+            otraInstancia.suscribir(reconectado, idPropio);
+            otraInstancia.suscribir(sinInstancia, "1");
+
+            assertTrue(reconectado.recibidos.await(5, TimeUnit.SECONDS));
+            assertTrue(sinInstancia.recibidos.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("2:" + TransaccionEventoService.RESINCRONIZAR), resumen(reconectado));
+            assertEquals(List.of("2:" + TransaccionEventoService.RESINCRONIZAR), resumen(sinInstancia));
+        } finally {
+            otraInstancia.detener();
+        }
+    }
+
+    @Test
+    void alConfirmar_SuscriptorLento_DeberiaDesconectarseSinAfectarAlResto() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmitterDePrueba lento = new EmitterDePrueba(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        EmitterDePrueba rapido = new EmitterDePrueba(20);
+        service.suscribir(lento, null);
+        service.suscribir(rapido, null);
+
+        for (long id = 1; id <= 20; id++) {
+            service.alConfirmar(creada(id));
+            esperarRecibidos(rapido, (int) id);
+        }
+
+        assertEquals(1, service.cantidadDesconectados());
+        assertEquals(1, service.cantidadSuscriptores());
+        liberar.countDown();
+        assertTrue(lento.completado.await(5, TimeUnit.SECONDS));
+        assertTrue(rapido.recibidos.await(5, TimeUnit.SECONDS));
+        assertEquals(20, rapido.eventos.size());
+    }
+
+    @Test
+    void alConfirmar_EscriturasBloqueadas_NoDeberianDetenerAlRestoDeSuscriptores() throws Exception {
+        service.detener();
+        service = crear(Duration.ofMillis(100));
+        CountDownLatch liberar = new CountDownLatch(1);
+        // Tantos suscriptores bloqueados como hilos de envío
+        List<EmitterDePrueba> bloqueados = List.of(bloqueado(liberar), bloqueado(liberar));
+        EmitterDePrueba rapido = new EmitterDePrueba(20);
+        bloqueados.forEach(emitter -> service.suscribir(emitter, null));
+        service.suscribir(rapido, null);
+
+        try {
+            for (long id = 1; id <= 20; id++) {
+                service.alConfirmar(creada(id));
+                esperarRecibidos(rapido, (int) id);
+            }
+
+            assertEquals(20, rapido.eventos.size());
+            assertEquals(2, service.cantidadDesconectados());
+            assertEquals(1, service.cantidadSuscriptores());
+        } finally {
+            liberar.countDown();
+        }
+        for (EmitterDePrueba emitter : bloqueados) {
+            assertTrue(emitter.completado.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void alConfirmar_SinHilosDeEscrituraLibres_DeberiaDesconectarAlSuscriptor() throws Exception {
+        service.detener();
+        service = crear(Duration.ofMillis(100), 2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        // Un suscriptor bloqueado más que hilos de escritura
+        List<EmitterDePrueba> bloqueados = List.of(bloqueado(liberar), bloqueado(liberar), bloqueado(liberar));
+        bloqueados.forEach(emitter -> service.suscribir(emitter, null));
+
+        try {
+            service.alConfirmar(creada(1L));
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.cantidadDesconectados() < 3 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(3, service.cantidadDesconectados());
+            assertEquals(0, service.cantidadSuscriptores());
+            // El rechazado se cierra sin esperar a los bloqueados
+            assertEquals(1, bloqueados.stream().filter(emitter -> emitter.completado.getCount() == 0).count());
+        } finally {
+            liberar.countDown();
+        }
+        for (EmitterDePrueba emitter : bloqueados) {
+            assertTrue(emitter.completado.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static TransaccionEventoService crear(Duration esperaEnvio) {
+        return crear(esperaEnvio, 8);
+    }
+
+    private static TransaccionEventoService crear(Duration esperaEnvio, int hilosEscritura) {
+        return new TransaccionEventoService(new ObjectMapper().findAndRegisterModules(), 4, 8, 2, hilosEscritura,
+                Duration.ofMinutes(1), esperaEnvio);
+    }
+
+    /**
+     * Emisor cuya escritura bloquea hasta liberarse, como la de un cliente
+     * con la ventana TCP llena.
+     */
+    private static EmitterDePrueba bloqueado(CountDownLatch liberar) {
+        return new EmitterDePrueba(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+    }
+
+    /**
+     * Espera a que el suscriptor reciba los eventos publicados, para que solo
+     * el suscriptor bloqueado llene su buffer.
+     */
+    private static void esperarRecibidos(EmitterDePrueba emitter, int cantidad) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.eventos.size() < cantidad && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static TransaccionEventoDTO creada(Long idTransaccion) {
+        return TransaccionEventoDTO.creada(TransaccionResponseDTO.builder()
+                .idTransaccion(idTransaccion)
+                .numeroTransaccion(idTransaccion.intValue())
+                .build());
+    }
+
+    /**
+     * Secuencia y nombre de cada evento recibido, con la forma
+     * {@code secuencia:nombre}; se omite el identificador de la instancia.
+     */
+    private static List<String> resumen(EmitterDePrueba emitter) {
+        return emitter.eventos.stream()
+                .map(evento -> secuencia(campo(evento, "id:")) + ":" + campo(evento, "event:"))
+                .collect(Collectors.toList());
+    }
+
+    private static String secuencia(String id) {
+        return id.substring(id.lastIndexOf('-') + 1);
+    }
+
+    private static String campo(String evento, String prefijo) {
+        return evento.lines()
+                .filter(linea -> linea.startsWith(prefijo))
+                .map(linea -> linea.substring(prefijo.length()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Emisor que registra los eventos enviados en lugar de escribirlos en una
+     * respuesta HTTP.
+     */
+    private static class EmitterDePrueba extends SseEmitter {
+
+        final List<String> eventos = new CopyOnWriteArrayList<>();
+        final CountDownLatch recibidos;
+        final CountDownLatch completado = new CountDownLatch(1);
+
+        EmitterDePrueba(int esperados) {
+            this.recibidos = new CountDownLatch(esperados);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            eventos.add(builder.build().stream()
+                    .map(dato -> dato.getData().toString())
+                    .collect(Collectors.joining()));
+            recibidos.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completado.countDown();
+        }
+    }
+}
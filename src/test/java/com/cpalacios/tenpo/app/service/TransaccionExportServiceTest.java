@@ -0,0 +1,152 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@Import({ TransaccionExportService.class, TransaccionMapper.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TransaccionExportServiceTest {
+
+    private static final int TOTAL_FILAS = 100_000;
+    private static final int MUESTREO_CADA = 10_000;
+    private static final long MAXIMO_CRECIMIENTO_HEAP = 16L * 1024 * 1024;
+
+    @Autowired
+    private TransaccionExportService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void exportar_Ndjson_DeberiaEscribirUnaLineaPorTransaccion() throws Exception {
+        insertarTransacciones(3);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long total = service.exportar(FormatoExportacion.NDJSON, salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, total);
+        assertEquals(3, lineas.length);
+        assertTrue(lineas[0].startsWith("{"));
+        assertTrue(lineas[0].contains("\"nombreTenpista\":\"Cliente 0\""));
+    }
+
+    @Test
+    void exportar_Csv_DeberiaEscribirEncabezadoYEscaparValores() throws Exception {
+        insertarTransacciones(1);
+        jdbcTemplate.update("UPDATE transacciones SET giro_comercio = 'Cafe, \"Central\"'");
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        service.exportar(FormatoExportacion.CSV, salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(TransaccionExportService.ENCABEZADO_CSV, lineas[0]);
+        assertTrue(lineas[1].contains(",\"Cafe, \"\"Central\"\"\","));
+    }
+
+    @Test
+    void exportar_ConMuchasFilas_DeberiaMantenerMemoriaAcotada() throws Exception {
+        insertarTransacciones(TOTAL_FILAS);
+        entityManager.clear();
+        MedidorSalida salida = new MedidorSalida(entityManager.unwrap(Session.class));
+
+        long total = service.exportar(FormatoExportacion.NDJSON, salida);
+
+        assertEquals(TOTAL_FILAS, total);
+        assertEquals(TOTAL_FILAS, salida.lineas);
+        // El contexto de persistencia nunca retiene más que la fila en curso y su cliente
+        assertTrue(salida.maximoEntidadesGestionadas <= 2,
+                "Entidades gestionadas: " + salida.maximoEntidadesGestionadas);
+        assertTrue(salida.crecimientoHeap < MAXIMO_CRECIMIENTO_HEAP,
+                "Crecimiento de heap durante la exportación: " + salida.crecimientoHeap);
+    }
+
+    private void insertarTransacciones(int cantidad) {
+        int clientes = Math.min(cantidad, 100);
+        for (int i = 0; i < clientes; i++) {
+            jdbcTemplate.update("INSERT INTO clientes (id_cliente, nombre_tenpista, nombre_normalizado) VALUES (?, ?, ?)",
+                    i + 1, "Cliente " + i, "cliente " + i);
+        }
+        Timestamp fecha = Timestamp.valueOf(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transacciones (id_transaccion, numero_transaccion, monto_pesos, giro_comercio, fecha_transaccion, id_cliente) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                java.util.stream.IntStream.range(0, cantidad)
+                        .mapToObj(i -> new Object[] { i + 1, i + 1, 1000 + i, "Comercio " + (i % 50), fecha,
+                                (i % clientes) + 1 })
+                        .toList());
+    }
+
+    /**
+     * Salida que descarta los bytes escritos y, cada cierta cantidad de
+     * líneas, mide el heap usado y el tamaño del contexto de persistencia.
+     *
+     * <p>
+     * El crecimiento se mide contra la menor medición anterior: si la primera
+     * medición aún incluye basura de otras pruebas, su liberación posterior
+     * no cuenta como crecimiento.
+     * </p>
+     */
+    private static class MedidorSalida extends OutputStream {
+
+        private final MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        private final Session session;
+
+        long lineas;
+        int maximoEntidadesGestionadas;
+        long minimoHeap = Long.MAX_VALUE;
+        long crecimientoHeap;
+
+        MedidorSalida(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lineas++;
+                maximoEntidadesGestionadas = Math.max(maximoEntidadesGestionadas,
+                        session.unwrap(org.hibernate.engine.spi.SessionImplementor.class)
+                                .getPersistenceContext().getNumberOfManagedEntities());
+                if (lineas % MUESTREO_CADA == 0) {
+                    System.gc();
+                    long usado = memoria.getHeapMemoryUsage().getUsed();
+                    minimoHeap = Math.min(minimoHeap, usado);
+                    crecimientoHeap = Math.max(crecimientoHeap, usado - minimoHeap);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
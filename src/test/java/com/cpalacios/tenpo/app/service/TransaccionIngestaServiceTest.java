@@ -0,0 +1,260 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionIngestaDTO.Estado;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResultadoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.exception.CapacidadExcedidaException;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+
+class TransaccionIngestaServiceTest {
+
+    private TransaccionLoteService loteService;
+    private TransaccionRepository transaccionRepository;
+    private TransaccionNumeroIndex indiceNumeros;
+    private TransaccionIngestaService service;
+
+    /**
+     * Tamaños de los grupos recibidos por el servicio de lotes.
+     */
+    private final List<Integer> grupos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        loteService = mock(TransaccionLoteService.class);
+        transaccionRepository = mock(TransaccionRepository.class);
+        indiceNumeros = new TransaccionNumeroIndex(transaccionRepository, null, false);
+        when(loteService.crearLote(anyList())).thenAnswer(this::registrarTodas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.detener();
+        }
+    }
+
+    @Test
+    void encolar_DeberiaRegistrarEnGruposYActualizarElEstado() throws Exception {
+        service = crear(100, 10, Duration.ofMillis(200));
+        service.iniciar();
+
+        List<TransaccionIngestaDTO> aceptadas = IntStream.rangeClosed(1, 25)
+                .mapToObj(numero -> service.encolar(request(numero)))
+                .toList();
+
+        assertTrue(aceptadas.stream().allMatch(a -> a.getEstado() == Estado.PENDIENTE));
+        for (TransaccionIngestaDTO aceptada : aceptadas) {
+            TransaccionIngestaDTO estado = esperarFinal(aceptada.getIdSeguimiento());
+            assertEquals(Estado.REGISTRADA, estado.getEstado());
+            assertEquals(aceptada.getNumeroTransaccion(), estado.getTransaccion().getNumeroTransaccion());
+        }
+        assertEquals(25, grupos.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(grupos.stream().allMatch(tamano -> tamano <= 10));
+        assertTrue(grupos.size() < 25, "Las transacciones deberían escribirse agrupadas");
+    }
+
+    @Test
+    void encolar_NumeroEnCurso_DeberiaRechazarse() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        bloquearEscritor(liberar);
+        service = crear(10, 10, Duration.ofMillis(10));
+        service.iniciar();
+
+        service.encolar(request(1));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> service.encolar(request(1)));
+        assertTrue(exception.getMessage().contains("Ya existe"));
+        liberar.countDown();
+    }
+
+    @Test
+    void encolar_NumeroRegistrado_DeberiaRechazarse() {
+        when(transaccionRepository.existsByNumeroTransaccion(7)).thenReturn(true);
+        service = crear(10, 10, Duration.ofMillis(10));
+        service.iniciar();
+
+        assertThrows(BusinessException.class, () -> service.encolar(request(7)));
+    }
+
+    @Test
+    void encolar_BufferLleno_DeberiaLanzarCapacidadExcedidaYVaciarseAlDetener() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch escribiendo = bloquearEscritor(liberar);
+        service = crear(1, 10, Duration.ofMillis(10));
+        service.iniciar();
+
+        TransaccionIngestaDTO enEscritura = service.encolar(request(1));
+        assertTrue(escribiendo.await(5, TimeUnit.SECONDS));
+        TransaccionIngestaDTO enBuffer = service.encolar(request(2));
+
+        assertThrows(CapacidadExcedidaException.class, () -> service.encolar(request(3)));
+
+        liberar.countDown();
+        service.detener();
+
+        assertEquals(Estado.REGISTRADA, service.consultar(enEscritura.getIdSeguimiento()).getEstado());
+        assertEquals(Estado.REGISTRADA, service.consultar(enBuffer.getIdSeguimiento()).getEstado());
+        assertThrows(CapacidadExcedidaException.class, () -> service.encolar(request(4)));
+    }
+
+    @Test
+    void registrar_FallaDelGrupo_DeberiaReintentarPorSeparado() throws Exception {
+        when(loteService.crearLote(anyList())).thenAnswer(invocacion -> {
+            List<TransaccionRequestDTO> lote = invocacion.getArgument(0);
+            if (lote.size() > 1) {
+                throw new BusinessException("La Transaccion no se logro registrar");
+            }
+            if (lote.get(0).getNumeroTransaccion() == 2) {
+                throw new IllegalStateException("Error de base de datos");
+            }
+            return registrarTodas(invocacion);
+        });
+        service = crear(10, 10, Duration.ofMillis(200));
+        service.iniciar();
+
+        TransaccionIngestaDTO primera = service.encolar(request(1));
+        TransaccionIngestaDTO segunda = service.encolar(request(2));
+
+        assertEquals(Estado.REGISTRADA, esperarFinal(primera.getIdSeguimiento()).getEstado());
+        TransaccionIngestaDTO rechazada = esperarFinal(segunda.getIdSeguimiento());
+        assertEquals(Estado.RECHAZADA, rechazada.getEstado());
+        assertEquals("La Transaccion '2' no se logro registrar", rechazada.getError());
+    }
+
+    @Test
+    void encolar_DetenidaDuranteLaValidacion_NoDeberiaQuedarPendiente() {
+        service = crear(10, 10, Duration.ofMillis(10));
+        service.iniciar();
+        // Se detiene entre la verificación de aceptando y el offer al buffer
+        when(transaccionRepository.existsByNumeroTransaccion(3)).thenAnswer(invocacion -> {
+            service.detener();
+            return false;
+        });
+
+        assertThrows(CapacidadExcedidaException.class, () -> service.encolar(request(3)));
+        verify(loteService, never()).crearLote(anyList());
+    }
+
+    @Test
+    void detener_EsperaVencida_DeberiaRechazarLasQueQuedanEnElBuffer() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch escribiendo = bloquearEscritor(liberar);
+        service = new TransaccionIngestaService(loteService, transaccionRepository, indiceNumeros, true, 10, 1,
+                Duration.ofMillis(10), Duration.ofHours(1), 1_000, Duration.ofMillis(50));
+        service.iniciar();
+
+        service.encolar(request(1));
+        assertTrue(escribiendo.await(5, TimeUnit.SECONDS));
+        TransaccionIngestaDTO enBuffer = service.encolar(request(2));
+        try {
+            service.detener();
+        } finally {
+            liberar.countDown();
+        }
+
+        TransaccionIngestaDTO estado = service.consultar(enBuffer.getIdSeguimiento());
+        assertEquals(Estado.RECHAZADA, estado.getEstado());
+        assertTrue(estado.getError().contains("se detuvo"));
+    }
+
+    @Test
+    void encolar_Deshabilitada_DeberiaRechazarse() {
+        service = new TransaccionIngestaService(loteService, transaccionRepository, indiceNumeros, false, 10, 10,
+                Duration.ofMillis(10), Duration.ofHours(1), 1_000, Duration.ofSeconds(5));
+        service.iniciar();
+
+        assertThrows(BusinessException.class, () -> service.encolar(request(1)));
+    }
+
+    @Test
+    void consultar_IdInexistente_DeberiaLanzarExcepcion() {
+        service = crear(10, 10, Duration.ofMillis(10));
+
+        assertThrows(BusinessException.class, () -> service.consultar("no-existe"));
+    }
+
+    private TransaccionIngestaService crear(int capacidad, int tamanoGrupo, Duration esperaGrupo) {
+        return new TransaccionIngestaService(loteService, transaccionRepository, indiceNumeros, true, capacidad,
+                tamanoGrupo, esperaGrupo, Duration.ofHours(1), 1_000, Duration.ofSeconds(5));
+    }
+
+    /**
+     * Hace que la primera escritura espere hasta que se libere el latch.
+     *
+     * @return latch que se libera cuando el escritor comienza la primera escritura
+     */
+    private CountDownLatch bloquearEscritor(CountDownLatch liberar) {
+        CountDownLatch escribiendo = new CountDownLatch(1);
+        when(loteService.crearLote(anyList())).thenAnswer(invocacion -> {
+            escribiendo.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return registrarTodas(invocacion);
+        });
+        return escribiendo;
+    }
+
+    private TransaccionLoteResponseDTO registrarTodas(InvocationOnMock invocacion) {
+        List<TransaccionRequestDTO> lote = invocacion.getArgument(0);
+        synchronized (grupos) {
+            grupos.add(lote.size());
+        }
+        List<TransaccionLoteResultadoDTO> resultados = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            resultados.add(TransaccionLoteResultadoDTO.builder()
+                    .indice(i)
+                    .numeroTransaccion(lote.get(i).getNumeroTransaccion())
+                    .exitosa(true)
+                    .transaccion(TransaccionResponseDTO.builder()
+                            .numeroTransaccion(lote.get(i).getNumeroTransaccion())
+                            .build())
+                    .build());
+        }
+        return TransaccionLoteResponseDTO.builder()
+                .total(lote.size())
+                .exitosas(lote.size())
+                .resultados(resultados)
+                .build();
+    }
+
+    private TransaccionIngestaDTO esperarFinal(String idSeguimiento) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        TransaccionIngestaDTO estado = service.consultar(idSeguimiento);
+        while (estado.getEstado() == Estado.PENDIENTE && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            estado = service.consultar(idSeguimiento);
+        }
+        return estado;
+    }
+
+    private static TransaccionRequestDTO request(int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista("Cliente")
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
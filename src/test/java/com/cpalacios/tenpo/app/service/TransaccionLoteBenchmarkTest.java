@@ -0,0 +1,119 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+/**
+ * Benchmark de integración que compara transacciones insertadas por segundo
+ * mediante {@code /create} (una transacción por llamada) y mediante
+ * {@code /create/batch} (lotes con INSERT agrupados en JDBC).
+ *
+ * <p>
+ * Se ejecuta solo a pedido:
+ * </p>
+ *
+ * <pre>
+ * mvn test -Dtest=TransaccionLoteBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true" })
+@Import({ TransaccionService.class, TransaccionLoteService.class, ClienteService.class, TransaccionMapper.class,
+        TransaccionTrigramIndex.class, TransaccionNumeroIndex.class, ValidationAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransaccionLoteBenchmarkTest {
+
+    private static final int CLIENTES = 50;
+    private static final int TRANSACCIONES = CLIENTES * TransaccionService.MAX_TRANSACCIONES;
+    private static final int TAMANO_LOTE = 500;
+
+    @Autowired
+    private TransaccionService service;
+
+    @Autowired
+    private TransaccionLoteService loteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        limpiar();
+    }
+
+    @Test
+    void compararInsercionIndividualContraLote() {
+        // Calentamiento de ambos caminos
+        insertarIndividual(requests(0, 1_000));
+        limpiar();
+        insertarEnLotes(requests(0, 1_000));
+        limpiar();
+
+        long individual = medir(() -> insertarIndividual(requests(0, TRANSACCIONES)));
+        limpiar();
+        long lote = medir(() -> insertarEnLotes(requests(0, TRANSACCIONES)));
+
+        System.out.printf("%-12s %10d transacciones/s%n", "individual", individual);
+        System.out.printf("%-12s %10d transacciones/s%n", "lote", lote);
+
+        assertEquals(TRANSACCIONES, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacciones", Integer.class));
+        assertTrue(lote > individual, "La inserción en lote debería superar a la individual");
+    }
+
+    private void insertarIndividual(List<TransaccionRequestDTO> requests) {
+        requests.forEach(service::crearTransaccion);
+    }
+
+    private void insertarEnLotes(List<TransaccionRequestDTO> requests) {
+        for (int desde = 0; desde < requests.size(); desde += TAMANO_LOTE) {
+            List<TransaccionRequestDTO> lote = requests.subList(desde, Math.min(desde + TAMANO_LOTE, requests.size()));
+            assertEquals(lote.size(), loteService.crearLote(lote).getExitosas());
+        }
+    }
+
+    private long medir(Runnable insercion) {
+        long inicio = System.nanoTime();
+        insercion.run();
+        return TRANSACCIONES * 1_000_000_000L / (System.nanoTime() - inicio);
+    }
+
+    private static List<TransaccionRequestDTO> requests(int desde, int cantidad) {
+        List<TransaccionRequestDTO> requests = new ArrayList<>(cantidad);
+        for (int i = desde; i < desde + cantidad; i++) {
+            requests.add(TransaccionRequestDTO.builder()
+                    .nombreTenpista("Cliente " + (i % CLIENTES))
+                    .numeroTransaccion(i + 1)
+                    .montoPesos(1000 + i)
+                    .giroComercio("Comercio " + (i % 20))
+                    .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i))
+                    .build());
+        }
+        return requests;
+    }
+
+    private void limpiar() {
+        jdbcTemplate.update("DELETE FROM transacciones");
+        jdbcTemplate.update("DELETE FROM clientes");
+    }
+}
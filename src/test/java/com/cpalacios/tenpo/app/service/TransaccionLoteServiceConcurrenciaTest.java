@@ -0,0 +1,104 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+/**
+ * Verifica el registro de lotes cuando otra instancia registra el mismo
+ * número de transacción sin que el índice en memoria local lo sepa.
+ *
+ * <p>
+ * Las pruebas no se ejecutan dentro de la transacción de
+ * {@link DataJpaTest}: cada llamada al servicio confirma o revierte su propia
+ * transacción, como ocurre en producción.
+ * </p>
+ */
+@DataJpaTest(properties = "transacciones.numeros.indice-memoria.habilitado=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ TransaccionLoteService.class, ClienteService.class, TransaccionMapper.class, TransaccionTrigramIndex.class,
+        TransaccionNumeroIndex.class, ValidationAutoConfiguration.class })
+class TransaccionLoteServiceConcurrenciaTest {
+
+    @Autowired
+    private TransaccionLoteService service;
+
+    @Autowired
+    private TransaccionNumeroIndex indiceNumeros;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private TransaccionCambioRepository cambioRepository;
+
+    @AfterEach
+    void limpiar() {
+        cambioRepository.deleteAll();
+        transaccionRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void crearLote_NumeroRegistradoPorOtraInstancia_DeberiaRechazarSoloEseElemento() {
+        indiceNumeros.construir();
+        // Registrado después de construir el índice, como lo haría otra instancia
+        ClienteEntity otro = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Otra Instancia").build());
+        transaccionRepository.save(TransaccionEntity.builder()
+                .numeroTransaccion(20)
+                .montoPesos(500)
+                .giroComercio("Farmacia")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .cliente(otro)
+                .build());
+
+        TransaccionLoteResponseDTO respuesta = service.crearLote(List.of(
+                request("Ana", 21),
+                request("Ana", 20),
+                request("Ana", 22)));
+
+        assertEquals(2, respuesta.getExitosas());
+        assertTrue(respuesta.getResultados().get(0).isExitosa());
+        assertEquals("Ya existe una transacción con el número: 20", respuesta.getResultados().get(1).getError());
+        assertTrue(respuesta.getResultados().get(2).isExitosa());
+
+        // El intento revertido no deja cupos reservados
+        ClienteEntity ana = clienteRepository.findByNombreTenpistaIgnoreCase("Ana").orElseThrow();
+        assertEquals(2, ana.getTotalTransacciones());
+        assertEquals(2, transaccionRepository.countByCliente_IdCliente(ana.getIdCliente()));
+    }
+
+    private static TransaccionRequestDTO request(String nombre, int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista(nombre)
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResponseDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionLoteResultadoDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true" })
+@Import({ TransaccionLoteService.class, ClienteService.class, TransaccionMapper.class, TransaccionTrigramIndex.class,
+        TransaccionNumeroIndex.class, ValidationAutoConfiguration.class })
+class TransaccionLoteServiceTest {
+
+    @Autowired
+    private TransaccionLoteService service;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void crearLote_DeberiaInformarElResultadoDeCadaElemento() {
+        ClienteEntity existente = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Ana").build());
+        transaccionRepository.save(TransaccionEntity.builder()
+                .numeroTransaccion(10)
+                .montoPesos(500)
+                .giroComercio("Farmacia")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .cliente(existente)
+                .build());
+
+        List<TransaccionRequestDTO> lote = List.of(
+                request("ANA", 1),
+                request("Nuevo Cliente", 2),
+                request("", 3),
+                request("ana", 1),
+                request("Otro", 10));
+
+        TransaccionLoteResponseDTO respuesta = service.crearLote(lote);
+
+        assertEquals(5, respuesta.getTotal());
+        assertEquals(2, respuesta.getExitosas());
+        assertEquals(3, respuesta.getFallidas());
+
+        List<TransaccionLoteResultadoDTO> resultados = respuesta.getResultados();
+        assertTrue(resultados.get(0).isExitosa());
+        assertEquals("Ana", resultados.get(0).getTransaccion().getNombreTenpista());
+        assertTrue(resultados.get(1).isExitosa());
+        assertNotNull(resultados.get(1).getTransaccion().getIdTransaccion());
+        assertTrue(resultados.get(2).getError().contains("nombre del tenpista"));
+        assertTrue(resultados.get(3).getError().contains("repetido"));
+        assertTrue(resultados.get(4).getError().contains("Ya existe"));
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndice());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(1, clienteRepository.findById(existente.getIdCliente()).orElseThrow().getTotalTransacciones());
+        assertEquals(1, clienteRepository.findByNombreTenpistaIgnoreCase("Nuevo Cliente").orElseThrow()
+                .getTotalTransacciones());
+        assertTrue(clienteRepository.findByNombreTenpistaIgnoreCase("Otro").isEmpty());
+    }
+
+    @Test
+    void crearLote_DeberiaRechazarLoQueSuperaElMaximoDelCliente() {
+        List<TransaccionRequestDTO> lote = new ArrayList<>();
+        for (int i = 1; i <= TransaccionService.MAX_TRANSACCIONES + 3; i++) {
+            lote.add(request("Lleno", i));
+        }
+
+        TransaccionLoteResponseDTO respuesta = service.crearLote(lote);
+
+        assertEquals(TransaccionService.MAX_TRANSACCIONES, respuesta.getExitosas());
+        assertEquals(3, respuesta.getFallidas());
+        assertTrue(respuesta.getResultados().get(TransaccionService.MAX_TRANSACCIONES).getError().contains("máximo"));
+        assertEquals(TransaccionService.MAX_TRANSACCIONES,
+                transaccionRepository.countByCliente_IdCliente(
+                        clienteRepository.findByNombreTenpistaIgnoreCase("Lleno").orElseThrow().getIdCliente()));
+    }
+
+    @Test
+    void crearLote_DeberiaUsarUnaCantidadAcotadaDeSentencias() {
+        List<TransaccionRequestDTO> lote = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            lote.add(request("Cliente " + (i % 4), i));
+        }
+
+        statistics.clear();
+        service.crearLote(lote);
+        entityManager.flush();
+
+        // Sin lotes JDBC serían más de 200 sentencias (una por INSERT)
+        assertTrue(statistics.getPrepareStatementCount() <= 20,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+        assertEquals(200, transaccionRepository.count());
+    }
+
+    @Test
+    void crearLote_Vacio_DeberiaLanzarBusinessException() {
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.crearLote(List.of()));
+        assertEquals("El lote de transacciones no puede estar vacío", ex.getMessage());
+    }
+
+    private static TransaccionRequestDTO request(String nombre, int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista(nombre)
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
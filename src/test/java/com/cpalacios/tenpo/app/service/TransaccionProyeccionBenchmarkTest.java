@@ -0,0 +1,136 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+
+/**
+ * Benchmark de integración que compara la lectura mediante entidades JPA
+ * contra la lectura mediante proyecciones {@code TransaccionResumen}.
+ *
+ * <p>
+ * Mide bytes asignados por fila (con {@code ThreadMXBean}) y filas por
+ * segundo para ambas estrategias. Se ejecuta solo a pedido:
+ * </p>
+ *
+ * <pre>
+ * mvn test -Dtest=TransaccionProyeccionBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@DataJpaTest
+@Import(TransaccionMapper.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransaccionProyeccionBenchmarkTest {
+
+    private static final int FILAS = 20_000;
+    private static final int CLIENTES = 500;
+    private static final int CALENTAMIENTO = 5;
+    private static final int MEDICIONES = 20;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private TransaccionMapper mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate soloLectura;
+
+    @BeforeEach
+    void setUp() {
+        soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+
+        for (int i = 0; i < CLIENTES; i++) {
+            jdbcTemplate.update("INSERT INTO clientes (id_cliente, nombre_tenpista, nombre_normalizado) VALUES (?, ?, ?)",
+                    i + 1, "Cliente " + i, "cliente " + i);
+        }
+        Timestamp fecha = Timestamp.valueOf(LocalDateTime.of(2026, 1, 1, 0, 0));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transacciones (id_transaccion, numero_transaccion, monto_pesos, giro_comercio, fecha_transaccion, id_cliente) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                IntStream.range(0, FILAS)
+                        .mapToObj(i -> new Object[] { i + 1, i + 1, 1000 + i, "Comercio " + (i % 50), fecha,
+                                (i % CLIENTES) + 1 })
+                        .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transacciones");
+        jdbcTemplate.update("DELETE FROM clientes");
+    }
+
+    @Test
+    void compararEntidadesContraProyecciones() {
+        Resultado entidades = medir("entidades", () -> transaccionRepository.findAll().stream()
+                .map(mapper::toResponse).collect(Collectors.toList()));
+        Resultado proyecciones = medir("proyecciones", () -> transaccionRepository.listarResumen().stream()
+                .map(mapper::toResponse).collect(Collectors.toList()));
+
+        System.out.println(entidades);
+        System.out.println(proyecciones);
+
+        assertTrue(proyecciones.bytesPorFila < entidades.bytesPorFila,
+                "La proyección debería asignar menos memoria por fila que la carga de entidades");
+    }
+
+    private Resultado medir(String nombre, Supplier<List<TransaccionResponseDTO>> lectura) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            soloLectura.execute(estado -> lectura.get());
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().getId();
+        long bytesIniciales = threads.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < MEDICIONES; i++) {
+            List<TransaccionResponseDTO> filas = soloLectura.execute(estado -> lectura.get());
+            assertEquals(FILAS, filas.size());
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threads.getThreadAllocatedBytes(hilo) - bytesIniciales;
+        long filasLeidas = (long) FILAS * MEDICIONES;
+        return new Resultado(nombre, bytes / filasLeidas, filasLeidas * 1_000_000_000L / nanos);
+    }
+
+    private record Resultado(String nombre, long bytesPorFila, long filasPorSegundo) {
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %8d bytes/fila %12d filas/s", nombre, bytesPorFila, filasPorSegundo);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.cpalacios.tenpo.app.cache.CacheRespuestas;
+import com.cpalacios.tenpo.app.cache.VersionTransacciones;
+import com.cpalacios.tenpo.app.config.BusquedaConfig;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que los endpoints de lectura ejecuten una cantidad constante de
+ * sentencias SQL, independiente de la cantidad de clientes distintos
+ * (detecta regresiones N+1 sobre la asociación LAZY {@code cliente}).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ TransaccionQueryService.class, TransaccionMapper.class, TransaccionTrigramIndex.class,
+        CacheRespuestas.class, VersionTransacciones.class, BusquedaConfig.class, JacksonAutoConfiguration.class })
+class TransaccionQueryServiceQueryCountTest {
+
+    private static final int CLIENTES = 20;
+    private static final long MAXIMO_SENTENCIAS_POR_LISTADO = 1;
+
+    @Autowired
+    private TransaccionQueryService service;
+
+    @Autowired
+    private VersionTransacciones versionTransacciones;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CLIENTES; i++) {
+            ClienteEntity cliente = clienteRepository.save(ClienteEntity.builder()
+                    .nombreTenpista("Cliente " + i)
+                    .build());
+            transaccionRepository.save(TransaccionEntity.builder()
+                    .numeroTransaccion(i + 1)
+                    .montoPesos(1000 + i)
+                    .giroComercio("Comercio " + i)
+                    .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i))
+                    .cliente(cliente)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listarTodas_DeberiaEjecutarUnaCantidadConstanteDeSentencias() {
+        assertEquals(CLIENTES, service.listarTodas().size());
+        assertSentenciasAcotadas();
+    }
+
+    @Test
+    void buscarPorFiltro_DeberiaEjecutarUnaCantidadConstanteDeSentencias() {
+        assertEquals(CLIENTES, service.buscarPorFiltro("Comercio").size());
+        assertSentenciasAcotadas();
+    }
+
+    @Test
+    void listarPagina_DeberiaEjecutarUnaCantidadConstanteDeSentencias() {
+        assertEquals(CLIENTES, service.listarPagina(null, CLIENTES).getTransacciones().size());
+        assertSentenciasAcotadas();
+    }
+
+    @Test
+    void listarTodasVersionada_SinCambios_NoDeberiaVolverAConsultarLaBaseDeDatos() {
+        // Versión nueva, para no reutilizar respuestas de otras pruebas
+        versionTransacciones.alConfirmar(null);
+        RespuestaVersionada primera = service.listarTodasVersionada();
+        assertSentenciasAcotadas();
+        assertTrue(new String(primera.json(), StandardCharsets.UTF_8).contains("\"nombreTenpista\":\"Cliente 0\""));
+
+        statistics.clear();
+        RespuestaVersionada segunda = service.listarTodasVersionada();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(primera.etag(), segunda.etag());
+        assertArrayEquals(primera.json(), segunda.json());
+
+        versionTransacciones.alConfirmar(null);
+        RespuestaVersionada tercera = service.listarTodasVersionada();
+
+        assertNotEquals(primera.etag(), tercera.etag());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void buscarPorFiltroVersionada_MismoFiltroNormalizado_DeberiaConsultarUnaSolaVez() {
+        versionTransacciones.alConfirmar(null);
+
+        service.buscarPorFiltroVersionada("Comercio");
+        service.buscarPorFiltroVersionada(" Comercio ");
+        service.buscarPorFiltroVersionada("Cliente 1");
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void assertSentenciasAcotadas() {
+        long sentencias = statistics.getPrepareStatementCount();
+        assertTrue(sentencias <= MAXIMO_SENTENCIAS_POR_LISTADO,
+                "Se ejecutaron " + sentencias + " sentencias SQL para " + CLIENTES + " clientes");
+    }
+}
@@ -4,9 +4,16 @@ package com.cpalacios.tenpo.app.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,14 +21,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import com.cpalacios.tenpo.app.cache.CacheRespuestas;
+import com.cpalacios.tenpo.app.cache.VersionTransacciones;
+import com.cpalacios.tenpo.app.concurrencia.EjecucionCompartida;
+import com.cpalacios.tenpo.app.dto.TransaccionBusquedaDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionPaginaDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
-import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
-import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
+import com.cpalacios.tenpo.app.persistence.criteria.TransaccionCriterio;
+import com.cpalacios.tenpo.app.persistence.projection.TransaccionResumen;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.persistence.replica.ContextoReplica;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
 class TransaccionQueryServiceTest {
@@ -32,41 +53,49 @@ class TransaccionQueryServiceTest {
     @Mock
     private TransaccionMapper mapper;
 
+    @Mock
+    private TransaccionTrigramIndex indiceTexto;
+
+    @Mock
+    private VersionTransacciones versionTransacciones;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private CacheRespuestas cacheRespuestas = new CacheRespuestas(new ObjectMapper().findAndRegisterModules(),
+            DataSize.ofMegabytes(1));
+
+    @Spy
+    private EjecucionCompartida<String, List<TransaccionResumen>> busquedasCompartidas = new EjecucionCompartida<>(
+            "transacciones.busqueda", Duration.ofSeconds(5));
+
     @InjectMocks
     private TransaccionQueryService service;
 
-    private TransaccionEntity transaccionEntity;
+    private TransaccionResumen transaccionResumen;
     private TransaccionResponseDTO transaccionDTO;
 
     @BeforeEach
     void setUp() {
-        ClienteEntity cliente = ClienteEntity.builder()
-                .idCliente(1L)
-                .nombreTenpista("Carlos")
-                .build();
-
-        transaccionEntity = TransaccionEntity.builder()
-                .idTransaccion(1L)
-                .numeroTransaccion(100)
-                .montoPesos(5000)
-                .giroComercio("Supermercado")
-                .fechaTransaccion(LocalDateTime.now())
-                .cliente(cliente)
-                .build();
+        transaccionResumen = new TransaccionResumen(1L, 100, "Carlos", 5000, LocalDateTime.now(), "Supermercado");
 
         transaccionDTO = TransaccionResponseDTO.builder()
                 .idTransaccion(1L)
                 .nombreTenpista("Carlos")
                 .montoPesos(5000)
-                .fechaTransaccion(transaccionEntity.getFechaTransaccion())
+                .fechaTransaccion(transaccionResumen.fechaTransaccion())
                 .build();
+
+        ReflectionTestUtils.setField(service, "tamanoPaginaDefecto", 50);
+        ReflectionTestUtils.setField(service, "tamanoPaginaMaximo", 500);
     }
 
     @Test
     void listarTodas_DeberiaRetornarListaDTO() {
         // Mock repository
-        when(transaccionRepository.findAll()).thenReturn(Arrays.asList(transaccionEntity));
-        when(mapper.toResponse(transaccionEntity)).thenReturn(transaccionDTO);
+        when(transaccionRepository.listarResumen()).thenReturn(Arrays.asList(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
 
         List<TransaccionResponseDTO> result = service.listarTodas();
 
@@ -74,13 +103,13 @@ class TransaccionQueryServiceTest {
         assertEquals(1, result.size());
         assertEquals("Carlos", result.get(0).getNombreTenpista());
 
-        verify(transaccionRepository, times(1)).findAll();
-        verify(mapper, times(1)).toResponse(transaccionEntity);
+        verify(transaccionRepository, times(1)).listarResumen();
+        verify(mapper, times(1)).toResponse(transaccionResumen);
     }
 
     @Test
     void listarTodas_CuandoRepoLanzaError_DeberiaLanzarBusinessException() {
-        when(transaccionRepository.findAll()).thenThrow(new RuntimeException("DB error"));
+        when(transaccionRepository.listarResumen()).thenThrow(new RuntimeException("DB error"));
 
         BusinessException ex = assertThrows(BusinessException.class, () -> service.listarTodas());
         assertEquals("No se logro consultar las transacciones", ex.getMessage());
@@ -90,8 +119,8 @@ class TransaccionQueryServiceTest {
     void buscarPorFiltro_DeberiaRetornarListaDTO() {
         String filtro = "Carlos";
 
-        when(transaccionRepository.buscarPorFiltro(filtro)).thenReturn(Arrays.asList(transaccionEntity));
-        when(mapper.toResponse(transaccionEntity)).thenReturn(transaccionDTO);
+        when(transaccionRepository.buscarPorTexto(filtro)).thenReturn(Arrays.asList(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
 
         List<TransaccionResponseDTO> result = service.buscarPorFiltro(filtro);
 
@@ -99,16 +128,241 @@ class TransaccionQueryServiceTest {
         assertEquals(1, result.size());
         assertEquals("Carlos", result.get(0).getNombreTenpista());
 
-        verify(transaccionRepository, times(1)).buscarPorFiltro(filtro);
-        verify(mapper, times(1)).toResponse(transaccionEntity);
+        verify(transaccionRepository, times(1)).buscarPorTexto(filtro);
+        verify(mapper, times(1)).toResponse(transaccionResumen);
+    }
+
+    @Test
+    void listarTodasVersionada_ReplicaConRetraso_NoDeberiaGuardarLaRespuestaAnteriorAlCambio() {
+        // La réplica aún no tiene la transacción que ya avanzó la versión
+        when(transaccionRepository.listarResumen()).thenAnswer(invocacion ->
+                ContextoReplica.primarioForzado() ? List.of(transaccionResumen) : List.of());
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+        when(versionTransacciones.actual()).thenReturn(7L);
+
+        String primera = new String(service.listarTodasVersionada().json());
+        String segunda = new String(service.listarTodasVersionada().json());
+
+        assertTrue(primera.contains("\"idTransaccion\":1"), primera);
+        assertEquals(primera, segunda);
+        verify(transaccionRepository, times(1)).listarResumen();
+        assertFalse(ContextoReplica.primarioForzado());
+    }
+
+    @Test
+    void buscarPorFiltroVersionada_ReplicaConRetraso_DeberiaLlenarLaCacheDesdeElPrimario() {
+        when(transaccionRepository.buscarPorTexto("Carlos")).thenAnswer(invocacion ->
+                ContextoReplica.primarioForzado() ? List.of(transaccionResumen) : List.of());
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+        when(versionTransacciones.actual()).thenReturn(7L);
+
+        String json = new String(service.buscarPorFiltroVersionada("Carlos").json());
+
+        assertTrue(json.contains("\"idTransaccion\":1"), json);
+    }
+
+    @Test
+    void buscarPorFiltro_ConIndiceEnMemoria_DeberiaConsultarSoloLosIdsEncontrados() {
+        TransaccionResumen desactualizada = new TransaccionResumen(2L, 101, "Pedro", 100, LocalDateTime.now(), "Farmacia");
+        when(indiceTexto.buscar("carl")).thenReturn(Optional.of(new long[] { 1L, 2L }));
+        when(transaccionRepository.buscarResumenPorIds(List.of(1L, 2L)))
+                .thenReturn(List.of(transaccionResumen, desactualizada));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        List<TransaccionResponseDTO> result = service.buscarPorFiltro("carl");
+
+        assertEquals(1, result.size());
+        verify(transaccionRepository, never()).buscarPorTexto(anyString());
+    }
+
+    @Test
+    void buscarPorFiltro_VariosBloquesDeIds_DeberiaConsultarlosEnUnaSolaTransaccionDeLectura() {
+        long[] ids = new long[1500];
+        Arrays.setAll(ids, i -> i + 1);
+        when(indiceTexto.buscar("carl")).thenReturn(Optional.of(ids));
+        when(transaccionRepository.buscarResumenPorIds(anyList())).thenReturn(List.of(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        assertEquals(2, service.buscarPorFiltro("carl").size());
+
+        verify(transaccionRepository, times(2)).buscarResumenPorIds(anyList());
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void buscarPorFiltro_MismoFiltroSimultaneo_DeberiaConsultarUnaSolaVez() throws Exception {
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(transaccionRepository.buscarPorTexto("Carlos")).thenAnswer(invocacion -> {
+            consultando.countDown();
+            liberar.await();
+            return List.of(transaccionResumen);
+        });
+        when(mapper.toResponse(transaccionResumen)).thenAnswer(invocacion -> TransaccionResponseDTO.builder()
+                .idTransaccion(1L)
+                .nombreTenpista("Carlos")
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<TransaccionResponseDTO>> primera = executor.submit(() -> service.buscarPorFiltro("Carlos"));
+            assertTrue(consultando.await(5, TimeUnit.SECONDS));
+            Future<List<TransaccionResponseDTO>> segunda = executor.submit(() -> service.buscarPorFiltro(" Carlos "));
+            while (busquedasCompartidas.cantidadCompartidas() == 0) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+
+            List<TransaccionResponseDTO> resultadoPrimera = primera.get(5, TimeUnit.SECONDS);
+            List<TransaccionResponseDTO> resultadoSegunda = segunda.get(5, TimeUnit.SECONDS);
+
+            assertEquals(resultadoPrimera, resultadoSegunda);
+            // Cada solicitud recibe sus propios DTOs
+            assertNotSame(resultadoPrimera.get(0), resultadoSegunda.get(0));
+            verify(transaccionRepository, times(1)).buscarPorTexto("Carlos");
+            // Solo la primera solicitud abre una transacción
+            verify(transactionManager, times(1)).getTransaction(any());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
     }
 
     @Test
     void buscarPorFiltro_CuandoRepoLanzaError_DeberiaLanzarBusinessException() {
         String filtro = "Carlos";
-        when(transaccionRepository.buscarPorFiltro(filtro)).thenThrow(new RuntimeException("DB error"));
+        when(transaccionRepository.buscarPorTexto(filtro)).thenThrow(new RuntimeException("DB error"));
 
         BusinessException ex = assertThrows(BusinessException.class, () -> service.buscarPorFiltro(filtro));
         assertEquals("No se logro consultar las transacciones", ex.getMessage());
     }
+
+    @Test
+    void buscarPorFiltro_Numerico_DeberiaBuscarPorNumeroOMontoExacto() {
+        when(transaccionRepository.buscarPorNumeroOMonto(5000)).thenReturn(List.of(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        List<TransaccionResponseDTO> result = service.buscarPorFiltro(" 5000 ");
+
+        assertEquals(1, result.size());
+        verify(transaccionRepository, never()).buscarPorTexto(anyString());
+    }
+
+    @Test
+    void buscarPorFiltro_Fecha_DeberiaBuscarPorRangoDelDia() {
+        TransaccionCriterio esperado = TransaccionCriterio.builder()
+                .fechaDesde(LocalDateTime.of(2026, 2, 5, 0, 0))
+                .fechaHasta(LocalDateTime.of(2026, 2, 6, 0, 0))
+                .build();
+        when(transaccionRepository.buscarPorCriterio(esperado)).thenReturn(List.of(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        assertEquals(1, service.buscarPorFiltro("2026-02-05").size());
+        assertEquals(1, service.buscarPorFiltro("05/02/2026").size());
+        verify(transaccionRepository, times(2)).buscarPorCriterio(esperado);
+    }
+
+    @Test
+    void buscarPorFiltro_FechaHora_DeberiaBuscarPorRangoDelMinuto() {
+        TransaccionCriterio esperado = TransaccionCriterio.builder()
+                .fechaDesde(LocalDateTime.of(2026, 2, 5, 10, 30))
+                .fechaHasta(LocalDateTime.of(2026, 2, 5, 10, 31))
+                .build();
+        when(transaccionRepository.buscarPorCriterio(esperado)).thenReturn(List.of());
+
+        assertTrue(service.buscarPorFiltro("2026-02-05T10:30:45").isEmpty());
+        verify(transaccionRepository).buscarPorCriterio(esperado);
+    }
+
+    @Test
+    void buscar_DeberiaAplicarCriteriosTipados() {
+        TransaccionBusquedaDTO busqueda = TransaccionBusquedaDTO.builder().montoMinimo(1000).montoMaximo(9000).build();
+        TransaccionCriterio criterio = TransaccionCriterio.builder().montoMinimo(1000).montoMaximo(9000).build();
+        when(mapper.toCriterio(busqueda)).thenReturn(criterio);
+        when(transaccionRepository.buscarPorCriterio(criterio)).thenReturn(List.of(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        assertEquals(1, service.buscar(busqueda).size());
+    }
+
+    @Test
+    void buscar_SinCriterios_DeberiaLanzarBusinessException() {
+        TransaccionBusquedaDTO busqueda = new TransaccionBusquedaDTO();
+        when(mapper.toCriterio(busqueda)).thenReturn(TransaccionCriterio.builder().build());
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.buscar(busqueda));
+        assertEquals("Debe indicar al menos un criterio de búsqueda", ex.getMessage());
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    @Test
+    void buscar_RangoDeMontoInvertido_DeberiaLanzarBusinessException() {
+        TransaccionBusquedaDTO busqueda = new TransaccionBusquedaDTO();
+        when(mapper.toCriterio(busqueda))
+                .thenReturn(TransaccionCriterio.builder().montoMinimo(9000).montoMaximo(1000).build());
+
+        assertThrows(BusinessException.class, () -> service.buscar(busqueda));
+    }
+
+    @Test
+    void listarPagina_SinCursor_DeberiaRetornarPrimeraPaginaSinSiguiente() {
+        when(transaccionRepository.buscarPrimeraPagina(Limit.of(11))).thenReturn(List.of(transaccionResumen));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        TransaccionPaginaDTO pagina = service.listarPagina(null, 10);
+
+        assertEquals(1, pagina.getTransacciones().size());
+        assertFalse(pagina.isTieneMas());
+        assertNull(pagina.getSiguienteCursor());
+        assertEquals(10, pagina.getTamano());
+    }
+
+    @Test
+    void listarPagina_ConMasFilas_DeberiaRetornarCursorDeLaUltimaFila() {
+        TransaccionResumen siguiente = new TransaccionResumen(2L, 101, "Carlos", 7000,
+                transaccionResumen.fechaTransaccion().plusMinutes(1), "Farmacia");
+        when(transaccionRepository.buscarPrimeraPagina(Limit.of(2)))
+                .thenReturn(Arrays.asList(transaccionResumen, siguiente));
+        when(mapper.toResponse(transaccionResumen)).thenReturn(transaccionDTO);
+
+        TransaccionPaginaDTO pagina = service.listarPagina(null, 1);
+
+        assertEquals(1, pagina.getTransacciones().size());
+        assertTrue(pagina.isTieneMas());
+        TransaccionCursor cursor = TransaccionCursor.decodificar(pagina.getSiguienteCursor());
+        assertEquals(1L, cursor.getIdTransaccion());
+        assertEquals(transaccionResumen.fechaTransaccion(), cursor.getFechaTransaccion());
+    }
+
+    @Test
+    void listarPagina_ConCursor_DeberiaConsultarDesdeLaPosicionDelCursor() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 2, 5, 10, 30);
+        String cursor = new TransaccionCursor(fecha, 7L).codificar();
+        when(transaccionRepository.buscarPaginaDespuesDe(fecha, 7L, Limit.of(51))).thenReturn(List.of());
+
+        TransaccionPaginaDTO pagina = service.listarPagina(cursor, null);
+
+        assertTrue(pagina.getTransacciones().isEmpty());
+        assertEquals(50, pagina.getTamano());
+        verify(transaccionRepository).buscarPaginaDespuesDe(fecha, 7L, Limit.of(51));
+    }
+
+    @Test
+    void listarPagina_TamanoMayorAlMaximo_DeberiaAjustarseAlMaximo() {
+        when(transaccionRepository.buscarPrimeraPagina(Limit.of(501))).thenReturn(List.of());
+
+        TransaccionPaginaDTO pagina = service.listarPagina(null, 10_000);
+
+        assertEquals(500, pagina.getTamano());
+    }
+
+    @Test
+    void listarPagina_CursorInvalido_DeberiaLanzarBusinessException() {
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.listarPagina("no-es-un-cursor", 10));
+        assertEquals("El cursor de paginación no es válido", ex.getMessage());
+    }
+
+    @Test
+    void listarPagina_TamanoInvalido_DeberiaLanzarBusinessException() {
+        assertThrows(BusinessException.class, () -> service.listarPagina(null, 0));
+    }
 }
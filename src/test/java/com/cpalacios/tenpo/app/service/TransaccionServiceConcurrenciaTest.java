@@ -0,0 +1,169 @@
+package com.cpalacios.tenpo.app.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
+import com.cpalacios.tenpo.app.exception.BusinessException;
+import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
+import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
+
+/**
+ * Verifica que el límite de transacciones por cliente se respete de forma
+ * exacta cuando muchas solicitudes concurrentes apuntan al mismo cliente.
+ *
+ * <p>
+ * Las pruebas no se ejecutan dentro de la transacción de
+ * {@link DataJpaTest}: cada llamada al servicio confirma su propia
+ * transacción, como ocurre en producción.
+ * </p>
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ TransaccionService.class, TransaccionDeleteService.class, ClienteService.class, TransaccionMapper.class,
+        TransaccionTrigramIndex.class, TransaccionNumeroIndex.class })
+class TransaccionServiceConcurrenciaTest {
+
+    private static final int HILOS = 32;
+    private static final int INTENTOS_POR_HILO = 8;
+
+    @Autowired
+    private TransaccionService service;
+
+    @Autowired
+    private TransaccionDeleteService deleteService;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @AfterEach
+    void limpiar() {
+        transaccionRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void crearTransaccion_Concurrente_NoDeberiaSuperarElMaximoPorCliente() throws Exception {
+        ClienteEntity cliente = clienteRepository.save(ClienteEntity.builder().nombreTenpista("Concurrente").build());
+
+        AtomicInteger numero = new AtomicInteger();
+        AtomicInteger exitos = new AtomicInteger();
+        AtomicInteger rechazos = new AtomicInteger();
+        CountDownLatch partida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                tareas.add(executor.submit(() -> {
+                    partida.await();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        try {
+                            service.crearTransaccion(request("Concurrente", numero.incrementAndGet()));
+                            exitos.incrementAndGet();
+                        } catch (BusinessException e) {
+                            assertTrue(e.getMessage().contains("máximo"), e.getMessage());
+                            rechazos.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            partida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(TransaccionService.MAX_TRANSACCIONES, exitos.get());
+        assertEquals(HILOS * INTENTOS_POR_HILO - TransaccionService.MAX_TRANSACCIONES, rechazos.get());
+        assertEquals(TransaccionService.MAX_TRANSACCIONES,
+                transaccionRepository.countByCliente_IdCliente(cliente.getIdCliente()));
+        assertEquals(TransaccionService.MAX_TRANSACCIONES,
+                clienteRepository.findById(cliente.getIdCliente()).orElseThrow().getTotalTransacciones());
+    }
+
+    @Test
+    void crearTransaccion_MismoNumeroConcurrente_DeberiaRegistrarSoloUna() throws Exception {
+        AtomicInteger exitos = new AtomicInteger();
+        CountDownLatch partida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                String nombre = "Cliente " + h;
+                tareas.add(executor.submit(() -> {
+                    partida.await();
+                    try {
+                        service.crearTransaccion(request(nombre, 777));
+                        exitos.incrementAndGet();
+                    } catch (BusinessException e) {
+                        assertTrue(e.getMessage().contains("Ya existe"), e.getMessage());
+                    }
+                    return null;
+                }));
+            }
+            partida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, exitos.get());
+        assertEquals(1, transaccionRepository.count());
+        assertEquals(1, clienteRepository.findAll().stream().mapToInt(ClienteEntity::getTotalTransacciones).sum());
+    }
+
+    @Test
+    void eliminarTransaccion_DeberiaLiberarUnCupo() {
+        TransaccionResponseDTO ultima = null;
+        for (int i = 1; i <= TransaccionService.MAX_TRANSACCIONES; i++) {
+            ultima = service.crearTransaccion(request("Lleno", i));
+        }
+        assertThrows(BusinessException.class, () -> service.crearTransaccion(request("Lleno", 1_000)));
+
+        deleteService.eliminarTransaccion(ultima.getIdTransaccion());
+
+        assertNotNull(service.crearTransaccion(request("Lleno", 1_001)));
+        assertEquals(TransaccionService.MAX_TRANSACCIONES,
+                clienteRepository.findByNombreTenpistaIgnoreCase("Lleno").orElseThrow().getTotalTransacciones());
+    }
+
+    private static TransaccionRequestDTO request(String nombre, int numero) {
+        return TransaccionRequestDTO.builder()
+                .nombreTenpista(nombre)
+                .numeroTransaccion(numero)
+                .montoPesos(1000)
+                .giroComercio("Comercio")
+                .fechaTransaccion(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package com.cpalacios.tenpo.app.service;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
@@ -10,12 +13,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.cpalacios.tenpo.app.dto.TransaccionRequestDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
+import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 @ExtendWith(MockitoExtension.class)
 class TransaccionServiceTest {
@@ -23,21 +31,38 @@ class TransaccionServiceTest {
     @Mock
     ClienteRepository clienteRepository;
 
+    @Mock
+    ClienteService clienteService;
+
     @Mock
     TransaccionRepository transaccionRepository;
 
+    @Mock
+    TransaccionCambioRepository cambioRepository;
+
     @Mock
     TransaccionMapper mapper;
 
+    @Mock
+    TransaccionTrigramIndex indiceTexto;
+
+    @Mock
+    TransaccionNumeroIndex indiceNumeros;
+
+    @Mock
+    ApplicationEventPublisher eventos;
+
     @InjectMocks
     TransaccionService service;
 
     @Test
     void debeLanzarErrorSiSupera100Transacciones() {
 
-        when(transaccionRepository
-            .count())
-            .thenReturn(100L);
+        ClienteEntity cliente = ClienteEntity.builder().idCliente(1L).nombreTenpista("JUAN").build();
+        when(clienteService.obtenerOCrear("JUAN")).thenReturn(cliente);
+        when(clienteService.revalidar("JUAN")).thenReturn(cliente);
+        when(clienteRepository.incrementarTotalTransacciones(1L, TransaccionService.MAX_TRANSACCIONES))
+            .thenReturn(0);
 
         TransaccionRequestDTO dto = TransaccionRequestDTO.builder()
                 .nombreTenpista("JUAN")
@@ -51,5 +76,8 @@ class TransaccionServiceTest {
                 BusinessException.class,
                 () -> service.crearTransaccion(dto)
         );
+        verify(transaccionRepository, never()).saveAndFlush(any());
+        verify(transaccionRepository, never()).count();
+        verify(clienteService).revalidar("JUAN");
     }
 }
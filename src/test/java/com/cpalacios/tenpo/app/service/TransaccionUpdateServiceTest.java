@@ -4,34 +4,55 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import com.cpalacios.tenpo.app.dto.TransaccionUpdateDTO;
+import com.cpalacios.tenpo.app.dto.TransaccionEventoDTO;
 import com.cpalacios.tenpo.app.dto.TransaccionResponseDTO;
 import com.cpalacios.tenpo.app.exception.BusinessException;
 import com.cpalacios.tenpo.app.mapper.TransaccionMapper;
 import com.cpalacios.tenpo.app.persistence.entity.ClienteEntity;
 import com.cpalacios.tenpo.app.persistence.entity.TransaccionEntity;
 import com.cpalacios.tenpo.app.persistence.repository.ClienteRepository;
+import com.cpalacios.tenpo.app.persistence.repository.TransaccionCambioRepository;
 import com.cpalacios.tenpo.app.persistence.repository.TransaccionRepository;
+import com.cpalacios.tenpo.app.search.TransaccionNumeroIndex;
+import com.cpalacios.tenpo.app.search.TransaccionTrigramIndex;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 class TransaccionUpdateServiceTest {
 
     @Mock
     private TransaccionRepository transaccionRepository;
 
+    @Mock
+    private TransaccionCambioRepository cambioRepository;
+
     @Mock
     private ClienteRepository clienteRepository;
 
+    @Mock
+    private ClienteService clienteService;
+
     @Mock
     private TransaccionMapper mapper;
 
+    @Mock
+    private TransaccionTrigramIndex indiceTexto;
+
+    @Mock
+    private TransaccionNumeroIndex indiceNumeros;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
     @InjectMocks
     private TransaccionUpdateService service;
 
@@ -75,38 +96,86 @@ class TransaccionUpdateServiceTest {
                 .build();
 
         when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccionEntity));
-        when(clienteRepository.findByNombreTenpistaIgnoreCase("NuevoCliente")).thenReturn(Optional.of(clienteExistente));
+        when(clienteService.obtenerOCrear("NuevoCliente")).thenReturn(clienteExistente);
+        when(clienteRepository.incrementarTotalTransacciones(any(), anyInt())).thenReturn(1);
         when(transaccionRepository.save(any(TransaccionEntity.class))).thenReturn(transaccionEntity);
+        when(transaccionRepository.countByCliente_IdCliente(1L)).thenReturn(3L);
         when(mapper.toResponse(any(TransaccionEntity.class))).thenReturn(new TransaccionResponseDTO());
 
         TransaccionResponseDTO result = service.actualizarTransaccion(updateDTO);
 
         assertNotNull(result);
+        verify(clienteRepository, never()).delete(any());
         verify(transaccionRepository).findById(1L);
-        verify(clienteRepository).findByNombreTenpistaIgnoreCase("NuevoCliente");
+        verify(clienteService).obtenerOCrear("NuevoCliente");
         verify(clienteRepository, never()).save(any()); // no se crea un nuevo cliente
         assertEquals(clienteExistente, transaccionEntity.getCliente());
+        assertEquals("Original", clienteOriginal.getNombreTenpista()); // el cliente anterior no se renombra
+        verify(clienteRepository).incrementarTotalTransacciones(2L, TransaccionService.MAX_TRANSACCIONES);
+        verify(clienteRepository).decrementarTotalTransacciones(1L);
+        verify(cambioRepository).registrar(List.of(1L), false);
+        verify(eventos).publishEvent(TransaccionEventoDTO.actualizada(result));
     }
 
     @Test
-    void testActualizarTransaccion_ClienteNuevo() {
+    void testActualizarTransaccion_ClienteAnteriorSinTransacciones_DeberiaEliminarlo() {
+        ClienteEntity clienteExistente = ClienteEntity.builder()
+                .idCliente(2L)
+                .nombreTenpista("NuevoCliente")
+                .build();
+
         when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccionEntity));
-        when(clienteRepository.findByNombreTenpistaIgnoreCase("NuevoCliente")).thenReturn(Optional.empty());
+        when(clienteService.obtenerOCrear("NuevoCliente")).thenReturn(clienteExistente);
+        when(clienteRepository.incrementarTotalTransacciones(any(), anyInt())).thenReturn(1);
+        when(transaccionRepository.save(any(TransaccionEntity.class))).thenReturn(transaccionEntity);
+        when(transaccionRepository.countByCliente_IdCliente(1L)).thenReturn(0L);
+        when(mapper.toResponse(any(TransaccionEntity.class))).thenReturn(new TransaccionResponseDTO());
+
+        service.actualizarTransaccion(updateDTO);
 
-        // Simular guardar nuevo cliente
-        ClienteEntity nuevoCliente = ClienteEntity.builder()
-                .idCliente(3L)
+        verify(clienteRepository).delete(clienteOriginal);
+        verify(clienteService).invalidar("Original");
+    }
+
+    @Test
+    void testActualizarTransaccion_ClienteDestinoConMaximo() {
+        ClienteEntity clienteExistente = ClienteEntity.builder()
+                .idCliente(2L)
                 .nombreTenpista("NuevoCliente")
                 .build();
-        when(clienteRepository.save(any(ClienteEntity.class))).thenReturn(nuevoCliente);
+
+        when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccionEntity));
+        when(clienteService.obtenerOCrear("NuevoCliente")).thenReturn(clienteExistente);
+        when(clienteRepository.incrementarTotalTransacciones(2L, TransaccionService.MAX_TRANSACCIONES)).thenReturn(0);
+        when(clienteService.revalidar("NuevoCliente")).thenReturn(clienteExistente);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> service.actualizarTransaccion(updateDTO));
+
+        assertTrue(exception.getMessage().contains("máximo"));
+        verify(transaccionRepository, never()).save(any());
+        verify(clienteRepository, never()).decrementarTotalTransacciones(any());
+    }
+
+    @Test
+    void testActualizarTransaccion_MismoCliente() {
+        ClienteEntity mismoCliente = ClienteEntity.builder()
+                .idCliente(1L)
+                .nombreTenpista("Original")
+                .build();
+        updateDTO.setNombreTenpista("ORIGINAL");
+
+        when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccionEntity));
+        when(clienteService.obtenerOCrear("ORIGINAL")).thenReturn(mismoCliente);
         when(transaccionRepository.save(any(TransaccionEntity.class))).thenReturn(transaccionEntity);
         when(mapper.toResponse(any(TransaccionEntity.class))).thenReturn(new TransaccionResponseDTO());
 
         TransaccionResponseDTO result = service.actualizarTransaccion(updateDTO);
 
         assertNotNull(result);
-        verify(clienteRepository).save(any(ClienteEntity.class));
-        assertEquals("NuevoCliente", transaccionEntity.getCliente().getNombreTenpista());
+        verify(clienteRepository, never()).incrementarTotalTransacciones(any(), anyInt());
+        verify(clienteRepository, never()).decrementarTotalTransacciones(any());
+        verify(clienteRepository, never()).delete(any());
+        verify(indiceTexto).indexar(1L, "Original", "Comercio B");
     }
 
     @Test